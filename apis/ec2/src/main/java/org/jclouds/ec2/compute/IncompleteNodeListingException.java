@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.ec2.compute;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.jclouds.compute.domain.NodeMetadata;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+
+/**
+ * Thrown when nodes were looked up in several regions and some of them failed or did not answer. A node
+ * missing from {@link #getNodes()} may still exist in one of the {@link #getFailedRegions() failed regions}.
+ */
+public class IncompleteNodeListingException extends RuntimeException {
+
+   private final Set<? extends NodeMetadata> nodes;
+   private final Map<String, Throwable> failedRegions;
+
+   public IncompleteNodeListingException(Set<? extends NodeMetadata> nodes,
+         Map<String, ? extends Throwable> failedRegions) {
+      super(String.format("could not list nodes in regions %s", checkNotNull(failedRegions, "failedRegions")
+            .keySet()), Iterables.getFirst(failedRegions.values(), null));
+      this.nodes = ImmutableSet.copyOf(checkNotNull(nodes, "nodes"));
+      this.failedRegions = ImmutableMap.<String, Throwable> copyOf(failedRegions);
+   }
+
+   /**
+    * @return the nodes found in the regions that answered
+    */
+   public Set<? extends NodeMetadata> getNodes() {
+      return nodes;
+   }
+
+   /**
+    * @return the cause of the failure of each region that did not answer
+    */
+   public Map<String, Throwable> getFailedRegions() {
+      return failedRegions;
+   }
+}
@@ -28,7 +28,16 @@ import static com.google.common.collect.Multimaps.filterKeys;
 import static com.google.common.collect.Multimaps.index;
 import static com.google.common.collect.Multimaps.transformValues;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
@@ -42,6 +51,7 @@ import org.jclouds.compute.predicates.NodePredicates;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.ListNodesStrategy;
 import org.jclouds.ec2.EC2Api;
+import org.jclouds.ec2.compute.IncompleteNodeListingException;
 import org.jclouds.ec2.domain.Reservation;
 import org.jclouds.ec2.domain.RunningInstance;
 import org.jclouds.location.Region;
@@ -50,9 +60,16 @@ import org.jclouds.logging.Logger;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
 
 @Singleton
@@ -62,9 +79,10 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
    @Named(ComputeServiceConstants.COMPUTE_LOGGER)
    protected Logger logger = Logger.NULL;
 
+   /** How long to wait for all regions to answer, in milliseconds; unbounded when not set. */
    @Inject(optional = true)
    @Named(Constants.PROPERTY_REQUEST_TIMEOUT)
-   protected static Long maxTime;
+   protected Long maxTime;
 
    protected final EC2Api client;
    protected final Supplier<Set<String>> regions;
@@ -88,40 +106,178 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
 
    @Override
    public Set<? extends NodeMetadata> listNodesByIds(Iterable<String> ids) {
-      Multimap<String, String> idsByHandles = index(ids, splitHandle(1));
-      Multimap<String, String> idsByRegions = transformValues(idsByHandles, splitHandle(0));
+      Multimap<String, String> handlesByRegions = index(ids, splitHandle(0));
+      Multimap<String, String> idsByRegions = transformValues(handlesByRegions, splitHandle(1));
       Multimap<String, String> idsByConfiguredRegions = filterKeys(idsByRegions, in(regions.get()));
 
       if (idsByConfiguredRegions.isEmpty()) {
          return ImmutableSet.of();
       }
       
-      Iterable<? extends RunningInstance> instances = pollRunningInstancesByRegionsAndIds(idsByConfiguredRegions);
-      Iterable<? extends NodeMetadata> nodes = transform(filter(instances, notNull()),
-                                                         runningInstanceToNodeMetadata);
-      return ImmutableSet.copyOf(nodes);
+      Map<String, Throwable> failedRegions = Maps.newLinkedHashMap();
+      Iterable<? extends RunningInstance> instances = pollRunningInstancesByRegionsAndIds(idsByConfiguredRegions,
+            failedRegions);
+      Set<? extends NodeMetadata> nodes = ImmutableSet.copyOf(transform(filter(instances, notNull()),
+                                                                        runningInstanceToNodeMetadata));
+      if (!failedRegions.isEmpty()) {
+         // a node missing from the result would otherwise look as if it no longer existed
+         throw new IncompleteNodeListingException(nodes, failedRegions);
+      }
+      return nodes;
    }
 
    @Override
    public Set<? extends NodeMetadata> listDetailsOnNodesMatching(Predicate<ComputeMetadata> filter) {
-      Iterable<? extends RunningInstance> instances = pollRunningInstances();
-      Iterable<? extends NodeMetadata> nodes = filter(transform(filter(instances, notNull()),
-               runningInstanceToNodeMetadata), and(notNull(), filter));
-      return ImmutableSet.copyOf(nodes);
+      Map<String, Throwable> failedRegions = Maps.newLinkedHashMap();
+      Iterable<? extends RunningInstance> instances = pollRunningInstances(failedRegions);
+      Set<? extends NodeMetadata> nodes = ImmutableSet.copyOf(filter(transform(filter(instances, notNull()),
+               runningInstanceToNodeMetadata), and(notNull(), filter)));
+      if (!failedRegions.isEmpty()) {
+         // a node missing from the result would otherwise look as if it no longer existed
+         throw new IncompleteNodeListingException(nodes, failedRegions);
+      }
+      return nodes;
    }
 
-   protected Iterable<? extends RunningInstance> pollRunningInstances() {
-      Iterable<? extends Set<? extends Reservation<? extends RunningInstance>>> reservations
-         = transform(regions.get(), allInstancesInRegion());
-      
-      return concat(concat(reservations));
+   /**
+    * @param failedRegions
+    *           receives the regions that failed or did not answer in time, once the result has been iterated
+    */
+   protected Iterable<? extends RunningInstance> pollRunningInstances(Map<String, Throwable> failedRegions) {
+      Iterable<? extends Reservation<? extends RunningInstance>> reservations
+         = concatAcrossRegions(regions.get(), allInstancesInRegion(), failedRegions);
+
+      return concat(reservations);
    }
 
-   protected Iterable<? extends RunningInstance> pollRunningInstancesByRegionsAndIds(final Multimap<String, String> idsByRegions) {
-      Iterable<? extends Set<? extends Reservation<? extends RunningInstance>>> reservations
-         = transform(idsByRegions.keySet(), instancesByIdInRegion(idsByRegions));
-      
-      return concat(concat(reservations));
+   /**
+    * @param failedRegions
+    *           receives the regions that failed or did not answer in time, once the result has been iterated
+    */
+   protected Iterable<? extends RunningInstance> pollRunningInstancesByRegionsAndIds(
+         final Multimap<String, String> idsByRegions, Map<String, Throwable> failedRegions) {
+      Iterable<? extends Reservation<? extends RunningInstance>> reservations
+         = concatAcrossRegions(idsByRegions.keySet(), instancesByIdInRegion(idsByRegions), failedRegions);
+
+      return concat(reservations);
+   }
+
+   /**
+    * Queries all regions concurrently on the user executor and concatenates their results in the
+    * order the regions answer, so the results of the first regions can be processed while the
+    * others are still running. Regions that fail, or do not answer within {@link #maxTime}, are
+    * logged, left out and put into {@code failedRegions} as the result is iterated; it is up to the
+    * caller to report them once iteration is done.
+    */
+   protected <T> Iterable<T> concatAcrossRegions(Iterable<String> regions,
+         final Function<String, ? extends Iterable<? extends T>> regionQuery,
+         final Map<String, Throwable> failedRegions) {
+      checkNotNull(failedRegions, "failedRegions");
+      final BlockingQueue<Map.Entry<String, ListenableFuture<Iterable<? extends T>>>> completed =
+            new LinkedBlockingQueue<Map.Entry<String, ListenableFuture<Iterable<? extends T>>>>();
+      final Map<String, ListenableFuture<Iterable<? extends T>>> pending = Maps.newConcurrentMap();
+      for (final String region : ImmutableSet.copyOf(regions)) {
+         final ListenableFuture<Iterable<? extends T>> future = userExecutor.submit(
+               new Callable<Iterable<? extends T>>() {
+                  @Override
+                  public Iterable<? extends T> call() {
+                     return regionQuery.apply(region);
+                  }
+               });
+         pending.put(region, future);
+         future.addListener(new Runnable() {
+            @Override
+            public void run() {
+               completed.add(Maps.immutableEntry(region, future));
+            }
+         }, MoreExecutors.directExecutor());
+      }
+      long deadline = maxTime == null ? Long.MAX_VALUE
+            : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxTime);
+      return new RegionResults<T>(completed, pending, deadline, failedRegions);
+   }
+
+   /**
+    * Results of {@link #concatAcrossRegions}, read as regions complete and remembered so they can be
+    * iterated again.
+    */
+   private final class RegionResults<T> implements Iterable<T> {
+      private final List<T> received = Lists.newArrayList();
+      private final Iterator<T> arrivals;
+
+      private RegionResults(final BlockingQueue<Map.Entry<String, ListenableFuture<Iterable<? extends T>>>> completed,
+            final Map<String, ListenableFuture<Iterable<? extends T>>> pending, final long deadline,
+            final Map<String, Throwable> failedRegions) {
+         this.arrivals = Iterators.concat(new AbstractIterator<Iterator<? extends T>>() {
+            @Override
+            protected Iterator<? extends T> computeNext() {
+               while (!pending.isEmpty()) {
+                  Map.Entry<String, ListenableFuture<Iterable<? extends T>>> next = poll();
+                  if (next == null) {
+                     logger.warn("<< regions %s did not answer within %sms", pending.keySet(), maxTime);
+                     for (String region : pending.keySet()) {
+                        failedRegions.put(region, new TimeoutException(String.format(
+                              "region %s did not answer within %sms", region, maxTime)));
+                     }
+                     cancelPending();
+                     break;
+                  }
+                  pending.remove(next.getKey());
+                  try {
+                     return next.getValue().get().iterator();
+                  } catch (ExecutionException e) {
+                     logger.warn(e.getCause(), "<< problem listing region %s", next.getKey());
+                     failedRegions.put(next.getKey(), e.getCause());
+                  } catch (InterruptedException e) {
+                     cancelPending();
+                     Thread.currentThread().interrupt();
+                     throw Throwables.propagate(e);
+                  }
+               }
+               return endOfData();
+            }
+
+            private Map.Entry<String, ListenableFuture<Iterable<? extends T>>> poll() {
+               try {
+                  if (deadline == Long.MAX_VALUE) {
+                     return completed.take();
+                  }
+                  return completed.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+               } catch (InterruptedException e) {
+                  cancelPending();
+                  Thread.currentThread().interrupt();
+                  throw Throwables.propagate(e);
+               }
+            }
+
+            private void cancelPending() {
+               for (ListenableFuture<?> future : pending.values()) {
+                  future.cancel(true);
+               }
+               pending.clear();
+            }
+         });
+      }
+
+      @Override
+      public Iterator<T> iterator() {
+         return new AbstractIterator<T>() {
+            private int index;
+
+            @Override
+            protected T computeNext() {
+               synchronized (received) {
+                  if (index == received.size()) {
+                     if (!arrivals.hasNext()) {
+                        return endOfData();
+                     }
+                     received.add(arrivals.next());
+                  }
+                  return received.get(index++);
+               }
+            }
+         };
+      }
    }
 
    protected Function<String, String> splitHandle(final int pos) {
@@ -145,8 +301,8 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
       };
    }
 
-   protected Function<String, Set<? extends Reservation<? extends RunningInstance>>>
-                                                                  instancesByIdInRegion(final Multimap<String, String> idsByRegions) {
+   protected Function<String, Set<? extends Reservation<? extends RunningInstance>>> instancesByIdInRegion(
+         final Multimap<String, String> idsByRegions) {
       return new Function<String, Set<? extends Reservation<? extends RunningInstance>>>() {
                  
          @Override
@@ -37,6 +37,8 @@ import org.jclouds.ec2.domain.Image.ImageType;
 import org.jclouds.ec2.domain.RootDeviceType;
 import org.jclouds.ec2.domain.VirtualizationType;
 import org.jclouds.http.functions.ParseSax;
+import org.jclouds.http.functions.ParseSax.ElementListener;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.location.Region;
 import org.jclouds.logging.Logger;
 import org.xml.sax.Attributes;
@@ -49,7 +51,8 @@ import org.xml.sax.Attributes;
  * @see <a href="http://docs.amazonwebservices.com/AWSEC2/latest/APIReference/ApiReference-query-DescribeImages.html"
  *      />
  */
-public class DescribeImagesResponseHandler extends ParseSax.HandlerForGeneratedRequestWithResult<Set<Image>> {
+public class DescribeImagesResponseHandler extends ParseSax.HandlerForGeneratedRequestWithResult<Set<Image>> implements
+      ParseSax.StreamingHandler<Image> {
 
    @Inject
    public DescribeImagesResponseHandler(@Region Supplier<String> defaultRegion, TagSetHandler tagSetHandler) {
@@ -64,6 +67,7 @@ public class DescribeImagesResponseHandler extends ParseSax.HandlerForGeneratedR
    private StringBuilder currentText = new StringBuilder();
    private final Supplier<String> defaultRegion;
    private final TagSetHandler tagSetHandler;
+   private ElementListener<? super Image> listener;
 
    private Architecture architecture;
    private String name;
@@ -97,6 +101,12 @@ public class DescribeImagesResponseHandler extends ParseSax.HandlerForGeneratedR
    private Integer iops;
    private String rootDeviceName;
 
+   @Override
+   public DescribeImagesResponseHandler streamTo(@Nullable ElementListener<? super Image> listener) {
+      this.listener = listener;
+      return this;
+   }
+
    public Set<Image> getResult() {
       return contents;
    }
@@ -191,9 +201,13 @@ public class DescribeImagesResponseHandler extends ParseSax.HandlerForGeneratedR
                String region = getRequest() != null ? AWSUtils.findRegionInArgsOrNull(getRequest()) : null;
                if (region == null)
                   region = defaultRegion.get();
-               contents.add(new Image(region, architecture, this.name, description, imageId, imageLocation,
+               Image image = new Image(region, architecture, this.name, description, imageId, imageLocation,
                         imageOwnerId, imageState, rawState, imageType, isPublic, productCodes, kernelId, platform,
-                        ramdiskId, rootDeviceType, rootDeviceName, ebsBlockDevices, tags, virtualizationType, hypervisor));
+                        ramdiskId, rootDeviceType, rootDeviceName, ebsBlockDevices, tags, virtualizationType, hypervisor);
+               if (listener != null)
+                  listener.onElement(image);
+               else
+                  contents.add(image);
             } catch (NullPointerException e) {
                logger.warn(e, "malformed image: %s", imageId);
             }
@@ -25,6 +25,9 @@ import javax.inject.Inject;
 import org.jclouds.date.DateCodecFactory;
 import org.jclouds.ec2.domain.Reservation;
 import org.jclouds.ec2.domain.RunningInstance;
+import org.jclouds.http.functions.ParseSax;
+import org.jclouds.http.functions.ParseSax.ElementListener;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.location.Region;
 import org.xml.sax.Attributes;
 
@@ -40,11 +43,13 @@ import com.google.common.collect.ImmutableSet.Builder;
  * @see <a href="http: />
  */
 public class DescribeInstancesResponseHandler extends
-      BaseReservationHandler<Set<Reservation<? extends RunningInstance>>> {
+      BaseReservationHandler<Set<Reservation<? extends RunningInstance>>> implements
+      ParseSax.StreamingHandler<Reservation<? extends RunningInstance>> {
    private final TagSetHandler tagSetHandler;
    private Builder<Reservation<? extends RunningInstance>> reservations = ImmutableSet
          .<Reservation<? extends RunningInstance>> builder();
    private boolean inTagSet;
+   private ElementListener<? super Reservation<? extends RunningInstance>> listener;
 
    @Inject
    DescribeInstancesResponseHandler(DateCodecFactory dateCodecFactory, @Region Supplier<String> defaultRegion,
@@ -53,6 +58,13 @@ public class DescribeInstancesResponseHandler extends
       this.tagSetHandler = tagSetHandler;
    }
 
+   @Override
+   public DescribeInstancesResponseHandler streamTo(
+         @Nullable ElementListener<? super Reservation<? extends RunningInstance>> listener) {
+      this.listener = listener;
+      return this;
+   }
+
    @Override
    public void startElement(String uri, String name, String qName, Attributes attrs) {
       super.startElement(uri, name, qName, attrs);
@@ -96,7 +108,11 @@ public class DescribeInstancesResponseHandler extends
    @Override
    protected void inItem() {
       if (endOfReservationItem()) {
-         reservations.add(super.newReservation());
+         Reservation<? extends RunningInstance> reservation = super.newReservation();
+         if (listener != null)
+            listener.onElement(reservation);
+         else
+            reservations.add(reservation);
       } else {
          super.inItem();
       }
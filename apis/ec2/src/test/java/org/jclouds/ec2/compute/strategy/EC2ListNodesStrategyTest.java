@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.ec2.compute.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.makeThreadSafe;
+import static org.easymock.EasyMock.replay;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.easymock.IAnswer;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.predicates.NodePredicates;
+import org.jclouds.ec2.EC2Api;
+import org.jclouds.ec2.compute.IncompleteNodeListingException;
+import org.jclouds.ec2.domain.InstanceState;
+import org.jclouds.ec2.domain.Reservation;
+import org.jclouds.ec2.domain.RunningInstance;
+import org.jclouds.ec2.features.InstanceApi;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", singleThreaded = true, testName = "EC2ListNodesStrategyTest")
+public class EC2ListNodesStrategyTest {
+
+   private static final Function<RunningInstance, NodeMetadata> TO_NODE =
+         new Function<RunningInstance, NodeMetadata>() {
+      @Override
+      public NodeMetadata apply(RunningInstance instance) {
+         return new NodeMetadataBuilder().id(instance.getRegion() + "/" + instance.getId()).status(Status.RUNNING)
+               .build();
+      }
+   };
+
+   private ListeningExecutorService userExecutor;
+   private InstanceApi instanceApi;
+   private EC2Api client;
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   @BeforeMethod
+   void setUp() {
+      userExecutor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+      instanceApi = createMock(InstanceApi.class);
+      // let answers for different regions block concurrently
+      makeThreadSafe(instanceApi, false);
+      client = createMock(EC2Api.class);
+      expect(client.getInstanceApi()).andReturn((Optional) Optional.of(instanceApi)).anyTimes();
+   }
+
+   @AfterMethod
+   void tearDown() {
+      userExecutor.shutdownNow();
+   }
+
+   private EC2ListNodesStrategy strategy(String... regions) {
+      replay(client, instanceApi);
+      return new EC2ListNodesStrategy(client, Suppliers.<Set<String>> ofInstance(ImmutableSet.copyOf(regions)),
+            TO_NODE, userExecutor);
+   }
+
+   private static Set<Reservation<RunningInstance>> reservation(String region, String instanceId) {
+      RunningInstance instance = RunningInstance.builder().region(region).instanceId(instanceId).imageId("image")
+            .instanceType("m1.small").instanceState(InstanceState.RUNNING).rawState("running").build();
+      return ImmutableSet.of(new Reservation<RunningInstance>(region, ImmutableSet.<String> of(),
+            ImmutableSet.of(instance), null, null, null));
+   }
+
+   /** Answers a region only once every region has been asked, which never happens if they are asked in turn. */
+   private static IAnswer<Set<Reservation<RunningInstance>>> afterAllAsked(final CountDownLatch asked,
+         final Set<Reservation<RunningInstance>> answer) {
+      return new IAnswer<Set<Reservation<RunningInstance>>>() {
+         @Override
+         public Set<Reservation<RunningInstance>> answer() throws Throwable {
+            asked.countDown();
+            if (!asked.await(10, TimeUnit.SECONDS)) {
+               throw new AssertionError("regions were not queried concurrently");
+            }
+            return answer;
+         }
+      };
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testRegionsAreQueriedConcurrently() {
+      CountDownLatch asked = new CountDownLatch(2);
+      expect((Set) instanceApi.describeInstancesInRegion("us-east-1"))
+            .andAnswer((IAnswer) afterAllAsked(asked, reservation("us-east-1", "i-1")));
+      expect((Set) instanceApi.describeInstancesInRegion("eu-west-1"))
+            .andAnswer((IAnswer) afterAllAsked(asked, reservation("eu-west-1", "i-2")));
+
+      Set<? extends NodeMetadata> nodes = strategy("us-east-1", "eu-west-1").listDetailsOnNodesMatching(
+            NodePredicates.all());
+
+      assertEquals(ids(nodes), ImmutableSet.of("us-east-1/i-1", "eu-west-1/i-2"));
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testListNodesReportsFailedRegions() {
+      expect((Set) instanceApi.describeInstancesInRegion("us-east-1")).andReturn(reservation("us-east-1", "i-1"));
+      IllegalStateException unreachable = new IllegalStateException("unreachable");
+      expect(instanceApi.describeInstancesInRegion("eu-west-1")).andThrow(unreachable);
+
+      try {
+         strategy("us-east-1", "eu-west-1").listNodes();
+         fail("expected an IncompleteNodeListingException");
+      } catch (IncompleteNodeListingException e) {
+         assertEquals(ids(e.getNodes()), ImmutableSet.of("us-east-1/i-1"));
+         assertEquals(e.getFailedRegions(), ImmutableMap.of("eu-west-1", unreachable));
+      }
+   }
+
+   public void testFailureIsThrownWhenNoRegionAnswers() {
+      IllegalStateException unreachable = new IllegalStateException("unreachable");
+      expect(instanceApi.describeInstancesInRegion("us-east-1")).andThrow(unreachable);
+      expect(instanceApi.describeInstancesInRegion("eu-west-1")).andThrow(unreachable);
+
+      try {
+         strategy("us-east-1", "eu-west-1").listNodes();
+         fail("expected an IncompleteNodeListingException");
+      } catch (IncompleteNodeListingException e) {
+         assertTrue(e.getNodes().isEmpty());
+         assertEquals(e.getFailedRegions().keySet(), ImmutableSet.of("us-east-1", "eu-west-1"));
+         assertEquals(e.getCause(), unreachable);
+      }
+   }
+
+   /** Blocks until the query is cancelled, counting down {@code interrupted} when it is. */
+   private static IAnswer<Set<Reservation<RunningInstance>>> untilInterrupted(final CountDownLatch interrupted) {
+      return new IAnswer<Set<Reservation<RunningInstance>>>() {
+         @Override
+         public Set<Reservation<RunningInstance>> answer() throws Throwable {
+            try {
+               new CountDownLatch(1).await();
+               throw new AssertionError("unreachable");
+            } catch (InterruptedException e) {
+               interrupted.countDown();
+               throw e;
+            }
+         }
+      };
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testSlowRegionIsCancelledAndReportedAfterTimeout() throws InterruptedException {
+      CountDownLatch interrupted = new CountDownLatch(1);
+      expect((Set) instanceApi.describeInstancesInRegion("us-east-1")).andReturn(reservation("us-east-1", "i-1"));
+      expect((Set) instanceApi.describeInstancesInRegion("eu-west-1"))
+            .andAnswer((IAnswer) untilInterrupted(interrupted));
+
+      EC2ListNodesStrategy strategy = strategy("us-east-1", "eu-west-1");
+      strategy.maxTime = 200L;
+      try {
+         strategy.listDetailsOnNodesMatching(NodePredicates.all());
+         fail("expected an IncompleteNodeListingException");
+      } catch (IncompleteNodeListingException e) {
+         assertEquals(ids(e.getNodes()), ImmutableSet.of("us-east-1/i-1"));
+         assertTrue(e.getFailedRegions().get("eu-west-1") instanceof TimeoutException);
+      }
+      assertTrue(interrupted.await(10, TimeUnit.SECONDS), "the slow region was not cancelled");
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testListNodesByIdsReportsFailedRegions() {
+      expect((Set) instanceApi.describeInstancesInRegion("us-east-1", "i-1"))
+            .andReturn(reservation("us-east-1", "i-1"));
+      IllegalStateException unreachable = new IllegalStateException("unreachable");
+      expect(instanceApi.describeInstancesInRegion("eu-west-1", "i-2")).andThrow(unreachable);
+
+      try {
+         strategy("us-east-1", "eu-west-1").listNodesByIds(ImmutableSet.of("us-east-1/i-1", "eu-west-1/i-2"));
+         fail("expected an IncompleteNodeListingException");
+      } catch (IncompleteNodeListingException e) {
+         assertEquals(ids(e.getNodes()), ImmutableSet.of("us-east-1/i-1"));
+         assertEquals(e.getFailedRegions(), ImmutableMap.of("eu-west-1", unreachable));
+      }
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testListNodesByIdsReportsRegionsThatTimedOut() {
+      expect((Set) instanceApi.describeInstancesInRegion("us-east-1", "i-1"))
+            .andReturn(reservation("us-east-1", "i-1"));
+      expect((Set) instanceApi.describeInstancesInRegion("eu-west-1", "i-2"))
+            .andAnswer((IAnswer) untilInterrupted(new CountDownLatch(1)));
+
+      EC2ListNodesStrategy strategy = strategy("us-east-1", "eu-west-1");
+      strategy.maxTime = 200L;
+      try {
+         strategy.listNodesByIds(ImmutableSet.of("us-east-1/i-1", "eu-west-1/i-2"));
+         fail("expected an IncompleteNodeListingException");
+      } catch (IncompleteNodeListingException e) {
+         assertEquals(ids(e.getNodes()), ImmutableSet.of("us-east-1/i-1"));
+         assertEquals(e.getFailedRegions().keySet(), ImmutableSet.of("eu-west-1"));
+         assertTrue(e.getFailedRegions().get("eu-west-1") instanceof TimeoutException);
+      }
+   }
+
+   private static Set<String> ids(Set<? extends NodeMetadata> nodes) {
+      ImmutableSet.Builder<String> ids = ImmutableSet.builder();
+      for (NodeMetadata node : nodes) {
+         ids.add(node.getId());
+      }
+      return ids.build();
+   }
+}
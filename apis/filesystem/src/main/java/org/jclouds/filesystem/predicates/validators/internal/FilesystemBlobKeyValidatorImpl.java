@@ -19,6 +19,7 @@ package org.jclouds.filesystem.predicates.validators.internal;
 import java.io.File;
 
 import org.jclouds.filesystem.predicates.validators.FilesystemBlobKeyValidator;
+import org.jclouds.filesystem.reference.FilesystemConstants;
 
 import com.google.inject.Singleton;
 
@@ -46,6 +47,13 @@ public class FilesystemBlobKeyValidatorImpl extends FilesystemBlobKeyValidator {
         if (name.endsWith(File.separator))
             throw new IllegalArgumentException(String.format(
                     "Blob key '%s' cannot end with character %s", name, File.separator));
+
+        //file names with the temporary file prefix are never listed
+        String fileName = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf(File.separator)) + 1);
+        if (fileName.startsWith(FilesystemConstants.TEMPORARY_FILE_PREFIX))
+            throw new IllegalArgumentException(String.format(
+                    "Blob key '%s' cannot have a name starting with %s", name,
+                    FilesystemConstants.TEMPORARY_FILE_PREFIX));
     }
 
 }
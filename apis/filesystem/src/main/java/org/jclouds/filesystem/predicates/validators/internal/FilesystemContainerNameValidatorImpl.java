@@ -19,6 +19,7 @@ package org.jclouds.filesystem.predicates.validators.internal;
 import java.io.File;
 
 import org.jclouds.filesystem.predicates.validators.FilesystemContainerNameValidator;
+import org.jclouds.filesystem.reference.FilesystemConstants;
 
 import com.google.inject.Singleton;
 
@@ -41,6 +42,11 @@ public class FilesystemContainerNameValidatorImpl extends FilesystemContainerNam
         if (name.contains(File.separator))
             throw new IllegalArgumentException(String.format(
                     "Container name '%s' cannot contain character %s", name, File.separator));
+
+        //the directory where blobs are written before being moved into place is not a container
+        if (name.equals(FilesystemConstants.TEMPORARY_DIRECTORY))
+            throw new IllegalArgumentException(String.format(
+                    "Container name '%s' is reserved", name));
     }
 
 }
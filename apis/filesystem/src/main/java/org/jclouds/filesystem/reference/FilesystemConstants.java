@@ -24,6 +24,28 @@ public final class FilesystemConstants {
     /** Specify the base directory where provider starts its file operations - must exists */
     public static final String PROPERTY_BASEDIR = "jclouds.filesystem.basedir";
 
+    /**
+     * When true, blob metadata is also kept in a persistent index per container, so reading it
+     * neither lists extended attributes nor hashes the blob. Defaults to false.
+     * <p/>
+     * An indexed entry is used only while the size, modification time, file key and status change time
+     * of its file are unchanged, so files replaced or rewritten outside jclouds are read again. Where
+     * the file system reports neither a file key nor a change time, a rewrite that keeps the size and
+     * the modification time is not detected. The index of a container is stored in
+     * the base directory as {@code .jclouds-metadata-<container>} and is locked while it is written,
+     * so several JVMs may share a base directory.
+     */
+    public static final String PROPERTY_METADATA_INDEX = "jclouds.filesystem.metadata-index";
+
+    /**
+     * Directory under the base directory where blobs are written before they are moved into their
+     * container, so that writes in progress never touch a container directory. Not a valid container name.
+     */
+    public static final String TEMPORARY_DIRECTORY = ".jclouds-tmp";
+
+    /** Name prefix of the files blobs are written to before being moved into place. Not valid for blob names. */
+    public static final String TEMPORARY_FILE_PREFIX = ".jclouds-tmp-";
+
     private FilesystemConstants() {
         throw new AssertionError("intentionally unimplemented");
     }
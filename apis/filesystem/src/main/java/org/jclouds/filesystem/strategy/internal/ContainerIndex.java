@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.filesystem.strategy.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Date;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.domain.internal.StorageMetadataImpl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+
+/**
+ * Sorted, metadata-only index of the blobs and directories of one filesystem container.
+ * <p/>
+ * The index remembers the last-modified time of every directory it scanned. Adding or removing an
+ * entry changes the time of its directory, so changes made to the container outside of this
+ * index are detected by {@link #isCurrent} and the index can be rebuilt.
+ * <p/>
+ * A change made within the same modification time tick as the recorded one leaves the time unchanged.
+ * Until a directory's time is older than {@link #MODIFICATION_TIME_GRANULARITY_MILLIS}, its number of
+ * entries is therefore compared as well. A change in that window that keeps the number of entries,
+ * such as adding one file and removing another, can still go unnoticed.
+ */
+final class ContainerIndex {
+   /** Coarsest modification time granularity among common file systems, two seconds on FAT. */
+   static final long MODIFICATION_TIME_GRANULARITY_MILLIS = 2000;
+
+   private final File containerFile;
+   private final int containerPathLength;
+   private final ConcurrentSkipListMap<String, StorageMetadata> entries =
+         new ConcurrentSkipListMap<String, StorageMetadata>();
+   private final ConcurrentMap<File, DirectoryState> directories = new ConcurrentHashMap<File, DirectoryState>();
+
+   /** What is known about a directory when it was last scanned or changed through this index. */
+   private static final class DirectoryState {
+      private final FileTime lastModified;
+      private final int entries;
+      /** true once a change within the tick of {@link #lastModified} would have changed the time */
+      private final boolean settled;
+
+      private DirectoryState(FileTime lastModified, int entries, boolean settled) {
+         this.lastModified = lastModified;
+         this.entries = entries;
+         this.settled = settled;
+      }
+
+      private static DirectoryState recorded(FileTime lastModified, int entries, long now) {
+         return new DirectoryState(lastModified, entries,
+               now - lastModified.toMillis() > MODIFICATION_TIME_GRANULARITY_MILLIS);
+      }
+   }
+
+   private ContainerIndex(File containerFile) {
+      this.containerFile = containerFile.getAbsoluteFile();
+      this.containerPathLength = this.containerFile.getPath().length() + 1;
+   }
+
+   /** Scans the container directory tree once. */
+   static ContainerIndex build(File containerFile) throws IOException {
+      ContainerIndex index = new ContainerIndex(containerFile);
+      index.scan();
+      return index;
+   }
+
+   /** @return a sorted, read-only view of the index keyed by blob or directory name */
+   NavigableMap<String, StorageMetadata> entries() {
+      return Maps.unmodifiableNavigableMap(entries);
+   }
+
+   /** @return true if no directory of the container changed since it was last recorded */
+   boolean isCurrent() {
+      long now = System.currentTimeMillis();
+      for (Map.Entry<File, DirectoryState> directory : directories.entrySet()) {
+         DirectoryState state = directory.getValue();
+         try {
+            FileTime lastModified = lastModified(directory.getKey());
+            if (!lastModified.equals(state.lastModified)) {
+               return false;
+            }
+            if (!state.settled) {
+               if (countEntries(directory.getKey()) != state.entries) {
+                  return false;
+               }
+               if (now - lastModified.toMillis() > MODIFICATION_TIME_GRANULARITY_MILLIS) {
+                  // the tick is over, so any later change will show in the time
+                  directories.replace(directory.getKey(), state,
+                        new DirectoryState(state.lastModified, state.entries, true));
+               }
+            }
+         } catch (IOException e) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /** Records a blob written to {@code file}, along with any directories created for it. */
+   void blobWritten(File file) throws IOException {
+      File blobFile = file.getAbsoluteFile();
+      boolean added = !entries.containsKey(key(blobFile));
+      put(StorageType.BLOB, blobFile);
+      for (File directory = blobFile.getParentFile(); directory != null; directory = directory.getParentFile()) {
+         changed(directory, added ? 1 : 0);
+         if (directory.equals(containerFile)) {
+            break;
+         }
+         added = !entries.containsKey(key(directory));
+         if (added) {
+            put(StorageType.FOLDER, directory);
+         }
+      }
+   }
+
+   /** Forgets a blob removed from {@code file}, along with any directories removed with it. */
+   void blobRemoved(File file) throws IOException {
+      File blobFile = file.getAbsoluteFile();
+      boolean removed = entries.remove(key(blobFile)) != null;
+      for (File directory = blobFile.getParentFile(); directory != null; directory = directory.getParentFile()) {
+         if (directory.isDirectory()) {
+            changed(directory, removed ? -1 : 0);
+            removed = false;
+         } else {
+            removed = entries.remove(key(directory)) != null;
+            directories.remove(directory);
+         }
+         if (directory.equals(containerFile)) {
+            break;
+         }
+      }
+   }
+
+   /** Records the new time of a directory whose number of entries changed by {@code delta}. */
+   private void changed(File directory, int delta) throws IOException {
+      DirectoryState state = directories.get(directory);
+      int entries = (state == null ? 0 : state.entries) + delta;
+      directories.put(directory, DirectoryState.recorded(lastModified(directory), entries,
+            System.currentTimeMillis()));
+   }
+
+   private void scan() throws IOException {
+      final Path containerPath = containerFile.toPath();
+      final Map<Path, FileTime> listedTimes = Maps.newHashMap();
+      final Map<Path, Long> listedAt = Maps.newHashMap();
+      final Map<Path, Integer> listedEntries = Maps.newHashMap();
+      Files.walkFileTree(containerPath, new SimpleFileVisitor<Path>() {
+         @Override
+         public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            // record the time before listing, so that a concurrent change is seen as newer
+            listedTimes.put(dir, attrs.lastModifiedTime());
+            listedAt.put(dir, System.currentTimeMillis());
+            listedEntries.put(dir, 0);
+            if (!dir.equals(containerPath)) {
+               listed(dir);
+               put(StorageType.FOLDER, dir.toFile(), attrs.lastModifiedTime());
+            }
+            return FileVisitResult.CONTINUE;
+         }
+
+         @Override
+         public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            listed(file);
+            if (attrs.isRegularFile() && !FilesystemStorageStrategyImpl.isTemporaryFile(file)) {
+               put(StorageType.BLOB, file.toFile(), attrs.lastModifiedTime());
+            }
+            return FileVisitResult.CONTINUE;
+         }
+
+         @Override
+         public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+            if (exc != null) {
+               throw exc;
+            }
+            directories.put(dir.toFile(), DirectoryState.recorded(listedTimes.remove(dir), listedEntries.remove(dir),
+                  listedAt.remove(dir)));
+            return FileVisitResult.CONTINUE;
+         }
+
+         private void listed(Path entry) {
+            Path parent = entry.getParent();
+            listedEntries.put(parent, listedEntries.get(parent) + 1);
+         }
+
+         @Override
+         public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+            // an entry removed during the scan also changed its directory, so the index is rebuilt later
+            if (exc instanceof NoSuchFileException) {
+               return FileVisitResult.CONTINUE;
+            }
+            throw exc;
+         }
+      });
+   }
+
+   private void put(StorageType type, File file) throws IOException {
+      put(type, file, lastModified(file));
+   }
+
+   private void put(StorageType type, File file, FileTime lastModified) {
+      String key = key(file);
+      entries.put(key, new StorageMetadataImpl(type, /*id=*/ null, key, /*location=*/ null, /*uri=*/ null,
+            /*eTag=*/ null, /*creationDate=*/ null, new Date(lastModified.toMillis()),
+            ImmutableMap.<String, String>of()));
+   }
+
+   private String key(File file) {
+      return file.getPath().substring(containerPathLength);
+   }
+
+   private static FileTime lastModified(File file) throws IOException {
+      return Files.getLastModifiedTime(file.toPath());
+   }
+
+   private static int countEntries(File directory) throws IOException {
+      DirectoryStream<Path> children = Files.newDirectoryStream(directory.toPath());
+      try {
+         return Iterables.size(children);
+      } finally {
+         children.close();
+      }
+   }
+}
@@ -16,8 +16,15 @@
  */
 package org.jclouds.filesystem.strategy.internal;
 
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.deleteIfExists;
 import static java.nio.file.Files.getFileAttributeView;
 import static java.nio.file.Files.getFileStore;
+import static java.nio.file.Files.isDirectory;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.move;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.Files.readAttributes;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -25,22 +32,42 @@ import static com.google.common.io.BaseEncoding.base16;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.UserDefinedFileAttributeView;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.Resource;
-import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Provider;
 
 import org.jclouds.blobstore.LocalStorageStrategy;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobBuilder;
+import org.jclouds.blobstore.domain.BlobBuilder.PayloadBlobBuilder;
+import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.domain.Location;
 import org.jclouds.filesystem.predicates.validators.FilesystemBlobKeyValidator;
@@ -52,13 +79,16 @@ import org.jclouds.io.Payload;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.annotations.ParamValidators;
 
-import com.google.common.base.Function;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Sets;
+import com.google.common.collect.Maps;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
 import com.google.common.hash.HashingInputStream;
@@ -66,6 +96,7 @@ import com.google.common.io.ByteSource;
 import com.google.common.io.Closeables;
 import com.google.common.io.Files;
 import com.google.common.primitives.Longs;
+import com.google.inject.Inject;
 
 public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
 
@@ -79,6 +110,19 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
 
    private static final String BACK_SLASH = "\\";
 
+   /**
+    * Blobs are written to a file with this prefix in {@link FilesystemConstants#TEMPORARY_DIRECTORY} and
+    * then moved into place, so readers never see a partially written blob and a write in progress does not
+    * change the container directories. Such files are never listed.
+    */
+   static final String TEMPORARY_FILE_PREFIX = FilesystemConstants.TEMPORARY_FILE_PREFIX;
+
+   /** Name prefix of the metadata index of each container, kept next to the container directories. */
+   private static final String METADATA_INDEX_PREFIX = ".jclouds-metadata-";
+
+   /** Maximum number of bytes moved from a payload to its file by a single channel transfer. */
+   private static final long TRANSFER_CHUNK_SIZE = 1024 * 1024;
+
    @Resource
    protected Logger logger = Logger.NULL;
 
@@ -87,6 +131,31 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
    protected final FilesystemContainerNameValidator filesystemContainerNameValidator;
    protected final FilesystemBlobKeyValidator filesystemBlobKeyValidator;
 
+   /**
+    * Index of each container, built on the first listing and kept current by writes made through
+    * this strategy. Guarded by {@link #indexLock} for installation and updates.
+    */
+   private final ConcurrentMap<String, ContainerIndex> containerToIndex =
+         new ConcurrentHashMap<String, ContainerIndex>();
+   private final Object indexLock = new Object();
+   /**
+    * Incremented on every index update of a container, so that an index built concurrently with a write
+    * to the same container is not kept. Guarded by {@link #indexLock}.
+    */
+   private final Map<String, Long> containerToIndexModCount = Maps.newHashMap();
+
+   /** Whether the file store of each container supports extended attributes, probed once per container. */
+   private final ConcurrentMap<String, Boolean> containerToXattrSupport = new ConcurrentHashMap<String, Boolean>();
+
+   @Inject(optional = true)
+   @Named(FilesystemConstants.PROPERTY_METADATA_INDEX)
+   @VisibleForTesting
+   boolean useMetadataIndex = false;
+
+   /** Persistent metadata index of each container, opened on first use when enabled. */
+   private final ConcurrentMap<String, MetadataIndex> containerToMetadataIndex =
+         new ConcurrentHashMap<String, MetadataIndex>();
+
    @Inject
    protected FilesystemStorageStrategyImpl(Provider<BlobBuilder> blobBuilders,
          @Named(FilesystemConstants.PROPERTY_BASEDIR) String baseDir,
@@ -107,15 +176,25 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
 
    @Override
    public Iterable<String> getAllContainerNames() {
-      File[] files = new File(buildPathStartingFromBaseDir()).listFiles();
-      if (files == null) {
+      Path baseDir = new File(buildPathStartingFromBaseDir()).toPath();
+      if (!isDirectory(baseDir)) {
          return ImmutableList.of();
       }
       ImmutableList.Builder<String> containers = ImmutableList.builder();
-      for (File file : files) {
-         if (file.isDirectory()) {
-            containers.add(file.getName());
+      try {
+         DirectoryStream<Path> stream = newDirectoryStream(baseDir, DIRECTORIES);
+         try {
+            for (Path path : stream) {
+               String name = path.getFileName().toString();
+               if (!name.equals(FilesystemConstants.TEMPORARY_DIRECTORY)) {
+                  containers.add(name);
+               }
+            }
+         } finally {
+            stream.close();
          }
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
       }
       return containers.build();
    }
@@ -125,6 +204,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       // TODO: implement location
       logger.debug("Creating container %s", container);
       filesystemContainerNameValidator.validate(container);
+      invalidateIndex(container);
       return createDirectoryWithResult(container, null);
    }
 
@@ -135,6 +215,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
          return;
       }
       deleteDirectory(container, null);
+      containerToXattrSupport.remove(container);
    }
 
    @Override
@@ -145,21 +226,30 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
    @Override
    public void clearContainer(String container, ListContainerOptions options) {
       filesystemContainerNameValidator.validate(container);
+      String containerName = container;
       if (options.getDir() != null) {
          container += denormalize("/" + options.getDir());
       }
       try {
-         File containerFile = openFolder(container);
-         File[] children = containerFile.listFiles();
-         if (null != children) {
-            for (File child : children)
-               if (options.isRecursive() || child.isFile()) {
-                  Utils.deleteRecursively(child);
+         Path containerPath = openFolder(container).toPath();
+         if (isDirectory(containerPath)) {
+            DirectoryStream<Path> children = newDirectoryStream(containerPath);
+            try {
+               for (Path child : children) {
+                  if (options.isRecursive() || isRegularFile(child)) {
+                     Utils.deleteRecursively(child.toFile());
+                  }
                }
+            } finally {
+               children.close();
+            }
          }
       } catch (IOException e) {
          logger.error(e, "An error occurred while clearing container %s", container);
          Throwables.propagate(e);
+      } finally {
+         invalidateIndex(containerName);
+         dropMetadataIndex(containerName);
       }
    }
 
@@ -182,20 +272,42 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       filesystemContainerNameValidator.validate(container);
       // check if container exists
       // TODO maybe an error is more appropriate
-      Set<String> blobNames = Sets.newHashSet();
       if (!containerExists(container)) {
-         return blobNames;
+         return ImmutableSet.of();
       }
 
-      File containerFile = openFolder(container);
-      final int containerPathLength = containerFile.getAbsolutePath().length() + 1;
-      populateBlobKeysInContainer(containerFile, blobNames, new Function<String, String>() {
+      final Path containerPath = openFolder(container).toPath().toAbsolutePath();
+      return new FluentIterable<String>() {
          @Override
-         public String apply(String string) {
-            return string.substring(containerPathLength);
+         public Iterator<String> iterator() {
+            return new BlobKeyIterator(containerPath);
+         }
+      };
+   }
+
+   @Override
+   public NavigableMap<String, StorageMetadata> getBlobMetadataIndex(String container) throws IOException {
+      filesystemContainerNameValidator.validate(container);
+      ContainerIndex index = containerToIndex.get(container);
+      if (index != null && index.isCurrent()) {
+         return index.entries();
+      }
+      if (!containerExists(container)) {
+         return ImmutableSortedMap.of();
+      }
+
+      long modCount;
+      synchronized (indexLock) {
+         modCount = indexModCount(container);
+      }
+      index = ContainerIndex.build(openFolder(container));
+      synchronized (indexLock) {
+         // only keep the index if no write to this container raced with the scan above
+         if (indexModCount(container) == modCount) {
+            containerToIndex.put(container, index);
          }
-      });
-      return blobNames;
+      }
+      return index.entries();
    }
 
    @Override
@@ -205,67 +317,85 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       File file = getFileForBlobKey(container, key);
       Path path = file.toPath();
       ByteSource byteSource = Files.asByteSource(file);
+      BasicFileAttributes fileAttributes;
       try {
-         String contentDisposition = null;
-         String contentEncoding = null;
-         String contentLanguage = null;
-         String contentType = null;
-         HashCode hashCode = null;
-         Date expires = null;
-         ImmutableMap.Builder<String, String> userMetadata = ImmutableMap.builder();
-
-         if (getFileStore(file.toPath()).supportsFileAttributeView(UserDefinedFileAttributeView.class)) {
-            UserDefinedFileAttributeView view = getFileAttributeView(path, UserDefinedFileAttributeView.class);
-            Set<String> attributes = ImmutableSet.copyOf(view.list());
-
-            contentDisposition = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_DISPOSITION);
-            contentEncoding = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_ENCODING);
-            contentLanguage = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_LANGUAGE);
-            contentType = readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_TYPE);
-            if (attributes.contains(XATTR_CONTENT_MD5)) {
-               ByteBuffer buf = ByteBuffer.allocate(view.size(XATTR_CONTENT_MD5));
-               view.read(XATTR_CONTENT_MD5, buf);
-               hashCode = HashCode.fromBytes(buf.array());
+         fileAttributes = readAttributes(path, BasicFileAttributes.class);
+         MetadataIndex metadataIndex = metadataIndex(container);
+         MetadataIndex.Entry metadata = metadataIndex == null ? null : metadataIndex.get(key);
+         if (metadata == null || !metadata.describes(path, fileAttributes)) {
+            metadata = readMetadata(container, path, byteSource, fileAttributes);
+            if (metadataIndex != null) {
+               recordMetadata(container, metadataIndex, key, metadata);
             }
-            if (attributes.contains(XATTR_EXPIRES)) {
-               ByteBuffer buf = ByteBuffer.allocate(view.size(XATTR_EXPIRES));
-               view.read(XATTR_EXPIRES, buf);
-               buf.flip();
-               expires = new Date(buf.asLongBuffer().get());
-            }
-            for (String attribute : attributes) {
-               if (!attribute.startsWith(XATTR_USER_METADATA_PREFIX)) {
-                  continue;
-               }
-               String value = readStringAttributeIfPresent(view, attributes, attribute);
-               userMetadata.put(attribute.substring(XATTR_USER_METADATA_PREFIX.length()), value);
-            }
-
-            builder.payload(byteSource)
-               .contentDisposition(contentDisposition)
-               .contentEncoding(contentEncoding)
-               .contentLanguage(contentLanguage)
-               .contentLength(byteSource.size())
-               .contentMD5(hashCode)
-               .contentType(contentType)
-               .expires(expires)
-               .userMetadata(userMetadata.build());
-         } else {
-            builder.payload(byteSource)
-               .contentLength(byteSource.size())
-               .contentMD5(byteSource.hash(Hashing.md5()).asBytes());
+         }
+         builder.userMetadata(metadata.userMetadata);
+         PayloadBlobBuilder payloadBuilder = builder.payload(byteSource)
+            .contentLength(fileAttributes.size())
+            .contentMD5(metadata.contentMD5)
+            .expires(metadata.expires);
+         // absent headers keep the defaults of the payload
+         if (metadata.contentDisposition != null) {
+            payloadBuilder.contentDisposition(metadata.contentDisposition);
+         }
+         if (metadata.contentEncoding != null) {
+            payloadBuilder.contentEncoding(metadata.contentEncoding);
+         }
+         if (metadata.contentLanguage != null) {
+            payloadBuilder.contentLanguage(metadata.contentLanguage);
+         }
+         if (metadata.contentType != null) {
+            payloadBuilder.contentType(metadata.contentType);
          }
       } catch (IOException e) {
          throw Throwables.propagate(e);
       }
       Blob blob = builder.build();
       blob.getMetadata().setContainer(container);
-      blob.getMetadata().setLastModified(new Date(file.lastModified()));
+      blob.getMetadata().setLastModified(new Date(fileAttributes.lastModifiedTime().toMillis()));
       if (blob.getPayload().getContentMetadata().getContentMD5() != null)
          blob.getMetadata().setETag(base16().lowerCase().encode(blob.getPayload().getContentMetadata().getContentMD5()));
       return blob;
    }
 
+   /** Reads the metadata of a blob from its extended attributes, or hashes it if they are unsupported. */
+   private MetadataIndex.Entry readMetadata(String container, Path path, ByteSource byteSource,
+         BasicFileAttributes fileAttributes) throws IOException {
+      if (!supportsXattrs(container, path)) {
+         return new MetadataIndex.Entry(path, fileAttributes, byteSource.hash(Hashing.md5()), null, null, null, null,
+               null, ImmutableMap.<String, String>of());
+      }
+      UserDefinedFileAttributeView view = getFileAttributeView(path, UserDefinedFileAttributeView.class);
+      Set<String> attributes = ImmutableSet.copyOf(view.list());
+
+      HashCode hashCode = null;
+      Date expires = null;
+      ImmutableMap.Builder<String, String> userMetadata = ImmutableMap.builder();
+      if (attributes.contains(XATTR_CONTENT_MD5)) {
+         ByteBuffer buf = ByteBuffer.allocate(view.size(XATTR_CONTENT_MD5));
+         view.read(XATTR_CONTENT_MD5, buf);
+         hashCode = HashCode.fromBytes(buf.array());
+      }
+      if (attributes.contains(XATTR_EXPIRES)) {
+         ByteBuffer buf = ByteBuffer.allocate(view.size(XATTR_EXPIRES));
+         view.read(XATTR_EXPIRES, buf);
+         buf.flip();
+         expires = new Date(buf.asLongBuffer().get());
+      }
+      for (String attribute : attributes) {
+         if (!attribute.startsWith(XATTR_USER_METADATA_PREFIX)) {
+            continue;
+         }
+         String value = readStringAttributeIfPresent(view, attributes, attribute);
+         userMetadata.put(attribute.substring(XATTR_USER_METADATA_PREFIX.length()), value);
+      }
+      return new MetadataIndex.Entry(path, fileAttributes, hashCode,
+            readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_DISPOSITION),
+            readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_ENCODING),
+            readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_LANGUAGE),
+            readStringAttributeIfPresent(view, attributes, XATTR_CONTENT_TYPE),
+            expires, userMetadata.build());
+   }
+
    @Override
    public String putBlob(final String containerName, final Blob blob) throws IOException {
       String blobKey = blob.getMetadata().getName();
@@ -275,12 +405,13 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       filesystemBlobKeyValidator.validate(blobKey);
       File outputFile = getFileForBlobKey(containerName, blobKey);
       Path outputPath = outputFile.toPath();
+      Path temporaryPath = null;
       HashingInputStream his = null;
       try {
-         Files.createParentDirs(outputFile);
+         createDirectories(outputPath.getParent());
+         temporaryPath = temporaryDirectory().resolve(TEMPORARY_FILE_PREFIX + UUID.randomUUID());
          his = new HashingInputStream(Hashing.md5(), payload.openStream());
-         outputFile.delete();
-         Files.asByteSink(outputFile).writeFrom(his);
+         writeToNewFile(his, temporaryPath);
          HashCode actualHashCode = his.hash();
          HashCode expectedHashCode = payload.getContentMetadata().getContentMD5AsHashCode();
          if (expectedHashCode != null && !actualHashCode.equals(expectedHashCode)) {
@@ -289,8 +420,9 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
          }
          payload.getContentMetadata().setContentMD5(actualHashCode);
 
-         if (getFileStore(outputPath).supportsFileAttributeView(UserDefinedFileAttributeView.class)) {
-            UserDefinedFileAttributeView view = getFileAttributeView(outputPath, UserDefinedFileAttributeView.class);
+         if (supportsXattrs(containerName, temporaryPath)) {
+            UserDefinedFileAttributeView view = getFileAttributeView(temporaryPath,
+                  UserDefinedFileAttributeView.class);
             view.write(XATTR_CONTENT_MD5, ByteBuffer.wrap(actualHashCode.asBytes()));
             writeStringAttributeIfPresent(view, XATTR_CONTENT_DISPOSITION, metadata.getContentDisposition());
             writeStringAttributeIfPresent(view, XATTR_CONTENT_ENCODING, metadata.getContentEncoding());
@@ -306,17 +438,23 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
                writeStringAttributeIfPresent(view, XATTR_USER_METADATA_PREFIX + entry.getKey(), entry.getValue());
             }
          }
-         return base16().lowerCase().encode(actualHashCode.asBytes());
-      } catch (IOException ex) {
-         if (outputFile != null) {
-            if (!outputFile.delete()) {
-               logger.debug("Could not delete %s", outputFile);
-            }
+         moveIntoPlace(temporaryPath, outputPath);
+         temporaryPath = null;
+         indexBlob(containerName, outputFile);
+         MetadataIndex metadataIndex = metadataIndex(containerName);
+         if (metadataIndex != null) {
+            recordMetadata(containerName, metadataIndex, blobKey, new MetadataIndex.Entry(outputPath,
+                  readAttributes(outputPath, BasicFileAttributes.class), actualHashCode,
+                  metadata.getContentDisposition(), metadata.getContentEncoding(), metadata.getContentLanguage(),
+                  metadata.getContentType(), metadata.getExpires(), blob.getMetadata().getUserMetadata()));
          }
-         throw ex;
+         return base16().lowerCase().encode(actualHashCode.asBytes());
       } finally {
          Closeables.closeQuietly(his);
          payload.release();
+         if (temporaryPath != null && !deleteIfExists(temporaryPath)) {
+            logger.debug("Could not delete %s", temporaryPath);
+         }
       }
    }
 
@@ -334,6 +472,16 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       // now examine if the key of the blob is a complex key (with a directory structure)
       // and eventually remove empty directory
       removeDirectoriesTreeOfBlobKey(container, blobKey);
+      unindexBlob(container, fileToBeDeleted);
+      MetadataIndex metadataIndex = metadataIndex(container);
+      if (metadataIndex != null) {
+         try {
+            metadataIndex.remove(blobKey);
+         } catch (IOException e) {
+            logger.warn(e, "Could not update the metadata index of container %s", container);
+            dropMetadataIndex(container);
+         }
+      }
    }
 
    @Override
@@ -377,6 +525,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
 
    public void createDirectory(String container, String directory) {
       createDirectoryWithResult(container, directory);
+      invalidateIndex(container);
    }
 
    public void deleteDirectory(String container, String directory) {
@@ -387,6 +536,9 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       } catch (IOException ex) {
          logger.error("An error occurred removing directory %s.", fullDirPath);
          Throwables.propagate(ex);
+      } finally {
+         invalidateIndex(container);
+         dropMetadataIndex(container);
       }
    }
 
@@ -517,8 +669,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       if (!isNullOrEmpty(parentPath)) {
          // remove parent directory only it's empty
          File directory = new File(buildPathStartingFromBaseDir(container, parentPath));
-         String[] children = directory.list();
-         if (null == children || children.length == 0) {
+         if (isEmptyDirectory(directory.toPath())) {
             if (!directory.delete()) {
                logger.debug("Could not delete %s", directory);
                return;
@@ -540,16 +691,223 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       return folder;
    }
 
-   private static void populateBlobKeysInContainer(File directory, Set<String> blobNames,
-         Function<String, String> function) {
-      File[] children = directory.listFiles();
-      for (File child : children) {
-         if (child.isFile()) {
-            blobNames.add(function.apply(child.getAbsolutePath()));
-         } else if (child.isDirectory()) {
-            blobNames.add(function.apply(child.getAbsolutePath()));
-            populateBlobKeysInContainer(child, blobNames, function);
+   private static boolean isEmptyDirectory(Path directory) {
+      try {
+         DirectoryStream<Path> children = newDirectoryStream(directory);
+         try {
+            return !children.iterator().hasNext();
+         } finally {
+            children.close();
          }
+      } catch (IOException e) {
+         return false;
+      }
+   }
+
+   static boolean isTemporaryFile(Path path) {
+      return path.getFileName().toString().startsWith(TEMPORARY_FILE_PREFIX);
+   }
+
+   /** @return the directory blobs are written to before being moved into place, created if missing */
+   private Path temporaryDirectory() throws IOException {
+      Path directory = new File(buildPathStartingFromBaseDir(FilesystemConstants.TEMPORARY_DIRECTORY)).toPath();
+      createDirectories(directory);
+      return directory;
+   }
+
+   /**
+    * Lists the keys of a container one directory at a time, so only the entries of one directory and
+    * the directories still to visit are held in memory. A directory is returned before its contents.
+    */
+   private static final class BlobKeyIterator extends AbstractIterator<String> {
+      private final Path containerPath;
+      private final Deque<Path> directories = new ArrayDeque<Path>();
+      private Iterator<Path> children = ImmutableList.<Path>of().iterator();
+
+      BlobKeyIterator(Path containerPath) {
+         this.containerPath = containerPath;
+         directories.add(containerPath);
+      }
+
+      @Override
+      protected String computeNext() {
+         while (true) {
+            while (children.hasNext()) {
+               Path child = children.next();
+               BasicFileAttributes attrs;
+               try {
+                  attrs = readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+               } catch (NoSuchFileException e) {
+                  // tolerate entries removed while listing
+                  continue;
+               } catch (IOException e) {
+                  throw Throwables.propagate(e);
+               }
+               if (attrs.isDirectory()) {
+                  directories.push(child);
+                  return containerPath.relativize(child).toString();
+               }
+               if (attrs.isRegularFile() && !isTemporaryFile(child)) {
+                  return containerPath.relativize(child).toString();
+               }
+            }
+            Path directory = directories.poll();
+            if (directory == null) {
+               return endOfData();
+            }
+            children = list(directory).iterator();
+         }
+      }
+
+      private static List<Path> list(Path directory) {
+         try {
+            DirectoryStream<Path> stream = newDirectoryStream(directory);
+            try {
+               return ImmutableList.copyOf(stream);
+            } finally {
+               stream.close();
+            }
+         } catch (NoSuchFileException e) {
+            return ImmutableList.of();
+         } catch (IOException e) {
+            throw Throwables.propagate(e);
+         }
+      }
+   }
+
+   private static final DirectoryStream.Filter<Path> DIRECTORIES = new DirectoryStream.Filter<Path>() {
+      @Override
+      public boolean accept(Path path) {
+         return isDirectory(path);
+      }
+   };
+
+   /** Copies a stream into a file that must not exist yet, through its channel. */
+   private static void writeToNewFile(InputStream input, Path path) throws IOException {
+      FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+      try {
+         ReadableByteChannel source = Channels.newChannel(input);
+         long position = 0;
+         long transferred;
+         while ((transferred = channel.transferFrom(source, position, TRANSFER_CHUNK_SIZE)) > 0) {
+            position += transferred;
+         }
+      } finally {
+         channel.close();
+      }
+   }
+
+   /** Replaces {@code target} with {@code source}, atomically where the file store allows it. */
+   private static void moveIntoPlace(Path source, Path target) throws IOException {
+      try {
+         move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+         move(source, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+   }
+
+   /** @return the metadata index of a container, or null if disabled or unusable */
+   private MetadataIndex metadataIndex(String container) {
+      if (!useMetadataIndex) {
+         return null;
+      }
+      MetadataIndex index = containerToMetadataIndex.get(container);
+      if (index != null) {
+         return index;
+      }
+      synchronized (containerToMetadataIndex) {
+         index = containerToMetadataIndex.get(container);
+         if (index == null) {
+            Path logPath = new File(buildPathStartingFromBaseDir(METADATA_INDEX_PREFIX + container)).toPath();
+            try {
+               index = MetadataIndex.open(logPath);
+            } catch (IOException e) {
+               logger.warn(e, "Could not open the metadata index of container %s", container);
+               return null;
+            }
+            containerToMetadataIndex.put(container, index);
+         }
+         return index;
+      }
+   }
+
+   private void recordMetadata(String container, MetadataIndex index, String key, MetadataIndex.Entry entry) {
+      try {
+         index.put(key, entry);
+      } catch (IOException e) {
+         logger.warn(e, "Could not update the metadata index of container %s", container);
+         dropMetadataIndex(container);
+      }
+   }
+
+   /** Deletes the metadata index of a container after a bulk change; it is rebuilt as blobs are read. */
+   private void dropMetadataIndex(String container) {
+      MetadataIndex index;
+      synchronized (containerToMetadataIndex) {
+         index = containerToMetadataIndex.remove(container);
+      }
+      if (index != null) {
+         try {
+            index.delete();
+         } catch (IOException e) {
+            logger.debug("Could not delete the metadata index of container %s", container);
+         }
+      }
+   }
+
+   private boolean supportsXattrs(String container, Path path) throws IOException {
+      Boolean supported = containerToXattrSupport.get(container);
+      if (supported == null) {
+         supported = getFileStore(path).supportsFileAttributeView(UserDefinedFileAttributeView.class);
+         containerToXattrSupport.put(container, supported);
+      }
+      return supported;
+   }
+
+   /** Adds a written blob to the container index, if one was built. */
+   private void indexBlob(String container, File file) {
+      synchronized (indexLock) {
+         indexModified(container);
+         ContainerIndex index = containerToIndex.get(container);
+         if (index != null) {
+            try {
+               index.blobWritten(file);
+            } catch (IOException e) {
+               containerToIndex.remove(container);
+            }
+         }
+      }
+   }
+
+   /** Removes a deleted blob from the container index, if one was built. */
+   private void unindexBlob(String container, File file) {
+      synchronized (indexLock) {
+         indexModified(container);
+         ContainerIndex index = containerToIndex.get(container);
+         if (index != null) {
+            try {
+               index.blobRemoved(file);
+            } catch (IOException e) {
+               containerToIndex.remove(container);
+            }
+         }
+      }
+   }
+
+   private long indexModCount(String container) {
+      Long modCount = containerToIndexModCount.get(container);
+      return modCount == null ? 0 : modCount;
+   }
+
+   private void indexModified(String container) {
+      containerToIndexModCount.put(container, indexModCount(container) + 1);
+   }
+
+   /** Drops the index of a container after a bulk change; it is rebuilt by the next listing. */
+   private void invalidateIndex(String container) {
+      synchronized (indexLock) {
+         indexModified(container);
+         containerToIndex.remove(container);
       }
    }
 
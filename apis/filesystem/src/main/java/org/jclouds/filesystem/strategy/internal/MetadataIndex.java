@@ -0,0 +1,468 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.filesystem.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.google.common.io.CountingInputStream;
+
+/**
+ * Persistent index of the blob metadata of one filesystem container, so that reading metadata
+ * needs neither extended attributes nor the contents of the blob.
+ * <p/>
+ * The index is an append-only log of puts and removes, replayed into memory when opened and
+ * compacted once most of its records are obsolete. Every entry remembers the size, modification
+ * time, file key and, where the file system reports it, the status change time of the file it
+ * describes; an entry that no longer matches its file was written around this index and must be
+ * ignored by the caller. Replacing a file changes its key and rewriting it in place changes its
+ * change time, even when the size and modification time are kept.
+ * <p/>
+ * Appends and compactions hold a lock on the log, so that several JVMs can share a base directory.
+ * Each of them reloads the log when it finds that another one has appended to it or replaced it.
+ */
+final class MetadataIndex {
+   private static final int MAGIC = 0x6a634d49;
+   private static final int VERSION = 3;
+   private static final byte PUT = 1;
+   private static final byte REMOVE = 2;
+   /** Compact once the log holds this many records more than twice the live entries. */
+   private static final int COMPACTION_SLACK = 1024;
+   private static final int STRING_BUFFER_SIZE = 8192;
+
+   /** Metadata of one blob, as stored in the index. */
+   static final class Entry {
+      final long size;
+      final long lastModified;
+      /** status change time of the file in nanoseconds, or -1 if the file system does not report it */
+      final long changeTime;
+      @Nullable
+      final String fileKey;
+      final HashCode contentMD5;
+      final String contentDisposition;
+      final String contentEncoding;
+      final String contentLanguage;
+      final String contentType;
+      final Date expires;
+      final Map<String, String> userMetadata;
+
+      Entry(Path path, BasicFileAttributes attributes, @Nullable HashCode contentMD5,
+            @Nullable String contentDisposition, @Nullable String contentEncoding, @Nullable String contentLanguage,
+            @Nullable String contentType, @Nullable Date expires, Map<String, String> userMetadata)
+            throws IOException {
+         this(attributes.size(), attributes.lastModifiedTime().toMillis(), changeTime(path), fileKey(attributes),
+               contentMD5, contentDisposition, contentEncoding, contentLanguage, contentType, expires, userMetadata);
+      }
+
+      private Entry(long size, long lastModified, long changeTime, String fileKey, HashCode contentMD5,
+            String contentDisposition, String contentEncoding, String contentLanguage, String contentType,
+            Date expires, Map<String, String> userMetadata) {
+         this.size = size;
+         this.lastModified = lastModified;
+         this.changeTime = changeTime;
+         this.fileKey = fileKey;
+         this.contentMD5 = contentMD5;
+         this.contentDisposition = contentDisposition;
+         this.contentEncoding = contentEncoding;
+         this.contentLanguage = contentLanguage;
+         this.contentType = contentType;
+         this.expires = expires;
+         this.userMetadata = ImmutableMap.copyOf(checkNotNull(userMetadata, "userMetadata"));
+      }
+
+      /** @return true if the blob file was neither replaced nor changed since this entry was recorded */
+      boolean describes(Path path, BasicFileAttributes attributes) throws IOException {
+         return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis()
+               && Objects.equal(fileKey, fileKey(attributes)) && changeTime == changeTime(path);
+      }
+
+      private void writeTo(DataOutput out) throws IOException {
+         out.writeLong(size);
+         out.writeLong(lastModified);
+         out.writeLong(changeTime);
+         writeNullableString(out, fileKey);
+         byte[] md5 = contentMD5 == null ? new byte[0] : contentMD5.asBytes();
+         out.writeByte(md5.length);
+         out.write(md5);
+         writeNullableString(out, contentDisposition);
+         writeNullableString(out, contentEncoding);
+         writeNullableString(out, contentLanguage);
+         writeNullableString(out, contentType);
+         out.writeBoolean(expires != null);
+         if (expires != null) {
+            out.writeLong(expires.getTime());
+         }
+         out.writeInt(userMetadata.size());
+         for (Map.Entry<String, String> entry : userMetadata.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+         }
+      }
+
+      private static Entry readFrom(DataInput in) throws IOException {
+         long size = in.readLong();
+         long lastModified = in.readLong();
+         long changeTime = in.readLong();
+         String fileKey = readNullableString(in);
+         byte[] md5 = new byte[in.readUnsignedByte()];
+         in.readFully(md5);
+         String contentDisposition = readNullableString(in);
+         String contentEncoding = readNullableString(in);
+         String contentLanguage = readNullableString(in);
+         String contentType = readNullableString(in);
+         Date expires = in.readBoolean() ? new Date(in.readLong()) : null;
+         int userMetadataSize = in.readInt();
+         ImmutableMap.Builder<String, String> userMetadata = ImmutableMap.builder();
+         for (int i = 0; i < userMetadataSize; i++) {
+            userMetadata.put(readString(in), readString(in));
+         }
+         HashCode contentMD5 = md5.length == 0 ? null : HashCode.fromBytes(md5);
+         return new Entry(size, lastModified, changeTime, fileKey, contentMD5, contentDisposition, contentEncoding,
+               contentLanguage, contentType, expires, userMetadata.build());
+      }
+   }
+
+   /**
+    * Serializes the use of each log within this JVM, since file locks are held on behalf of the whole JVM and
+    * several blob store contexts may share a base directory.
+    */
+   private static final ConcurrentMap<Path, ReentrantLock> LOG_LOCKS = new ConcurrentHashMap<Path, ReentrantLock>();
+
+   private final Path logPath;
+   private final ReentrantLock logLock;
+   private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+   /** Guarded by {@link #logLock}, along with the fields below. */
+   private FileChannel log;
+   /** Identity of the log file when it was opened, or null if the file system has none. */
+   private Object logFileKey;
+   /** Length of the log as written or read by this index. */
+   private long logLength;
+   private int logRecords;
+
+   private MetadataIndex(Path logPath) {
+      this.logPath = logPath;
+      Path key = logPath.toAbsolutePath().normalize();
+      LOG_LOCKS.putIfAbsent(key, new ReentrantLock());
+      this.logLock = LOG_LOCKS.get(key);
+   }
+
+   /** Opens the index stored at {@code logPath}, creating it if needed. */
+   static MetadataIndex open(Path logPath) throws IOException {
+      MetadataIndex index = new MetadataIndex(logPath);
+      index.logLock.lock();
+      try {
+         index.openLog();
+      } finally {
+         index.logLock.unlock();
+      }
+      return index;
+   }
+
+   /** @return the recorded metadata of {@code key}, or null if none */
+   @Nullable
+   Entry get(String key) {
+      return entries.get(key);
+   }
+
+   void put(String key, Entry entry) throws IOException {
+      ByteArrayOutputStream record = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(record);
+      out.writeByte(PUT);
+      writeString(out, key);
+      entry.writeTo(out);
+      FileLock lock = lockLog();
+      try {
+         append(record.toByteArray());
+         entries.put(key, entry);
+         compactIfNeeded();
+      } finally {
+         unlockLog(lock);
+      }
+   }
+
+   void remove(String key) throws IOException {
+      ByteArrayOutputStream record = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(record);
+      out.writeByte(REMOVE);
+      writeString(out, key);
+      FileLock lock = lockLog();
+      try {
+         if (entries.remove(key) == null) {
+            return;
+         }
+         append(record.toByteArray());
+         compactIfNeeded();
+      } finally {
+         unlockLog(lock);
+      }
+   }
+
+   /** Closes the index and deletes its log. */
+   void delete() throws IOException {
+      logLock.lock();
+      try {
+         entries.clear();
+         log.close();
+         Files.deleteIfExists(logPath);
+      } finally {
+         logLock.unlock();
+      }
+   }
+
+   /**
+    * Locks the log for this JVM and then for other processes, reloading it first if another process appended to
+    * it or replaced it since this index last used it.
+    */
+   private FileLock lockLog() throws IOException {
+      logLock.lock();
+      try {
+         while (true) {
+            FileLock lock = log.lock();
+            if (isCurrentLog() && log.size() == logLength) {
+               return lock;
+            }
+            lock.release();
+            log.close();
+            entries.clear();
+            logRecords = 0;
+            openLog();
+         }
+      } catch (IOException e) {
+         logLock.unlock();
+         throw e;
+      } catch (RuntimeException e) {
+         logLock.unlock();
+         throw e;
+      }
+   }
+
+   private void unlockLog(FileLock lock) throws IOException {
+      try {
+         if (lock.isValid()) {
+            lock.release();
+         }
+      } finally {
+         logLock.unlock();
+      }
+   }
+
+   /** @return true if {@link #logPath} still names the file this index has open */
+   private boolean isCurrentLog() throws IOException {
+      if (logFileKey == null) {
+         return true;
+      }
+      try {
+         return logFileKey.equals(Files.readAttributes(logPath, BasicFileAttributes.class).fileKey());
+      } catch (NoSuchFileException e) {
+         return false;
+      }
+   }
+
+   /** Opens the log and replays it, recreating it if it is missing or unreadable. Called with the log lock held. */
+   private void openLog() throws IOException {
+      log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+      FileLock lock = log.lock();
+      try {
+         long validLength = replay();
+         if (validLength == 0) {
+            rewrite();
+         } else {
+            // drop a record left incomplete by a crash
+            log.truncate(validLength);
+            logLength = validLength;
+            logFileKey = Files.readAttributes(logPath, BasicFileAttributes.class).fileKey();
+         }
+      } finally {
+         if (lock.isValid()) {
+            lock.release();
+         }
+      }
+   }
+
+   /** @return the length of the log up to its last complete record, or 0 if it has to be recreated */
+   private long replay() throws IOException {
+      CountingInputStream counting;
+      try {
+         counting = new CountingInputStream(new BufferedInputStream(Files.newInputStream(logPath)));
+      } catch (NoSuchFileException e) {
+         return 0;
+      }
+      DataInputStream in = new DataInputStream(counting);
+      long validLength = 0;
+      try {
+         if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            return 0;
+         }
+         validLength = counting.getCount();
+         while (true) {
+            byte op = in.readByte();
+            String key = readString(in);
+            if (op == PUT) {
+               entries.put(key, Entry.readFrom(in));
+            } else if (op == REMOVE) {
+               entries.remove(key);
+            } else {
+               break;
+            }
+            logRecords++;
+            validLength = counting.getCount();
+         }
+      } catch (EOFException e) {
+         // end of the log, possibly in the middle of a record
+      } finally {
+         in.close();
+      }
+      return validLength;
+   }
+
+   private void append(byte[] record) throws IOException {
+      ByteBuffer buffer = ByteBuffer.wrap(record);
+      while (buffer.hasRemaining()) {
+         log.write(buffer);
+      }
+      logLength += record.length;
+      logRecords++;
+   }
+
+   private void compactIfNeeded() throws IOException {
+      if (logRecords > 2 * entries.size() + COMPACTION_SLACK) {
+         rewrite();
+      }
+   }
+
+   /**
+    * Replaces the log with one put record per live entry. Called with the log locked; the lock on the replaced
+    * file is released when its channel is closed.
+    */
+   private void rewrite() throws IOException {
+      Path temporaryPath = logPath.resolveSibling(FilesystemStorageStrategyImpl.TEMPORARY_FILE_PREFIX
+            + logPath.getFileName());
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath)));
+      try {
+         out.writeInt(MAGIC);
+         out.writeInt(VERSION);
+         for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            out.writeByte(PUT);
+            writeString(out, entry.getKey());
+            entry.getValue().writeTo(out);
+         }
+      } finally {
+         out.close();
+      }
+      try {
+         Files.move(temporaryPath, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+         Files.move(temporaryPath, logPath, StandardCopyOption.REPLACE_EXISTING);
+      }
+      logRecords = entries.size();
+      FileChannel replaced = log;
+      log = FileChannel.open(logPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+      logLength = log.size();
+      logFileKey = Files.readAttributes(logPath, BasicFileAttributes.class).fileKey();
+      if (replaced != null) {
+         replaced.close();
+      }
+   }
+
+   /** @return the status change time of the file in nanoseconds, or -1 if the file system does not report it */
+   private static long changeTime(Path path) throws IOException {
+      try {
+         return ((FileTime) Files.getAttribute(path, "unix:ctime")).to(TimeUnit.NANOSECONDS);
+      } catch (UnsupportedOperationException e) {
+         return -1;
+      } catch (IllegalArgumentException e) {
+         return -1;
+      }
+   }
+
+   @Nullable
+   private static String fileKey(BasicFileAttributes attributes) {
+      Object fileKey = attributes.fileKey();
+      return fileKey == null ? null : fileKey.toString();
+   }
+
+   /**
+    * Writes the length of the UTF-8 encoding of {@code value} followed by the encoding, unlike
+    * {@link DataOutput#writeUTF} which is limited to 64KB.
+    */
+   private static void writeString(DataOutput out, String value) throws IOException {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+   }
+
+   private static String readString(DataInput in) throws IOException {
+      int length = in.readInt();
+      if (length < 0) {
+         throw new EOFException("invalid string length " + length);
+      }
+      // read in pieces, so that the length of a torn record cannot allocate more than the log holds
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.min(length, STRING_BUFFER_SIZE));
+      byte[] buffer = new byte[Math.min(length, STRING_BUFFER_SIZE)];
+      for (int remaining = length; remaining > 0; remaining -= buffer.length) {
+         int read = Math.min(remaining, buffer.length);
+         in.readFully(buffer, 0, read);
+         bytes.write(buffer, 0, read);
+      }
+      return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+   }
+
+   private static void writeNullableString(DataOutput out, @Nullable String value) throws IOException {
+      out.writeBoolean(value != null);
+      if (value != null) {
+         writeString(out, value);
+      }
+   }
+
+   @Nullable
+   private static String readNullableString(DataInput in) throws IOException {
+      return in.readBoolean() ? readString(in) : null;
+   }
+}
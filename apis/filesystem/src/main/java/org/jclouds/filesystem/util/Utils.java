@@ -18,7 +18,11 @@ package org.jclouds.filesystem.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 
 /**
  * Utilities for the filesystem blobstore.
@@ -31,14 +35,21 @@ public class Utils {
 
    /** Delete a file or a directory recursively. */
    public static void deleteRecursively(File file) throws IOException {
-      if (file.isDirectory()) {
-         File[] children = file.listFiles();
-         if (children != null) {
-            for (File child : children) {
-               deleteRecursively(child);
+      Files.walkFileTree(file.toPath(), new SimpleFileVisitor<Path>() {
+         @Override
+         public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IOException {
+            Files.delete(path);
+            return FileVisitResult.CONTINUE;
+         }
+
+         @Override
+         public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+            if (exc != null) {
+               throw exc;
             }
+            Files.delete(dir);
+            return FileVisitResult.CONTINUE;
          }
-      }
-      Files.delete(file.toPath());
+      });
    }
 }
@@ -56,6 +56,11 @@ public class FilesystemBlobKeyValidatorTest {
             validator.validate("all" + File.separator + "is" + File.separator);
             fail("Blob key value incorrect, but was not recognized");
         } catch (IllegalArgumentException e) {}
+
+        try {
+            validator.validate("all" + File.separator + ".jclouds-tmp-0123");
+            fail("Blob key value incorrect, but was not recognized");
+        } catch (IllegalArgumentException e) {}
     }
 
 
@@ -17,6 +17,9 @@
 package org.jclouds.filesystem.strategy.internal;
 
 import static java.nio.file.Files.getFileStore;
+import static java.nio.file.Files.getLastModifiedTime;
+import static java.nio.file.Files.readAttributes;
+import static java.nio.file.Files.setLastModifiedTime;
 import static org.jclouds.utils.TestUtils.randomByteSource;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -27,16 +30,22 @@ import static org.testng.Assert.fail;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.nio.file.attribute.UserDefinedFileAttributeView;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NavigableMap;
 import java.util.Set;
 
 import javax.inject.Provider;
 
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobBuilder;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.StorageType;
 import org.jclouds.blobstore.domain.internal.BlobBuilderImpl;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.filesystem.predicates.validators.internal.FilesystemBlobKeyValidatorImpl;
@@ -50,9 +59,12 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.SkipException;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 
@@ -378,6 +390,48 @@ public class FilesystemStorageStrategyImplTest {
             "Files are not equal");
    }
 
+   public void testFailedWriteKeepsPreviousBlob() throws IOException {
+      String blobKey = TestUtils.createRandomBlobKey("atomicWrite-", ".img");
+      ByteSource original = randomByteSource().slice(0, 1024);
+      storageStrategy.putBlob(CONTAINER_NAME, new BlobBuilderImpl().name(blobKey).payload(original).build());
+
+      Blob replacement = new BlobBuilderImpl()
+            .name(blobKey)
+            .payload(randomByteSource().slice(1024, 1024))
+            .contentMD5(original.hash(Hashing.md5()))
+            .build();
+      try {
+         storageStrategy.putBlob(CONTAINER_NAME, replacement);
+         fail("MD5 mismatch not detected");
+      } catch (IOException expected) {
+      }
+
+      assertTrue(original.contentEquals(Files.asByteSource(new File(TARGET_CONTAINER_NAME, blobKey))));
+      assertEquals(new File(TARGET_CONTAINER_NAME).list(), new String[] { blobKey });
+   }
+
+   public void testTemporaryFilesAreNotListed() throws IOException {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      TestUtils.createBlobsInContainer(CONTAINER_NAME, "a.jpg",
+            FilesystemStorageStrategyImpl.TEMPORARY_FILE_PREFIX + "0123");
+
+      assertEquals(ImmutableList.copyOf(storageStrategy.getBlobKeysInsideContainer(CONTAINER_NAME)),
+            ImmutableList.of("a.jpg"));
+      assertEquals(ImmutableList.copyOf(storageStrategy.getBlobMetadataIndex(CONTAINER_NAME).keySet()),
+            ImmutableList.of("a.jpg"));
+   }
+
+   public void testWritesDoNotLeaveFilesInContainer() throws IOException {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      storageStrategy.putBlob(CONTAINER_NAME, new BlobBuilderImpl()
+            .name("a.jpg")
+            .payload(randomByteSource().slice(0, 16))
+            .build());
+
+      assertEquals(new File(TARGET_CONTAINER_NAME).list(), new String[] { "a.jpg" });
+      assertEquals(ImmutableList.copyOf(storageStrategy.getAllContainerNames()), ImmutableList.of(CONTAINER_NAME));
+   }
+
    public void testWritePayloadOnFile_SourceFileDoesntExist() {
       File sourceFile = new File("asdfkjsadkfjasdlfasdflk.asdfasdfas");
       FilePayload payload = new FilePayload(sourceFile);
@@ -508,6 +562,162 @@ public class FilesystemStorageStrategyImplTest {
       }
    }
 
+   public void testBlobMetadataIndexFollowsWrites() throws IOException {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      TestUtils.createBlobsInContainer(CONTAINER_NAME, "b.jpg", "a" + FS + "c.jpg");
+
+      NavigableMap<String, StorageMetadata> index = storageStrategy.getBlobMetadataIndex(CONTAINER_NAME);
+      assertEquals(ImmutableList.copyOf(index.keySet()), ImmutableList.of("a", "a" + FS + "c.jpg", "b.jpg"));
+      assertEquals(index.get("a").getType(), StorageType.FOLDER);
+      assertEquals(index.get("b.jpg").getType(), StorageType.BLOB);
+
+      storageStrategy.putBlob(CONTAINER_NAME, new BlobBuilderImpl()
+            .name("d" + FS + "e.jpg")
+            .payload(randomByteSource().slice(0, 16))
+            .build());
+      storageStrategy.removeBlob(CONTAINER_NAME, "a" + FS + "c.jpg");
+
+      index = storageStrategy.getBlobMetadataIndex(CONTAINER_NAME);
+      assertEquals(ImmutableList.copyOf(index.keySet()), ImmutableList.of("b.jpg", "d", "d" + FS + "e.jpg"));
+
+      storageStrategy.clearContainer(CONTAINER_NAME);
+      assertTrue(storageStrategy.getBlobMetadataIndex(CONTAINER_NAME).isEmpty());
+   }
+
+   public void testBlobMetadataIndexNoticesChangesWithinOneModificationTime() throws IOException {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      TestUtils.createBlobsInContainer(CONTAINER_NAME, "a.jpg");
+      assertEquals(ImmutableList.copyOf(storageStrategy.getBlobMetadataIndex(CONTAINER_NAME).keySet()),
+            ImmutableList.of("a.jpg"));
+
+      // another writer adds a blob within the same tick of the directory's modification time
+      Path containerPath = new File(TARGET_CONTAINER_NAME).toPath();
+      FileTime lastModified = getLastModifiedTime(containerPath);
+      TestUtils.createBlobsInContainer(CONTAINER_NAME, "b.jpg");
+      setLastModifiedTime(containerPath, lastModified);
+
+      assertEquals(ImmutableList.copyOf(storageStrategy.getBlobMetadataIndex(CONTAINER_NAME).keySet()),
+            ImmutableList.of("a.jpg", "b.jpg"));
+   }
+
+   public void testMetadataIndexPersistsMetadata() throws IOException {
+      storageStrategy.useMetadataIndex = true;
+      storageStrategy.createContainer(CONTAINER_NAME);
+      ByteSource content = randomByteSource().slice(0, 1024);
+      storageStrategy.putBlob(CONTAINER_NAME, new BlobBuilderImpl()
+            .name("a.txt")
+            .payload(content)
+            .contentType("text/plain")
+            .userMetadata(ImmutableMap.of("key", "value"))
+            .build());
+
+      FilesystemStorageStrategyImpl reopened = new FilesystemStorageStrategyImpl(new Provider<BlobBuilder>() {
+         @Override
+         public BlobBuilder get() {
+            return new BlobBuilderImpl();
+         }
+      }, TestUtils.TARGET_BASE_DIR, new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl());
+      reopened.useMetadataIndex = true;
+      Blob blob = reopened.getBlob(CONTAINER_NAME, "a.txt");
+      assertEquals(blob.getPayload().getContentMetadata().getContentType(), "text/plain");
+      assertEquals(blob.getPayload().getContentMetadata().getContentMD5AsHashCode(), content.hash(Hashing.md5()));
+      assertEquals(blob.getMetadata().getUserMetadata(), ImmutableMap.of("key", "value"));
+      assertEquals(ImmutableList.copyOf(reopened.getAllContainerNames()), ImmutableList.of(CONTAINER_NAME));
+   }
+
+   public void testMetadataIndexPersistsLargeUserMetadata() throws IOException {
+      storageStrategy.createContainer(CONTAINER_NAME);
+      Path path = new File(TARGET_CONTAINER_NAME, "a.txt").toPath();
+      randomByteSource().slice(0, 16).copyTo(Files.asByteSink(path.toFile()));
+      // longer than the 64KB that DataOutput.writeUTF can encode
+      String value = Strings.repeat("\u00e9", 40 * 1024);
+      Path logPath = new File(TestUtils.TARGET_BASE_DIR, "metadata-index-test").toPath();
+
+      MetadataIndex index = MetadataIndex.open(logPath);
+      index.put("a.txt", new MetadataIndex.Entry(path, readAttributes(path, BasicFileAttributes.class), null, null,
+            null, null, null, null, ImmutableMap.of("key", value)));
+
+      MetadataIndex reopened = MetadataIndex.open(logPath);
+      assertEquals(reopened.get("a.txt").userMetadata, ImmutableMap.of("key", value));
+      reopened.delete();
+      index.delete();
+   }
+
+   public void testMetadataIndexIgnoresBlobsChangedAroundIt() throws IOException {
+      storageStrategy.useMetadataIndex = true;
+      storageStrategy.createContainer(CONTAINER_NAME);
+      storageStrategy.putBlob(CONTAINER_NAME, new BlobBuilderImpl()
+            .name("a.txt")
+            .payload(randomByteSource().slice(0, 1024))
+            .build());
+
+      ByteSource replacement = randomByteSource().slice(1024, 2048);
+      replacement.copyTo(Files.asByteSink(new File(TARGET_CONTAINER_NAME, "a.txt")));
+
+      Blob blob = storageStrategy.getBlob(CONTAINER_NAME, "a.txt");
+      assertEquals(blob.getPayload().getContentMetadata().getContentLength(), Long.valueOf(2048));
+      assertEquals(blob.getPayload().getContentMetadata().getContentMD5AsHashCode(), replacement.hash(Hashing.md5()));
+
+      storageStrategy.removeBlob(CONTAINER_NAME, "a.txt");
+      storageStrategy.clearContainer(CONTAINER_NAME);
+      assertFalse(new File(TestUtils.TARGET_BASE_DIR, ".jclouds-metadata-" + CONTAINER_NAME).exists());
+   }
+
+   public void testMetadataIndexIgnoresRewritesWithinOneModificationTime() throws IOException {
+      storageStrategy.useMetadataIndex = true;
+      storageStrategy.createContainer(CONTAINER_NAME);
+      storageStrategy.putBlob(CONTAINER_NAME, new BlobBuilderImpl()
+            .name("a.txt")
+            .payload(randomByteSource().slice(0, 1024))
+            .build());
+
+      // rewritten with the same size within the same tick of the modification time
+      Path path = new File(TARGET_CONTAINER_NAME, "a.txt").toPath();
+      FileTime lastModified = getLastModifiedTime(path);
+      ByteSource replacement = randomByteSource().slice(1024, 1024);
+      replacement.copyTo(Files.asByteSink(path.toFile()));
+      setLastModifiedTime(path, lastModified);
+
+      Blob blob = storageStrategy.getBlob(CONTAINER_NAME, "a.txt");
+      assertEquals(blob.getPayload().getContentMetadata().getContentMD5AsHashCode(), replacement.hash(Hashing.md5()));
+   }
+
+   public void testMetadataIndexIsSharedWithAnotherStrategy() throws IOException {
+      storageStrategy.useMetadataIndex = true;
+      storageStrategy.createContainer(CONTAINER_NAME);
+      FilesystemStorageStrategyImpl other = new FilesystemStorageStrategyImpl(new Provider<BlobBuilder>() {
+         @Override
+         public BlobBuilder get() {
+            return new BlobBuilderImpl();
+         }
+      }, TestUtils.TARGET_BASE_DIR, new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl());
+      other.useMetadataIndex = true;
+
+      storageStrategy.putBlob(CONTAINER_NAME, new BlobBuilderImpl()
+            .name("a.txt")
+            .payload(randomByteSource().slice(0, 16))
+            .contentType("text/plain")
+            .build());
+      other.putBlob(CONTAINER_NAME, new BlobBuilderImpl()
+            .name("b.txt")
+            .payload(randomByteSource().slice(0, 16))
+            .contentType("text/csv")
+            .build());
+      storageStrategy.putBlob(CONTAINER_NAME, new BlobBuilderImpl()
+            .name("c.txt")
+            .payload(randomByteSource().slice(0, 16))
+            .contentType("text/html")
+            .build());
+
+      // both appended to the same log, so a third reader finds every entry
+      MetadataIndex index = MetadataIndex.open(new File(TestUtils.TARGET_BASE_DIR, ".jclouds-metadata-"
+            + CONTAINER_NAME).toPath());
+      assertEquals(index.get("a.txt").contentType, "text/plain");
+      assertEquals(index.get("b.txt").contentType, "text/csv");
+      assertEquals(index.get("c.txt").contentType, "text/html");
+      index.delete();
+   }
+
    public void testCountsBlob() {
       storageStrategy.countBlobs(CONTAINER_NAME, ListContainerOptions.NONE);
    }
@@ -17,9 +17,11 @@
 package org.jclouds.openstack.keystone.v2_0.config;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 import static org.jclouds.util.Suppliers2.getLastValueInMap;
 
 import java.net.URI;
+import java.util.Date;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -55,6 +57,7 @@ import org.jclouds.openstack.keystone.v2_0.suppliers.RegionIdToAdminURISupplier;
 import org.jclouds.openstack.keystone.v2_0.suppliers.RegionIdToURIFromAccessForTypeAndVersion;
 import org.jclouds.openstack.keystone.v2_0.suppliers.ZoneIdToURIFromAccessForTypeAndVersion;
 import org.jclouds.rest.annotations.ApiVersion;
+import org.jclouds.rest.suppliers.RefreshBeforeExpirySupplier;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
@@ -63,7 +66,9 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.AbstractModule;
+import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
@@ -219,22 +224,35 @@ public class KeystoneAuthenticationModule extends AbstractModule {
    // PROPERTY_SESSION_INTERVAL is default to 60 seconds, but we have this here at 11 hours for now.
    @Provides
    @Singleton
-   public LoadingCache<Credentials, Access> provideAccessCache(Function<Credentials, Access> getAccess) {
-      return CacheBuilder.newBuilder().expireAfterWrite(11, TimeUnit.HOURS).build(CacheLoader.from(getAccess));
+   public LoadingCache<Credentials, Access> provideAccessCache(Function<Credentials, Access> getAccess,
+         @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      // reloads triggered ahead of the token's expiry run in the background
+      return CacheBuilder.newBuilder().expireAfterWrite(11, TimeUnit.HOURS)
+            .build(CacheLoader.asyncReloading(CacheLoader.from(getAccess), userExecutor));
+   }
+
+   /**
+    * Reads {@link KeystoneProperties#TOKEN_REFRESH_MARGIN}, which providers are not required to default.
+    */
+   @Singleton
+   public static class TokenRefreshMargin {
+      @Inject(optional = true)
+      @Named(KeystoneProperties.TOKEN_REFRESH_MARGIN)
+      public long seconds = 300;
    }
 
    // Temporary conversion of a cache to a supplier until there is a single-element cache
    // http://code.google.com/p/guava-libraries/issues/detail?id=872
    @Provides
    @Singleton
-   protected Supplier<Access> provideAccessSupplier(final LoadingCache<Credentials, Access> cache,
-         @Provider final Supplier<Credentials> creds) {
-      return new Supplier<Access>() {
+   protected Supplier<Access> provideAccessSupplier(LoadingCache<Credentials, Access> cache,
+         @Provider Supplier<Credentials> creds, TokenRefreshMargin margin) {
+      return new RefreshBeforeExpirySupplier<Credentials, Access>(cache, creds, new Function<Access, Date>() {
          @Override
-         public Access get() {
-            return cache.getUnchecked(creds.get());
+         public Date apply(Access access) {
+            return access.getToken().getExpires();
          }
-      };
+      }, margin.seconds, TimeUnit.SECONDS);
    }
 
 }
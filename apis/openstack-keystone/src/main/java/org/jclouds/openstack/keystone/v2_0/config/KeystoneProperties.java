@@ -31,9 +31,8 @@ public final class KeystoneProperties {
     * </ul>
     *
     * @see CredentialTypes
-    * @see <a href=
-    *      "http://docs.openstack.org/api/openstack-identity-service/2.0/content/POST_authenticate_v2.0_tokens_Service_API_Api_Operations.html"
-    *      />
+    * @see <a href="http://docs.openstack.org/api/openstack-identity-service/2.0/content/">identity api v2.0,
+    *      POST /v2.0/tokens</a>
     */
    public static final String CREDENTIAL_TYPE = "jclouds.keystone.credential-type";
 
@@ -69,6 +68,14 @@ public final class KeystoneProperties {
     */
    public static final String SERVICE_TYPE = "jclouds.keystone.service-type";
 
+   /**
+    * how many seconds before its token expires the access is renewed in the background, default {@code 300}.
+    * Requests keep using the current token until the new one has been obtained.
+    *
+    * @see org.jclouds.openstack.keystone.v2_0.domain.Token#getExpires()
+    */
+   public static final String TOKEN_REFRESH_MARGIN = "jclouds.keystone.token-refresh-margin";
+
    private KeystoneProperties() {
       throw new AssertionError("intentionally unimplemented");
    }
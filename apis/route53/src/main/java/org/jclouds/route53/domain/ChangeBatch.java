@@ -161,6 +161,16 @@ public class ChangeBatch extends ForwardingList<ActionOnResourceRecordSet> {
          return this;
       }
 
+      public Builder add(ActionOnResourceRecordSet change) {
+         this.changes.add(checkNotNull(change, "change"));
+         return this;
+      }
+
+      public Builder addAll(Iterable<ActionOnResourceRecordSet> changes) {
+         this.changes.addAll(checkNotNull(changes, "changes"));
+         return this;
+      }
+
       public ChangeBatch build() {
          return new ChangeBatch(comment, changes.build());
       }
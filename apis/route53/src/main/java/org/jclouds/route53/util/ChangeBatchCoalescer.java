@@ -0,0 +1,436 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.String.format;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.route53.Route53Api;
+import org.jclouds.route53.domain.Change;
+import org.jclouds.route53.domain.Change.Status;
+import org.jclouds.route53.domain.ChangeBatch;
+import org.jclouds.route53.domain.ChangeBatch.ActionOnResourceRecordSet;
+import org.jclouds.route53.domain.ResourceRecordSet;
+import org.jclouds.route53.domain.ResourceRecordSet.RecordSubset;
+import org.jclouds.route53.domain.ResourceRecordSet.RecordSubset.Latency;
+import org.jclouds.route53.domain.ResourceRecordSet.RecordSubset.Weighted;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+
+/**
+ * Coalesces changes to resource record sets into as few {@link ChangeBatch}es as Route53 allows.
+ * <p/>
+ * Route53 throttles {@code ChangeResourceRecordSets}, so submitting one batch per record cannot keep up with high
+ * rates of updates. Changes are buffered per hosted zone for {@code jclouds.route53.batch.window} milliseconds, or
+ * until a full batch is pending, and then sent in batches of at most {@value #MAX_CHANGES} changes and
+ * {@value #MAX_VALUE_CHARS} characters of record values. A change identical to a pending one is sent once, unless
+ * another change to the same records was submitted in between. A change to a record that already has a change of
+ * the same action in the batch is held for the next batch, so batches apply in the order changes were submitted.
+ * <p/>
+ * Batches are sent one at a time from a single thread, as Route53 throttles changes per account rather than per
+ * zone; a throttled batch therefore delays the batches of every zone. Windows and status polls run on a separate
+ * thread, so they are not held up by a slow send.
+ * <p/>
+ * The returned futures complete once the batch holding the change is {@link Status#INSYNC}, which is polled every
+ * {@code jclouds.route53.batch.poll-period} milliseconds. Route53 applies a batch atomically, so a change it rejects
+ * fails the futures of every change in the same batch.
+ */
+@Singleton
+public class ChangeBatchCoalescer {
+
+   public static final int MAX_CHANGES = 100;
+   public static final int MAX_VALUE_CHARS = 32000;
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named("jclouds.route53.batch.window")
+   @VisibleForTesting
+   long window = 1000;
+
+   @Inject(optional = true)
+   @Named("jclouds.route53.batch.poll-period")
+   @VisibleForTesting
+   long pollPeriod = 5000;
+
+   private final Route53Api api;
+   private final ScheduledExecutorService scheduler;
+   private final ExecutorService sender;
+   private final Map<String, Zone> pending = Maps.newHashMap();
+   private final Set<SettableFuture<Change>> inFlight = Sets.newConcurrentHashSet();
+   private final Object sendLock = new Object();
+   private boolean closed;
+
+   /**
+    * Changes not yet sent to a zone, in the order they were submitted.
+    */
+   private static final class Zone {
+      private final List<Submitted> changes = Lists.newArrayList();
+      /** the last change submitted with the given {@link #contents} */
+      private final Map<List<List<Object>>, Submitted> byContents = Maps.newHashMap();
+      /** the last change submitted to each {@link #record} */
+      private final Map<List<Object>, Submitted> lastChangeToRecord = Maps.newHashMap();
+      private int changeCount;
+      /** flushes this zone at the end of its window, unless it was flushed before */
+      private ScheduledFuture<?> windowTask;
+
+      /**
+       * a pending change can stand in for an identical one only if nothing changed its records since
+       */
+      private boolean isLastChangeToItsRecords(Submitted submitted) {
+         for (ActionOnResourceRecordSet change : submitted.changes)
+            if (lastChangeToRecord.get(record(change)) != submitted)
+               return false;
+         return true;
+      }
+
+      private void add(List<List<Object>> contents, Submitted submitted) {
+         changes.add(submitted);
+         byContents.put(contents, submitted);
+         for (ActionOnResourceRecordSet change : submitted.changes)
+            lastChangeToRecord.put(record(change), submitted);
+         changeCount += submitted.changes.size();
+      }
+   }
+
+   /**
+    * Changes submitted together, which are sent in the same batch.
+    */
+   private static final class Submitted {
+      private final List<ActionOnResourceRecordSet> changes;
+      private final SettableFuture<Change> future = SettableFuture.create();
+
+      private Submitted(List<ActionOnResourceRecordSet> changes) {
+         this.changes = changes;
+      }
+   }
+
+   @Inject
+   ChangeBatchCoalescer(Route53Api api) {
+      this.api = checkNotNull(api, "api");
+      this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("route53 change batches %d").setDaemon(true).build());
+      this.sender = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("route53 change batch sender %d").setDaemon(true).build());
+   }
+
+   /**
+    * schedules creation of the resource record set.
+    */
+   public ListenableFuture<Change> create(String zoneId, ResourceRecordSet rrs) {
+      return submit(zoneId, ChangeBatch.builder().create(rrs).build());
+   }
+
+   /**
+    * schedules deletion of the resource record set.
+    */
+   public ListenableFuture<Change> delete(String zoneId, ResourceRecordSet rrs) {
+      return submit(zoneId, ChangeBatch.builder().delete(rrs).build());
+   }
+
+   /**
+    * schedules replacing {@code existing} with {@code replacement} atomically, as Route53 only supports deleting and
+    * creating record sets in this api version.
+    */
+   public ListenableFuture<Change> replace(String zoneId, ResourceRecordSet existing, ResourceRecordSet replacement) {
+      return submit(zoneId, ChangeBatch.builder().delete(existing).create(replacement).build());
+   }
+
+   /**
+    * schedules the changes, which are kept together in the same batch. The comment of {@code changes} is not sent.
+    *
+    * @return the change of the batch that applied them, once it is {@link Status#INSYNC}
+    */
+   public ListenableFuture<Change> submit(final String zoneId, ChangeBatch changes) {
+      checkNotNull(zoneId, "zoneId");
+      List<ActionOnResourceRecordSet> unit = ImmutableList.copyOf(checkNotNull(changes, "changes"));
+      checkArgument(unit.size() <= MAX_CHANGES && valueChars(unit) <= MAX_VALUE_CHARS,
+            "%s exceed the limits of a single change batch", changes);
+      List<List<Object>> contents = contents(unit);
+      Submitted submitted;
+      final Zone zone;
+      boolean first;
+      boolean full;
+      synchronized (pending) {
+         checkState(!closed, "closed");
+         first = !pending.containsKey(zoneId);
+         if (first)
+            pending.put(zoneId, new Zone());
+         zone = pending.get(zoneId);
+         submitted = zone.byContents.get(contents);
+         if (submitted != null && zone.isLastChangeToItsRecords(submitted))
+            return submitted.future;
+         submitted = new Submitted(unit);
+         zone.add(contents, submitted);
+         full = zone.changeCount >= MAX_CHANGES;
+      }
+      if (full) {
+         sender.execute(flushTask(zoneId, zone));
+      } else if (first) {
+         ScheduledFuture<?> windowTask = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+               sender.execute(flushTask(zoneId, zone));
+            }
+         }, window, TimeUnit.MILLISECONDS);
+         synchronized (pending) {
+            zone.windowTask = windowTask;
+         }
+      }
+      return submitted.future;
+   }
+
+   /**
+    * sends everything pending now instead of at the end of the window.
+    */
+   public void flush() {
+      List<String> zoneIds;
+      synchronized (pending) {
+         zoneIds = ImmutableList.copyOf(pending.keySet());
+      }
+      for (String zoneId : zoneIds)
+         flush(zoneId, null);
+   }
+
+   /**
+    * flushes {@code zone} unless it was flushed already, so a late task never cuts short the window of the next
+    * {@link Zone} created for the same id.
+    */
+   private Runnable flushTask(final String zoneId, final Zone zone) {
+      return new Runnable() {
+         @Override
+         public void run() {
+            try {
+               flush(zoneId, zone);
+            } catch (RuntimeException e) {
+               logger.error(e, "error sending changes to zone %s", zoneId);
+            }
+         }
+      };
+   }
+
+   /**
+    * @param expected
+    *           the zone to send, or null to send whatever is pending for {@code zoneId}
+    */
+   private void flush(String zoneId, @Nullable Zone expected) {
+      // holding the lock while sending keeps the batches of a zone in order
+      synchronized (sendLock) {
+         Zone zone;
+         synchronized (pending) {
+            zone = pending.get(zoneId);
+            if (zone == null || (expected != null && zone != expected))
+               return;
+            pending.remove(zoneId);
+            if (zone.windowTask != null)
+               zone.windowTask.cancel(false);
+         }
+         for (List<Submitted> batch : partition(zone))
+            send(zoneId, batch);
+      }
+   }
+
+   /**
+    * Splits the pending changes into consecutive batches within the limits of Route53.
+    */
+   private static List<List<Submitted>> partition(Zone zone) {
+      List<List<Submitted>> batches = Lists.newArrayList();
+      List<Submitted> batch = Lists.newArrayList();
+      Set<List<Object>> actionsOnRecords = Sets.newHashSet();
+      int changeCount = 0;
+      int chars = 0;
+      for (Submitted entry : zone.changes) {
+         List<ActionOnResourceRecordSet> unit = entry.changes;
+         int unitChars = valueChars(unit);
+         if (!batch.isEmpty() && (changeCount + unit.size() > MAX_CHANGES || chars + unitChars > MAX_VALUE_CHARS
+               || touchesSameRecords(actionsOnRecords, unit))) {
+            batches.add(batch);
+            batch = Lists.newArrayList();
+            actionsOnRecords.clear();
+            changeCount = 0;
+            chars = 0;
+         }
+         batch.add(entry);
+         for (ActionOnResourceRecordSet change : unit)
+            actionsOnRecords.add(actionOnRecord(change));
+         changeCount += unit.size();
+         chars += unitChars;
+      }
+      if (!batch.isEmpty())
+         batches.add(batch);
+      return batches;
+   }
+
+   private static boolean touchesSameRecords(Set<List<Object>> actionsOnRecords, List<ActionOnResourceRecordSet> unit) {
+      for (ActionOnResourceRecordSet change : unit)
+         if (actionsOnRecords.contains(actionOnRecord(change)))
+            return true;
+      return false;
+   }
+
+   /**
+    * Route53 identifies a record set by name, type and, for weighted or latency records, its set identifier.
+    */
+   private static List<Object> record(ActionOnResourceRecordSet change) {
+      ResourceRecordSet rrs = change.getRRS();
+      String id = rrs instanceof RecordSubset ? RecordSubset.class.cast(rrs).getId() : null;
+      return Arrays.<Object> asList(rrs.getName(), rrs.getType(), id);
+   }
+
+   private static List<Object> actionOnRecord(ActionOnResourceRecordSet change) {
+      List<Object> actionOnRecord = Lists.<Object> newArrayList(change.getAction());
+      actionOnRecord.addAll(record(change));
+      return actionOnRecord;
+   }
+
+   /**
+    * {@link ResourceRecordSet#equals} only compares name and type, so identical changes are found by all of their
+    * contents.
+    */
+   private static List<List<Object>> contents(List<ActionOnResourceRecordSet> changes) {
+      List<List<Object>> contents = Lists.newArrayListWithCapacity(changes.size());
+      for (ActionOnResourceRecordSet change : changes) {
+         ResourceRecordSet rrs = change.getRRS();
+         List<Object> content = Lists.newArrayList(actionOnRecord(change));
+         content.addAll(Arrays.<Object> asList(rrs.getTTL(), rrs.getValues(), rrs.getAliasTarget(), routing(rrs)));
+         contents.add(content);
+      }
+      return contents;
+   }
+
+   private static Object routing(ResourceRecordSet rrs) {
+      if (rrs instanceof Weighted)
+         return Weighted.class.cast(rrs).getWeight();
+      if (rrs instanceof Latency)
+         return Latency.class.cast(rrs).getRegion();
+      return null;
+   }
+
+   private static int valueChars(List<ActionOnResourceRecordSet> changes) {
+      int chars = 0;
+      for (ActionOnResourceRecordSet change : changes)
+         for (String value : change.getRRS().getValues())
+            chars += value.length();
+      return chars;
+   }
+
+   private void send(String zoneId, List<Submitted> batch) {
+      ChangeBatch.Builder changes = ChangeBatch.builder();
+      List<SettableFuture<Change>> futures = Lists.newArrayListWithCapacity(batch.size());
+      for (Submitted entry : batch) {
+         changes.addAll(entry.changes);
+         futures.add(entry.future);
+      }
+      ChangeBatch toApply = changes.build();
+      Change change;
+      try {
+         logger.debug(">> applying %d changes to zone %s", toApply.size(), zoneId);
+         change = api.getResourceRecordSetApiForHostedZone(zoneId).apply(toApply);
+      } catch (RuntimeException e) {
+         for (SettableFuture<Change> future : futures)
+            future.setException(e);
+         return;
+      }
+      logger.debug("<< change %s for %d changes to zone %s", change.getId(), toApply.size(), zoneId);
+      inFlight.addAll(futures);
+      completeWhenInSync(change, futures);
+   }
+
+   private void completeWhenInSync(Change change, List<SettableFuture<Change>> futures) {
+      if (change.getStatus() == Status.INSYNC) {
+         for (SettableFuture<Change> future : futures) {
+            future.set(change);
+            inFlight.remove(future);
+         }
+      } else {
+         scheduler.schedule(pollTask(change.getId(), futures), pollPeriod, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   private Runnable pollTask(final String changeId, final List<SettableFuture<Change>> futures) {
+      return new Runnable() {
+         @Override
+         public void run() {
+            Change change;
+            try {
+               change = api.getChange(changeId);
+            } catch (RuntimeException e) {
+               logger.warn(e, "error polling change %s, retrying", changeId);
+               scheduler.schedule(this, pollPeriod, TimeUnit.MILLISECONDS);
+               return;
+            }
+            if (change == null) {
+               for (SettableFuture<Change> future : futures) {
+                  future.setException(new IllegalStateException(format("change %s no longer exists", changeId)));
+                  inFlight.remove(future);
+               }
+               return;
+            }
+            completeWhenInSync(change, futures);
+         }
+      };
+   }
+
+   /**
+    * Stops sending and polling; futures of changes that are pending or not yet in sync are cancelled.
+    */
+   @PreDestroy
+   public void close() {
+      List<SettableFuture<Change>> toCancel = Lists.newArrayList();
+      synchronized (pending) {
+         closed = true;
+         for (Zone zone : pending.values())
+            for (Submitted submitted : zone.changes)
+               toCancel.add(submitted.future);
+         pending.clear();
+      }
+      scheduler.shutdownNow();
+      sender.shutdownNow();
+      toCancel.addAll(inFlight);
+      inFlight.clear();
+      for (SettableFuture<Change> future : toCancel)
+         future.cancel(false);
+   }
+}
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53.util;
+
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.route53.InvalidChangeBatchException;
+import org.jclouds.route53.Route53Api;
+import org.jclouds.route53.domain.Change;
+import org.jclouds.route53.domain.Change.Status;
+import org.jclouds.route53.domain.ChangeBatch;
+import org.jclouds.route53.domain.ChangeBatch.ActionOnResourceRecordSet;
+import org.jclouds.route53.domain.ResourceRecordSet;
+import org.jclouds.route53.features.ResourceRecordSetApi;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+
+@Test(groups = "unit", testName = "ChangeBatchCoalescerTest")
+public class ChangeBatchCoalescerTest {
+
+   private static final String ZONE = "Z1PA6795UKMFR9";
+
+   private final Change pending = Change.create("C2682N5HXP0BZ4", Status.PENDING, new Date(0));
+   private final Change inSync = Change.create("C2682N5HXP0BZ4", Status.INSYNC, new Date(0));
+
+   public void testCoalescesIdenticalChangesIntoOneBatchAndCompletesWhenInSync() throws Exception {
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      expect(rrsApi.apply(ChangeBatch.builder().create(txt("a", "1")).create(txt("b", "1")).build()))
+            .andReturn(pending);
+      Route53Api api = api(rrsApi);
+      expect(api.getChange(pending.getId())).andReturn(pending);
+      expect(api.getChange(pending.getId())).andReturn(inSync);
+      replay(rrsApi, api);
+
+      ChangeBatchCoalescer coalescer = coalescer(api);
+      ListenableFuture<Change> a = coalescer.create(ZONE, txt("a", "1"));
+      ListenableFuture<Change> b = coalescer.create(ZONE, txt("b", "1"));
+      assertSame(coalescer.create(ZONE, txt("a", "1")), a);
+      coalescer.flush();
+
+      assertEquals(a.get(5, TimeUnit.SECONDS).getStatus(), Status.INSYNC);
+      assertEquals(b.get(5, TimeUnit.SECONDS), a.get());
+      coalescer.close();
+      verify(rrsApi, api);
+   }
+
+   public void testHoldsChangeToSameRecordForNextBatch() throws Exception {
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      expect(rrsApi.apply(ChangeBatch.builder().create(txt("a", "1")).build())).andReturn(inSync);
+      expect(rrsApi.apply(ChangeBatch.builder().create(txt("a", "2")).delete(txt("b", "1")).build()))
+            .andReturn(inSync);
+      expect(rrsApi.apply(ChangeBatch.builder().delete(txt("a", "1")).create(txt("a", "3")).build()))
+            .andReturn(inSync);
+      Route53Api api = api(rrsApi);
+      replay(rrsApi, api);
+
+      ChangeBatchCoalescer coalescer = coalescer(api);
+      ListenableFuture<Change> first = coalescer.create(ZONE, txt("a", "1"));
+      ListenableFuture<Change> second = coalescer.create(ZONE, txt("a", "2"));
+      coalescer.delete(ZONE, txt("b", "1"));
+      // the delete and create of a replacement stay together in the next batch
+      coalescer.replace(ZONE, txt("a", "1"), txt("a", "3"));
+      coalescer.flush();
+
+      assertEquals(first.get(5, TimeUnit.SECONDS), inSync);
+      assertEquals(second.get(5, TimeUnit.SECONDS), inSync);
+      coalescer.close();
+      verify(rrsApi, api);
+   }
+
+   public void testIdenticalChangeAfterAnotherChangeToTheRecordIsSentAgain() throws Exception {
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      expect(rrsApi.apply(ChangeBatch.builder().create(txt("a", "1")).delete(txt("a", "1")).build()))
+            .andReturn(inSync);
+      expect(rrsApi.apply(ChangeBatch.builder().create(txt("a", "1")).build())).andReturn(inSync);
+      Route53Api api = api(rrsApi);
+      replay(rrsApi, api);
+
+      ChangeBatchCoalescer coalescer = coalescer(api);
+      ListenableFuture<Change> created = coalescer.create(ZONE, txt("a", "1"));
+      coalescer.delete(ZONE, txt("a", "1"));
+      ListenableFuture<Change> recreated = coalescer.create(ZONE, txt("a", "1"));
+      assertNotSame(recreated, created);
+      // nothing touched the record since it was recreated
+      assertSame(coalescer.create(ZONE, txt("a", "1")), recreated);
+      coalescer.flush();
+
+      assertEquals(recreated.get(5, TimeUnit.SECONDS), inSync);
+      coalescer.close();
+      verify(rrsApi, api);
+   }
+
+   public void testBatchesStayWithinLimitsAndInOrder() throws Exception {
+      Capture<ChangeBatch> batches = new Capture<ChangeBatch>(CaptureType.ALL);
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      expect(rrsApi.apply(capture(batches))).andReturn(inSync).atLeastOnce();
+      Route53Api api = api(rrsApi);
+      replay(rrsApi, api);
+
+      ChangeBatchCoalescer coalescer = coalescer(api);
+      List<ListenableFuture<Change>> futures = Lists.newArrayList();
+      List<ActionOnResourceRecordSet> submitted = Lists.newArrayList();
+      for (int i = 0; i < 250; i++) {
+         ResourceRecordSet rrs = txt("record" + i, "1");
+         futures.add(coalescer.create(ZONE, rrs));
+         submitted.addAll(ChangeBatch.builder().create(rrs).build());
+      }
+      coalescer.flush();
+      for (ListenableFuture<Change> future : futures)
+         future.get(5, TimeUnit.SECONDS);
+
+      List<ActionOnResourceRecordSet> sent = Lists.newArrayList();
+      for (ChangeBatch batch : batches.getValues()) {
+         assert batch.size() <= ChangeBatchCoalescer.MAX_CHANGES : batch.size();
+         sent.addAll(batch);
+      }
+      assertEquals(sent, submitted);
+      coalescer.close();
+   }
+
+   public void testWindowOfZoneFlushedWhenFullDoesNotCutShortTheNextWindow() throws Exception {
+      Capture<ChangeBatch> batches = new Capture<ChangeBatch>(CaptureType.ALL);
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      expect(rrsApi.apply(capture(batches))).andReturn(inSync).times(2);
+      Route53Api api = api(rrsApi);
+      replay(rrsApi, api);
+
+      ChangeBatchCoalescer coalescer = coalescer(api);
+      coalescer.window = 1000;
+      List<ListenableFuture<Change>> full = Lists.newArrayList();
+      for (int i = 0; i < ChangeBatchCoalescer.MAX_CHANGES; i++)
+         full.add(coalescer.create(ZONE, txt("record" + i, "1")));
+      for (ListenableFuture<Change> future : full)
+         future.get(5, TimeUnit.SECONDS);
+      Thread.sleep(600);
+      ListenableFuture<Change> next = coalescer.create(ZONE, txt("next", "1"));
+      // past the end of the first window, but not of the window of the next change
+      Thread.sleep(600);
+      assertFalse(next.isDone());
+      assertEquals(batches.getValues().size(), 1);
+
+      assertEquals(next.get(5, TimeUnit.SECONDS), inSync);
+      coalescer.close();
+      verify(rrsApi, api);
+   }
+
+   public void testRejectedBatchFailsEveryFuture() throws Exception {
+      InvalidChangeBatchException rejected = new InvalidChangeBatchException(ImmutableList.of("Tried to delete"),
+            new HttpResponseException("bad request", null, null));
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      expect(rrsApi.apply(ChangeBatch.builder().create(txt("a", "1")).delete(txt("b", "1")).build()))
+            .andThrow(rejected);
+      Route53Api api = api(rrsApi);
+      replay(rrsApi, api);
+
+      ChangeBatchCoalescer coalescer = coalescer(api);
+      ListenableFuture<Change> a = coalescer.create(ZONE, txt("a", "1"));
+      ListenableFuture<Change> b = coalescer.delete(ZONE, txt("b", "1"));
+      coalescer.flush();
+
+      for (ListenableFuture<Change> future : ImmutableList.of(a, b)) {
+         try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("expected the batch to be rejected");
+         } catch (ExecutionException e) {
+            assertSame(e.getCause(), rejected);
+         }
+      }
+      coalescer.close();
+      verify(rrsApi, api);
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testChangesOverTheLimitOfOneBatchAreRejected() {
+      ChangeBatch.Builder changes = ChangeBatch.builder();
+      for (int i = 0; i <= ChangeBatchCoalescer.MAX_CHANGES; i++)
+         changes.create(txt("record" + i, "1"));
+      ChangeBatchCoalescer coalescer = coalescer(createMock(Route53Api.class));
+      try {
+         coalescer.submit(ZONE, changes.build());
+      } finally {
+         coalescer.close();
+      }
+   }
+
+   private static ResourceRecordSet txt(String name, String value) {
+      return ResourceRecordSet.builder().name(name + ".jclouds.org.").type("TXT").add(value).build();
+   }
+
+   private static Route53Api api(ResourceRecordSetApi rrsApi) {
+      Route53Api api = createMock(Route53Api.class);
+      expect(api.getResourceRecordSetApiForHostedZone(ZONE)).andReturn(rrsApi).anyTimes();
+      return api;
+   }
+
+   private static ChangeBatchCoalescer coalescer(Route53Api api) {
+      ChangeBatchCoalescer coalescer = new ChangeBatchCoalescer(api);
+      // batches are only sent by flush() unless a full batch is pending
+      coalescer.window = TimeUnit.HOURS.toMillis(1);
+      coalescer.pollPeriod = 10;
+      return coalescer;
+   }
+}
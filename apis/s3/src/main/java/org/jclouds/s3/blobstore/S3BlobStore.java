@@ -18,11 +18,14 @@ package org.jclouds.s3.blobstore;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_MULTI_OBJECT_DELETE;
 import static org.jclouds.util.Predicates2.retry;
 
+import java.util.List;
 import java.util.Set;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
@@ -30,19 +33,26 @@ import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.ContainerNotFoundException;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.functions.BlobToHttpGetOptions;
 import org.jclouds.blobstore.internal.BaseBlobStore;
+import org.jclouds.blobstore.internal.BlobRuntimeException;
 import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.strategy.DownloadBlobStrategy;
+import org.jclouds.blobstore.strategy.PutMultipartBlobStrategy;
 import org.jclouds.blobstore.strategy.internal.FetchBlobMetadata;
 import org.jclouds.blobstore.util.BlobUtils;
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
 import org.jclouds.http.options.GetOptions;
+import org.jclouds.io.Payload;
 import org.jclouds.s3.S3Client;
+import org.jclouds.s3.binders.BindIterableAsPayloadToDeleteRequest;
 import org.jclouds.s3.blobstore.functions.BlobToObject;
 import org.jclouds.s3.blobstore.functions.BucketToResourceList;
 import org.jclouds.s3.blobstore.functions.ContainerToBucketListOptions;
@@ -53,9 +63,11 @@ import org.jclouds.s3.domain.AccessControlList.GroupGranteeURI;
 import org.jclouds.s3.domain.AccessControlList.Permission;
 import org.jclouds.s3.domain.BucketMetadata;
 import org.jclouds.s3.domain.CannedAccessPolicy;
+import org.jclouds.s3.domain.DeleteResult;
 import org.jclouds.s3.options.ListBucketOptions;
 import org.jclouds.s3.options.PutBucketOptions;
 import org.jclouds.s3.options.PutObjectOptions;
+import org.jclouds.s3.reference.S3Constants;
 import org.jclouds.s3.util.S3Utils;
 
 import com.google.common.base.Function;
@@ -63,6 +75,7 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Iterables;
 
 @Singleton
 public class S3BlobStore extends BaseBlobStore {
@@ -76,6 +89,7 @@ public class S3BlobStore extends BaseBlobStore {
    private final BlobToHttpGetOptions blob2ObjectGetOptions;
    private final Provider<FetchBlobMetadata> fetchBlobMetadataProvider;
    private final LoadingCache<String, AccessControlList> bucketAcls;
+   private final boolean multiObjectDelete;
 
    @Inject
    protected S3BlobStore(BlobStoreContext context, BlobUtils blobUtils, Supplier<Location> defaultLocation,
@@ -84,8 +98,10 @@ public class S3BlobStore extends BaseBlobStore {
             ContainerToBucketListOptions container2BucketListOptions, BucketToResourceList bucket2ResourceList,
             ObjectToBlob object2Blob, BlobToHttpGetOptions blob2ObjectGetOptions, BlobToObject blob2Object,
             ObjectToBlobMetadata object2BlobMd, Provider<FetchBlobMetadata> fetchBlobMetadataProvider,
-            LoadingCache<String, AccessControlList> bucketAcls) {
-      super(context, blobUtils, defaultLocation, locations);
+            LoadingCache<String, AccessControlList> bucketAcls, PutMultipartBlobStrategy putMultipartBlobStrategy,
+            DownloadBlobStrategy downloadBlobStrategy,
+            @Named(PROPERTY_S3_MULTI_OBJECT_DELETE) boolean multiObjectDelete) {
+      super(context, blobUtils, defaultLocation, locations, putMultipartBlobStrategy, downloadBlobStrategy);
       this.blob2ObjectGetOptions = checkNotNull(blob2ObjectGetOptions, "blob2ObjectGetOptions");
       this.sync = checkNotNull(sync, "sync");
       this.convertBucketsToStorageMetadata = checkNotNull(convertBucketsToStorageMetadata, "convertBucketsToStorageMetadata");
@@ -96,6 +112,7 @@ public class S3BlobStore extends BaseBlobStore {
       this.object2BlobMd = checkNotNull(object2BlobMd, "object2BlobMd");
       this.fetchBlobMetadataProvider = checkNotNull(fetchBlobMetadataProvider, "fetchBlobMetadataProvider");
       this.bucketAcls = checkNotNull(bucketAcls, "bucketAcls");
+      this.multiObjectDelete = multiObjectDelete;
    }
 
    /**
@@ -248,6 +265,31 @@ public class S3BlobStore extends BaseBlobStore {
       sync.deleteObject(container, key);
    }
 
+   /**
+    * This implementation invokes {@link S3Client#deleteObjects} with batches of at most
+    * {@link BindIterableAsPayloadToDeleteRequest#MAX_KEYS_PER_REQUEST} keys, or {@link #removeBlob} for each key
+    * when {@link S3Constants#PROPERTY_S3_MULTI_OBJECT_DELETE} is disabled.
+    * 
+    * @param container
+    *           bucket name
+    * @param keys
+    *           object keys
+    */
+   @Override
+   public void removeBlobs(String container, Iterable<String> keys) {
+      if (!multiObjectDelete) {
+         super.removeBlobs(container, keys);
+         return;
+      }
+      for (List<String> batch : Iterables.partition(keys, BindIterableAsPayloadToDeleteRequest.MAX_KEYS_PER_REQUEST)) {
+         DeleteResult result = sync.deleteObjects(container, batch);
+         if (!result.getErrors().isEmpty()) {
+            throw new BlobRuntimeException(String.format("could not delete %s keys from bucket %s: %s",
+                  result.getErrors().size(), container, result.getErrors()));
+         }
+      }
+   }
+
    /**
     * This implementation invokes {@link S3Utils#deleteAndVerifyContainerGone}
     */
@@ -263,4 +305,57 @@ public class S3BlobStore extends BaseBlobStore {
       location = location != null ? location : defaultLocation.get();
       return sync.putBucketInRegion(location.getId(), container, putBucketOptions);
    }
+
+   /**
+    * The generic S3 api has no multipart upload calls; providers that have them, such as AWS-S3, override this.
+    */
+   @Override
+   public boolean supportsBulkDelete() {
+      return multiObjectDelete;
+   }
+
+   @Override
+   public boolean supportsMultipartUpload() {
+      return false;
+   }
+
+   @Override
+   public MultipartUpload initiateMultipartUpload(String container, BlobMetadata blob) {
+      throw new UnsupportedOperationException("multipart upload not supported by " + getClass().getSimpleName());
+   }
+
+   @Override
+   public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
+      throw new UnsupportedOperationException("multipart upload not supported by " + getClass().getSimpleName());
+   }
+
+   @Override
+   public List<MultipartPart> listMultipartUpload(MultipartUpload mpu) {
+      throw new UnsupportedOperationException("multipart upload not supported by " + getClass().getSimpleName());
+   }
+
+   @Override
+   public String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts) {
+      throw new UnsupportedOperationException("multipart upload not supported by " + getClass().getSimpleName());
+   }
+
+   @Override
+   public void abortMultipartUpload(MultipartUpload mpu) {
+      throw new UnsupportedOperationException("multipart upload not supported by " + getClass().getSimpleName());
+   }
+
+   @Override
+   public long getMinimumMultipartPartSize() {
+      throw new UnsupportedOperationException("multipart upload not supported by " + getClass().getSimpleName());
+   }
+
+   @Override
+   public long getMaximumMultipartPartSize() {
+      throw new UnsupportedOperationException("multipart upload not supported by " + getClass().getSimpleName());
+   }
+
+   @Override
+   public int getMaximumNumberOfParts() {
+      throw new UnsupportedOperationException("multipart upload not supported by " + getClass().getSimpleName());
+   }
 }
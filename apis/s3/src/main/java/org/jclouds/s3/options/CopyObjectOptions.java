@@ -36,7 +36,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.jclouds.date.DateService;
-import org.jclouds.date.internal.SimpleDateFormatDateService;
+import org.jclouds.date.internal.LockFreeDateService;
 import org.jclouds.http.options.BaseHttpRequestOptions;
 import org.jclouds.s3.domain.CannedAccessPolicy;
 
@@ -69,7 +69,7 @@ import com.google.common.collect.Multimap;
  * <code>
  */
 public class CopyObjectOptions extends BaseHttpRequestOptions {
-   private static final DateService dateService = new SimpleDateFormatDateService();
+   private static final DateService dateService = new LockFreeDateService();
    public static final CopyObjectOptions NONE = new CopyObjectOptions();
    private Map<String, String> metadata;
    private CannedAccessPolicy acl = CannedAccessPolicy.PRIVATE;
@@ -31,6 +31,10 @@ public final class S3Constants {
    public static final String DELIMITER = "delimiter";
    public static final String PROPERTY_S3_SERVICE_PATH = "jclouds.s3.service-path";
    public static final String PROPERTY_S3_VIRTUAL_HOST_BUCKETS = "jclouds.s3.virtual-host-buckets";
+   /**
+    * Whether the service implements multi-object delete. When false, blobs are removed one request at a time.
+    */
+   public static final String PROPERTY_S3_MULTI_OBJECT_DELETE = "jclouds.s3.multi-object-delete";
 
    private S3Constants() {
       throw new AssertionError("intentionally unimplemented");
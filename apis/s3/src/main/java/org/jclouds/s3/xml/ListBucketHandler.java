@@ -27,6 +27,8 @@ import javax.inject.Inject;
 
 import org.jclouds.date.DateService;
 import org.jclouds.http.functions.ParseSax;
+import org.jclouds.http.functions.ParseSax.ElementListener;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.s3.domain.CanonicalUser;
 import org.jclouds.s3.domain.ListBucketResponse;
 import org.jclouds.s3.domain.ObjectMetadata;
@@ -42,7 +44,8 @@ import com.google.common.collect.ImmutableSet.Builder;
  * <p/>
  * ListBucketResult xmlns="http://s3.amazonaws.com/doc/2006-03-01"
  */
-public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResponse> {
+public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResponse> implements
+      ParseSax.StreamingHandler<ObjectMetadata> {
    private Builder<ObjectMetadata> contents = ImmutableSet.builder();
    private Builder<String> commonPrefixes = ImmutableSet.builder();
    private CanonicalUser currentOwner;
@@ -51,6 +54,7 @@ public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResp
    private ObjectMetadataBuilder builder = new ObjectMetadataBuilder();
 
    private final DateService dateParser;
+   private ElementListener<? super ObjectMetadata> listener;
 
    private String bucketName;
    private String prefix;
@@ -67,6 +71,12 @@ public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResp
       this.dateParser = dateParser;
    }
 
+   @Override
+   public ListBucketHandler streamTo(@Nullable ElementListener<? super ObjectMetadata> listener) {
+      this.listener = listener;
+      return this;
+   }
+
    public ListBucketResponse getResult() {
       return new ListBucketResponseImpl(bucketName, contents.build(), prefix, marker,
                (isTruncated && nextMarker == null) ? currentKey : nextMarker, maxResults, delimiter, isTruncated,
@@ -110,7 +120,11 @@ public class ListBucketHandler extends ParseSax.HandlerWithResult<ListBucketResp
       } else if (qName.equals("StorageClass")) {
          builder.storageClass(ObjectMetadata.StorageClass.valueOf(currentOrNull(currentText)));
       } else if (qName.equals("Contents")) {
-         contents.add(builder.build());
+         ObjectMetadata object = builder.build();
+         if (listener != null)
+            listener.onElement(object);
+         else
+            contents.add(object);
          builder = new ObjectMetadataBuilder().bucket(bucketName);
       } else if (qName.equals("Name")) {
          this.bucketName = currentOrNull(currentText);
@@ -21,6 +21,7 @@ import static com.google.common.net.HttpHeaders.ETAG;
 import static com.google.common.net.HttpHeaders.EXPECT;
 import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static org.jclouds.Constants.PROPERTY_MAX_RETRIES;
+import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_MULTI_OBJECT_DELETE;
 import static org.testng.Assert.assertEquals;
 
 import java.io.IOException;
@@ -29,6 +30,7 @@ import java.util.Properties;
 import java.util.Set;
 
 import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.concurrent.config.ExecutorServiceModule;
 import org.jclouds.http.okhttp.config.OkHttpCommandExecutorServiceModule;
 import org.jclouds.s3.domain.S3Object;
@@ -95,4 +97,61 @@ public class S3ClientMockTest {
 
       server.shutdown();
    }
+
+   public void testRemoveBlobsDeletesAtMostOneThousandKeysPerRequest() throws IOException, InterruptedException {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(new MockResponse().setBody("<DeleteResult/>"));
+      server.enqueue(new MockResponse().setBody("<DeleteResult/>"));
+      server.play();
+
+      ImmutableList.Builder<String> keys = ImmutableList.builder();
+      for (int i = 0; i < 1001; i++) {
+         keys.add("key" + i);
+      }
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_S3_MULTI_OBJECT_DELETE, "true");
+      BlobStoreContext context = ContextBuilder.newBuilder("s3")
+                                               .credentials("accessKey", "secretKey")
+                                               .endpoint(server.getUrl("/").toString())
+                                               .modules(modules)
+                                               .overrides(overrides)
+                                               .build(BlobStoreContext.class);
+      context.getBlobStore().removeBlobs("bucket", keys.build());
+
+      assertEquals(server.getRequestCount(), 2);
+      RecordedRequest request = server.takeRequest();
+      assertEquals(request.getRequestLine(), "POST /bucket?delete HTTP/1.1");
+      assertEquals(countOccurrences(request.getUtf8Body(), "<Key>"), 1000);
+      request = server.takeRequest();
+      assertEquals(request.getRequestLine(), "POST /bucket?delete HTTP/1.1");
+      assertEquals(countOccurrences(request.getUtf8Body(), "<Key>"), 1);
+
+      context.close();
+      server.shutdown();
+   }
+
+   public void testRemoveBlobsWithoutMultiObjectDeleteRemovesEachKey() throws IOException, InterruptedException {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(new MockResponse().setResponseCode(204));
+      server.enqueue(new MockResponse().setResponseCode(204));
+      server.play();
+
+      BlobStoreContext context = ContextBuilder.newBuilder("s3")
+                                               .credentials("accessKey", "secretKey")
+                                               .endpoint(server.getUrl("/").toString())
+                                               .modules(modules)
+                                               .build(BlobStoreContext.class);
+      context.getBlobStore().removeBlobs("bucket", ImmutableList.of("key1", "key2"));
+
+      assertEquals(server.getRequestCount(), 2);
+      assertEquals(server.takeRequest().getRequestLine(), "DELETE /bucket/key1 HTTP/1.1");
+      assertEquals(server.takeRequest().getRequestLine(), "DELETE /bucket/key2 HTTP/1.1");
+
+      context.close();
+      server.shutdown();
+   }
+
+   private static int countOccurrences(String string, String substring) {
+      return (string.length() - string.replace(substring, "").length()) / substring.length();
+   }
 }
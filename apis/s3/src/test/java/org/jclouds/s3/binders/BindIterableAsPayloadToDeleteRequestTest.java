@@ -14,7 +14,7 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package org.jclouds.aws.s3.binders;
+package org.jclouds.s3.binders;
 
 import static org.testng.Assert.assertEquals;
 
@@ -28,6 +28,7 @@ import org.testng.annotations.Test;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
+@Test(singleThreaded = true)
 public class BindIterableAsPayloadToDeleteRequestTest {
 
    private final BindIterableAsPayloadToDeleteRequest binder = new BindIterableAsPayloadToDeleteRequest();
@@ -45,6 +46,27 @@ public class BindIterableAsPayloadToDeleteRequestTest {
       assertEquals(result.getPayload(), payload);
    }
 
+   @Test
+   public void testKeysAreEscaped() {
+      HttpRequest result = binder.bindToRequest(request, ImmutableSet.of("a&b<c>"));
+
+      Payload payload = Payloads
+         .newStringPayload("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<Delete>" +
+            "<Object><Key>a&amp;b&lt;c&gt;</Key></Object></Delete>");
+      payload.getContentMetadata().setContentType(MediaType.TEXT_XML);
+
+      assertEquals(result.getPayload(), payload);
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testMoreThanMaxKeysThrowsException() {
+      ImmutableSet.Builder<String> keys = ImmutableSet.builder();
+      for (int i = 0; i <= BindIterableAsPayloadToDeleteRequest.MAX_KEYS_PER_REQUEST; i++) {
+         keys.add("key" + i);
+      }
+      binder.bindToRequest(request, keys.build());
+   }
+
    @Test(expectedExceptions = IllegalArgumentException.class)
    public void testEmptySetThrowsException() {
       binder.bindToRequest(request, ImmutableSet.of());
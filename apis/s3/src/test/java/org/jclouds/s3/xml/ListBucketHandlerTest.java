@@ -21,6 +21,7 @@ import static org.testng.Assert.assertEquals;
 
 import java.io.InputStream;
 import java.net.URI;
+import java.util.List;
 import java.util.TreeSet;
 
 import org.jclouds.date.DateService;
@@ -29,6 +30,7 @@ import org.jclouds.http.HttpException;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.functions.BaseHandlerTest;
 import org.jclouds.http.functions.ParseSax;
+import org.jclouds.http.functions.ParseSax.ElementListener;
 import org.jclouds.s3.domain.CanonicalUser;
 import org.jclouds.s3.domain.ListBucketResponse;
 import org.jclouds.s3.domain.ObjectMetadata;
@@ -39,6 +41,7 @@ import org.jclouds.util.Strings2;
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 
 /**
  * Tests behavior of {@code ListBucketHandler}
@@ -125,6 +128,26 @@ public class ListBucketHandlerTest extends BaseHandlerTest {
       assert bucket.getMarker() == null;
    }
 
+   @Test
+   public void testStreamToListener() throws HttpException {
+      final List<String> keys = Lists.newArrayList();
+      ListBucketHandler handler = injector.getInstance(ListBucketHandler.class);
+      handler.streamTo(new ElementListener<ObjectMetadata>() {
+         @Override
+         public void onElement(ObjectMetadata element) {
+            keys.add(element.getKey());
+         }
+      });
+      ListBucketResponse bucket = factory.create(handler)
+            .setContext(HttpRequest.builder().method("GET").endpoint("http://bucket.com").build())
+            .parse(Strings2.toInputStream(listBucketWithPrefixAppsSlash));
+      assertEquals(keys, ImmutableList.of("apps/0", "apps/1", "apps/2", "apps/3", "apps/4", "apps/5", "apps/6",
+            "apps/7", "apps/8", "apps/9"));
+      assertEquals(bucket.size(), 0);
+      assertEquals(bucket.getPrefix(), "apps/");
+      assertEquals(bucket.getMaxKeys(), 1000);
+   }
+
    @Test
    public void testListMyBucketsWithPrefixAppsSlash() throws HttpException {
 
@@ -34,6 +34,7 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
 import javax.ws.rs.HEAD;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
@@ -376,4 +377,19 @@ public interface CommonSwiftClient extends Closeable {
    @ResponseParser(ParseETagHeader.class)
    @Headers(keys = "X-Object-Manifest", values = "{container}/{name}/")
    String putObjectManifest(@PathParam("container") String container, @PathParam("name") String name);
+
+   /**
+    * Creates a manifest that joins all objects named {@code manifest}, a {@code container/prefix}
+    * pair, in lexical order.
+    *
+    * @deprecated This method will be replaced by
+    *             {@link org.jclouds.openstack.swift.v1.features.ObjectApi#replaceManifest()}
+    */
+   @Deprecated
+   @Named("PutObjectManifest")
+   @PUT
+   @Path("/{container}/{name}")
+   @ResponseParser(ParseETagHeader.class)
+   String putObjectManifest(@PathParam("container") String container, @PathParam("name") String name,
+         @HeaderParam("X-Object-Manifest") String manifest);
 }
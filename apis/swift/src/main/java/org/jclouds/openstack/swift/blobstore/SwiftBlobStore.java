@@ -18,10 +18,13 @@ package org.jclouds.openstack.swift.blobstore;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.io.BaseEncoding.base16;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 import static org.jclouds.openstack.swift.options.ListContainerOptions.Builder.withPrefix;
 
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -31,6 +34,8 @@ import javax.inject.Singleton;
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.domain.internal.PageSetImpl;
@@ -40,11 +45,14 @@ import org.jclouds.blobstore.internal.BaseBlobStore;
 import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.strategy.DownloadBlobStrategy;
+import org.jclouds.blobstore.strategy.PutMultipartBlobStrategy;
 import org.jclouds.blobstore.strategy.internal.FetchBlobMetadata;
 import org.jclouds.blobstore.util.BlobUtils;
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
 import org.jclouds.http.options.GetOptions;
+import org.jclouds.io.Payload;
 import org.jclouds.openstack.swift.CommonSwiftClient;
 import org.jclouds.openstack.swift.blobstore.functions.BlobStoreListContainerOptionsToListContainerOptions;
 import org.jclouds.openstack.swift.blobstore.functions.BlobToObject;
@@ -52,7 +60,6 @@ import org.jclouds.openstack.swift.blobstore.functions.ContainerToResourceList;
 import org.jclouds.openstack.swift.blobstore.functions.ContainerToResourceMetadata;
 import org.jclouds.openstack.swift.blobstore.functions.ObjectToBlob;
 import org.jclouds.openstack.swift.blobstore.functions.ObjectToBlobMetadata;
-import org.jclouds.openstack.swift.blobstore.strategy.internal.MultipartUploadStrategy;
 import org.jclouds.openstack.swift.domain.ContainerMetadata;
 import org.jclouds.openstack.swift.domain.MutableObjectInfoWithMetadata;
 import org.jclouds.openstack.swift.domain.ObjectInfo;
@@ -61,6 +68,8 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.ListeningExecutorService;
 
@@ -76,7 +85,6 @@ public class SwiftBlobStore extends BaseBlobStore {
    private final ObjectToBlobMetadata object2BlobMd;
    private final BlobToHttpGetOptions blob2ObjectGetOptions;
    private final Provider<FetchBlobMetadata> fetchBlobMetadataProvider;
-   private final Provider<MultipartUploadStrategy> multipartUploadStrategy;
 
    @Inject
    protected SwiftBlobStore(@Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
@@ -86,9 +94,9 @@ public class SwiftBlobStore extends BaseBlobStore {
             BlobStoreListContainerOptionsToListContainerOptions container2ContainerListOptions,
             ContainerToResourceList container2ResourceList, ObjectToBlob object2Blob, BlobToObject blob2Object,
             ObjectToBlobMetadata object2BlobMd, BlobToHttpGetOptions blob2ObjectGetOptions,
-            Provider<FetchBlobMetadata> fetchBlobMetadataProvider,
-            Provider<MultipartUploadStrategy> multipartUploadStrategy) {
-      super(context, blobUtils, defaultLocation, locations);
+            Provider<FetchBlobMetadata> fetchBlobMetadataProvider, PutMultipartBlobStrategy putMultipartBlobStrategy,
+            DownloadBlobStrategy downloadBlobStrategy) {
+      super(context, blobUtils, defaultLocation, locations, putMultipartBlobStrategy, downloadBlobStrategy);
       this.userExecutor = userExecutor;
       this.sync = sync;
       this.container2ResourceMd = container2ResourceMd;
@@ -99,7 +107,6 @@ public class SwiftBlobStore extends BaseBlobStore {
       this.object2BlobMd = object2BlobMd;
       this.blob2ObjectGetOptions = blob2ObjectGetOptions;
       this.fetchBlobMetadataProvider = checkNotNull(fetchBlobMetadataProvider, "fetchBlobMetadataProvider");
-      this.multipartUploadStrategy = multipartUploadStrategy;
    }
 
    /**
@@ -237,7 +244,7 @@ public class SwiftBlobStore extends BaseBlobStore {
    @Override
    public String putBlob(String container, Blob blob, PutOptions options) {
       if (options.isMultipart()) {
-        return multipartUploadStrategy.get().execute(container, blob);
+        return putMultipartBlob(container, blob);
       } else {
         return putBlob(container, blob);
       }
@@ -314,4 +321,92 @@ public class SwiftBlobStore extends BaseBlobStore {
          throw new UnsupportedOperationException("publicRead");
       return createContainerInLocation(location, container);
    }
+
+   @Override
+   public boolean supportsMultipartUpload() {
+      return true;
+   }
+
+   /**
+    * Parts are uploaded as segments named {@code <key>/<upload id>/<part number>} and joined by a
+    * manifest object on completion.
+    */
+   @Override
+   public MultipartUpload initiateMultipartUpload(String container, BlobMetadata blobMetadata) {
+      return MultipartUpload.create(container, blobMetadata.getName(), UUID.randomUUID().toString(), blobMetadata);
+   }
+
+   @Override
+   public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
+      String partName = segmentPrefix(mpu) + String.format("%05d", partNumber);
+      Blob part = blobBuilder(partName).payload(payload).build();
+      String eTag = sync.putObject(mpu.getContainerName(), blob2Object.apply(part));
+      return MultipartPart.create(partNumber, payload.getContentMetadata().getContentLength(), eTag);
+   }
+
+   @Override
+   public List<MultipartPart> listMultipartUpload(MultipartUpload mpu) {
+      String prefix = segmentPrefix(mpu);
+      ImmutableList.Builder<MultipartPart> parts = ImmutableList.builder();
+      String nextMarker = null;
+      do {
+         org.jclouds.openstack.swift.options.ListContainerOptions listContainerOptions = withPrefix(prefix);
+         if (nextMarker != null) {
+            listContainerOptions = listContainerOptions.afterMarker(nextMarker);
+         }
+         PageSet<ObjectInfo> segments = sync.listObjects(mpu.getContainerName(), listContainerOptions);
+         for (ObjectInfo segment : segments) {
+            int partNumber = Integer.parseInt(segment.getName().substring(prefix.length()));
+            String eTag = segment.getHash() == null ? null : base16().lowerCase().encode(segment.getHash());
+            parts.add(MultipartPart.create(partNumber, segment.getBytes(), eTag));
+         }
+         nextMarker = segments.getNextMarker();
+      } while (nextMarker != null);
+      return parts.build();
+   }
+
+   /**
+    * Removes segments uploaded for parts that are not in {@code parts}, so that the manifest joins
+    * exactly the listed parts, then writes the manifest.
+    */
+   @Override
+   public String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts) {
+      Set<Integer> partNumbers = ImmutableSet.copyOf(Iterables.transform(parts, new Function<MultipartPart, Integer>() {
+         @Override
+         public Integer apply(MultipartPart part) {
+            return part.getPartNumber();
+         }
+      }));
+      String prefix = segmentPrefix(mpu);
+      for (MultipartPart uploaded : listMultipartUpload(mpu)) {
+         if (!partNumbers.contains(uploaded.getPartNumber())) {
+            sync.removeObject(mpu.getContainerName(), prefix + String.format("%05d", uploaded.getPartNumber()));
+         }
+      }
+      return sync.putObjectManifest(mpu.getContainerName(), mpu.getBlobName(), mpu.getContainerName() + "/" + prefix);
+   }
+
+   @Override
+   public void abortMultipartUpload(MultipartUpload mpu) {
+      removeObjectsWithPrefix(mpu.getContainerName(), segmentPrefix(mpu));
+   }
+
+   @Override
+   public long getMinimumMultipartPartSize() {
+      return 1;
+   }
+
+   @Override
+   public long getMaximumMultipartPartSize() {
+      return 5L * 1024 * 1024 * 1024;
+   }
+
+   @Override
+   public int getMaximumNumberOfParts() {
+      return 10 * 1000;
+   }
+
+   private static String segmentPrefix(MultipartUpload mpu) {
+      return mpu.getBlobName() + "/" + mpu.getId() + "/";
+   }
 }
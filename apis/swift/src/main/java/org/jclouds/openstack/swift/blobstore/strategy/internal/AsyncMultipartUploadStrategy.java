@@ -22,6 +22,12 @@ import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.options.PutOptions;
 import org.jclouds.openstack.swift.blobstore.functions.BlobToObject;
 
+/**
+ * @deprecated use {@link org.jclouds.blobstore.BlobStore#putBlob} with
+ *             {@link org.jclouds.blobstore.options.PutOptions#multipart()}, which goes through
+ *             {@link org.jclouds.blobstore.strategy.PutMultipartBlobStrategy}. Will be removed in 2.1.
+ */
+@Deprecated
 @ImplementedBy(ParallelMultipartUploadStrategy.class)
 public interface AsyncMultipartUploadStrategy {
     ListenableFuture<String> execute(String container, Blob blob, PutOptions options, BlobToObject blob2Object);
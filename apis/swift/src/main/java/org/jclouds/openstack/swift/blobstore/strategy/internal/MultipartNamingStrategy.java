@@ -18,6 +18,12 @@ package org.jclouds.openstack.swift.blobstore.strategy.internal;
 
 import javax.inject.Singleton;
 
+/**
+ * @deprecated use {@link org.jclouds.blobstore.BlobStore#putBlob} with
+ *             {@link org.jclouds.blobstore.options.PutOptions#multipart()}, which goes through
+ *             {@link org.jclouds.blobstore.strategy.PutMultipartBlobStrategy}. Will be removed in 2.1.
+ */
+@Deprecated
 @Singleton
 public class MultipartNamingStrategy {
 
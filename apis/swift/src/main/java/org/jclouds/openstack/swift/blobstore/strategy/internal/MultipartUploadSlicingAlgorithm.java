@@ -34,6 +34,12 @@ import org.jclouds.openstack.swift.blobstore.strategy.MultipartUpload;
 import javax.annotation.Resource;
 import javax.inject.Named;
 
+/**
+ * @deprecated use {@link org.jclouds.blobstore.BlobStore#putBlob} with
+ *             {@link org.jclouds.blobstore.options.PutOptions#multipart()}, which goes through
+ *             {@link org.jclouds.blobstore.strategy.PutMultipartBlobStrategy}. Will be removed in 2.1.
+ */
+@Deprecated
 public class MultipartUploadSlicingAlgorithm {
 
    @Resource
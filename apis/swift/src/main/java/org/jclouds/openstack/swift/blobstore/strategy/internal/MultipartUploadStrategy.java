@@ -20,6 +20,12 @@ import org.jclouds.blobstore.domain.Blob;
 
 import com.google.inject.ImplementedBy;
 
+/**
+ * @deprecated use {@link org.jclouds.blobstore.BlobStore#putBlob} with
+ *             {@link org.jclouds.blobstore.options.PutOptions#multipart()}, which goes through
+ *             {@link org.jclouds.blobstore.strategy.PutMultipartBlobStrategy}. Will be removed in 2.1.
+ */
+@Deprecated
 @ImplementedBy(SequentialMultipartUploadStrategy.class)
 public interface MultipartUploadStrategy {
 
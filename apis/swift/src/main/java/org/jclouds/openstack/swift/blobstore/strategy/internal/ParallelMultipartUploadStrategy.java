@@ -54,6 +54,12 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 
+/**
+ * @deprecated use {@link org.jclouds.blobstore.BlobStore#putBlob} with
+ *             {@link org.jclouds.blobstore.options.PutOptions#multipart()}, which goes through
+ *             {@link org.jclouds.blobstore.strategy.PutMultipartBlobStrategy}. Will be removed in 2.1.
+ */
+@Deprecated
 public class ParallelMultipartUploadStrategy implements AsyncMultipartUploadStrategy {
     @Resource
     @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
@@ -33,6 +33,12 @@ import org.jclouds.openstack.swift.blobstore.functions.BlobToObject;
 
 import com.google.inject.Inject;
 
+/**
+ * @deprecated use {@link org.jclouds.blobstore.BlobStore#putBlob} with
+ *             {@link org.jclouds.blobstore.options.PutOptions#multipart()}, which goes through
+ *             {@link org.jclouds.blobstore.strategy.PutMultipartBlobStrategy}. Will be removed in 2.1.
+ */
+@Deprecated
 public class SequentialMultipartUploadStrategy implements MultipartUploadStrategy {
 
    @Resource
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.logging.config.NullLoggingModule;
+import org.jclouds.openstack.swift.reference.SwiftHeaders;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteSource;
+import com.google.inject.Module;
+
+/**
+ * Canned documents and stubbed contexts shared by the benchmarks.
+ */
+public final class Fixtures {
+
+   public static final String LAST_MODIFIED_DATE = "Thu, 07 May 2009 18:27:08 GMT";
+   public static final String ETAG_VALUE = "\"c82e6a0025c31c5de5947fda62ac51ab\"";
+
+   private Fixtures() {
+   }
+
+   /**
+    * A {@code ListBucketResult} page in the shape S3 returns it.
+    */
+   public static String listBucketXml(int keys) {
+      StringBuilder xml = new StringBuilder(keys * 400);
+      xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+      xml.append("<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">");
+      xml.append("<Name>bucket</Name><Prefix></Prefix><Marker></Marker>");
+      xml.append("<MaxKeys>").append(keys).append("</MaxKeys><IsTruncated>false</IsTruncated>");
+      for (int i = 0; i < keys; i++) {
+         xml.append("<Contents>");
+         xml.append("<Key>apps/").append(i).append("</Key>");
+         xml.append("<LastModified>2009-05-07T18:27:08.000Z</LastModified>");
+         xml.append("<ETag>").append(ETAG_VALUE.replace("\"", "&quot;")).append("</ETag>");
+         xml.append("<Size>").append(i).append("</Size>");
+         xml.append("<Owner><ID>e1a5f66a480ca99a4fdfe8e318c3020446c9989d7004e7778029fbcc5d990fa0</ID>");
+         xml.append("<DisplayName>ferncam</DisplayName></Owner>");
+         xml.append("<StorageClass>STANDARD</StorageClass>");
+         xml.append("</Contents>");
+      }
+      xml.append("</ListBucketResult>");
+      return xml.toString();
+   }
+
+   /**
+    * A Swift container listing in its json form.
+    */
+   public static String objectListJson(int objects) {
+      StringBuilder json = new StringBuilder(objects * 160);
+      json.append('[');
+      for (int i = 0; i < objects; i++) {
+         if (i > 0)
+            json.append(',');
+         json.append("{\"name\":\"apps/").append(i).append("\",");
+         json.append("\"hash\":\"c82e6a0025c31c5de5947fda62ac51ab\",");
+         json.append("\"bytes\":").append(i).append(',');
+         json.append("\"content_type\":\"application/octet-stream\",");
+         json.append("\"last_modified\":\"2009-05-07T18:27:08.000000\"}");
+      }
+      json.append(']');
+      return json.toString();
+   }
+
+   /**
+    * Answers S3 requests as a well-behaved bucket would.
+    */
+   public static final Function<HttpRequest, HttpResponse> S3_RESPONDER = new Function<HttpRequest, HttpResponse>() {
+      final String listBucket = listBucketXml(1000);
+
+      @Override
+      public HttpResponse apply(HttpRequest request) {
+         String query = request.getEndpoint().getRawQuery();
+         if (query != null && query.contains("location"))
+            return xml("<LocationConstraint xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\"/>");
+         if ("HEAD".equals(request.getMethod()))
+            return objectResponse(null);
+         // bucket listings address the bucket itself: "/" when virtual hosted, "/bucket" otherwise
+         if (request.getEndpoint().getPath().lastIndexOf('/') == 0)
+            return xml(listBucket);
+         return objectResponse(Payloads.newByteSourcePayload(ByteSource.wrap(new byte[1024])));
+      }
+   };
+
+   /**
+    * Answers Swift v1.0 authentication and account requests.
+    */
+   public static final Function<HttpRequest, HttpResponse> SWIFT_RESPONDER = new Function<HttpRequest, HttpResponse>() {
+      @Override
+      public HttpResponse apply(HttpRequest request) {
+         if (request.getEndpoint().getPath().endsWith("/v1.0"))
+            return HttpResponse.builder().statusCode(200).message("OK")
+                  .addHeader("X-Storage-Url", "http://127.0.0.1:8080/v1/AUTH_test")
+                  .addHeader("X-Auth-Token", "AUTH_tk36dabe83ca744cc296a98ec46089ec35").build();
+         return HttpResponse.builder().statusCode(204).message("No Content")
+               .addHeader(SwiftHeaders.ACCOUNT_TEMPORARY_URL_KEY, "TEMPORARY_KEY").build();
+      }
+   };
+
+   /**
+    * Builds an api or provider context whose http driver is {@code responder}.
+    */
+   public static ContextBuilder stubbedContext(String apiOrProvider, String endpoint, String identity,
+         String credential, Function<HttpRequest, HttpResponse> responder) {
+      return ContextBuilder.newBuilder(apiOrProvider)
+            .endpoint(endpoint)
+            .credentials(identity, credential)
+            .modules(ImmutableSet.<Module> of(new StubHttpCommandExecutorServiceModule(responder),
+                  new NullLoggingModule()));
+   }
+
+   static HttpResponse xml(String body) {
+      Payload payload = Payloads.newStringPayload(body);
+      payload.getContentMetadata().setContentType("application/xml");
+      return HttpResponse.builder().statusCode(200).message("OK").payload(payload).build();
+   }
+
+   static HttpResponse objectResponse(Payload payload) {
+      HttpResponse.Builder<?> builder = HttpResponse.builder().statusCode(200).message("OK")
+            .addHeader(ETAG, ETAG_VALUE)
+            .addHeader(LAST_MODIFIED, LAST_MODIFIED_DATE);
+      if (payload != null) {
+         payload.getContentMetadata().setContentType("application/octet-stream");
+         builder.payload(payload);
+      } else {
+         builder.addHeader(CONTENT_LENGTH, "1024");
+      }
+      return builder.build();
+   }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.util.List;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseJson;
+import org.jclouds.io.Payloads;
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.io.ByteSource;
+import com.google.inject.Guice;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Cost of parsing a Swift container listing with {@link ParseJson}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ParseJsonBenchmark {
+
+   static class ObjectEntry {
+      String name;
+      String hash;
+      long bytes;
+      String content_type;
+      String last_modified;
+   }
+
+   @Param({ "10", "1000" })
+   public int objects;
+
+   private ParseJson<List<ObjectEntry>> parser;
+   private byte[] document;
+
+   @Setup
+   public void setup() {
+      Json json = Guice.createInjector(new GsonModule()).getInstance(Json.class);
+      parser = new ParseJson<List<ObjectEntry>>(json, new TypeLiteral<List<ObjectEntry>>() {
+      });
+      document = Fixtures.objectListJson(objects).getBytes(UTF_8);
+   }
+
+   @Benchmark
+   public List<ObjectEntry> objectList() {
+      HttpResponse response = HttpResponse.builder().statusCode(200).message("OK")
+            .payload(Payloads.newByteSourcePayload(ByteSource.wrap(document))).build();
+      return parser.apply(response);
+   }
+}
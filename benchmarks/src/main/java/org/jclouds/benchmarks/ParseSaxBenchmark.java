@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseSax;
+import org.jclouds.http.functions.config.SaxParserModule;
+import org.jclouds.io.Payloads;
+import org.jclouds.s3.domain.ListBucketResponse;
+import org.jclouds.s3.xml.ListBucketHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.io.ByteSource;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+/**
+ * Cost of parsing an S3 {@code ListBucketResult} page with {@link ParseSax}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ParseSaxBenchmark {
+
+   @Param({ "10", "1000" })
+   public int keys;
+
+   private Injector injector;
+   private ParseSax.Factory factory;
+   private HttpRequest request;
+   private byte[] document;
+
+   @Setup
+   public void setup() {
+      injector = Guice.createInjector(new SaxParserModule());
+      factory = injector.getInstance(ParseSax.Factory.class);
+      request = HttpRequest.builder().method("GET").endpoint("https://bucket.s3.amazonaws.com/").build();
+      document = Fixtures.listBucketXml(keys).getBytes(UTF_8);
+   }
+
+   @Benchmark
+   public ListBucketResponse listBucket() {
+      HttpResponse response = HttpResponse.builder().statusCode(200).message("OK")
+            .payload(Payloads.newByteSourcePayload(ByteSource.wrap(document))).build();
+      return factory.create(injector.getInstance(ListBucketHandler.class)).setContext(request).apply(response);
+   }
+}
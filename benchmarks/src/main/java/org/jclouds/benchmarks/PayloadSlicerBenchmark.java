@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import org.jclouds.io.Payload;
+import org.jclouds.io.PayloadSlicer;
+import org.jclouds.io.Payloads;
+import org.jclouds.io.internal.BasePayloadSlicer;
+import org.jclouds.netty.io.NettyPayloadSlicer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.io.Files;
+
+/**
+ * Cost of slicing a payload into multipart upload parts and reading every part, with the slices of
+ * {@link BasePayloadSlicer}, its pooled slices and those of {@link NettyPayloadSlicer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PayloadSlicerBenchmark {
+
+   private static final int LENGTH = 32 * 1024 * 1024;
+   private static final int PART_SIZE = 4 * 1024 * 1024;
+
+   @Param({ "stream", "file" })
+   public String source;
+
+   private final PayloadSlicer base = new BasePayloadSlicer();
+   private final PayloadSlicer netty = new NettyPayloadSlicer();
+   private final byte[] scratch = new byte[64 * 1024];
+   private byte[] data;
+   private File file;
+
+   @Setup
+   public void setup() throws IOException {
+      data = new byte[LENGTH];
+      new Random(0).nextBytes(data);
+      file = File.createTempFile("slicer", ".bin");
+      Files.write(data, file);
+   }
+
+   @TearDown
+   public void tearDown() {
+      file.delete();
+   }
+
+   @Benchmark
+   public long base() throws IOException {
+      return readAll(base.slice(payload(), PART_SIZE), false);
+   }
+
+   @Benchmark
+   public long pooled() throws IOException {
+      return readAll(base.sliceSequentially(payload(), PART_SIZE, 2), true);
+   }
+
+   @Benchmark
+   public long netty() throws IOException {
+      return readAll(netty.slice(payload(), PART_SIZE), false);
+   }
+
+   @SuppressWarnings("deprecation")
+   private Payload payload() {
+      if ("file".equals(source))
+         return Payloads.newFilePayload(file);
+      Payload payload = Payloads.newInputStreamPayload(new ByteArrayInputStream(data));
+      payload.getContentMetadata().setContentLength((long) LENGTH);
+      return payload;
+   }
+
+   private long readAll(Iterable<Payload> slices, boolean close) throws IOException {
+      long total = 0;
+      for (Payload slice : slices) {
+         InputStream in = slice.openStream();
+         try {
+            for (int count = in.read(scratch); count != -1; count = in.read(scratch)) {
+               total += count;
+            }
+         } finally {
+            in.close();
+         }
+         if (close)
+            slice.close();
+      }
+      return total;
+   }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.io.IOException;
+
+import org.jclouds.azure.storage.filters.SharedKeyLiteAuthentication;
+import org.jclouds.blobstore.BlobRequestSigner;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.openstack.filters.AuthenticateRequest;
+import org.jclouds.rest.internal.RestAnnotationProcessor;
+import org.jclouds.s3.filters.RequestAuthorizeSignature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.net.HttpHeaders;
+import com.google.inject.Injector;
+
+/**
+ * Cost of the per-request signing filters of the S3, Azure and Swift storage apis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RequestSigningBenchmark {
+
+   private static final String AZURE_ACCOUNT = "foo";
+   private static final String AZURE_KEY = "aGVsbG8gd29ybGQhIGhlbGxvIHdvcmxkIQ==";
+
+   private RequestAuthorizeSignature s3Signer;
+   private HttpRequest s3Request;
+
+   private Injector azure;
+   private SharedKeyLiteAuthentication azureSigner;
+   private HttpRequest azureRequest;
+
+   private BlobStoreContext swift;
+   private AuthenticateRequest swiftAuthenticator;
+   private BlobRequestSigner swiftSigner;
+   private HttpRequest swiftRequest;
+
+   @Setup
+   public void setup(S3State s3) {
+      s3Signer = s3.injector.getInstance(RequestAuthorizeSignature.class);
+      s3Request = s3.injector.getInstance(RestAnnotationProcessor.class).apply(s3.getObjectWithRange);
+
+      azure = Fixtures.stubbedContext("azureblob", "https://" + AZURE_ACCOUNT + ".blob.core.windows.net",
+            AZURE_ACCOUNT, AZURE_KEY, Fixtures.S3_RESPONDER).buildInjector();
+      azureSigner = azure.getInstance(SharedKeyLiteAuthentication.class);
+      azureRequest = HttpRequest.builder().method("GET")
+            .endpoint("https://" + AZURE_ACCOUNT + ".blob.core.windows.net/container/apps/object")
+            .addHeader(HttpHeaders.RANGE, "bytes=0-1023").build();
+
+      swift = Fixtures.stubbedContext("swift", "http://myhost:8080/auth", "test:tester", "testing",
+            Fixtures.SWIFT_RESPONDER).build(BlobStoreContext.class);
+      swiftAuthenticator = swift.utils().injector().getInstance(AuthenticateRequest.class);
+      swiftSigner = swift.getSigner();
+      swiftRequest = HttpRequest.builder().method("GET").endpoint("http://127.0.0.1:8080/v1/AUTH_test/container/apps/object")
+            .build();
+      // warm the token and temporary url key caches so they are not measured
+      swiftSigner.signGetBlob("container", "apps/object", 60);
+   }
+
+   @TearDown
+   public void tearDown() throws IOException {
+      azure.getInstance(Closer.class).close();
+      swift.close();
+   }
+
+   @Benchmark
+   public HttpRequest s3RequestAuthorizeSignature() {
+      return s3Signer.filter(s3Request);
+   }
+
+   @Benchmark
+   public HttpRequest azureSharedKeyLite() {
+      return azureSigner.filter(azureRequest);
+   }
+
+   @Benchmark
+   public HttpRequest swiftAuthenticateRequest() {
+      return swiftAuthenticator.filter(swiftRequest);
+   }
+
+   @Benchmark
+   public HttpRequest swiftTemporaryUrl() {
+      return swiftSigner.signGetBlob("container", "apps/object", 60);
+   }
+}
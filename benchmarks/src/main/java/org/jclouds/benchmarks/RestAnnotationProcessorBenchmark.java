@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.rest.internal.RestAnnotationProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of turning an annotated S3 method call into an {@link HttpRequest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RestAnnotationProcessorBenchmark {
+
+   private RestAnnotationProcessor processor;
+
+   @Setup
+   public void setup(S3State s3) {
+      processor = s3.injector.getInstance(RestAnnotationProcessor.class);
+   }
+
+   @Benchmark
+   public HttpRequest headObject(S3State s3) {
+      return processor.apply(s3.headObject);
+   }
+
+   @Benchmark
+   public HttpRequest getObject(S3State s3) {
+      return processor.apply(s3.getObject);
+   }
+
+   @Benchmark
+   public HttpRequest getObjectWithRange(S3State s3) {
+      return processor.apply(s3.getObjectWithRange);
+   }
+
+   @Benchmark
+   public HttpRequest listBucket(S3State s3) {
+      return processor.apply(s3.listBucket);
+   }
+}
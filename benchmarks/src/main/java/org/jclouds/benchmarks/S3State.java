@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import static org.jclouds.reflect.Reflection2.method;
+
+import java.io.IOException;
+
+import org.jclouds.http.options.GetOptions;
+import org.jclouds.lifecycle.Closer;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.s3.S3Client;
+import org.jclouds.s3.options.ListBucketOptions;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Injector;
+
+/**
+ * An S3 api injector wired to {@link Fixtures#S3_RESPONDER}, plus the invocations the S3
+ * benchmarks replay.
+ */
+@State(Scope.Benchmark)
+public class S3State {
+
+   public Injector injector;
+
+   public Invocation headObject;
+   public Invocation getObject;
+   public Invocation getObjectWithRange;
+   public Invocation listBucket;
+
+   @Setup
+   public void setup() {
+      injector = Fixtures.stubbedContext("s3", "https://s3.amazonaws.com", "identity", "credential",
+            Fixtures.S3_RESPONDER).buildInjector();
+      headObject = Invocation.create(method(S3Client.class, "headObject", String.class, String.class),
+            ImmutableList.<Object> of("bucket", "apps/object"));
+      getObject = Invocation.create(
+            method(S3Client.class, "getObject", String.class, String.class, GetOptions[].class),
+            ImmutableList.<Object> of("bucket", "apps/object"));
+      getObjectWithRange = Invocation.create(
+            method(S3Client.class, "getObject", String.class, String.class, GetOptions[].class),
+            ImmutableList.<Object> of("bucket", "apps/object", new GetOptions[] { GetOptions.Builder.range(0, 1023) }));
+      listBucket = Invocation.create(method(S3Client.class, "listBucket", String.class, ListBucketOptions[].class),
+            ImmutableList.<Object> of("bucket",
+                  new ListBucketOptions[] { ListBucketOptions.Builder.withPrefix("apps/").maxResults(1000) }));
+   }
+
+   @TearDown
+   public void tearDown() throws IOException {
+      injector.getInstance(Closer.class).close();
+   }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.benchmarks;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.rest.internal.RestAnnotationProcessor;
+import org.jclouds.rest.internal.TransformerForRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Function;
+
+/**
+ * Cost of choosing the response parser for an already built request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TransformerForRequestBenchmark {
+
+   private TransformerForRequest transformerForRequest;
+   private HttpRequest headObject;
+   private HttpRequest listBucket;
+
+   @Setup
+   public void setup(S3State s3) {
+      transformerForRequest = s3.injector.getInstance(TransformerForRequest.class);
+      RestAnnotationProcessor processor = s3.injector.getInstance(RestAnnotationProcessor.class);
+      headObject = processor.apply(s3.headObject);
+      listBucket = processor.apply(s3.listBucket);
+   }
+
+   @Benchmark
+   public Function<HttpResponse, ?> headObject() {
+      return transformerForRequest.apply(headObject);
+   }
+
+   @Benchmark
+   public Function<HttpResponse, ?> listBucket() {
+      return transformerForRequest.apply(listBucket);
+   }
+}
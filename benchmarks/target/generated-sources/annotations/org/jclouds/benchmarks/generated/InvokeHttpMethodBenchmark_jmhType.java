@@ -0,0 +1,4 @@
+package org.jclouds.benchmarks.generated;
+public class InvokeHttpMethodBenchmark_jmhType extends InvokeHttpMethodBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.jclouds.benchmarks.generated;
+public class ParseJsonBenchmark_jmhType extends ParseJsonBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.jclouds.benchmarks.generated;
+public class ParseSaxBenchmark_jmhType extends ParseSaxBenchmark_jmhType_B3 {
+}
+
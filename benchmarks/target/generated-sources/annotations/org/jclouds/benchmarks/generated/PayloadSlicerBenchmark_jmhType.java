@@ -0,0 +1,4 @@
+package org.jclouds.benchmarks.generated;
+public class PayloadSlicerBenchmark_jmhType extends PayloadSlicerBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.jclouds.benchmarks.generated;
+public class RequestSigningBenchmark_jmhType extends RequestSigningBenchmark_jmhType_B3 {
+}
+
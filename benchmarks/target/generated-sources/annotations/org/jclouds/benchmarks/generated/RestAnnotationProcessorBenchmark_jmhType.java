@@ -0,0 +1,4 @@
+package org.jclouds.benchmarks.generated;
+public class RestAnnotationProcessorBenchmark_jmhType extends RestAnnotationProcessorBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.jclouds.benchmarks.generated;
+public class S3State_jmhType extends S3State_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.jclouds.benchmarks.generated;
+public class TransformerForRequestBenchmark_jmhType extends TransformerForRequestBenchmark_jmhType_B3 {
+}
+
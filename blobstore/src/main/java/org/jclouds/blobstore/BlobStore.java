@@ -16,11 +16,16 @@
  */
 package org.jclouds.blobstore;
 
+import java.io.File;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Set;
 
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobBuilder;
 import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.options.CreateContainerOptions;
@@ -28,6 +33,7 @@ import org.jclouds.blobstore.options.GetOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
 import org.jclouds.domain.Location;
+import org.jclouds.io.Payload;
 import org.jclouds.javax.annotation.Nullable;
 
 /**
@@ -272,6 +278,26 @@ public interface BlobStore {
     */
    void removeBlob(String container, String name);
 
+   /**
+    * Deletes multiple {@code Blob}s representing the data at locations {@code container/name}.
+    * Providers which {@link #supportsBulkDelete() support bulk deletion} remove many blobs per request;
+    * others remove them one at a time.
+    *
+    * @param container
+    *           container where these exist.
+    * @param names
+    *           fully qualified names relative to the container.
+    * @throws ContainerNotFoundException
+    *            if the container doesn't exist
+    */
+   void removeBlobs(String container, Iterable<String> names);
+
+   /**
+    * @return whether {@link #removeBlobs} removes many blobs per request rather than calling
+    *         {@link #removeBlob} for each of them.
+    */
+   boolean supportsBulkDelete();
+
    /**
     * @return a count of all blobs in the container, excluding directory markers
     */
@@ -283,4 +309,90 @@ public interface BlobStore {
     */
    long countBlobs(String container, ListContainerOptions options);
 
+   /**
+    * @return whether the multipart upload methods below are supported. Where they are not, they throw
+    *         {@link UnsupportedOperationException} and {@link PutOptions#multipart()} uploads the blob in a
+    *         single request.
+    */
+   boolean supportsMultipartUpload();
+
+   /**
+    * Starts assembling a blob from parts uploaded separately. The blob does not exist until the
+    * upload is {@link #completeMultipartUpload completed}.
+    * <p/>
+    * {@link #putBlob(String, Blob, PutOptions)} with {@link PutOptions#multipart()} drives these
+    * methods for you, uploading parts in parallel.
+    * 
+    * @param container
+    *           container to place the blob.
+    * @param blob
+    *           name and metadata of the blob to create
+    * @throws ContainerNotFoundException
+    *            if the container doesn't exist
+    */
+   MultipartUpload initiateMultipartUpload(String container, BlobMetadata blob);
+
+   /**
+    * Uploads one part of a multipart upload, replacing any part previously uploaded with the same
+    * number.
+    * 
+    * @param partNumber
+    *           position of the part in the blob, from 1 to {@link #getMaximumNumberOfParts()}
+    * @param payload
+    *           content of the part, of at least {@link #getMinimumMultipartPartSize()} bytes unless it
+    *           is the last part
+    */
+   MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload);
+
+   /**
+    * @return the parts uploaded so far, ordered by part number
+    */
+   List<MultipartPart> listMultipartUpload(MultipartUpload mpu);
+
+   /**
+    * Assembles the blob from {@code parts}, in the order given.
+    * 
+    * @return etag of the blob, possibly null where etags are unsupported
+    */
+   String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts);
+
+   /**
+    * Discards a multipart upload and any parts uploaded to it.
+    */
+   void abortMultipartUpload(MultipartUpload mpu);
+
+   /**
+    * @return the smallest size allowed for any part but the last
+    */
+   long getMinimumMultipartPartSize();
+
+   /**
+    * @return the largest size allowed for a part
+    */
+   long getMaximumMultipartPartSize();
+
+   /**
+    * @return the number of parts a multipart upload may have
+    */
+   int getMaximumNumberOfParts();
+
+   /**
+    * Fetches a blob into a file, in ranges retrieved in parallel.
+    * 
+    * @param destination
+    *           file to write, created or overwritten
+    * @throws KeyNotFoundException
+    *            if the blob doesn't exist
+    */
+   void downloadBlob(String container, String name, File destination);
+
+   /**
+    * Streams a blob whose ranges are retrieved in parallel ahead of the reader. Closing the stream
+    * cancels the ranges not read yet.
+    * 
+    * @throws KeyNotFoundException
+    *            if the blob doesn't exist
+    */
+   InputStream streamBlob(String container, String name);
+
 }
@@ -17,8 +17,11 @@
 package org.jclouds.blobstore;
 
 import java.io.IOException;
+import java.util.NavigableMap;
 
 import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.StorageType;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.domain.Location;
 
@@ -88,6 +91,16 @@ public interface LocalStorageStrategy {
      */
     Iterable<String> getBlobKeysInsideContainer(String container) throws IOException;
 
+    /**
+     * Returns a metadata-only index of the blobs and directories inside a container, sorted by
+     * key. Directories are reported with type {@link StorageType#FOLDER}. Entries never carry a
+     * payload, so listing a page only needs to seek into the index instead of loading every blob.
+     * @param container
+     * @return a live, sorted view of the container contents
+     * @throws IOException
+     */
+    NavigableMap<String, StorageMetadata> getBlobMetadataIndex(String container) throws IOException;
+
     /**
      * Load the blob with the given key belonging to the container with the given
      * name. There must exist a resource on the file system whose complete name
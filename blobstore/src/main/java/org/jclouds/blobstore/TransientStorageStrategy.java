@@ -22,27 +22,42 @@ import static org.jclouds.http.Uris.uriBuilder;
 
 import java.io.IOException;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import javax.inject.Inject;
+import javax.inject.Named;
 
+import org.jclouds.blobstore.config.LocalBlobStore;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.Blob.Factory;
+import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.reference.BlobStoreConstants;
 import org.jclouds.blobstore.util.BlobStoreUtils;
 import org.jclouds.date.DateService;
 import org.jclouds.domain.Location;
 import org.jclouds.http.HttpUtils;
+import org.jclouds.io.ByteSources;
 import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.io.Payloads;
 import org.jclouds.util.Closeables2;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimaps;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
@@ -50,15 +65,52 @@ import com.google.common.hash.HashingInputStream;
 import com.google.common.io.ByteSource;
 import com.google.common.io.ByteStreams;
 import com.google.common.net.HttpHeaders;
+import com.google.inject.Inject;
 
 public class TransientStorageStrategy implements LocalStorageStrategy {
-   private final ConcurrentMap<String, ConcurrentMap<String, Blob>> containerToBlobs = new ConcurrentHashMap<String, ConcurrentMap<String, Blob>>();
+   private final ConcurrentMap<String, ConcurrentNavigableMap<String, Blob>> containerToBlobs =
+         new ConcurrentHashMap<String, ConcurrentNavigableMap<String, Blob>>();
    private final ConcurrentMap<String, Location> containerToLocation = new ConcurrentHashMap<String, Location>();
    private final Supplier<Location> defaultLocation;
    private final DateService dateService;
    private final Factory blobFactory;
    private final ContentMetadataCodec contentMetadataCodec;
 
+   /** Off-heap payloads are copied into direct buffers of this size. */
+   private static final int DIRECT_CHUNK_SIZE = 1024 * 1024;
+
+   @Inject(optional = true)
+   @Named(BlobStoreConstants.PROPERTY_TRANSIENT_OFF_HEAP)
+   @VisibleForTesting
+   boolean offHeap = false;
+
+   @Inject(optional = true)
+   @Named(BlobStoreConstants.PROPERTY_TRANSIENT_MAX_BYTES)
+   @VisibleForTesting
+   long maxBytes = Long.MAX_VALUE;
+
+   /**
+    * Payload size of each stored blob, least recently used first. Only maintained when {@link #maxBytes} is
+    * bounded; the lock on this map also guards {@link #partSizes}, the byte counts and every write to the
+    * containers.
+    */
+   private final LinkedHashMap<Map.Entry<String, String>, Long> blobSizes =
+         new LinkedHashMap<Map.Entry<String, String>, Long>(16, 0.75f, true);
+   private long storedBytes;
+   /** Payload size of each stored part of a multipart upload, which are never evicted. */
+   private final Map<Map.Entry<String, String>, Long> partSizes = Maps.newHashMap();
+   private long partBytes;
+
+   /** How many of the most recent reads are remembered until the next write applies them to the LRU order. */
+   private static final int READ_BUFFER_SIZE = 1024;
+
+   /**
+    * Blobs read since the last write, so reads do not take the lock on {@link #blobSizes}. Only the most recent
+    * {@link #READ_BUFFER_SIZE} reads are kept, which makes the eviction order approximate.
+    */
+   private final Queue<Map.Entry<String, String>> recentReads = new ConcurrentLinkedQueue<Map.Entry<String, String>>();
+   private final AtomicInteger recentReadCount = new AtomicInteger();
+
    @Inject
    TransientStorageStrategy(Supplier<Location> defaultLocation, DateService dateService, Factory blobFactory,
          ContentMetadataCodec contentMetadataCodec) {
@@ -80,8 +132,8 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
 
    @Override
    public boolean createContainerInLocation(final String containerName, final Location location) {
-      ConcurrentMap<String, Blob> origValue = containerToBlobs.putIfAbsent(
-            containerName, new ConcurrentHashMap<String, Blob>());
+      ConcurrentNavigableMap<String, Blob> origValue = containerToBlobs.putIfAbsent(
+            containerName, new ConcurrentSkipListMap<String, Blob>());
       if (origValue != null) {
          return false;
       }
@@ -91,7 +143,14 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
 
    @Override
    public void deleteContainer(final String containerName) {
-      containerToBlobs.remove(containerName);
+      if (!isBounded()) {
+         containerToBlobs.remove(containerName);
+         return;
+      }
+      synchronized (blobSizes) {
+         containerToBlobs.remove(containerName);
+         forgetBlobsInContainer(containerName);
+      }
    }
 
    @Override
@@ -102,7 +161,14 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
    @Override
    public void clearContainer(String containerName, ListContainerOptions options) {
       // TODO implement options
-      containerToBlobs.get(containerName).clear();
+      if (!isBounded()) {
+         containerToBlobs.get(containerName).clear();
+         return;
+      }
+      synchronized (blobSizes) {
+         containerToBlobs.get(containerName).clear();
+         forgetBlobsInContainer(containerName);
+      }
    }
 
    @Override
@@ -116,19 +182,32 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
       return containerToBlobs.get(containerName).keySet();
    }
 
+   @Override
+   public NavigableMap<String, StorageMetadata> getBlobMetadataIndex(final String containerName) {
+      return Maps.transformValues(containerToBlobs.get(containerName), BLOB_TO_METADATA);
+   }
+
    @Override
    public Blob getBlob(final String containerName, final String blobName) {
       Map<String, Blob> map = containerToBlobs.get(containerName);
-      return map == null ? null : map.get(blobName);
+      if (map == null) {
+         return null;
+      }
+      Blob blob = map.get(blobName);
+      if (blob != null && isBounded()) {
+         recordRead(Maps.immutableEntry(containerName, blobName));
+      }
+      return blob;
    }
 
    @Override
    public String putBlob(final String containerName, final Blob blob) throws IOException {
-      byte[] payload;
+      ByteSource payload;
       HashCode actualHashCode;
       HashingInputStream input = new HashingInputStream(Hashing.md5(), blob.getPayload().openStream());
       try {
-         payload = ByteStreams.toByteArray(input);
+         payload = offHeap ? ByteSources.copyToDirectBuffers(input, DIRECT_CHUNK_SIZE)
+               : ByteSource.wrap(ByteStreams.toByteArray(input));
          actualHashCode = input.hash();
          HashCode expectedHashCode = blob.getPayload().getContentMetadata().getContentMD5AsHashCode();
          if (expectedHashCode != null && !actualHashCode.equals(expectedHashCode)) {
@@ -141,15 +220,57 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
 
       Blob newBlob = createUpdatedCopyOfBlobInContainer(containerName, blob, payload, actualHashCode);
       Map<String, Blob> map = containerToBlobs.get(containerName);
-      map.put(newBlob.getMetadata().getName(), newBlob);
+      String blobName = newBlob.getMetadata().getName();
+      if (!isBounded()) {
+         map.put(blobName, newBlob);
+      } else {
+         long size = payload.size();
+         Map.Entry<String, String> key = Maps.immutableEntry(containerName, blobName);
+         boolean part = LocalBlobStore.isMultipartPart(blobName);
+         synchronized (blobSizes) {
+            // parts cannot be evicted, so whatever they leave is all the room there is
+            Long replacedPart = partSizes.get(key);
+            long room = maxBytes - partBytes + (replacedPart == null ? 0 : replacedPart);
+            if (size > room) {
+               throw new IOException("blob " + blobName + " of " + size
+                     + " bytes exceeds the transient blobstore limit of " + maxBytes + " bytes, of which "
+                     + (maxBytes - room) + " are held by multipart uploads in progress");
+            }
+            // before the put, so the new blob stays the most recently used
+            applyRecentReads();
+            map.put(blobName, newBlob);
+            if (part) {
+               Long previousSize = partSizes.put(key, size);
+               partBytes += size - (previousSize == null ? 0 : previousSize);
+            } else {
+               Long previousSize = blobSizes.put(key, size);
+               storedBytes += size - (previousSize == null ? 0 : previousSize);
+            }
+            evictLeastRecentlyUsed();
+         }
+      }
       return base16().lowerCase().encode(actualHashCode.asBytes());
    }
 
    @Override
    public void removeBlob(final String containerName, final String blobName) {
       Map<String, Blob> map = containerToBlobs.get(containerName);
-      if (map != null)
+      if (map == null)
+         return;
+      if (!isBounded()) {
+         map.remove(blobName);
+         return;
+      }
+      synchronized (blobSizes) {
          map.remove(blobName);
+         Map.Entry<String, String> key = Maps.immutableEntry(containerName, blobName);
+         Long size = blobSizes.remove(key);
+         if (size != null)
+            storedBytes -= size;
+         size = partSizes.remove(key);
+         if (size != null)
+            partBytes -= size;
+      }
    }
 
    @Override
@@ -162,12 +283,75 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
       return "/";
    }
 
-   private Blob createUpdatedCopyOfBlobInContainer(String containerName, Blob in, byte[] input, HashCode contentMd5) {
+   private boolean isBounded() {
+      return maxBytes != Long.MAX_VALUE;
+   }
+
+   /** Remembers a read without taking the lock, dropping the oldest remembered read once the buffer is full. */
+   private void recordRead(Map.Entry<String, String> key) {
+      recentReads.add(key);
+      if (recentReadCount.incrementAndGet() > READ_BUFFER_SIZE && recentReads.poll() != null) {
+         recentReadCount.decrementAndGet();
+      }
+   }
+
+   /** Moves the blobs read since the last write to the most recently used end, in the order they were read. */
+   private void applyRecentReads() {
+      for (Map.Entry<String, String> key = recentReads.poll(); key != null; key = recentReads.poll()) {
+         recentReadCount.decrementAndGet();
+         blobSizes.get(key);
+      }
+   }
+
+   /**
+    * Drops the least recently used blobs until the stored payloads fit in {@link #maxBytes}. Parts of
+    * multipart uploads in progress count against the limit but are never evicted, since the upload could
+    * not complete without them; a put that would not fit next to them is refused instead.
+    */
+   private void evictLeastRecentlyUsed() {
+      for (Iterator<Map.Entry<Map.Entry<String, String>, Long>> it = blobSizes.entrySet().iterator();
+            storedBytes + partBytes > maxBytes && it.hasNext();) {
+         Map.Entry<Map.Entry<String, String>, Long> eldest = it.next();
+         it.remove();
+         storedBytes -= eldest.getValue();
+         Map<String, Blob> map = containerToBlobs.get(eldest.getKey().getKey());
+         if (map != null)
+            map.remove(eldest.getKey().getValue());
+      }
+   }
+
+   private void forgetBlobsInContainer(String containerName) {
+      storedBytes -= forgetSizesInContainer(blobSizes, containerName);
+      partBytes -= forgetSizesInContainer(partSizes, containerName);
+   }
+
+   /** @return the total size of the entries removed */
+   private static long forgetSizesInContainer(Map<Map.Entry<String, String>, Long> sizes, String containerName) {
+      long removed = 0;
+      for (Iterator<Map.Entry<Map.Entry<String, String>, Long>> it = sizes.entrySet().iterator(); it.hasNext();) {
+         Map.Entry<Map.Entry<String, String>, Long> entry = it.next();
+         if (entry.getKey().getKey().equals(containerName)) {
+            it.remove();
+            removed += entry.getValue();
+         }
+      }
+      return removed;
+   }
+
+   private static final Function<Blob, StorageMetadata> BLOB_TO_METADATA = new Function<Blob, StorageMetadata>() {
+      @Override
+      public StorageMetadata apply(Blob blob) {
+         return blob.getMetadata();
+      }
+   };
+
+   private Blob createUpdatedCopyOfBlobInContainer(String containerName, Blob in, ByteSource input,
+         HashCode contentMd5) {
       checkNotNull(containerName, "containerName");
       checkNotNull(in, "blob");
       checkNotNull(input, "input");
       checkNotNull(contentMd5, "contentMd5");
-      Payload payload = Payloads.newByteSourcePayload(ByteSource.wrap(input));
+      Payload payload = Payloads.newByteSourcePayload(input);
       MutableContentMetadata oldMd = in.getPayload().getContentMetadata();
       HttpUtils.copy(oldMd, payload.getContentMetadata());
       payload.getContentMetadata().setContentMD5(contentMd5);
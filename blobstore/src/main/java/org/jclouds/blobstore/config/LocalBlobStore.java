@@ -16,22 +16,26 @@
  */
 package org.jclouds.blobstore.config;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.getCausalChain;
 import static com.google.common.base.Throwables.propagate;
-import static com.google.common.collect.Iterables.find;
 import static com.google.common.collect.Iterables.size;
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Sets.filter;
 import static com.google.common.collect.Sets.newTreeSet;
 import static org.jclouds.blobstore.options.ListContainerOptions.Builder.recursive;
 
-import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Date;
+import java.util.List;
+import java.util.NavigableMap;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.UUID;
 import java.util.regex.Pattern;
 
 import javax.annotation.Resource;
@@ -46,11 +50,14 @@ import org.jclouds.blobstore.LocalStorageStrategy;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobBuilder;
 import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
 import org.jclouds.blobstore.domain.MutableBlobMetadata;
 import org.jclouds.blobstore.domain.MutableStorageMetadata;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
 import org.jclouds.blobstore.domain.internal.MutableStorageMetadataImpl;
 import org.jclouds.blobstore.domain.internal.PageSetImpl;
 import org.jclouds.blobstore.domain.internal.StorageMetadataImpl;
@@ -58,7 +65,9 @@ import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.GetOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.strategy.DownloadBlobStrategy;
 import org.jclouds.blobstore.strategy.IfDirectoryReturnNameStrategy;
+import org.jclouds.blobstore.strategy.PutMultipartBlobStrategy;
 import org.jclouds.blobstore.util.BlobStoreUtils;
 import org.jclouds.blobstore.util.BlobUtils;
 import org.jclouds.collect.Memoized;
@@ -72,17 +81,33 @@ import org.jclouds.io.ByteStreams2;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
 import org.jclouds.logging.Logger;
 
 import com.google.common.base.Function;
+import com.google.common.base.Objects;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashCode;
+import com.google.common.io.ByteSource;
 
 @Singleton
 public final class LocalBlobStore implements BlobStore {
 
+   /**
+    * uploaded parts are stored as hidden blobs named with this prefix, the upload id and the part number.
+    * Only names of exactly that form are reserved, see {@link #isMultipartPart}; other blob names starting
+    * with this prefix, which earlier versions accepted, are still stored and listed as usual.
+    */
+   public static final String MULTIPART_PREFIX = ".mpus-";
+
+   private static final Pattern MULTIPART_PART_NAME = Pattern.compile(Pattern.quote(MULTIPART_PREFIX)
+         + "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}-[0-9]{5}");
+
    @Resource
    private Logger logger = Logger.NULL;
 
@@ -93,6 +118,8 @@ public final class LocalBlobStore implements BlobStore {
    private final IfDirectoryReturnNameStrategy ifDirectoryReturnName;
    private final Blob.Factory blobFactory;
    private final LocalStorageStrategy storageStrategy;
+   private final PutMultipartBlobStrategy putMultipartBlobStrategy;
+   private final DownloadBlobStrategy downloadBlobStrategy;
 
    @Inject
    LocalBlobStore(BlobStoreContext context,
@@ -100,7 +127,8 @@ public final class LocalBlobStore implements BlobStore {
          @Memoized Supplier<Set<? extends Location>> locations,
          ContentMetadataCodec contentMetadataCodec,
          IfDirectoryReturnNameStrategy ifDirectoryReturnName,
-         Blob.Factory blobFactory, LocalStorageStrategy storageStrategy) {
+         Blob.Factory blobFactory, LocalStorageStrategy storageStrategy,
+         PutMultipartBlobStrategy putMultipartBlobStrategy, DownloadBlobStrategy downloadBlobStrategy) {
       this.context = checkNotNull(context, "context");
       this.blobUtils = checkNotNull(blobUtils, "blobUtils");
       this.locations = checkNotNull(locations, "locations");
@@ -108,6 +136,8 @@ public final class LocalBlobStore implements BlobStore {
       this.contentMetadataCodec = contentMetadataCodec;
       this.ifDirectoryReturnName = ifDirectoryReturnName;
       this.storageStrategy = storageStrategy;
+      this.putMultipartBlobStrategy = putMultipartBlobStrategy;
+      this.downloadBlobStrategy = downloadBlobStrategy;
    }
 
    @Override
@@ -152,6 +182,10 @@ public final class LocalBlobStore implements BlobStore {
       clearContainer(containerName, recursive());
    }
 
+   /**
+    * Parts of multipart uploads in progress are not blobs of the container and are left in place, so
+    * those uploads can still complete.
+    */
    @Override
    public void clearContainer(String containerName, ListContainerOptions options) {
       blobUtils.clearContainer(containerName, options);
@@ -205,69 +239,45 @@ public final class LocalBlobStore implements BlobStore {
       if (!storageStrategy.containerExists(containerName))
          throw cnfe(containerName);
 
-      // Loading blobs from container
-      Iterable<String> blobBelongingToContainer = null;
+      NavigableMap<String, StorageMetadata> index = null;
       try {
-         blobBelongingToContainer = storageStrategy.getBlobKeysInsideContainer(containerName);
+         index = storageStrategy.getBlobMetadataIndex(containerName);
       } catch (IOException e) {
          logger.error(e, "An error occurred loading blobs contained into container %s", containerName);
          propagate(e);
       }
 
-      SortedSet<StorageMetadata> contents = newTreeSet(transform(blobBelongingToContainer,
-            new Function<String, StorageMetadata>() {
-               public StorageMetadata apply(String key) {
-                  if (!storageStrategy.blobExists(containerName, key)) {
-                     // handle directory
-                     return new StorageMetadataImpl(StorageType.FOLDER, /*id=*/ null, key,
-                           /*location=*/ null, /*uri=*/ null, /*eTag=*/ null, /*creationDate=*/ null,
-                           /*lastModified=*/ null, ImmutableMap.<String, String>of());
-                  }
-                  Blob oldBlob = loadBlob(containerName, key);
-                  checkState(oldBlob != null, "blob " + key + " is not present although it was in the list of "
-                        + containerName);
-                  checkState(oldBlob.getMetadata() != null, "blob " + containerName + "/" + key + " has no metadata");
-                  MutableBlobMetadata md = BlobStoreUtils.copy(oldBlob.getMetadata());
-                  String directoryName = ifDirectoryReturnName.execute(md);
-                  if (directoryName != null) {
-                     md.setName(directoryName);
-                     md.setType(StorageType.RELATIVE_PATH);
-                  }
-                  return md;
-               }
-            }));
+      // Seek to the first key after the marker and the prefix; keys sharing a prefix are contiguous.
+      String prefix = options != null ? options.getDir() : null;
+      String from = options != null ? options.getMarker() : null;
+      if (prefix != null && (from == null || from.compareTo(prefix) < 0)) {
+         from = prefix;
+      }
+      Iterable<StorageMetadata> candidates = from == null ? index.values() : index.tailMap(from, false).values();
+      int maxResults = Integer.MAX_VALUE;
+      if (options != null) {
+         maxResults = options.getMaxResults() != null ? options.getMaxResults() : 1000;
+      }
 
+      SortedSet<StorageMetadata> contents = newTreeSet();
       String marker = null;
-      if (options != null) {
-         if (options.getMarker() != null) {
-            final String finalMarker = options.getMarker();
-            StorageMetadata lastMarkerMetadata = find(contents, new Predicate<StorageMetadata>() {
-               public boolean apply(StorageMetadata metadata) {
-                  return metadata.getName().compareTo(finalMarker) > 0;
-               }
-            });
-            contents = contents.tailSet(lastMarkerMetadata);
+      for (StorageMetadata entry : candidates) {
+         String key = entry.getName();
+         if (prefix != null && !key.startsWith(prefix)) {
+            break;
          }
-
-         final String prefix = options.getDir();
-         if (prefix != null) {
-            contents = newTreeSet(filter(contents, new Predicate<StorageMetadata>() {
-               public boolean apply(StorageMetadata o) {
-                  return o != null && o.getName().startsWith(prefix) && !o.getName().equals(prefix);
-               }
-            }));
+         if (isMultipartPart(key)) {
+            continue;
          }
-
-         int maxResults = options.getMaxResults() != null ? options.getMaxResults() : 1000;
-         if (!contents.isEmpty()) {
-            StorageMetadata lastElement = contents.last();
-            contents = newTreeSet(Iterables.limit(contents, maxResults));
-            if (!contents.contains(lastElement)) {
-               // Partial listing
-               marker = contents.last().getName();
-            }
+         if (contents.size() == maxResults) {
+            // Partial listing
+            marker = contents.last().getName();
+            break;
          }
+         contents.add(toStorageMetadata(containerName, entry));
+      }
 
+      if (options != null) {
          if (!options.isRecursive()) {
             String delimiter = storageStrategy.getSeparator();
             SortedSet<String> commonPrefixes = newTreeSet(
@@ -295,6 +305,34 @@ public final class LocalBlobStore implements BlobStore {
       return new PageSetImpl<StorageMetadata>(contents, marker);
    }
 
+   private StorageMetadata toStorageMetadata(String containerName, StorageMetadata entry) {
+      String key = entry.getName();
+      if (entry.getType() == StorageType.FOLDER) {
+         // handle directory
+         return new StorageMetadataImpl(StorageType.FOLDER, /*id=*/ null, key,
+               /*location=*/ null, /*uri=*/ null, /*eTag=*/ null, /*creationDate=*/ null,
+               /*lastModified=*/ null, ImmutableMap.<String, String>of());
+      }
+      MutableBlobMetadata stored;
+      if (entry instanceof MutableBlobMetadata) {
+         // the index already holds the full metadata, so listing neither loads the blob nor counts as reading it
+         stored = (MutableBlobMetadata) entry;
+      } else {
+         Blob oldBlob = loadBlob(containerName, key);
+         checkState(oldBlob != null, "blob " + key + " is not present although it was in the list of "
+               + containerName);
+         stored = oldBlob.getMetadata();
+      }
+      checkState(stored != null, "blob " + containerName + "/" + key + " has no metadata");
+      MutableBlobMetadata md = BlobStoreUtils.copy(stored);
+      String directoryName = ifDirectoryReturnName.execute(md);
+      if (directoryName != null) {
+         md.setName(directoryName);
+         md.setType(StorageType.RELATIVE_PATH);
+      }
+      return md;
+   }
+
    private ContainerNotFoundException cnfe(final String name) {
       return new ContainerNotFoundException(name, String.format(
             "container %s not in %s", name,
@@ -303,18 +341,41 @@ public final class LocalBlobStore implements BlobStore {
 
    @Override
    public void removeBlob(String containerName, final String key) {
+      checkBlobName(key);
       if (!storageStrategy.containerExists(containerName)) {
          throw cnfe(containerName);
       }
       storageStrategy.removeBlob(containerName, key);
    }
 
+   @Override
+   public void removeBlobs(String containerName, Iterable<String> keys) {
+      if (!storageStrategy.containerExists(containerName)) {
+         throw cnfe(containerName);
+      }
+      for (String key : keys) {
+         checkBlobName(key);
+      }
+      for (String key : keys) {
+         storageStrategy.removeBlob(containerName, key);
+      }
+   }
+
+   @Override
+   public boolean supportsBulkDelete() {
+      return false;
+   }
+
+   /**
+    * A container only holding parts of multipart uploads in progress counts as empty; the parts are
+    * deleted along with it.
+    */
    @Override
    public boolean deleteContainerIfEmpty(String containerName) {
       boolean returnVal = true;
       if (storageStrategy.containerExists(containerName)) {
          try {
-            if (Iterables.isEmpty(storageStrategy.getBlobKeysInsideContainer(containerName)))
+            if (Iterables.all(storageStrategy.getBlobKeysInsideContainer(containerName), IS_MULTIPART_PART))
                storageStrategy.deleteContainer(containerName);
             else
                returnVal = false;
@@ -421,6 +482,13 @@ public final class LocalBlobStore implements BlobStore {
 
    @Override
    public String putBlob(String containerName, Blob blob) {
+      checkNotNull(blob, "blob must be set");
+      checkBlobName(blob.getMetadata().getName());
+      return storeBlob(containerName, blob);
+   }
+
+   /** Stores a blob under any name, including the hidden names of multipart upload parts. */
+   private String storeBlob(String containerName, Blob blob) {
       checkNotNull(containerName, "containerName must be set");
       checkNotNull(blob, "blob must be set");
       String blobKey = blob.getMetadata().getName();
@@ -451,6 +519,7 @@ public final class LocalBlobStore implements BlobStore {
 
    @Override
    public boolean blobExists(String containerName, String key) {
+      checkBlobName(key);
       if (!storageStrategy.containerExists(containerName))
          throw cnfe(containerName);
       return storageStrategy.blobExists(containerName, key);
@@ -458,6 +527,7 @@ public final class LocalBlobStore implements BlobStore {
 
    @Override
    public Blob getBlob(String containerName, String key, GetOptions options) {
+      checkBlobName(key);
       logger.debug("Retrieving blob with key %s from container %s", key, containerName);
       // If the container doesn't exist, an exception is thrown
       if (!storageStrategy.containerExists(containerName)) {
@@ -501,26 +571,29 @@ public final class LocalBlobStore implements BlobStore {
          blob = copyBlob(blob);
 
          if (options.getRanges() != null && !options.getRanges().isEmpty()) {
-            byte[] data;
+            ByteSource data;
+            long size;
             try {
-               data = ByteStreams2.toByteArrayAndClose(blob.getPayload().openStream());
+               data = payloadAsByteSource(blob.getPayload());
+               size = data.size();
             } catch (IOException e) {
                throw new RuntimeException(e);
             }
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            List<ByteSource> slices = Lists.newArrayList();
+            long length = 0;
             for (String s : options.getRanges()) {
-               // HTTP uses a closed interval while Java array indexing uses a
-               // half-open interval.
-               int offset = 0;
-               int last = data.length - 1;
+               // HTTP uses a closed interval while ByteSource.slice takes an
+               // offset and a length.
+               long offset = 0;
+               long last = size - 1;
                if (s.startsWith("-")) {
-                  offset = last - Integer.parseInt(s.substring(1)) + 1;
+                  offset = last - Long.parseLong(s.substring(1)) + 1;
                } else if (s.endsWith("-")) {
-                  offset = Integer.parseInt(s.substring(0, s.length() - 1));
+                  offset = Long.parseLong(s.substring(0, s.length() - 1));
                } else if (s.contains("-")) {
                   String[] firstLast = s.split("\\-");
-                  offset = Integer.parseInt(firstLast[0]);
-                  last = Integer.parseInt(firstLast[1]);
+                  offset = Long.parseLong(firstLast[0]);
+                  last = Long.parseLong(firstLast[1]);
                } else {
                   throw new IllegalArgumentException("illegal range: " + s);
                }
@@ -528,16 +601,19 @@ public final class LocalBlobStore implements BlobStore {
                if (offset > last) {
                   throw new IllegalArgumentException("illegal range: " + s);
                }
-               if (last + 1 > data.length) {
-                  last = data.length - 1;
+               if (last + 1 > size) {
+                  last = size - 1;
+               }
+               if (offset < 0 || offset > last) {
+                  throw new IndexOutOfBoundsException("range " + s + " outside of " + size + " bytes");
                }
-               out.write(data, offset, last - offset + 1);
+               slices.add(data.slice(offset, last - offset + 1));
+               length += last - offset + 1;
             }
             ContentMetadata cmd = blob.getPayload().getContentMetadata();
-            byte[] byteArray = out.toByteArray();
-            blob.setPayload(byteArray);
+            blob.setPayload(Payloads.newByteSourcePayload(ByteSource.concat(slices)));
             HttpUtils.copy(cmd, blob.getPayload().getContentMetadata());
-            blob.getPayload().getContentMetadata().setContentLength(Long.valueOf(byteArray.length));
+            blob.getPayload().getContentMetadata().setContentLength(length);
          }
       }
       checkNotNull(blob.getPayload(), "payload " + blob);
@@ -556,6 +632,17 @@ public final class LocalBlobStore implements BlobStore {
       }
    }
 
+   /**
+    * Returns the stored bytes without copying them when the payload is backed by a {@link ByteSource},
+    * so ranged reads only slice the stored blob.
+    */
+   private static ByteSource payloadAsByteSource(Payload payload) throws IOException {
+      if (payload.getRawContent() instanceof ByteSource) {
+         return (ByteSource) payload.getRawContent();
+      }
+      return ByteSource.wrap(ByteStreams2.toByteArrayAndClose(payload.openStream()));
+   }
+
    private Blob copyBlob(Blob blob) {
       Blob returnVal = blobFactory.create(BlobStoreUtils.copy(blob.getMetadata()));
       returnVal.setPayload(blob.getPayload());
@@ -570,10 +657,149 @@ public final class LocalBlobStore implements BlobStore {
 
    @Override
    public String putBlob(String containerName, Blob blob, PutOptions options) {
-      // TODO implement options
+      if (options.isMultipart())
+         return putMultipartBlobStrategy.execute(this, containerName, blob);
       return putBlob(containerName, blob);
    }
 
+   @Override
+   public boolean supportsMultipartUpload() {
+      return true;
+   }
+
+   @Override
+   public MultipartUpload initiateMultipartUpload(String container, BlobMetadata blobMetadata) {
+      checkBlobName(blobMetadata.getName());
+      if (!storageStrategy.containerExists(container))
+         throw cnfe(container);
+      String id = UUID.randomUUID().toString();
+      return MultipartUpload.create(container, blobMetadata.getName(), id, blobMetadata);
+   }
+
+   @Override
+   public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
+      checkArgument(partNumber >= 1 && partNumber <= getMaximumNumberOfParts(), "partNumber %s out of range",
+            partNumber);
+      Blob part = blobBuilder(partName(mpu, partNumber)).payload(payload).build();
+      String eTag = storeBlob(mpu.getContainerName(), part);
+      return MultipartPart.create(partNumber, payload.getContentMetadata().getContentLength(), eTag);
+   }
+
+   @Override
+   public List<MultipartPart> listMultipartUpload(MultipartUpload mpu) {
+      String prefix = MULTIPART_PREFIX + mpu.getId() + "-";
+      List<MultipartPart> parts = Lists.newArrayList();
+      for (String key : partKeys(mpu)) {
+         Blob part = loadBlob(mpu.getContainerName(), key);
+         if (part == null)
+            continue;
+         parts.add(MultipartPart.create(Integer.parseInt(key.substring(prefix.length())), part.getMetadata()
+               .getContentMetadata().getContentLength(), part.getMetadata().getETag()));
+      }
+      return parts;
+   }
+
+   /**
+    * Returns the names of the stored parts of an upload in part number order, seeking into the metadata index
+    * of the container instead of scanning every key in it.
+    */
+   private List<String> partKeys(MultipartUpload mpu) {
+      NavigableMap<String, StorageMetadata> index;
+      try {
+         index = storageStrategy.getBlobMetadataIndex(mpu.getContainerName());
+      } catch (IOException e) {
+         throw propagate(e);
+      }
+      // part numbers are zero padded, so the parts of an upload sort by number between these bounds
+      return ImmutableList.copyOf(index.subMap(partName(mpu, 0), false,
+            partName(mpu, getMaximumNumberOfParts() + 1), false).keySet());
+   }
+
+   @Override
+   public String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts) {
+      List<ByteSource> sources = Lists.newArrayList();
+      long contentLength = 0;
+      for (MultipartPart part : parts) {
+         final Blob blob = loadBlob(mpu.getContainerName(), partName(mpu, part.getPartNumber()));
+         if (blob == null)
+            throw new KeyNotFoundException(mpu.getContainerName(), partName(mpu, part.getPartNumber()),
+                  "part of multipart upload " + mpu.getId());
+         checkArgument(Objects.equal(blob.getMetadata().getETag(), part.getPartETag()),
+               "part %s of multipart upload %s has etag %s, not %s", part.getPartNumber(), mpu.getId(),
+               blob.getMetadata().getETag(), part.getPartETag());
+         sources.add(new ByteSource() {
+            @Override
+            public InputStream openStream() throws IOException {
+               return blob.getPayload().openStream();
+            }
+         });
+         contentLength += blob.getMetadata().getContentMetadata().getContentLength();
+      }
+
+      Payload payload = Payloads.newByteSourcePayload(ByteSource.concat(sources));
+      HttpUtils.copy(mpu.getBlobMetadata().getContentMetadata(), payload.getContentMetadata());
+      payload.getContentMetadata().setContentLength(contentLength);
+      payload.getContentMetadata().setContentMD5((HashCode) null);
+      Blob blob = blobFactory.create(new MutableBlobMetadataImpl(mpu.getBlobMetadata()));
+      blob.setPayload(payload);
+      String eTag = putBlob(mpu.getContainerName(), blob);
+      abortMultipartUpload(mpu);
+      return eTag;
+   }
+
+   @Override
+   public void abortMultipartUpload(MultipartUpload mpu) {
+      for (String key : partKeys(mpu)) {
+         storageStrategy.removeBlob(mpu.getContainerName(), key);
+      }
+   }
+
+   @Override
+   public long getMinimumMultipartPartSize() {
+      return 1;
+   }
+
+   @Override
+   public long getMaximumMultipartPartSize() {
+      return 5L * 1024 * 1024 * 1024;
+   }
+
+   @Override
+   public int getMaximumNumberOfParts() {
+      return 10 * 1000;
+   }
+
+   @Override
+   public void downloadBlob(String container, String name, File destination) {
+      downloadBlobStrategy.download(this, container, name, destination);
+   }
+
+   @Override
+   public InputStream streamBlob(String container, String name) {
+      return downloadBlobStrategy.stream(this, container, name);
+   }
+
+   /** @return whether {@code name} is the name of a stored part of a multipart upload */
+   public static boolean isMultipartPart(String name) {
+      return name.startsWith(MULTIPART_PREFIX) && MULTIPART_PART_NAME.matcher(name).matches();
+   }
+
+   private static final Predicate<String> IS_MULTIPART_PART = new Predicate<String>() {
+      @Override
+      public boolean apply(String name) {
+         return isMultipartPart(name);
+      }
+   };
+
+   private static void checkBlobName(String name) {
+      checkArgument(name == null || !isMultipartPart(name),
+            "blob name %s is reserved for multipart upload parts", name);
+   }
+
+   private static String partName(MultipartUpload mpu, int partNumber) {
+      return String.format("%s%s-%05d", MULTIPART_PREFIX, mpu.getId(), partNumber);
+   }
+
    @Override
    public boolean createContainerInLocation(Location location, String container, CreateContainerOptions options) {
       if (options.isPublicRead())
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.domain;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+/**
+ * A multipart upload in progress: the blob being assembled and the id the service gave it.
+ */
+public final class MultipartUpload {
+
+   private final String containerName;
+   private final String blobName;
+   private final String id;
+   private final BlobMetadata blobMetadata;
+
+   public static MultipartUpload create(String containerName, String blobName, String id, BlobMetadata blobMetadata) {
+      return new MultipartUpload(containerName, blobName, id, blobMetadata);
+   }
+
+   private MultipartUpload(String containerName, String blobName, String id, BlobMetadata blobMetadata) {
+      this.containerName = checkNotNull(containerName, "containerName");
+      this.blobName = checkNotNull(blobName, "blobName");
+      this.id = checkNotNull(id, "id");
+      this.blobMetadata = checkNotNull(blobMetadata, "blobMetadata");
+   }
+
+   public String getContainerName() {
+      return containerName;
+   }
+
+   public String getBlobName() {
+      return blobName;
+   }
+
+   public String getId() {
+      return id;
+   }
+
+   /**
+    * @return the metadata the completed blob will have
+    */
+   public BlobMetadata getBlobMetadata() {
+      return blobMetadata;
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o)
+         return true;
+      if (o == null || getClass() != o.getClass())
+         return false;
+      MultipartUpload that = (MultipartUpload) o;
+      return Objects.equal(containerName, that.containerName) && Objects.equal(blobName, that.blobName)
+            && Objects.equal(id, that.id);
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(containerName, blobName, id);
+   }
+
+   @Override
+   public String toString() {
+      return MoreObjects.toStringHelper(this).add("containerName", containerName).add("blobName", blobName)
+            .add("id", id).toString();
+   }
+}
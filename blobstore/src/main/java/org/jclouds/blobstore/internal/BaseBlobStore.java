@@ -21,6 +21,8 @@ import static com.google.common.base.Preconditions.checkState;
 import static org.jclouds.blobstore.options.ListContainerOptions.Builder.recursive;
 import static org.jclouds.util.Predicates2.retry;
 
+import java.io.File;
+import java.io.InputStream;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -33,6 +35,8 @@ import org.jclouds.blobstore.domain.BlobBuilder;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.strategy.DownloadBlobStrategy;
+import org.jclouds.blobstore.strategy.PutMultipartBlobStrategy;
 import org.jclouds.blobstore.util.BlobUtils;
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
@@ -46,14 +50,19 @@ public abstract class BaseBlobStore implements BlobStore {
    protected final BlobUtils blobUtils;
    protected final Supplier<Location> defaultLocation;
    protected final Supplier<Set<? extends Location>> locations;
+   protected final PutMultipartBlobStrategy putMultipartBlobStrategy;
+   protected final DownloadBlobStrategy downloadBlobStrategy;
 
    @Inject
    protected BaseBlobStore(BlobStoreContext context, BlobUtils blobUtils, Supplier<Location> defaultLocation,
-         @Memoized Supplier<Set<? extends Location>> locations) {
+         @Memoized Supplier<Set<? extends Location>> locations, PutMultipartBlobStrategy putMultipartBlobStrategy,
+         DownloadBlobStrategy downloadBlobStrategy) {
       this.context = checkNotNull(context, "context");
       this.blobUtils = checkNotNull(blobUtils, "blobUtils");
       this.defaultLocation = checkNotNull(defaultLocation, "defaultLocation");
       this.locations = checkNotNull(locations, "locations");
+      this.putMultipartBlobStrategy = checkNotNull(putMultipartBlobStrategy, "putMultipartBlobStrategy");
+      this.downloadBlobStrategy = checkNotNull(downloadBlobStrategy, "downloadBlobStrategy");
    }
 
    @Override
@@ -153,6 +162,26 @@ public abstract class BaseBlobStore implements BlobStore {
       blobUtils.clearContainer(containerName, options);
    }
 
+   /**
+    * This implementation invokes {@link #removeBlob} for each name.
+    * 
+    * @param container
+    *           container name
+    * @param names
+    *           names of the blobs to remove
+    */
+   @Override
+   public void removeBlobs(String container, Iterable<String> names) {
+      for (String name : names) {
+         removeBlob(container, name);
+      }
+   }
+
+   @Override
+   public boolean supportsBulkDelete() {
+      return false;
+   }
+
    /**
     * This implementation invokes {@link BlobUtilsImpl#deleteDirectory}.
     * 
@@ -216,6 +245,24 @@ public abstract class BaseBlobStore implements BlobStore {
       return locations.get();
    }
 
+   @Override
+   public void downloadBlob(String container, String name, File destination) {
+      downloadBlobStrategy.download(this, container, name, destination);
+   }
+
+   @Override
+   public InputStream streamBlob(String container, String name) {
+      return downloadBlobStrategy.stream(this, container, name);
+   }
+
+   /**
+    * Uploads the blob in parts through the multipart methods of this blobstore, or in one request where
+    * {@link #supportsMultipartUpload()} is false.
+    */
+   protected String putMultipartBlob(String container, Blob blob) {
+      return putMultipartBlobStrategy.execute(this, container, blob);
+   }
+
    /**
     * Delete a container if it is empty.
     *
@@ -53,6 +53,64 @@ public final class BlobStoreConstants {
     */
    public static final String PROPERTY_USER_METADATA_PREFIX = "jclouds.blobstore.metaprefix";
 
+   /**
+    * Size in bytes of the parts a blob put with {@code PutOptions.multipart()} is split into. The
+    * blobstore's minimum part size and maximum number of parts take precedence.
+    */
+   public static final String PROPERTY_MULTIPART_PART_SIZE = "jclouds.mpu.parts.size";
+
+   /**
+    * How many parts of one multipart upload may be in flight at once.
+    */
+   public static final String PROPERTY_MULTIPART_PARALLEL_DEGREE = "jclouds.mpu.parallel.degree";
+
+   /**
+    * How many times a failed part is uploaded again before the whole upload is aborted.
+    */
+   public static final String PROPERTY_MULTIPART_PART_RETRIES = "jclouds.mpu.parts.retries";
+
+   /**
+    * Minimum retries of the former provider specific parallel uploaders, still honoured as
+    * {@link #PROPERTY_MULTIPART_PART_RETRIES} when that is not set. Their
+    * {@code jclouds.mpu.parallel.retries.maxpercent} and {@code jclouds.mpu.parts.magnitude} have no
+    * equivalent, as each part now has its own retries and the part size follows the limits of the
+    * blobstore.
+    *
+    * @deprecated use {@link #PROPERTY_MULTIPART_PART_RETRIES}
+    */
+   @Deprecated
+   public static final String PROPERTY_MULTIPART_LEGACY_RETRIES = "jclouds.mpu.parallel.retries.min";
+
+   /**
+    * Size in bytes of the ranges a blob is fetched in by {@code BlobStore.downloadBlob} and
+    * {@code BlobStore.streamBlob}.
+    */
+   public static final String PROPERTY_DOWNLOAD_RANGE_SIZE = "jclouds.download.range.size";
+
+   /**
+    * How many ranges of one blob may be fetched at once. When streaming, this also bounds how many
+    * ranges are buffered ahead of the reader.
+    */
+   public static final String PROPERTY_DOWNLOAD_PARALLEL_DEGREE = "jclouds.download.parallel.degree";
+
+   /**
+    * How many times a failed range is fetched again, resuming after the last byte received, before
+    * the download fails.
+    */
+   public static final String PROPERTY_DOWNLOAD_RANGE_RETRIES = "jclouds.download.range.retries";
+
+   /**
+    * When true, the transient blobstore keeps payload bytes in direct buffers outside the Java
+    * heap; only metadata stays on the heap. Defaults to false.
+    */
+   public static final String PROPERTY_TRANSIENT_OFF_HEAP = "jclouds.transient.offheap";
+
+   /**
+    * Maximum number of payload bytes the transient blobstore holds. Storing a blob beyond this
+    * evicts the least recently used blobs. Unbounded by default.
+    */
+   public static final String PROPERTY_TRANSIENT_MAX_BYTES = "jclouds.transient.max.bytes";
+
    public static final String BLOBSTORE_LOGGER = "jclouds.blobstore";
 
    private BlobStoreConstants() {
@@ -20,6 +20,7 @@ import static org.jclouds.blobstore.options.ListContainerOptions.Builder.recursi
 
 import java.util.HashSet;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Semaphore;
@@ -45,6 +46,7 @@ import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
 import org.jclouds.logging.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -197,6 +199,12 @@ public class DeleteAllKeysInList implements ClearListStrategy, ClearContainerStr
     * Delete the blobs from a given PageSet. The PageSet may contain blobs or
     * directories. If there are directories, they are expected to be empty.
     *
+    * When the provider {@link BlobStore#supportsBulkDelete() supports bulk
+    * deletion}, all blobs in the PageSet are removed by a single call to
+    * {@link BlobStore#removeBlobs}. Otherwise each blob is removed by its own
+    * task so that the deletes run in parallel. Directories are removed
+    * individually.
+    *
     * The logic of acquiring a semaphore, submitting a callable to the
     * executorService and releasing the semaphore resides here.
     *
@@ -223,81 +231,121 @@ public class DeleteAllKeysInList implements ClearListStrategy, ClearContainerStr
          final AtomicBoolean deleteFailure,
          final Set<ListenableFuture<Void>> outstandingFutures)
          throws TimeoutException {
-      for (final StorageMetadata md : listing) {
-         final String fullPath = parentIsFolder(options, md) ? options.getDir()
-               + "/" + md.getName() : md.getName();
-
-         // Attempt to acquire a semaphore within the time limit. At least
-         // one outstanding future should complete within this period for the
-         // semaphore to be acquired.
-         try {
-            if (!semaphore.tryAcquire(maxTime, TimeUnit.MILLISECONDS)) {
-               throw new TimeoutException("Timeout waiting for semaphore");
-            }
-         } catch (InterruptedException ie) {
-            logger.debug("Interrupted while deleting blobs");
-            Thread.currentThread().interrupt();
-         }
-
-         final ListenableFuture<Void> blobDelFuture;
+      final List<String> blobNames = Lists.newArrayList();
+      List<StorageMetadata> directories = Lists.newArrayList();
+      for (StorageMetadata md : listing) {
          switch (md.getType()) {
          case BLOB:
-            blobDelFuture = executorService.submit(new Callable<Void>() {
+            blobNames.add(parentIsFolder(options, md) ? options.getDir()
+                  + "/" + md.getName() : md.getName());
+            break;
+         case CONTAINER:
+            throw new IllegalArgumentException("Container type not supported");
+         default:
+            directories.add(md);
+         }
+      }
+
+      if (blobStore.supportsBulkDelete()) {
+         if (!blobNames.isEmpty()) {
+            acquire(semaphore);
+            trackFuture(executorService.submit(new Callable<Void>() {
                @Override
                public Void call() {
-                  blobStore.removeBlob(containerName, fullPath);
+                  blobStore.removeBlobs(containerName, blobNames);
                   return null;
                }
-            });
-            break;
+            }), semaphore, deleteFailure, outstandingFutures);
+         }
+      } else {
+         for (final String blobName : blobNames) {
+            acquire(semaphore);
+            trackFuture(executorService.submit(new Callable<Void>() {
+               @Override
+               public Void call() {
+                  blobStore.removeBlob(containerName, blobName);
+                  return null;
+               }
+            }), semaphore, deleteFailure, outstandingFutures);
+         }
+      }
+
+      for (StorageMetadata md : directories) {
+         final String fullPath = parentIsFolder(options, md) ? options.getDir()
+               + "/" + md.getName() : md.getName();
+
+         acquire(semaphore);
+
+         final ListenableFuture<Void> dirDelFuture;
+         switch (md.getType()) {
          case FOLDER:
-            blobDelFuture = deleteDirectory(options, containerName, fullPath);
+            dirDelFuture = deleteDirectory(options, containerName, fullPath);
             break;
          case RELATIVE_PATH:
-            blobDelFuture = deleteDirectory(options, containerName,
+            dirDelFuture = deleteDirectory(options, containerName,
                   md.getName());
             break;
-         case CONTAINER:
-            throw new IllegalArgumentException("Container type not supported");
          default:
-            blobDelFuture = null;
+            dirDelFuture = null;
          }
 
-         // If a future to delete a blob/directory actually got created above,
-         // keep a reference of that in the outstandingFutures list. This is
-         // useful in case of a timeout exception. All outstanding futures can
-         // then be cancelled.
-         if (blobDelFuture != null) {
-            outstandingFutures.add(blobDelFuture);
-
-            // Add a callback to release the semaphore. This is required for
-            // other threads waiting to acquire a semaphore above to make
-            // progress.
-            Futures.addCallback(blobDelFuture, new FutureCallback<Object>() {
-               @Override
-               public void onSuccess(final Object o) {
-                  outstandingFutures.remove(blobDelFuture);
-                  semaphore.release();
-               }
+         trackFuture(dirDelFuture, semaphore, deleteFailure, outstandingFutures);
+      }
+   }
 
-               @Override
-               public void onFailure(final Throwable t) {
-                  // Make a note the fact that some blob/directory could not be
-                  // deleted successfully. This is used for retrying later.
-                  deleteFailure.set(true);
-                  outstandingFutures.remove(blobDelFuture);
-                  semaphore.release();
-               }
-            });
-         } else {
-            // It is possible above to acquire a semaphore but not submit any
-            // task to the executorService. For e.g. if the listing contains
-            // an object of type 'FOLDER' and the ListContianerOptions are *not*
-            // recursive. In this case, there is no blobDelFuture and therefore
-            // no FutureCallback to release the semaphore. This semaphore is
-            // released here.
-            semaphore.release();
+   /**
+    * Attempt to acquire a semaphore within the time limit. At least one
+    * outstanding future should complete within this period for the semaphore
+    * to be acquired.
+    */
+   private void acquire(final Semaphore semaphore) throws TimeoutException {
+      try {
+         if (!semaphore.tryAcquire(maxTime, TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException("Timeout waiting for semaphore");
          }
+      } catch (InterruptedException ie) {
+         logger.debug("Interrupted while deleting blobs");
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   private void trackFuture(final ListenableFuture<Void> blobDelFuture,
+         final Semaphore semaphore, final AtomicBoolean deleteFailure,
+         final Set<ListenableFuture<Void>> outstandingFutures) {
+      // If a future to delete a blob/directory actually got created, keep a
+      // reference of that in the outstandingFutures list. This is useful in
+      // case of a timeout exception. All outstanding futures can then be
+      // cancelled.
+      if (blobDelFuture != null) {
+         outstandingFutures.add(blobDelFuture);
+
+         // Add a callback to release the semaphore. This is required for
+         // other threads waiting to acquire a semaphore above to make
+         // progress.
+         Futures.addCallback(blobDelFuture, new FutureCallback<Object>() {
+            @Override
+            public void onSuccess(final Object o) {
+               outstandingFutures.remove(blobDelFuture);
+               semaphore.release();
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+               // Make a note the fact that some blob/directory could not be
+               // deleted successfully. This is used for retrying later.
+               deleteFailure.set(true);
+               outstandingFutures.remove(blobDelFuture);
+               semaphore.release();
+            }
+         });
+      } else {
+         // It is possible above to acquire a semaphore but not submit any
+         // task to the executorService. For e.g. if the listing contains
+         // an object of type 'FOLDER' and the ListContianerOptions are *not*
+         // recursive. In this case, there is no blobDelFuture and therefore
+         // no FutureCallback to release the semaphore. This semaphore is
+         // released here.
+         semaphore.release();
       }
    }
 
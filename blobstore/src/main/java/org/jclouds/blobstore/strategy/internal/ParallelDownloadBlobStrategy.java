@@ -0,0 +1,371 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static org.jclouds.blobstore.options.GetOptions.Builder.range;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_DOWNLOAD_PARALLEL_DEGREE;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_DOWNLOAD_RANGE_RETRIES;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_DOWNLOAD_RANGE_SIZE;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.KeyNotFoundException;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.blobstore.strategy.DownloadBlobStrategy;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
+
+/**
+ * Fetches the ranges of a blob on the user executor, with at most
+ * {@link BlobStoreConstants#PROPERTY_DOWNLOAD_PARALLEL_DEGREE} of them in flight. A range that
+ * fails is requested again from the first byte not yet received.
+ * <p/>
+ * Downloads to a file write each range at its offset as it arrives, so memory use does not depend
+ * on the size of the ranges. Streams buffer whole ranges, holding at most as many as are in flight.
+ * <p/>
+ * Every range is requested only if the blob still has the ETag it had when the download started, so
+ * a blob overwritten mid-download fails with a 412 instead of mixing bytes from both versions.
+ */
+@Singleton
+public class ParallelDownloadBlobStrategy implements DownloadBlobStrategy {
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @VisibleForTesting
+   static final long DEFAULT_RANGE_SIZE = 32 * 1024 * 1024;
+   @VisibleForTesting
+   static final int DEFAULT_PARALLEL_DEGREE = 4;
+   @VisibleForTesting
+   static final int DEFAULT_RANGE_RETRIES = 3;
+
+   private static final int BUFFER_SIZE = 64 * 1024;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_DOWNLOAD_RANGE_SIZE)
+   @VisibleForTesting
+   long rangeSize = DEFAULT_RANGE_SIZE;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_DOWNLOAD_PARALLEL_DEGREE)
+   @VisibleForTesting
+   int parallelDegree = DEFAULT_PARALLEL_DEGREE;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_DOWNLOAD_RANGE_RETRIES)
+   @VisibleForTesting
+   int rangeRetries = DEFAULT_RANGE_RETRIES;
+
+   private final ListeningExecutorService userExecutor;
+
+   @Inject
+   ParallelDownloadBlobStrategy(@Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+   }
+
+   @Override
+   public void download(BlobStore blobStore, String container, String name, File destination) {
+      BlobMetadata metadata = blobMetadata(blobStore, container, name);
+      long length = metadata.getContentMetadata().getContentLength();
+      String eTag = metadata.getETag();
+      List<ListenableFuture<Void>> ranges = Lists.newArrayList();
+      final Semaphore inFlight = new Semaphore(parallelDegree);
+      final AtomicBoolean failed = new AtomicBoolean();
+      RandomAccessFile file = null;
+      try {
+         file = new RandomAccessFile(destination, "rw");
+         file.setLength(length);
+         final FileChannel channel = file.getChannel();
+         for (long offset = 0; offset < length; offset += rangeSize) {
+            inFlight.acquire();
+            if (failed.get())
+               break;
+            final long rangeOffset = offset;
+            final ListenableFuture<Void> future = userExecutor.submit(new FetchRange<Void>(blobStore, container,
+                  name, eTag, offset, Math.min(rangeSize, length - offset)) {
+               @Override
+               int write(ByteBuffer buffer, long position) throws IOException {
+                  return channel.write(buffer, rangeOffset + position);
+               }
+
+               @Override
+               Void result() {
+                  return null;
+               }
+            });
+            future.addListener(new Runnable() {
+               @Override
+               public void run() {
+                  try {
+                     future.get();
+                  } catch (Exception e) {
+                     failed.set(true);
+                  } finally {
+                     inFlight.release();
+                  }
+               }
+            }, directExecutor());
+            ranges.add(future);
+         }
+         allAsList(ranges).get();
+         logger.debug("downloaded %s bytes of %s/%s in %s ranges", length, container, name, ranges.size());
+      } catch (IOException e) {
+         cancel(ranges);
+         throw propagate(e);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         cancel(ranges);
+         throw propagate(e);
+      } catch (ExecutionException e) {
+         cancel(ranges);
+         throw propagate(e.getCause());
+      } finally {
+         try {
+            Closeables.close(file, true);
+         } catch (IOException impossible) {
+            throw new AssertionError(impossible);
+         }
+      }
+   }
+
+   @Override
+   public InputStream stream(BlobStore blobStore, String container, String name) {
+      checkArgument(rangeSize <= Integer.MAX_VALUE, "ranges of %s bytes cannot be buffered", rangeSize);
+      return new RangeInputStream(blobStore, container, name, blobMetadata(blobStore, container, name));
+   }
+
+   private static BlobMetadata blobMetadata(BlobStore blobStore, String container, String name) {
+      BlobMetadata metadata = blobStore.blobMetadata(container, name);
+      if (metadata == null)
+         throw new KeyNotFoundException(container, name, "while downloading");
+      checkNotNull(metadata.getContentMetadata().getContentLength(), "contentLength of %s/%s", container, name);
+      return metadata;
+   }
+
+   private static boolean isPreconditionFailed(RuntimeException e) {
+      return e instanceof HttpResponseException && ((HttpResponseException) e).getResponse() != null
+            && ((HttpResponseException) e).getResponse().getStatusCode() == 412;
+   }
+
+   private static void cancel(Iterable<? extends ListenableFuture<?>> ranges) {
+      for (ListenableFuture<?> range : ranges) {
+         range.cancel(false);
+      }
+   }
+
+   /**
+    * Reads the ranges in order, keeping {@code parallelDegree} of the following ones in flight.
+    */
+   private final class RangeInputStream extends InputStream {
+      private final BlobStore blobStore;
+      private final String container;
+      private final String name;
+      private final String eTag;
+      private final long length;
+      private final Deque<ListenableFuture<byte[]>> ranges = new ArrayDeque<ListenableFuture<byte[]>>();
+      private long nextOffset;
+      private InputStream current = new ByteArrayInputStream(new byte[0]);
+
+      RangeInputStream(BlobStore blobStore, String container, String name, BlobMetadata metadata) {
+         this.blobStore = blobStore;
+         this.container = container;
+         this.name = name;
+         this.eTag = metadata.getETag();
+         this.length = metadata.getContentMetadata().getContentLength();
+         fill();
+      }
+
+      private void fill() {
+         while (ranges.size() < parallelDegree && nextOffset < length) {
+            final byte[] range = new byte[(int) Math.min(rangeSize, length - nextOffset)];
+            ranges.add(userExecutor.submit(new FetchRange<byte[]>(blobStore, container, name, eTag, nextOffset,
+                  range.length) {
+               @Override
+               int write(ByteBuffer buffer, long position) {
+                  int count = buffer.remaining();
+                  buffer.get(range, (int) position, count);
+                  return count;
+               }
+
+               @Override
+               byte[] result() {
+                  return range;
+               }
+            }));
+            nextOffset += range.length;
+         }
+      }
+
+      @Override
+      public int read() throws IOException {
+         byte[] b = new byte[1];
+         return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         if (len == 0)
+            return 0;
+         while (true) {
+            int count = current.read(b, off, len);
+            if (count != -1)
+               return count;
+            ListenableFuture<byte[]> next = ranges.poll();
+            if (next == null)
+               return -1;
+            try {
+               current = new ByteArrayInputStream(next.get());
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               throw new InterruptedIOException();
+            } catch (ExecutionException e) {
+               close();
+               throw new IOException("could not read " + container + "/" + name, e.getCause());
+            }
+            fill();
+         }
+      }
+
+      @Override
+      public void close() {
+         nextOffset = length;
+         cancel(ranges);
+         ranges.clear();
+      }
+   }
+
+   /**
+    * Fetches one range, passing its bytes to {@link #write} as they arrive. A 412 means the blob no
+    * longer has {@code eTag} and is not retried.
+    */
+   private abstract class FetchRange<T> implements Callable<T> {
+      private final BlobStore blobStore;
+      private final String container;
+      private final String name;
+      @Nullable
+      private final String eTag;
+      private final long offset;
+      private final long length;
+      private long received;
+
+      FetchRange(BlobStore blobStore, String container, String name, @Nullable String eTag, long offset,
+            long length) {
+         this.blobStore = blobStore;
+         this.container = container;
+         this.name = name;
+         this.eTag = eTag;
+         this.offset = offset;
+         this.length = length;
+      }
+
+      /**
+       * @param position
+       *           where {@code buffer} starts, relative to the start of the range
+       * @return the number of bytes consumed from {@code buffer}
+       */
+      abstract int write(ByteBuffer buffer, long position) throws IOException;
+
+      abstract T result();
+
+      @Override
+      public T call() throws IOException {
+         for (int attempt = 0;; attempt++) {
+            try {
+               fetch();
+               return result();
+            } catch (IOException e) {
+               if (attempt >= rangeRetries)
+                  throw e;
+               logger.debug("retrying bytes %s-%s of %s/%s after: %s", offset + received, offset + length - 1,
+                     container, name, e.getMessage());
+            } catch (RuntimeException e) {
+               if (isPreconditionFailed(e)) {
+                  logger.debug("%s/%s changed while downloading; it no longer has ETag %s", container, name, eTag);
+                  throw e;
+               }
+               if (attempt >= rangeRetries)
+                  throw e;
+               logger.debug("retrying bytes %s-%s of %s/%s after: %s", offset + received, offset + length - 1,
+                     container, name, e.getMessage());
+            }
+         }
+      }
+
+      /**
+       * requests the bytes of the range not yet received
+       */
+      private void fetch() throws IOException {
+         GetOptions options = range(offset + received, offset + length - 1);
+         if (eTag != null)
+            options.ifETagMatches(eTag);
+         Blob blob = blobStore.getBlob(container, name, options);
+         if (blob == null)
+            throw new KeyNotFoundException(container, name, "while downloading");
+         InputStream in = blob.getPayload().openStream();
+         try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (int count = in.read(buffer); count != -1 && received < length; count = in.read(buffer)) {
+               ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, (int) Math.min(count, length - received));
+               while (bytes.hasRemaining()) {
+                  received += write(bytes, received);
+               }
+            }
+         } finally {
+            Closeables.closeQuietly(in);
+         }
+         if (received < length)
+            throw new IOException(String.format("range of %s/%s ended after %s of %s bytes", container, name,
+                  received, length));
+      }
+   }
+}
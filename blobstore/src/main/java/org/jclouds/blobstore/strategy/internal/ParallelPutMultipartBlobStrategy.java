@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_MULTIPART_PARALLEL_DEGREE;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_MULTIPART_PART_RETRIES;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_MULTIPART_PART_SIZE;
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.reference.BlobStoreConstants;
+import org.jclouds.blobstore.strategy.PutMultipartBlobStrategy;
+import org.jclouds.io.Payload;
+import org.jclouds.io.PayloadSlicer;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
+
+/**
+ * Uploads the parts of a blob on the user executor, with at most
+ * {@link BlobStoreConstants#PROPERTY_MULTIPART_PARALLEL_DEGREE} of them in flight, retrying each
+ * failed part before giving up and aborting the upload.
+ * <p/>
+ * Repeatable payloads are sliced by offset. Other payloads are read one part at a time into
+ * reusable buffers, so at most one more part than are in flight is held in memory.
+ */
+@Singleton
+public class ParallelPutMultipartBlobStrategy implements PutMultipartBlobStrategy {
+   @Resource
+   @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @VisibleForTesting
+   static final long DEFAULT_PART_SIZE = 32 * 1024 * 1024;
+   @VisibleForTesting
+   static final int DEFAULT_PARALLEL_DEGREE = 4;
+   @VisibleForTesting
+   static final int DEFAULT_PART_RETRIES = 3;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_MULTIPART_PART_SIZE)
+   @VisibleForTesting
+   long partSize = DEFAULT_PART_SIZE;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_MULTIPART_PARALLEL_DEGREE)
+   @VisibleForTesting
+   int parallelDegree = DEFAULT_PARALLEL_DEGREE;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_MULTIPART_PART_RETRIES)
+   @VisibleForTesting
+   Integer partRetries;
+
+   /**
+    * The minimum retries of the provider specific strategies this one replaces, used when
+    * {@link BlobStoreConstants#PROPERTY_MULTIPART_PART_RETRIES} is not set.
+    */
+   @Deprecated
+   @SuppressWarnings("deprecation")
+   @Inject(optional = true)
+   @Named(BlobStoreConstants.PROPERTY_MULTIPART_LEGACY_RETRIES)
+   @VisibleForTesting
+   Integer legacyPartRetries;
+
+   private final ListeningExecutorService userExecutor;
+   private final PayloadSlicer slicer;
+
+   @Inject
+   ParallelPutMultipartBlobStrategy(@Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         PayloadSlicer slicer) {
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.slicer = checkNotNull(slicer, "slicer");
+   }
+
+   @Override
+   public String execute(BlobStore blobStore, String container, Blob blob) {
+      Payload payload = checkNotNull(blob.getPayload(), "payload");
+      if (!blobStore.supportsMultipartUpload())
+         return blobStore.putBlob(container, blob);
+      long length = checkNotNull(payload.getContentMetadata().getContentLength(), "contentLength");
+      long size = partSize(blobStore, length);
+      if (length <= size)
+         return blobStore.putBlob(container, blob);
+      checkArgument(payload.isRepeatable() || size <= Integer.MAX_VALUE,
+            "parts of %s bytes cannot be buffered from a payload that is not repeatable", size);
+
+      MultipartUpload mpu = blobStore.initiateMultipartUpload(container, blob.getMetadata());
+      logger.debug("initiated multipart upload %s of %s to container %s in parts of %s bytes", mpu.getId(),
+            mpu.getBlobName(), container, size);
+      List<ListenableFuture<MultipartPart>> parts = Lists.newArrayList();
+      final Semaphore inFlight = new Semaphore(parallelDegree);
+      final AtomicBoolean failed = new AtomicBoolean();
+      try {
+         Iterator<Payload> slices = slicer.sliceSequentially(payload, size, parallelDegree + 1).iterator();
+         int partNumber = 1;
+         for (long offset = 0; offset < length; offset += size, partNumber++) {
+            inFlight.acquire();
+            if (failed.get())
+               break;
+            Payload part = slices.next();
+            final ListenableFuture<MultipartPart> future = userExecutor.submit(new UploadPart(blobStore, mpu,
+                  partNumber, part));
+            future.addListener(new Runnable() {
+               @Override
+               public void run() {
+                  try {
+                     future.get();
+                  } catch (Exception e) {
+                     failed.set(true);
+                  } finally {
+                     inFlight.release();
+                  }
+               }
+            }, directExecutor());
+            parts.add(future);
+         }
+         String eTag = blobStore.completeMultipartUpload(mpu, allAsList(parts).get());
+         logger.debug("completed multipart upload %s of %s to container %s", mpu.getId(), mpu.getBlobName(),
+               container);
+         return eTag;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         abort(blobStore, mpu, parts);
+         throw propagate(e);
+      } catch (ExecutionException e) {
+         abort(blobStore, mpu, parts);
+         throw propagate(e.getCause());
+      } catch (RuntimeException e) {
+         abort(blobStore, mpu, parts);
+         throw e;
+      }
+   }
+
+   /**
+    * Uses the configured part size, made larger where the blobstore needs fewer or bigger parts.
+    */
+   @VisibleForTesting
+   long partSize(BlobStore blobStore, long length) {
+      int maximumNumberOfParts = blobStore.getMaximumNumberOfParts();
+      long size = Math.max(partSize, blobStore.getMinimumMultipartPartSize());
+      size = Math.max(size, (length + maximumNumberOfParts - 1) / maximumNumberOfParts);
+      checkArgument(size <= blobStore.getMaximumMultipartPartSize(), "%s bytes do not fit in %s parts of %s bytes",
+            length, maximumNumberOfParts, blobStore.getMaximumMultipartPartSize());
+      return size;
+   }
+
+   @VisibleForTesting
+   int partRetries() {
+      if (partRetries != null)
+         return partRetries;
+      return legacyPartRetries != null ? legacyPartRetries : DEFAULT_PART_RETRIES;
+   }
+
+   private void abort(BlobStore blobStore, MultipartUpload mpu, List<ListenableFuture<MultipartPart>> parts) {
+      for (ListenableFuture<MultipartPart> part : parts) {
+         part.cancel(false);
+      }
+      try {
+         blobStore.abortMultipartUpload(mpu);
+      } catch (RuntimeException e) {
+         logger.warn(e, "could not abort multipart upload %s of %s to container %s", mpu.getId(),
+               mpu.getBlobName(), mpu.getContainerName());
+      }
+   }
+
+   private final class UploadPart implements Callable<MultipartPart> {
+      private final BlobStore blobStore;
+      private final MultipartUpload mpu;
+      private final int partNumber;
+      private final Payload part;
+
+      UploadPart(BlobStore blobStore, MultipartUpload mpu, int partNumber, Payload part) {
+         this.blobStore = blobStore;
+         this.mpu = mpu;
+         this.partNumber = partNumber;
+         this.part = part;
+      }
+
+      @Override
+      public MultipartPart call() {
+         try {
+            for (int attempt = 0;; attempt++) {
+               try {
+                  return blobStore.uploadMultipartPart(mpu, partNumber, part);
+               } catch (RuntimeException e) {
+                  if (attempt >= partRetries())
+                     throw e;
+                  logger.debug("retrying part %s of multipart upload %s after: %s", partNumber, mpu.getId(),
+                        e.getMessage());
+               }
+            }
+         } finally {
+            // lets the slicer reuse the buffer of the part
+            closeQuietly(part);
+         }
+      }
+   }
+}
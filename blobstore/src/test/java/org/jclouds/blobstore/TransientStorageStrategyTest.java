@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore;
+
+import static org.jclouds.blobstore.options.GetOptions.Builder.range;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_TRANSIENT_MAX_BYTES;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_TRANSIENT_OFF_HEAP;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.io.Payloads;
+import org.jclouds.util.Closeables2;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+
+@Test(testName = "TransientStorageStrategyTest", singleThreaded = true)
+public class TransientStorageStrategyTest {
+   private static final String containerName = "container";
+   private static final int blobSize = 100;
+
+   private BlobStoreContext context;
+   private BlobStore blobstore;
+
+   @BeforeMethod
+   void setupBlobStore() {
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_TRANSIENT_OFF_HEAP, "true");
+      overrides.setProperty(PROPERTY_TRANSIENT_MAX_BYTES, String.valueOf(2 * blobSize + blobSize / 2));
+      context = ContextBuilder.newBuilder("transient").overrides(overrides).build(BlobStoreContext.class);
+      blobstore = context.getBlobStore();
+      blobstore.createContainerInLocation(null, containerName);
+   }
+
+   @AfterMethod
+   void close() {
+      Closeables2.closeQuietly(context);
+   }
+
+   private static byte[] content(int size) {
+      byte[] content = new byte[size];
+      for (int i = 0; i < content.length; i++) {
+         content[i] = (byte) i;
+      }
+      return content;
+   }
+
+   private void put(String name) {
+      blobstore.putBlob(containerName, blobstore.blobBuilder(name).payload(content(blobSize)).build());
+   }
+
+   public void testOffHeapBlobRoundTrips() throws IOException {
+      put("blob");
+
+      Blob blob = blobstore.getBlob(containerName, "blob");
+      assertEquals(ByteStreams.toByteArray(blob.getPayload().openStream()), content(blobSize));
+      assertEquals(blob.getMetadata().getContentMetadata().getContentLength(), Long.valueOf(blobSize));
+   }
+
+   public void testRangedGetSlicesStoredBytes() throws IOException {
+      put("blob");
+
+      Blob blob = blobstore.getBlob(containerName, "blob", range(10, 19).range(90, 120));
+      byte[] expected = ByteSource.concat(ByteSource.wrap(content(blobSize)).slice(10, 10),
+            ByteSource.wrap(content(blobSize)).slice(90, 10)).read();
+      assertEquals(ByteStreams.toByteArray(blob.getPayload().openStream()), expected);
+      assertEquals(blob.getPayload().getContentMetadata().getContentLength(), Long.valueOf(20));
+   }
+
+   public void testLeastRecentlyUsedBlobIsEvicted() {
+      put("first");
+      put("second");
+      blobstore.getBlob(containerName, "first");
+      put("third");
+
+      assertTrue(blobstore.blobExists(containerName, "first"));
+      assertFalse(blobstore.blobExists(containerName, "second"));
+      assertTrue(blobstore.blobExists(containerName, "third"));
+   }
+
+   public void testRemovedBlobsFreeCapacity() {
+      put("first");
+      put("second");
+      blobstore.removeBlob(containerName, "first");
+      put("third");
+
+      assertTrue(blobstore.blobExists(containerName, "second"));
+      assertTrue(blobstore.blobExists(containerName, "third"));
+   }
+
+   public void testReplacingBlobDoesNotCountTwice() {
+      put("first");
+      put("second");
+      put("second");
+
+      assertTrue(blobstore.blobExists(containerName, "first"));
+      assertTrue(blobstore.blobExists(containerName, "second"));
+   }
+
+   public void testMultipartPartsAreNotEvicted() {
+      MultipartUpload mpu = blobstore.initiateMultipartUpload(containerName,
+            blobstore.blobBuilder("blob").build().getMetadata());
+      MultipartPart first = blobstore.uploadMultipartPart(mpu, 1, Payloads.newPayload(content(blobSize)));
+      put("second");
+      MultipartPart third = blobstore.uploadMultipartPart(mpu, 2, Payloads.newPayload(content(blobSize)));
+
+      assertEquals(blobstore.listMultipartUpload(mpu), ImmutableList.of(first, third));
+      assertFalse(blobstore.blobExists(containerName, "second"));
+   }
+
+   public void testListingDoesNotChangeRecency() {
+      put("b");
+      put("a");
+      // lists a before b
+      blobstore.list(containerName);
+      put("c");
+
+      assertTrue(blobstore.blobExists(containerName, "a"));
+      assertFalse(blobstore.blobExists(containerName, "b"));
+      assertTrue(blobstore.blobExists(containerName, "c"));
+   }
+
+   public void testPartThatWouldExceedLimitIsRejected() {
+      MultipartUpload mpu = blobstore.initiateMultipartUpload(containerName,
+            blobstore.blobBuilder("blob").build().getMetadata());
+      MultipartPart first = blobstore.uploadMultipartPart(mpu, 1, Payloads.newPayload(content(blobSize)));
+      MultipartPart second = blobstore.uploadMultipartPart(mpu, 2, Payloads.newPayload(content(blobSize)));
+      try {
+         blobstore.uploadMultipartPart(mpu, 3, Payloads.newPayload(content(blobSize)));
+         fail("part over the limit accepted");
+      } catch (RuntimeException expected) {
+      }
+
+      assertEquals(blobstore.listMultipartUpload(mpu), ImmutableList.of(first, second));
+   }
+
+   public void testBlobIsRejectedRatherThanEvictedWhenPartsLeaveNoRoom() {
+      put("first");
+      MultipartUpload mpu = blobstore.initiateMultipartUpload(containerName,
+            blobstore.blobBuilder("blob").build().getMetadata());
+      blobstore.uploadMultipartPart(mpu, 1, Payloads.newPayload(content(blobSize)));
+      blobstore.uploadMultipartPart(mpu, 2, Payloads.newPayload(content(blobSize)));
+      assertFalse(blobstore.blobExists(containerName, "first"));
+      try {
+         put("second");
+         fail("blob that cannot fit next to the parts accepted");
+      } catch (RuntimeException expected) {
+      }
+
+      blobstore.abortMultipartUpload(mpu);
+      put("second");
+      assertTrue(blobstore.blobExists(containerName, "second"));
+   }
+
+   @Test(expectedExceptions = RuntimeException.class)
+   public void testBlobLargerThanLimitIsRejected() {
+      blobstore.putBlob(containerName, blobstore.blobBuilder("blob").payload(content(3 * blobSize)).build());
+   }
+}
@@ -17,11 +17,15 @@
 package org.jclouds.blobstore.integration;
 
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static org.jclouds.blobstore.options.ListContainerOptions.Builder.inDirectory;
 import static org.jclouds.blobstore.options.ListContainerOptions.Builder.maxResults;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
+import java.util.List;
+
 import javax.ws.rs.core.MediaType;
 
 import org.jclouds.blobstore.BlobStore;
@@ -30,9 +34,11 @@ import org.jclouds.blobstore.domain.BlobMetadata;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.integration.internal.BaseContainerIntegrationTest;
+import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.domain.Location;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 @Test(groups = { "integration", "live" })
@@ -67,6 +73,36 @@ public class TransientContainerIntegrationTest extends BaseContainerIntegrationT
       }
    }
 
+   @Test(groups = { "integration", "live" })
+   public void testListPagesWithinDirectory() throws InterruptedException {
+      BlobStore blobStore = view.getBlobStore();
+      String containerName = getContainerName();
+      try {
+         for (String name : ImmutableList.of("a1", "b/1", "b/2", "b/3", "c1")) {
+            blobStore.putBlob(containerName, blobStore.blobBuilder(name).payload(name).build());
+         }
+
+         ListContainerOptions options = inDirectory("b").recursive().maxResults(2);
+         PageSet<? extends StorageMetadata> page = blobStore.list(containerName, options);
+         assertEquals(names(page), ImmutableList.of("b/1", "b/2"));
+         assertEquals(page.getNextMarker(), "b/2");
+
+         page = blobStore.list(containerName, options.afterMarker(page.getNextMarker()));
+         assertEquals(names(page), ImmutableList.of("b/3"));
+         assertNull(page.getNextMarker());
+      } finally {
+         returnContainer(containerName);
+      }
+   }
+
+   private static List<String> names(Iterable<? extends StorageMetadata> page) {
+      ImmutableList.Builder<String> names = ImmutableList.builder();
+      for (StorageMetadata md : page) {
+         names.add(md.getName());
+      }
+      return names.build();
+   }
+
    @Test(groups = { "integration", "live" })
    public void testDuplicateCreateContainer() {
       BlobStore blobStore = view.getBlobStore();
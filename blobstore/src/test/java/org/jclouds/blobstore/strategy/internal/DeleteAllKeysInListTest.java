@@ -21,12 +21,14 @@ import static org.easymock.EasyMock.createMockBuilder;
 import static org.easymock.EasyMock.createControl;
 import static org.easymock.EasyMock.isA;
 import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
@@ -43,15 +45,19 @@ import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.util.Closeables2;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
+import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.domain.internal.PageSetImpl;
 import org.jclouds.blobstore.internal.BlobRuntimeException;
 import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Injector;
 
 @Test(testName = "DeleteAllKeysInListTest", singleThreaded = true)
@@ -117,6 +123,53 @@ public class DeleteAllKeysInListTest {
       assertEquals(blobstore.countBlobs(containerName), 3333);
    }
 
+   @SuppressWarnings("unchecked")
+   public void testBlobsRemovedOneTaskPerBlobWithoutBulkDelete() {
+      IMocksControl mockControl = createControl();
+      ListeningExecutorService executorService = mockControl
+            .createMock(ListeningExecutorService.class);
+      DeleteAllKeysInList testDeleter = createMockBuilder(
+            DeleteAllKeysInList.class).withConstructor(executorService,
+            blobstore, retryHandler, maxParallelDeletes).createMock();
+      EasyMock.<ListenableFuture<?>> expect(
+                  executorService.submit(isA(Callable.class)))
+            .andReturn(Futures.<Void> immediateFuture(null)).times(3333);
+      replay(executorService);
+      testDeleter.executeOneIteration(containerName,
+            ListContainerOptions.Builder.recursive(), new Semaphore(maxParallelDeletes),
+            Collections.synchronizedSet(new HashSet<ListenableFuture<Void>>()),
+            new AtomicBoolean(), /* blocking = */true);
+      verify(executorService);
+   }
+
+   public void testBlobsRemovedOneBatchPerListingPageWithBulkDelete() {
+      List<StorageMetadata> blobs = Lists.newArrayList();
+      List<String> names = Lists.newArrayList();
+      for (StorageMetadata md : blobstore.list(containerName, ListContainerOptions.Builder.recursive())) {
+         if (md.getType() == StorageType.BLOB) {
+            blobs.add(md);
+            names.add(md.getName());
+         }
+      }
+      IMocksControl mockControl = createControl();
+      BlobStore blobStore = mockControl.createMock(BlobStore.class);
+      DeleteAllKeysInList testDeleter = createMockBuilder(
+            DeleteAllKeysInList.class).withConstructor(MoreExecutors.newDirectExecutorService(),
+            blobStore, retryHandler, maxParallelDeletes).createMock();
+      EasyMock.<PageSet<? extends StorageMetadata>> expect(blobStore.list(
+                  isA(String.class), isA(ListContainerOptions.class)))
+            .andReturn(new PageSetImpl<StorageMetadata>(blobs, null)).once();
+      EasyMock.expect(blobStore.supportsBulkDelete()).andReturn(true).anyTimes();
+      blobStore.removeBlobs(containerName, names);
+      EasyMock.expectLastCall().once();
+      replay(blobStore);
+      testDeleter.executeOneIteration(containerName,
+            ListContainerOptions.Builder.recursive(), new Semaphore(maxParallelDeletes),
+            Collections.synchronizedSet(new HashSet<ListenableFuture<Void>>()),
+            new AtomicBoolean(), /* blocking = */true);
+      verify(blobStore);
+   }
+
    @SuppressWarnings("unchecked")
    public void testDeleteAfterFutureFailure() {
       IMocksControl mockControl = createControl();
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.blobstore.options.GetOptions.Builder.range;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_DOWNLOAD_RANGE_SIZE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.KeyNotFoundException;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.util.Closeables2;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+@Test(testName = "ParallelDownloadBlobStrategyTest", singleThreaded = true)
+public class ParallelDownloadBlobStrategyTest {
+   private static final String containerName = "container";
+   private static final int rangeSize = 1024;
+
+   private BlobStoreContext context;
+   private BlobStore blobstore;
+   private byte[] content;
+
+   @BeforeMethod
+   void setupBlobStore() {
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_DOWNLOAD_RANGE_SIZE, String.valueOf(rangeSize));
+      context = ContextBuilder.newBuilder("transient").overrides(overrides).build(BlobStoreContext.class);
+      blobstore = context.getBlobStore();
+      blobstore.createContainerInLocation(null, containerName);
+      content = new byte[10 * rangeSize + 17];
+      for (int i = 0; i < content.length; i++) {
+         content[i] = (byte) i;
+      }
+      blobstore.putBlob(containerName, blobstore.blobBuilder("blob").payload(content).build());
+   }
+
+   @AfterMethod
+   void close() {
+      Closeables2.closeQuietly(context);
+   }
+
+   public void testDownloadToFile() throws IOException {
+      File destination = File.createTempFile("download", ".bin");
+      try {
+         blobstore.downloadBlob(containerName, "blob", destination);
+         assertEquals(Files.toByteArray(destination), content);
+      } finally {
+         destination.delete();
+      }
+   }
+
+   public void testDownloadEmptyBlob() throws IOException {
+      blobstore.putBlob(containerName, blobstore.blobBuilder("empty").payload(new byte[0]).build());
+      File destination = File.createTempFile("download", ".bin");
+      try {
+         blobstore.downloadBlob(containerName, "empty", destination);
+         assertEquals(destination.length(), 0);
+      } finally {
+         destination.delete();
+      }
+   }
+
+   public void testStream() throws IOException {
+      InputStream in = blobstore.streamBlob(containerName, "blob");
+      try {
+         assertEquals(ByteStreams.toByteArray(in), content);
+      } finally {
+         in.close();
+      }
+   }
+
+   public void testCloseStreamEarly() throws IOException {
+      InputStream in = blobstore.streamBlob(containerName, "blob");
+      byte[] first = new byte[rangeSize / 2];
+      ByteStreams.readFully(in, first);
+      in.close();
+      assertEquals(first, Arrays.copyOf(content, first.length));
+   }
+
+   @Test(expectedExceptions = KeyNotFoundException.class)
+   public void testMissingBlob() {
+      blobstore.streamBlob(containerName, "missing");
+   }
+
+   public void testRangeResumesAfterLastByteReceived() throws IOException {
+      Blob blob = blobstore.getBlob(containerName, "blob");
+      Blob truncated = blobstore.blobBuilder("blob").payload(Arrays.copyOf(content, 40)).build();
+      Blob remainder = blobstore.blobBuilder("blob").payload(Arrays.copyOfRange(content, 40, 100)).build();
+      BlobStore mock = createMock(BlobStore.class);
+      expect(mock.blobMetadata(containerName, "blob")).andReturn(blob.getMetadata());
+      String eTag = blob.getMetadata().getETag();
+      expect(mock.getBlob(containerName, "blob", range(0, 99).ifETagMatches(eTag))).andReturn(truncated);
+      expect(mock.getBlob(containerName, "blob", range(40, 99).ifETagMatches(eTag))).andReturn(remainder);
+      replay(mock);
+
+      ParallelDownloadBlobStrategy strategy = context.utils().injector().getInstance(
+            ParallelDownloadBlobStrategy.class);
+      long previousRangeSize = strategy.rangeSize;
+      blob.getMetadata().getContentMetadata().setContentLength(100L);
+      strategy.rangeSize = 100;
+      try {
+         assertEquals(ByteStreams.toByteArray(strategy.stream(mock, containerName, "blob")),
+               Arrays.copyOf(content, 100));
+      } finally {
+         strategy.rangeSize = previousRangeSize;
+      }
+      verify(mock);
+   }
+
+   public void testBlobChangedDuringDownloadIsNotRetried() throws IOException {
+      Blob blob = blobstore.getBlob(containerName, "blob");
+      BlobStore mock = createMock(BlobStore.class);
+      expect(mock.blobMetadata(containerName, "blob")).andReturn(blob.getMetadata());
+      expect(mock.getBlob(containerName, "blob", range(0, 99).ifETagMatches(blob.getMetadata().getETag())))
+            .andThrow(new HttpResponseException("precondition failed", null,
+                  HttpResponse.builder().statusCode(412).build())).once();
+      replay(mock);
+
+      ParallelDownloadBlobStrategy strategy = context.utils().injector().getInstance(
+            ParallelDownloadBlobStrategy.class);
+      long previousRangeSize = strategy.rangeSize;
+      blob.getMetadata().getContentMetadata().setContentLength(100L);
+      strategy.rangeSize = 100;
+      InputStream in = strategy.stream(mock, containerName, "blob");
+      try {
+         ByteStreams.toByteArray(in);
+         fail("expected an IOException");
+      } catch (IOException e) {
+         assertTrue(e.getCause() instanceof HttpResponseException, e.toString());
+      } finally {
+         in.close();
+         strategy.rangeSize = previousRangeSize;
+      }
+      verify(mock);
+   }
+
+   public void testDownloadFailsWhenBlobIsReplaced() throws IOException {
+      ParallelDownloadBlobStrategy strategy = context.utils().injector().getInstance(
+            ParallelDownloadBlobStrategy.class);
+      InputStream in = strategy.stream(blobstore, containerName, "blob");
+      try {
+         byte[] first = new byte[rangeSize];
+         ByteStreams.readFully(in, first);
+         blobstore.putBlob(containerName, blobstore.blobBuilder("blob").payload(new byte[content.length]).build());
+         ByteStreams.toByteArray(in);
+         fail("expected an IOException");
+      } catch (IOException e) {
+         assertTrue(e.getCause() instanceof HttpResponseException, e.toString());
+      } finally {
+         in.close();
+      }
+   }
+}
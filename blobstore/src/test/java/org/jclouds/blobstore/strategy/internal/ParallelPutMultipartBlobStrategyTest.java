@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.strategy.internal;
+
+import static org.easymock.EasyMock.anyInt;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.blobstore.options.PutOptions.Builder.multipart;
+import static org.jclouds.blobstore.reference.BlobStoreConstants.PROPERTY_MULTIPART_PART_SIZE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+
+import org.easymock.IAnswer;
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.strategy.PutMultipartBlobStrategy;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.internal.HttpWire;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.util.Closeables2;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.io.ByteStreams;
+
+@Test(testName = "ParallelPutMultipartBlobStrategyTest", singleThreaded = true)
+public class ParallelPutMultipartBlobStrategyTest {
+   private static final String containerName = "container";
+   private static final int partSize = 1024;
+
+   private BlobStoreContext context;
+   private BlobStore blobstore;
+   private byte[] content;
+
+   @BeforeMethod
+   void setupBlobStore() {
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_MULTIPART_PART_SIZE, String.valueOf(partSize));
+      context = ContextBuilder.newBuilder("transient").overrides(overrides).build(BlobStoreContext.class);
+      blobstore = context.getBlobStore();
+      blobstore.createContainerInLocation(null, containerName);
+      content = new byte[10 * partSize + 17];
+      for (int i = 0; i < content.length; i++) {
+         content[i] = (byte) i;
+      }
+   }
+
+   @AfterMethod
+   void close() {
+      Closeables2.closeQuietly(context);
+   }
+
+   public void testRepeatablePayload() throws IOException {
+      Blob blob = blobstore.blobBuilder("blob").payload(content).contentType("application/x-test").build();
+      blobstore.putBlob(containerName, blob, multipart());
+      assertBlob("blob");
+   }
+
+   public void testNonRepeatablePayload() throws IOException {
+      Blob blob = blobstore.blobBuilder("blob").payload(new ByteArrayInputStream(content))
+            .contentLength(content.length).contentType("application/x-test").build();
+      blobstore.putBlob(containerName, blob, multipart());
+      assertBlob("blob");
+   }
+
+   public void testParts() throws IOException {
+      BlobMetadata metadata = blobstore.blobBuilder("blob").payload(content).build().getMetadata();
+      MultipartUpload mpu = blobstore.initiateMultipartUpload(containerName, metadata);
+      MultipartPart second = blobstore.uploadMultipartPart(mpu, 2, Payloads.newPayload(new byte[] { 2 }));
+      MultipartPart first = blobstore.uploadMultipartPart(mpu, 1, Payloads.newPayload(new byte[] { 1 }));
+
+      assertEquals(blobstore.listMultipartUpload(mpu), ImmutableList.of(first, second));
+      assertEquals(blobstore.countBlobs(containerName), 0);
+
+      blobstore.completeMultipartUpload(mpu, ImmutableList.of(first, second));
+      assertEquals(ByteStreams.toByteArray(blobstore.getBlob(containerName, "blob").getPayload().openStream()),
+            new byte[] { 1, 2 });
+      assertEquals(blobstore.listMultipartUpload(mpu), ImmutableList.of());
+   }
+
+   public void testAbortRemovesParts() {
+      BlobMetadata metadata = blobstore.blobBuilder("blob").payload(content).build().getMetadata();
+      MultipartUpload mpu = blobstore.initiateMultipartUpload(containerName, metadata);
+      blobstore.uploadMultipartPart(mpu, 1, Payloads.newPayload(new byte[] { 1 }));
+
+      blobstore.abortMultipartUpload(mpu);
+      assertEquals(blobstore.listMultipartUpload(mpu), ImmutableList.of());
+      assertEquals(blobstore.blobExists(containerName, "blob"), false);
+   }
+
+   public void testPartNamesAreReserved() {
+      String partName = ".mpus-0f8fad5b-d9cb-469f-a165-70867728950e-00001";
+      try {
+         blobstore.putBlob(containerName, blobstore.blobBuilder(partName).payload(content).build());
+         fail("reserved name accepted");
+      } catch (IllegalArgumentException expected) {
+      }
+      try {
+         blobstore.blobExists(containerName, partName);
+         fail("reserved name accepted");
+      } catch (IllegalArgumentException expected) {
+      }
+   }
+
+   public void testOtherNamesWithPartPrefixAreStillBlobs() {
+      blobstore.putBlob(containerName, blobstore.blobBuilder(".mpus-blob").payload(content).build());
+      assertEquals(blobstore.blobExists(containerName, ".mpus-blob"), true);
+      assertEquals(blobstore.countBlobs(containerName), 1);
+   }
+
+   public void testCompleteRejectsPartWithWrongETag() {
+      BlobMetadata metadata = blobstore.blobBuilder("blob").payload(content).build().getMetadata();
+      MultipartUpload mpu = blobstore.initiateMultipartUpload(containerName, metadata);
+      MultipartPart first = blobstore.uploadMultipartPart(mpu, 1, Payloads.newPayload(new byte[] { 1 }));
+      blobstore.uploadMultipartPart(mpu, 1, Payloads.newPayload(new byte[] { 2 }));
+
+      try {
+         blobstore.completeMultipartUpload(mpu, ImmutableList.of(first));
+         fail("stale part accepted");
+      } catch (IllegalArgumentException expected) {
+      }
+      assertEquals(blobstore.blobExists(containerName, "blob"), false);
+   }
+
+   public void testContainerWithOnlyPartsIsEmpty() {
+      BlobMetadata metadata = blobstore.blobBuilder("blob").payload(content).build().getMetadata();
+      MultipartUpload mpu = blobstore.initiateMultipartUpload(containerName, metadata);
+      blobstore.uploadMultipartPart(mpu, 1, Payloads.newPayload(new byte[] { 1 }));
+
+      assertEquals(blobstore.deleteContainerIfEmpty(containerName), true);
+      assertEquals(blobstore.containerExists(containerName), false);
+   }
+
+   public void testPartSizeGrowsToFitMaximumNumberOfParts() {
+      ParallelPutMultipartBlobStrategy strategy = (ParallelPutMultipartBlobStrategy) context.utils().injector()
+            .getInstance(PutMultipartBlobStrategy.class);
+      assertEquals(strategy.partSize(blobstore, content.length), partSize);
+      assertEquals(strategy.partSize(blobstore, 20000L * partSize), 2 * partSize);
+   }
+
+   public void testFailedPartIsRetried() {
+      MultipartUpload mpu = MultipartUpload.create(containerName, "blob", "id", blobstore.blobBuilder("blob")
+            .build().getMetadata());
+      MultipartPart part1 = MultipartPart.create(1, partSize, "etag1");
+      MultipartPart part2 = MultipartPart.create(2, partSize, "etag2");
+      BlobStore mock = createMock(BlobStore.class);
+      expectLimits(mock);
+      expect(mock.initiateMultipartUpload(eq(containerName), anyObject(BlobMetadata.class))).andReturn(mpu);
+      expect(mock.uploadMultipartPart(eq(mpu), eq(1), anyObject(Payload.class))).andReturn(part1);
+      expect(mock.uploadMultipartPart(eq(mpu), eq(2), anyObject(Payload.class)))
+            .andThrow(new IllegalStateException("transient")).andReturn(part2);
+      expect(mock.completeMultipartUpload(mpu, ImmutableList.of(part1, part2))).andReturn("etag");
+      replay(mock);
+
+      Blob blob = blobstore.blobBuilder("blob").payload(new byte[2 * partSize]).build();
+      assertEquals(newStrategy().execute(mock, containerName, blob), "etag");
+      verify(mock);
+   }
+
+   public void testPooledPartIsRetriedAfterWireLogging() {
+      MultipartUpload mpu = MultipartUpload.create(containerName, "blob", "id", blobstore.blobBuilder("blob")
+            .build().getMetadata());
+      BlobStore mock = createMock(BlobStore.class);
+      expectLimits(mock);
+      expect(mock.initiateMultipartUpload(eq(containerName), anyObject(BlobMetadata.class))).andReturn(mpu);
+      expect(mock.uploadMultipartPart(eq(mpu), anyInt(), anyObject(Payload.class)))
+            .andAnswer(new IAnswer<MultipartPart>() {
+         int attempts;
+
+         @Override
+         public MultipartPart answer() throws IOException {
+            // what an http executor does with the part when wire logging is enabled
+            Payload part = (Payload) getCurrentArguments()[2];
+            HttpRequest request = HttpRequest.builder().method("PUT").endpoint("http://localhost/part")
+                  .payload(part).build();
+            new HttpWire().output(request);
+            assertEquals(ByteStreams.toByteArray(request.getPayload().openStream()).length, partSize);
+            if (attempts++ == 0)
+               throw new IllegalStateException("transient");
+            int partNumber = (Integer) getCurrentArguments()[1];
+            return MultipartPart.create(partNumber, partSize, "etag" + partNumber);
+         }
+      }).times(3);
+      expect(mock.completeMultipartUpload(mpu, ImmutableList.of(MultipartPart.create(1, partSize, "etag1"),
+            MultipartPart.create(2, partSize, "etag2")))).andReturn("etag");
+      replay(mock);
+
+      Blob blob = blobstore.blobBuilder("blob").payload(new ByteArrayInputStream(new byte[2 * partSize]))
+            .contentLength(2 * partSize).build();
+      assertEquals(newStrategy().execute(mock, containerName, blob), "etag");
+      verify(mock);
+   }
+
+   public void testUploadIsAbortedWhenPartKeepsFailing() {
+      MultipartUpload mpu = MultipartUpload.create(containerName, "blob", "id", blobstore.blobBuilder("blob")
+            .build().getMetadata());
+      BlobStore mock = createMock(BlobStore.class);
+      expectLimits(mock);
+      expect(mock.initiateMultipartUpload(eq(containerName), anyObject(BlobMetadata.class))).andReturn(mpu);
+      expect(mock.uploadMultipartPart(eq(mpu), eq(1), anyObject(Payload.class)))
+            .andThrow(new IllegalStateException("permanent")).times(ParallelPutMultipartBlobStrategy
+                  .DEFAULT_PART_RETRIES + 1);
+      mock.abortMultipartUpload(mpu);
+      replay(mock);
+
+      Blob blob = blobstore.blobBuilder("blob").payload(new byte[partSize]).build();
+      ParallelPutMultipartBlobStrategy strategy = newStrategy();
+      strategy.partSize = partSize / 2;
+      try {
+         strategy.execute(mock, containerName, blob);
+         fail("expected part failure to propagate");
+      } catch (IllegalStateException expected) {
+         assertEquals(expected.getMessage(), "permanent");
+      }
+      verify(mock);
+   }
+
+   public void testSinglePutWithoutMultipartSupport() {
+      Blob blob = blobstore.blobBuilder("blob").payload(new byte[2 * partSize]).build();
+      BlobStore mock = createMock(BlobStore.class);
+      expect(mock.supportsMultipartUpload()).andReturn(false);
+      expect(mock.putBlob(containerName, blob)).andReturn("etag");
+      replay(mock);
+
+      assertEquals(newStrategy().execute(mock, containerName, blob), "etag");
+      verify(mock);
+   }
+
+   private ParallelPutMultipartBlobStrategy newStrategy() {
+      ParallelPutMultipartBlobStrategy strategy = context.utils().injector().getInstance(
+            ParallelPutMultipartBlobStrategy.class);
+      strategy.parallelDegree = 1;
+      return strategy;
+   }
+
+   private static void expectLimits(BlobStore mock) {
+      expect(mock.supportsMultipartUpload()).andReturn(true).anyTimes();
+      expect(mock.getMinimumMultipartPartSize()).andReturn(1L).anyTimes();
+      expect(mock.getMaximumMultipartPartSize()).andReturn(Long.MAX_VALUE).anyTimes();
+      expect(mock.getMaximumNumberOfParts()).andReturn(10000).anyTimes();
+   }
+
+   private void assertBlob(String name) throws IOException {
+      Blob blob = blobstore.getBlob(containerName, name);
+      assertEquals(ByteStreams.toByteArray(blob.getPayload().openStream()), content);
+      assertEquals(blob.getMetadata().getContentMetadata().getContentType(), "application/x-test");
+      List<String> names = ImmutableList.of(Iterables.getOnlyElement(blobstore.list(containerName)).getName());
+      assertEquals(names, ImmutableList.of(name));
+   }
+}
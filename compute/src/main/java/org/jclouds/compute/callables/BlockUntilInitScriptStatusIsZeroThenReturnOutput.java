@@ -16,10 +16,15 @@
  */
 package org.jclouds.compute.callables;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.io.BaseEncoding.base64;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.jclouds.util.Predicates2.retry;
 
+import java.io.ByteArrayOutputStream;
+import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -35,12 +40,16 @@ import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.logging.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.CharMatcher;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
 import com.google.common.eventbus.EventBus;
 import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
 import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
@@ -69,6 +78,9 @@ public class BlockUntilInitScriptStatusIsZeroThenReturnOutput extends AbstractFu
    }
 
    private Predicate<String> notRunningAnymore;
+   private boolean incremental;
+   private long initialPeriod;
+   private long maxPeriod;
 
    @Inject
    public BlockUntilInitScriptStatusIsZeroThenReturnOutput(
@@ -78,6 +90,9 @@ public class BlockUntilInitScriptStatusIsZeroThenReturnOutput extends AbstractFu
       // this is mutable only until we can determine how to decouple "this" from here
       notRunningAnymore = loopUntilTrueOrThrowCancellationException(new ExitStatusOfCommandGreaterThanZero(
                commandRunner), properties.initStatusMaxPeriod, properties.initStatusInitialPeriod, this);
+      this.incremental = properties.initStatusIncremental;
+      this.initialPeriod = properties.initStatusInitialPeriod;
+      this.maxPeriod = properties.initStatusMaxPeriod;
    }
 
    @VisibleForTesting
@@ -132,13 +147,17 @@ public class BlockUntilInitScriptStatusIsZeroThenReturnOutput extends AbstractFu
    public void run() {
       try {
          ExecResponse exec = null;
-         do {
-            notRunningAnymore.apply("status");
-            String stdout = commandRunner.runAction("stdout").getOutput();
-            String stderr = commandRunner.runAction("stderr").getOutput();
-            Integer exitStatus = Ints.tryParse(commandRunner.runAction("exitstatus").getOutput().trim());
-            exec = new ExecResponse(stdout, stderr, exitStatus == null ? -1 : exitStatus);
-         } while (!isCancelled() && exec.getExitStatus() == -1);
+         if (incremental && commandRunner.getStatement().isPollable()) {
+            exec = pollIncrementally();
+         } else {
+            do {
+               notRunningAnymore.apply("status");
+               String stdout = commandRunner.runAction("stdout").getOutput();
+               String stderr = commandRunner.runAction("stderr").getOutput();
+               Integer exitStatus = Ints.tryParse(commandRunner.runAction("exitstatus").getOutput().trim());
+               exec = new ExecResponse(stdout, stderr, exitStatus == null ? -1 : exitStatus);
+            } while (!isCancelled() && exec.getExitStatus() == -1);
+         }
          logger.debug("<< complete(%s) status(%s)", commandRunner.getStatement().getInstanceName(), exec
                   .getExitStatus());
          set(exec);
@@ -147,6 +166,48 @@ public class BlockUntilInitScriptStatusIsZeroThenReturnOutput extends AbstractFu
       }
    }
 
+   /**
+    * Polls the script with one exec per period until it has stopped and written its exit status. Each poll only
+    * transfers the output written since the previous one, so the cost of watching a script is linear in the size
+    * of its logs. The chunks are accumulated as bytes and only decoded once complete, as a poll can end in the
+    * middle of a multi-byte character.
+    */
+   private ExecResponse pollIncrementally() throws InterruptedException {
+      ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+      ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+      long stdoutOffset = 0;
+      long stderrOffset = 0;
+      long period = initialPeriod;
+      while (!isCancelled()) {
+         ExecResponse response = commandRunner.poll(stdoutOffset, stderrOffset);
+         String output = response.getOutput();
+         int endOfHeader = output.indexOf('\n');
+         List<String> header = endOfHeader == -1 ? ImmutableList.<String> of() : Splitter.on(' ').omitEmptyStrings()
+               .trimResults().splitToList(output.substring(0, endOfHeader));
+         checkState(header.size() == 4, "unexpected response polling init script: %s", response);
+         Integer exitStatus = Ints.tryParse(header.get(1));
+         Long stdoutSize = Longs.tryParse(header.get(2));
+         Long stderrSize = Longs.tryParse(header.get(3));
+         checkState(stdoutSize != null && stderrSize != null, "unexpected response polling init script: %s",
+               response);
+         appendBase64(stdout, output.substring(endOfHeader + 1));
+         appendBase64(stderr, response.getError());
+         stdoutOffset = stdoutSize;
+         stderrOffset = stderrSize;
+         if ("0".equals(header.get(0)) && exitStatus != null && exitStatus != -1)
+            return new ExecResponse(new String(stdout.toByteArray(), UTF_8), new String(stderr.toByteArray(),
+                  UTF_8), exitStatus);
+         MILLISECONDS.sleep(period);
+         period = Math.min(period * 3 / 2 + 1, maxPeriod);
+      }
+      throw new CancellationException(this + " is cancelled");
+   }
+
+   private static void appendBase64(ByteArrayOutputStream out, String encoded) {
+      byte[] decoded = base64().decode(CharMatcher.WHITESPACE.removeFrom(encoded));
+      out.write(decoded, 0, decoded.length);
+   }
+
    @Override
    protected boolean set(ExecResponse value) {
       eventBus.post(new StatementOnNodeCompletion(getCommandRunner().getStatement(), getCommandRunner().getNode(),
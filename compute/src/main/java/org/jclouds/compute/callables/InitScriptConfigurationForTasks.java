@@ -17,6 +17,7 @@
 package org.jclouds.compute.callables;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.compute.config.ComputeServiceProperties.INIT_STATUS_INCREMENTAL;
 
 import java.io.File;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -38,6 +39,7 @@ public class InitScriptConfigurationForTasks {
    private String basedir = "/tmp";
    private String initScriptPattern = basedir + "/init-%s";
    private Supplier<String> suffixSupplier;
+   private boolean pollable;
 
    protected InitScriptConfigurationForTasks() {
       appendCurrentTimeMillisToAnonymousTaskNames();
@@ -51,6 +53,12 @@ public class InitScriptConfigurationForTasks {
       return this;
    }
 
+   @Inject(optional = true)
+   public InitScriptConfigurationForTasks pollable(@Named(INIT_STATUS_INCREMENTAL) boolean pollable) {
+      this.pollable = pollable;
+      return this;
+   }
+
    public InitScriptConfigurationForTasks appendCurrentTimeMillisToAnonymousTaskNames() {
       this.suffixSupplier = new Supplier<String>() {
 
@@ -112,4 +120,13 @@ public class InitScriptConfigurationForTasks {
    public Supplier<String> getAnonymousTaskSuffixSupplier() {
       return suffixSupplier;
    }
+
+   /**
+    * @return whether init scripts for tasks get the {@code poll} action, which is only needed when
+    *         {@link org.jclouds.compute.config.ComputeServiceProperties#INIT_STATUS_INCREMENTAL} is set
+    * @see InitScript#isPollable
+    */
+   public boolean isPollable() {
+      return pollable;
+   }
 }
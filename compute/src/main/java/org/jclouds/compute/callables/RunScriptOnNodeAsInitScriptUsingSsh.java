@@ -83,7 +83,8 @@ public class RunScriptOnNodeAsInitScriptUsingSsh extends SudoAwareInitManager im
       if (name == null) {
          name = "jclouds-script-" + config.getAnonymousTaskSuffixSupplier().get();
       }
-      return InitScript.builder().name(name).home(config.getBasedir() + "/" + name).run(script).build();
+      return InitScript.builder().name(name).home(config.getBasedir() + "/" + name).run(script)
+            .pollable(config.isPollable()).build();
    }
 
    protected void refreshSshIfNewAdminCredentialsConfigured(AdminAccess input) {
@@ -93,11 +93,27 @@ public class SudoAwareInitManager {
       return returnVal;
    }
 
+   /**
+    * Runs the {@code poll} action, which reports in a single exec whether the script is running, its exit status
+    * and only the stdout and stderr written past the given byte offsets. The first line of the output is
+    * {@code <running> <exitstatus> <stdout size> <stderr size>}; the new stdout follows it base64 encoded, as is
+    * the new stderr.
+    *
+    * @see InitScript#isPollable()
+    */
+   public ExecResponse poll(long stdoutOffset, long stderrOffset) {
+      ExecResponse returnVal = runCommand(execScriptAsDefaultUser(String.format("poll %d %d", stdoutOffset,
+            stderrOffset)));
+      logger.trace("<< poll(%d)", returnVal.getExitStatus());
+      return returnVal;
+   }
+
    ExecResponse runCommand(String command) {
       String statement = String.format("[%s] as %s@%s", command.replace(
             node.getCredentials().getOptionalPassword().isPresent() ? node.getCredentials().getOptionalPassword().get() : "XXXXX", "XXXXX"), ssh
             .getUsername(), ssh.getHostAddress());
-      if (command.endsWith("status") || command.endsWith("stdout") || command.endsWith("stderr"))
+      if (command.endsWith("status") || command.endsWith("stdout") || command.endsWith("stderr")
+            || command.contains(" poll "))
          logger.trace(">> running %s", statement);
       else 
          computeLogger.debug(">> running " + statement);
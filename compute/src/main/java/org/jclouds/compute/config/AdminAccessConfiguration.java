@@ -23,12 +23,13 @@ import java.io.IOException;
 import java.security.SecureRandom;
 import java.util.Map;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.jclouds.compute.config.AdminAccessConfiguration.Default;
 import org.jclouds.compute.functions.Sha512Crypt;
 import org.jclouds.scriptbuilder.statements.login.AdminAccess.Configuration;
-import org.jclouds.ssh.SshKeys;
+import org.jclouds.ssh.SshKeyPairGenerator;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
@@ -50,10 +51,16 @@ public interface AdminAccessConfiguration extends Configuration {
                      Files.toString(new File(System.getProperty("user.home") + "/.ssh/id_rsa.pub"), UTF_8), "private",
                      Files.toString(new File(System.getProperty("user.home") + "/.ssh/id_rsa"), UTF_8));
             } catch (IOException e) {
-               return SshKeys.generate();
+               return keyPairGenerator.get();
             }
          }
       };
+      private final SshKeyPairGenerator keyPairGenerator;
+
+      @Inject
+      Default(SshKeyPairGenerator keyPairGenerator) {
+         this.keyPairGenerator = keyPairGenerator;
+      }
 
       /**
        * Cheap, lightweight, low-security password generator.
@@ -53,6 +53,7 @@ import org.jclouds.compute.options.TemplateOptions;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap;
 import org.jclouds.compute.strategy.InitializeRunScriptOnNodeOrPlaceInBadMap;
+import org.jclouds.compute.suppliers.ImageCacheSnapshot;
 import org.jclouds.compute.suppliers.ImageCacheSupplier;
 import org.jclouds.config.ValueOfConfigurationKeyOrNull;
 import org.jclouds.domain.LoginCredentials;
@@ -237,7 +238,8 @@ public abstract class BaseComputeServiceContextModule extends AbstractModule {
    protected Supplier<Set<? extends Image>> supplyImageCache(AtomicReference<AuthorizationException> authException, @Named(PROPERTY_SESSION_INTERVAL) long seconds,
          final Supplier<Set<? extends Image>> imageSupplier, Injector injector) {
       if (shouldEagerlyParseImages(injector)) {
-         return supplyImageCache(authException, seconds, imageSupplier);
+         return injector.getInstance(ImageCacheSnapshot.class).decorate(
+               supplyImageCache(authException, seconds, imageSupplier));
       } else {
          return supplyNonParsingImageCache(authException, seconds, imageSupplier, injector);
       }
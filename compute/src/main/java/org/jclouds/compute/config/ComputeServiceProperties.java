@@ -30,6 +30,14 @@ public final class ComputeServiceProperties {
    public static final String INIT_STATUS_INITIAL_PERIOD = "jclouds.compute.init-status.initial-period";
    public static final String INIT_STATUS_MAX_PERIOD = "jclouds.compute.init-status.max-period";
 
+   /**
+    * When true, init scripts are watched with one ssh exec per poll that returns the status, exit code and only
+    * the output written since the previous poll, rather than re-reading the whole stdout and stderr logs with
+    * separate execs. This adds a {@code poll} action to the generated init scripts, which needs {@code base64} on
+    * the node. Defaults to false.
+    */
+   public static final String INIT_STATUS_INCREMENTAL = "jclouds.compute.init-status.incremental";
+
    /**
     * Initial period between the ComputeService's node polls. Subsequent periods increase exponentially
     * (based on the backoff factor) and become constant when the maximum period is reached.
@@ -44,6 +52,13 @@ public final class ComputeServiceProperties {
     */
    public static final String POLL_MAX_PERIOD = "jclouds.compute.poll-status.max-period";
 
+   /**
+    * When true, nodes waiting to become running or terminated are polled together: each poll lists the
+    * status of every waiting node in a location with one call, on a shared scheduler, rather than calling
+    * the provider once per node from the waiting thread. Defaults to false.
+    */
+   public static final String POLL_BATCHED = "jclouds.compute.poll-status.batched";
+
    /**
     * time in milliseconds to wait for an image to finish creating.
     * 
@@ -109,6 +124,19 @@ public final class ComputeServiceProperties {
     */
    public static final String SOCKET_FINDER_ALLOWED_INTERFACES = "jclouds.compute.socket-finder-allowed-interfaces";
 
+   /**
+    * directory where the image list is snapshotted, so that new contexts for the same provider, endpoint and
+    * identity can answer image queries before the provider has listed its images again. Snapshots older than
+    * the session interval are ignored. Unset by default, which disables snapshots.
+    */
+   public static final String IMAGE_CACHE_SNAPSHOT_DIR = "jclouds.compute.image-cache-snapshot-dir";
+
+   /**
+    * number of RSA ssh key pairs to keep generated ahead of time on a low priority background thread, so that
+    * bursts of node creations do not wait on key generation. Defaults to 0, which generates each key on demand.
+    */
+   public static final String KEY_PAIR_POOL_SIZE = "jclouds.compute.key-pair-pool-size";
+
    private ComputeServiceProperties() {
       throw new AssertionError("intentionally unimplemented");
    }
@@ -27,11 +27,13 @@ import static org.jclouds.util.Predicates2.retry;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.functions.PollNodeRunning;
+import org.jclouds.compute.internal.NodeStatusPoller;
 import org.jclouds.compute.predicates.AtomicImageAvailable;
 import org.jclouds.compute.predicates.AtomicImageDeleted;
 import org.jclouds.compute.predicates.AtomicNodeRunning;
@@ -54,6 +56,23 @@ public class ComputeServiceTimeoutsModule extends AbstractModule {
    @Provides
    @Singleton
    @Named(TIMEOUT_NODE_RUNNING)
+   protected Predicate<AtomicReference<NodeMetadata>> nodeRunning(final AtomicNodeRunning statusRunning,
+         Timeouts timeouts, PollPeriod period, Provider<NodeStatusPoller> poller) {
+      if (timeouts.nodeRunning == 0 || !period.batched)
+         return nodeRunning(statusRunning, timeouts, period);
+      return poller.get().retry(new Predicate<NodeMetadata>() {
+         @Override
+         public boolean apply(NodeMetadata input) {
+            return statusRunning.checkStatus(input);
+         }
+
+         @Override
+         public String toString() {
+            return "nodeRunning()";
+         }
+      }, timeouts.nodeRunning);
+   }
+
    protected Predicate<AtomicReference<NodeMetadata>> nodeRunning(AtomicNodeRunning statusRunning, Timeouts timeouts,
          PollPeriod period) {
       return timeouts.nodeRunning == 0 ? statusRunning : RetryablePredicateGuardingNull.create(statusRunning,
@@ -63,6 +82,23 @@ public class ComputeServiceTimeoutsModule extends AbstractModule {
    @Provides
    @Singleton
    @Named(TIMEOUT_NODE_TERMINATED)
+   protected Predicate<AtomicReference<NodeMetadata>> serverTerminated(final AtomicNodeTerminated statusTerminated,
+         Timeouts timeouts, PollPeriod period, Provider<NodeStatusPoller> poller) {
+      if (timeouts.nodeTerminated == 0 || !period.batched)
+         return serverTerminated(statusTerminated, timeouts, period);
+      return poller.get().retry(new Predicate<NodeMetadata>() {
+         @Override
+         public boolean apply(NodeMetadata input) {
+            return statusTerminated.checkStatus(input);
+         }
+
+         @Override
+         public String toString() {
+            return "nodeTerminated()";
+         }
+      }, timeouts.nodeTerminated);
+   }
+
    protected Predicate<AtomicReference<NodeMetadata>> serverTerminated(AtomicNodeTerminated statusTerminated,
          Timeouts timeouts, PollPeriod period) {
       return timeouts.nodeTerminated == 0 ? statusTerminated : retry(statusTerminated, timeouts.nodeTerminated,
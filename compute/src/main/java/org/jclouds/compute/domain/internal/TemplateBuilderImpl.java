@@ -21,7 +21,6 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Predicates.and;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.find;
-import static com.google.common.collect.Iterables.size;
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Iterables.tryFind;
 import static com.google.common.collect.Lists.newArrayList;
@@ -33,6 +32,7 @@ import static org.jclouds.compute.util.ComputeServiceUtils.getSpace;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -55,6 +55,7 @@ import org.jclouds.compute.options.TemplateOptions;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.GetImageStrategy;
 import org.jclouds.compute.suppliers.ImageCacheSupplier;
+import org.jclouds.compute.suppliers.ImageIndex;
 import org.jclouds.domain.Location;
 import org.jclouds.logging.Logger;
 
@@ -70,6 +71,7 @@ import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Ordering;
 import com.google.common.primitives.Doubles;
 
@@ -129,6 +131,11 @@ public class TemplateBuilderImpl implements TemplateBuilder {
    @VisibleForTesting
    protected TemplateOptions options;
 
+   /** Index of the images being searched, if they are the current contents of the image cache. */
+   private ImageIndex imageIndex;
+
+   private final Map<String, Pattern> patterns = Maps.newHashMap();
+
    @Inject
    protected TemplateBuilderImpl(@Memoized Supplier<Set<? extends Location>> locations,
          ImageCacheSupplier images, @Memoized Supplier<Set<? extends Hardware>> hardwares,
@@ -143,29 +150,50 @@ public class TemplateBuilderImpl implements TemplateBuilder {
       this.getImageStrategy = checkNotNull(getImageStrategy, "getImageStrategy");
    }
 
-   static Predicate<Hardware> supportsImagesPredicate(final Iterable<? extends Image> images) {
+   Predicate<Hardware> supportsImagesPredicate(final Iterable<? extends Image> images) {
       return new Predicate<Hardware>() {
          @Override
          public boolean apply(final Hardware hardware) {
-            return Iterables.any(images, new Predicate<Image>() {
+            return Iterables.any(images, supportsImage(hardware));
+         }
 
-               @Override
-               public boolean apply(Image input) {
-                  return hardware.supportsImage().apply(input);
-               }
+      };
+   }
 
-               @Override
-               public String toString() {
-                  return "hardware(" + hardware + ").supportsImage()";
-               }
+   /**
+    * {@code hardware.supportsImage()}, answered from the image index when there is one.
+    */
+   private Predicate<Image> supportsImage(final Hardware hardware) {
+      final ImageIndex index = imageIndex;
+      return new Predicate<Image>() {
 
-            });
+         @Override
+         public boolean apply(Image input) {
+            return index != null ? index.supports(hardware, input) : hardware.supportsImage().apply(input);
+         }
 
+         @Override
+         public String toString() {
+            return "hardware(" + hardware + ").supportsImage()";
          }
 
       };
    }
 
+   /**
+    * true if {@code value} contains {@code regex} or matches it; patterns are compiled once per builder.
+    */
+   private boolean containsOrMatches(String value, String regex) {
+      if (value.contains(regex))
+         return true;
+      Pattern pattern = patterns.get(regex);
+      if (pattern == null) {
+         pattern = Pattern.compile(regex);
+         patterns.put(regex, pattern);
+      }
+      return pattern.matcher(value).matches();
+   }
+
    final Predicate<ComputeMetadata> locationPredicate = new NullEqualToIsParentOrIsGrandparentOfCurrentLocation(new Supplier<Location>() {
 
       @Override
@@ -219,7 +247,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getName() == null)
                returnVal = false;
             else
-               returnVal = input.getName().contains(osName) || input.getName().matches(osName);
+               returnVal = containsOrMatches(input.getName(), osName);
          }
          return returnVal;
       }
@@ -238,8 +266,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getDescription() == null)
                returnVal = false;
             else
-               returnVal = input.getDescription().contains(osDescription)
-                     || input.getDescription().matches(osDescription);
+               returnVal = containsOrMatches(input.getDescription(), osDescription);
          }
          return returnVal;
       }
@@ -258,7 +285,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getVersion() == null)
                returnVal = false;
             else
-               returnVal = input.getVersion().contains(osVersion) || input.getVersion().matches(osVersion);
+               returnVal = containsOrMatches(input.getVersion(), osVersion);
          }
          return returnVal;
       }
@@ -296,7 +323,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getArch() == null)
                returnVal = false;
             else
-               returnVal = input.getArch().contains(osArch) || input.getArch().matches(osArch);
+               returnVal = containsOrMatches(input.getArch(), osArch);
          }
          return returnVal;
       }
@@ -315,7 +342,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getVersion() == null)
                returnVal = false;
             else
-               returnVal = input.getVersion().contains(imageVersion) || input.getVersion().matches(imageVersion);
+               returnVal = containsOrMatches(input.getVersion(), imageVersion);
          }
          return returnVal;
       }
@@ -334,8 +361,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getName() == null)
                returnVal = false;
             else
-               returnVal = input.getName().equals(imageName) || input.getName().contains(imageName)
-                        || input.getName().matches(imageName);
+               returnVal = input.getName().equals(imageName) || containsOrMatches(input.getName(), imageName);
          }
          return returnVal;
       }
@@ -355,8 +381,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
                returnVal = false;
             else
                returnVal = input.getDescription().equals(imageDescription)
-                     || input.getDescription().contains(imageDescription)
-                     || input.getDescription().matches(imageDescription);
+                     || containsOrMatches(input.getDescription(), imageDescription);
          }
          return returnVal;
       }
@@ -395,8 +420,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
             if (input.getHypervisor() == null)
                returnVal = false;
             else
-               returnVal = input.getHypervisor().contains(hypervisor)
-                     || input.getHypervisor().matches(hypervisor);
+               returnVal = containsOrMatches(input.getHypervisor(), hypervisor);
          }
          return returnVal;
       }
@@ -680,6 +704,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
       logger.debug(">> searching params(%s)", this);
       Set<? extends Image> images = getImages();
       checkState(!images.isEmpty(), "no images present!");
+      imageIndex = this.images.getIndex(images);
       Set<? extends Hardware> hardwaresToSearch = hardwares.get();
       checkState(!hardwaresToSearch.isEmpty(), "no hardware profiles present!");
 
@@ -719,8 +744,17 @@ public class TemplateBuilderImpl implements TemplateBuilder {
 
    private Iterable<? extends Image> findSupportedImages(Set<? extends Image> images) {
       Predicate<Image> imagePredicate = buildImagePredicate();
-      Iterable<? extends Image> supportedImages = filter(images, imagePredicate);
-      if (size(supportedImages) == 0) {
+      Iterable<? extends Image> candidates = images;
+      if (imageIndex != null) {
+         candidates = imageIndex.candidates(location, osFamily, os64Bit, new Predicate<String>() {
+            @Override
+            public boolean apply(String version) {
+               return osVersion == null || (version != null && containsOrMatches(version, osVersion));
+            }
+         });
+      }
+      Iterable<? extends Image> supportedImages = ImmutableList.copyOf(filter(candidates, imagePredicate));
+      if (Iterables.isEmpty(supportedImages)) {
          throw throwNoSuchElementExceptionAfterLoggingImageIds(
                format("no image matched predicate: %s", imagePredicate), images);
       }
@@ -787,15 +821,15 @@ public class TemplateBuilderImpl implements TemplateBuilder {
 
                });
 
-      Predicate<Image> supportsImagePredicate = Iterables.size(supportsImagePredicates) == 1 ? Iterables
-               .getOnlyElement(supportsImagePredicates) : Predicates.<Image>or(supportsImagePredicates);
-
-      if (!Iterables.any(images, supportsImagePredicate)) {
+      Iterable<? extends Hardware> hardwareCompatibleWithOurImages = ImmutableList.copyOf(filter(hardwarel,
+            supportsImagesPredicate(images)));
+      if (Iterables.isEmpty(hardwareCompatibleWithOurImages)) {
+         Predicate<Image> supportsImagePredicate = Iterables.size(supportsImagePredicates) == 1 ? Iterables
+                  .getOnlyElement(supportsImagePredicates) : Predicates.<Image>or(supportsImagePredicates);
          String message = format("no hardware profiles support images matching params: %s", supportsImagePredicate);
          throw throwNoSuchElementExceptionAfterLoggingHardwareIds(message, hardwarel);
       }
 
-      Iterable<? extends Hardware> hardwareCompatibleWithOurImages = filter(hardwarel, supportsImagesPredicate(images));
       Predicate<Hardware> hardwarePredicate = buildHardwarePredicate();
       Hardware hardware;
       try {
@@ -830,18 +864,7 @@ public class TemplateBuilderImpl implements TemplateBuilder {
     *            if there's no image that matches the predicate
     */
    protected Image resolveImage(final Hardware hardware, Iterable<? extends Image> supportedImages) {
-      Predicate<Image> imagePredicate = new Predicate<Image>() {
-
-         @Override
-         public boolean apply(Image arg0) {
-            return hardware.supportsImage().apply(arg0);
-         }
-
-         @Override
-         public String toString() {
-            return "hardware(" + hardware + ").supportsImage()";
-         }
-      };
+      Predicate<Image> imagePredicate = supportsImage(hardware);
 
       try {
          Iterable<? extends Image> matchingImages = filter(supportedImages, imagePredicate);
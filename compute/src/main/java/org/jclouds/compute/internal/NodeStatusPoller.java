@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.compute.strategy.GetNodeMetadataStrategy;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Polls the status of many nodes at once.
+ * <p>
+ * A single scheduler thread wakes up every {@link PollPeriod#pollInitialPeriod} and collects the nodes that
+ * are due for a poll. Each location's nodes are refreshed with one {@link ListNodesStrategy#listNodesByIds} call
+ * on the user executor, and the future of each node completes once its status is reached. Nodes back off
+ * between polls the same way {@link org.jclouds.util.Predicates2#retry} does.
+ */
+@Singleton
+public class NodeStatusPoller {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final ListNodesStrategy listNodesStrategy;
+   private final GetNodeMetadataStrategy getNodeMetadataStrategy;
+   private final ListeningExecutorService userExecutor;
+   private final long period;
+   private final long maxPeriod;
+   private final Set<Poll> polls = Sets.newConcurrentHashSet();
+   private ScheduledExecutorService scheduler;
+   private ScheduledFuture<?> ticks;
+   private volatile boolean listNodesByIdsUnsupported;
+
+   @Inject
+   NodeStatusPoller(ListNodesStrategy listNodesStrategy, GetNodeMetadataStrategy getNodeMetadataStrategy,
+         @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor, PollPeriod pollPeriod) {
+      this.listNodesStrategy = checkNotNull(listNodesStrategy, "listNodesStrategy");
+      this.getNodeMetadataStrategy = checkNotNull(getNodeMetadataStrategy, "getNodeMetadataStrategy");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.period = Math.max(1, pollPeriod.pollInitialPeriod);
+      this.maxPeriod = Math.max(this.period, pollPeriod.pollMaxPeriod);
+   }
+
+   /**
+    * Polls {@code node} until {@code status} accepts it.
+    *
+    * @param node
+    *           the node to poll; every poll stores the refreshed node, which is null if it no longer exists
+    * @param status
+    *           accepts the refreshed node once it reached the desired status; exceptions it throws fail the poll
+    * @return true once {@code status} accepted the node, or false if {@code timeoutMillis} elapsed first
+    */
+   public ListenableFuture<Boolean> poll(AtomicReference<NodeMetadata> node, Predicate<NodeMetadata> status,
+         long timeoutMillis) {
+      Poll poll = new Poll(node, status, System.currentTimeMillis() + timeoutMillis);
+      polls.add(poll);
+      startTicking();
+      return poll;
+   }
+
+   /**
+    * Blocking form of {@link #poll}, with the semantics of {@code Predicates2.retry(status, timeoutMillis)}:
+    * the current node is checked first, and the predicate returns false rather than throwing if the node
+    * reaches an invalid status, the wait is interrupted or the timeout elapses.
+    */
+   public Predicate<AtomicReference<NodeMetadata>> retry(final Predicate<NodeMetadata> status,
+         final long timeoutMillis) {
+      checkNotNull(status, "status");
+      return new Predicate<AtomicReference<NodeMetadata>>() {
+         @Override
+         public boolean apply(AtomicReference<NodeMetadata> node) {
+            try {
+               if (status.apply(node.get()))
+                  return true;
+               if (node.get() == null)
+                  return false;
+               return poll(node, status, timeoutMillis).get();
+            } catch (InterruptedException e) {
+               logger.warn(e, "polling %s for %s interrupted, returning false", node.get(), status);
+               Thread.currentThread().interrupt();
+               return false;
+            } catch (ExecutionException e) {
+               return returnFalseOnIllegalState(e.getCause(), node.get(), status);
+            } catch (RuntimeException e) {
+               return returnFalseOnIllegalState(e, node.get(), status);
+            }
+         }
+
+         @Override
+         public String toString() {
+            return "retry(" + status + ", " + timeoutMillis + "ms)";
+         }
+      };
+   }
+
+   private boolean returnFalseOnIllegalState(Throwable e, NodeMetadata node, Predicate<NodeMetadata> status) {
+      if (getFirstThrowableOfType(e, IllegalStateException.class) == null)
+         throw Throwables.propagate(e);
+      logger.warn(e, "polling %s for %s illegal state [%s], returning false", node, status, e.getMessage());
+      return false;
+   }
+
+   private synchronized void startTicking() {
+      if (ticks != null)
+         return;
+      if (scheduler == null) {
+         scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+               .setNameFormat("node status poller %d").setDaemon(true).build());
+      }
+      ticks = scheduler.scheduleWithFixedDelay(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               tick();
+            } catch (RuntimeException e) {
+               logger.error(e, "error polling node status");
+            }
+         }
+      }, 0, period, TimeUnit.MILLISECONDS);
+   }
+
+   private synchronized boolean stopTickingIfIdle() {
+      if (!polls.isEmpty())
+         return false;
+      if (ticks != null) {
+         ticks.cancel(false);
+         ticks = null;
+      }
+      return true;
+   }
+
+   @VisibleForTesting
+   void tick() {
+      long now = System.currentTimeMillis();
+      Multimap<String, Poll> due = ArrayListMultimap.create();
+      for (Poll poll : polls) {
+         if (poll.isDone()) {
+            polls.remove(poll);
+         } else if (now >= poll.deadline) {
+            polls.remove(poll);
+            poll.timeOut();
+         } else if (!poll.inFlight && now >= poll.nextPoll) {
+            poll.inFlight = true;
+            due.put(poll.locationId, poll);
+         }
+      }
+      if (polls.isEmpty() && stopTickingIfIdle())
+         return;
+      for (final Collection<Poll> batch : due.asMap().values()) {
+         userExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+               refresh(batch);
+            }
+         });
+      }
+   }
+
+   private void refresh(Collection<Poll> batch) {
+      try {
+         Map<String, NodeMetadata> refreshed = listNodesByIds(batch);
+         long now = System.currentTimeMillis();
+         for (Poll poll : batch) {
+            poll.update(refreshed.get(poll.nodeId), now);
+         }
+      } catch (RuntimeException e) {
+         logger.warn(e, "could not refresh the status of %d nodes, retrying", batch.size());
+         long now = System.currentTimeMillis();
+         for (Poll poll : batch) {
+            poll.scheduleNext(now);
+         }
+      }
+   }
+
+   private Map<String, NodeMetadata> listNodesByIds(Collection<Poll> batch) {
+      ImmutableSet.Builder<String> ids = ImmutableSet.builder();
+      for (Poll poll : batch) {
+         ids.add(poll.nodeId);
+      }
+      Map<String, NodeMetadata> byId = Maps.newHashMap();
+      if (!listNodesByIdsUnsupported) {
+         try {
+            for (NodeMetadata node : listNodesStrategy.listNodesByIds(ids.build())) {
+               byId.put(node.getId(), node);
+            }
+            return byId;
+         } catch (UnsupportedOperationException e) {
+            logger.debug("listNodesByIds is not supported; polling nodes one at a time");
+            listNodesByIdsUnsupported = true;
+         }
+      }
+      for (String id : ids.build()) {
+         NodeMetadata node = getNodeMetadataStrategy.getNode(id);
+         if (node != null)
+            byId.put(id, node);
+      }
+      return byId;
+   }
+
+   /**
+    * Stops the scheduler thread; pending polls are left incomplete.
+    */
+   @PreDestroy
+   public synchronized void close() {
+      if (scheduler != null)
+         scheduler.shutdownNow();
+   }
+
+   private final class Poll extends AbstractFuture<Boolean> {
+      private final AtomicReference<NodeMetadata> node;
+      private final Predicate<NodeMetadata> status;
+      private final String nodeId;
+      private final String locationId;
+      private final long deadline;
+      private volatile long nextPoll;
+      private volatile boolean inFlight;
+      private int attempt = 1;
+
+      private Poll(AtomicReference<NodeMetadata> node, Predicate<NodeMetadata> status, long deadline) {
+         NodeMetadata current = checkNotNull(node.get(), "node");
+         this.node = node;
+         this.status = checkNotNull(status, "status");
+         this.nodeId = current.getId();
+         this.locationId = current.getLocation() == null ? "" : current.getLocation().getId();
+         this.deadline = deadline;
+      }
+
+      private void update(NodeMetadata refreshed, long now) {
+         node.set(refreshed);
+         try {
+            if (status.apply(refreshed))
+               set(true);
+         } catch (RuntimeException e) {
+            setException(e);
+         } finally {
+            scheduleNext(now);
+         }
+      }
+
+      private void timeOut() {
+         set(false);
+      }
+
+      private void scheduleNext(long now) {
+         long interval = Math.min((long) (period * Math.pow(1.5, attempt++ - 1)), maxPeriod);
+         nextPoll = now + interval;
+         inFlight = false;
+      }
+   }
+}
@@ -15,9 +15,11 @@
  * limitations under the License.
  */
 package org.jclouds.compute.reference;
+import static org.jclouds.compute.config.ComputeServiceProperties.INIT_STATUS_INCREMENTAL;
 import static org.jclouds.compute.config.ComputeServiceProperties.INIT_STATUS_INITIAL_PERIOD;
 import static org.jclouds.compute.config.ComputeServiceProperties.INIT_STATUS_MAX_PERIOD;
 import static org.jclouds.compute.config.ComputeServiceProperties.OS_VERSION_MAP_JSON;
+import static org.jclouds.compute.config.ComputeServiceProperties.POLL_BATCHED;
 import static org.jclouds.compute.config.ComputeServiceProperties.POLL_INITIAL_PERIOD;
 import static org.jclouds.compute.config.ComputeServiceProperties.POLL_MAX_PERIOD;
 import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_IMAGE_AVAILABLE;
@@ -67,6 +69,10 @@ public final class ComputeServiceConstants {
       @Inject(optional = true)
       @Named(INIT_STATUS_MAX_PERIOD)
       public long initStatusMaxPeriod = 5000;
+
+      @Inject(optional = true)
+      @Named(INIT_STATUS_INCREMENTAL)
+      public boolean initStatusIncremental = false;
    }
 
    @Singleton
@@ -78,6 +84,10 @@ public final class ComputeServiceConstants {
       @Inject(optional = true)
       @Named(POLL_MAX_PERIOD)
       public long pollMaxPeriod = Predicates2.DEFAULT_MAX_PERIOD;
+
+      @Inject(optional = true)
+      @Named(POLL_BATCHED)
+      public boolean batched = false;
    }
 
    @Singleton
@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.suppliers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.compute.config.ComputeServiceProperties.IMAGE_CACHE_SNAPSHOT_DIR;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.compute.domain.internal.ImageImpl;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.json.Json;
+import org.jclouds.location.Provider;
+import org.jclouds.logging.Logger;
+import org.jclouds.providers.ProviderMetadata;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
+
+/**
+ * Keeps an on-disk snapshot of the image cache, so that a new context can start from the images
+ * listed by an earlier one instead of waiting for the provider to list them all again.
+ * <p>
+ * Nothing is read or written unless
+ * {@link org.jclouds.compute.config.ComputeServiceProperties#IMAGE_CACHE_SNAPSHOT_DIR} is set. A snapshot younger than the session interval answers the first request for images while the
+ * cache is loaded in the background; once loaded, the cache answers and the snapshot is rewritten each
+ * time the cache reloads. Snapshots are keyed by provider, endpoint and identity.
+ * <p>
+ * Image sets holding default passwords or private keys, or images other than {@link ImageImpl}, are
+ * never written.
+ */
+@Singleton
+public class ImageCacheSnapshot {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named(IMAGE_CACHE_SNAPSHOT_DIR)
+   @VisibleForTesting
+   String snapshotDir;
+
+   private final Json json;
+   private final ListeningExecutorService userExecutor;
+   private final long sessionIntervalSeconds;
+   private final String providerId;
+   private final Supplier<URI> endpoint;
+   private final Supplier<Credentials> credentials;
+
+   @Inject
+   ImageCacheSnapshot(Json json, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(PROPERTY_SESSION_INTERVAL) long sessionIntervalSeconds, ProviderMetadata providerMetadata,
+         @Provider Supplier<URI> endpoint, @Provider Supplier<Credentials> credentials) {
+      this.json = checkNotNull(json, "json");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.sessionIntervalSeconds = sessionIntervalSeconds;
+      this.providerId = checkNotNull(providerMetadata, "providerMetadata").getId();
+      this.endpoint = checkNotNull(endpoint, "endpoint");
+      this.credentials = checkNotNull(credentials, "credentials");
+   }
+
+   /**
+    * @return {@code imageCache}, backed by a snapshot if snapshots are enabled
+    */
+   public Supplier<Set<? extends Image>> decorate(Supplier<Set<? extends Image>> imageCache) {
+      if (snapshotDir == null) {
+         return imageCache;
+      }
+      String key = endpoint.get() + "\n" + credentials.get().identity;
+      File file = new File(snapshotDir, providerId + "-"
+            + Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString().substring(0, 32) + ".json");
+      return new WarmStartImageSupplier(checkNotNull(imageCache, "imageCache"), file);
+   }
+
+   private final class WarmStartImageSupplier implements Supplier<Set<? extends Image>> {
+      private final Supplier<Set<? extends Image>> imageCache;
+      private final File file;
+      /** Answers requests while the first load of the cache is in progress. */
+      private volatile Set<? extends Image> snapshot;
+      private boolean started;
+      private Set<? extends Image> lastWritten;
+
+      private WarmStartImageSupplier(Supplier<Set<? extends Image>> imageCache, File file) {
+         this.imageCache = imageCache;
+         this.file = file;
+      }
+
+      @Override
+      public Set<? extends Image> get() {
+         synchronized (this) {
+            if (!started) {
+               started = true;
+               snapshot = read(file);
+               if (snapshot != null) {
+                  loadInBackground();
+               }
+            }
+         }
+         Set<? extends Image> warm = snapshot;
+         if (warm != null) {
+            return warm;
+         }
+         Set<? extends Image> images = imageCache.get();
+         writeIfReloaded(images);
+         return images;
+      }
+
+      private void loadInBackground() {
+         userExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  writeIfReloaded(imageCache.get());
+               } catch (RuntimeException e) {
+                  // the next request loads the cache again and reports the failure
+                  logger.warn(e, "could not load images to replace snapshot %s", file);
+               } finally {
+                  snapshot = null;
+               }
+            }
+         });
+      }
+
+      private void writeIfReloaded(final Set<? extends Image> images) {
+         synchronized (this) {
+            if (images == lastWritten) {
+               return;
+            }
+            lastWritten = images;
+         }
+         userExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+               write(file, images);
+            }
+         });
+      }
+   }
+
+   private Set<? extends Image> read(File file) {
+      if (!file.isFile()
+            || System.currentTimeMillis() - file.lastModified() > TimeUnit.SECONDS.toMillis(sessionIntervalSeconds)) {
+         return null;
+      }
+      try {
+         Reader reader = Files.newReader(file, StandardCharsets.UTF_8);
+         try {
+            ImageSet images = json.fromJson(reader, ImageSet.class);
+            ImmutableSet.Builder<Image> builder = ImmutableSet.builder();
+            for (ImageEntry image : images.images) {
+               builder.add(image.toImage());
+            }
+            Set<Image> result = builder.build();
+            logger.debug("read %d images from snapshot %s", result.size(), file);
+            return result;
+         } finally {
+            reader.close();
+         }
+      } catch (Exception e) {
+         logger.warn(e, "ignoring unreadable image snapshot %s", file);
+         return null;
+      }
+   }
+
+   private void write(File file, Set<? extends Image> images) {
+      ImageSet snapshot = new ImageSet();
+      for (Image image : images) {
+         if (image.getClass() != ImageImpl.class || hasSecrets(image.getDefaultCredentials())) {
+            logger.debug("not writing image snapshot %s: image %s cannot be restored from it", file, image.getId());
+            return;
+         }
+         snapshot.images.add(new ImageEntry(image));
+      }
+      try {
+         Files.createParentDirs(file);
+         File temporary = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+         Files.write(json.toJson(snapshot), temporary, StandardCharsets.UTF_8);
+         try {
+            java.nio.file.Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                  StandardCopyOption.ATOMIC_MOVE);
+         } catch (AtomicMoveNotSupportedException e) {
+            java.nio.file.Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+         }
+         logger.debug("wrote %d images to snapshot %s", snapshot.images.size(), file);
+      } catch (IOException e) {
+         logger.warn(e, "could not write image snapshot %s", file);
+      }
+   }
+
+   private static boolean hasSecrets(LoginCredentials credentials) {
+      return credentials != null
+            && (credentials.getOptionalPassword().isPresent() || credentials.getOptionalPrivateKey().isPresent());
+   }
+
+   private static final class ImageSet {
+      private List<ImageEntry> images = Lists.newArrayList();
+   }
+
+   private static final class ImageEntry {
+      private String id;
+      private String providerId;
+      private String name;
+      private String uri;
+      private LocationEntry location;
+      private Map<String, String> userMetadata;
+      private Set<String> tags;
+      private OsFamily osFamily;
+      private String osName;
+      private String osArch;
+      private String osVersion;
+      private String osDescription;
+      private boolean os64Bit;
+      private String version;
+      private String description;
+      private Image.Status status;
+      private String backendStatus;
+      private String loginUser;
+      private boolean authenticateSudo;
+
+      private ImageEntry(Image image) {
+         id = image.getId();
+         providerId = image.getProviderId();
+         name = image.getName();
+         uri = image.getUri() == null ? null : image.getUri().toString();
+         location = LocationEntry.of(image.getLocation());
+         userMetadata = image.getUserMetadata();
+         tags = image.getTags();
+         OperatingSystem os = image.getOperatingSystem();
+         osFamily = os.getFamily();
+         osName = os.getName();
+         osArch = os.getArch();
+         osVersion = os.getVersion();
+         osDescription = os.getDescription();
+         os64Bit = os.is64Bit();
+         version = image.getVersion();
+         description = image.getDescription();
+         status = image.getStatus();
+         backendStatus = image.getBackendStatus();
+         if (image.getDefaultCredentials() != null) {
+            loginUser = image.getDefaultCredentials().getUser();
+            authenticateSudo = image.getDefaultCredentials().shouldAuthenticateSudo();
+         }
+      }
+
+      private Image toImage() {
+         return new ImageBuilder()
+               .id(id)
+               .providerId(providerId)
+               .name(name)
+               .uri(uri == null ? null : URI.create(uri))
+               .location(location == null ? null : location.toLocation())
+               .userMetadata(userMetadata)
+               .tags(tags)
+               .operatingSystem(OperatingSystem.builder().family(osFamily).name(osName).arch(osArch)
+                     .version(osVersion).description(osDescription).is64Bit(os64Bit).build())
+               .version(version)
+               .description(description)
+               .status(status)
+               .backendStatus(backendStatus)
+               .defaultCredentials(loginUser == null ? null
+                     : LoginCredentials.builder().user(loginUser).authenticateSudo(authenticateSudo).build())
+               .build();
+      }
+   }
+
+   private static final class LocationEntry {
+      private LocationScope scope;
+      private String id;
+      private String description;
+      private Set<String> iso3166Codes;
+      private LocationEntry parent;
+
+      private static LocationEntry of(Location location) {
+         if (location == null) {
+            return null;
+         }
+         LocationEntry entry = new LocationEntry();
+         entry.scope = location.getScope();
+         entry.id = location.getId();
+         entry.description = location.getDescription();
+         entry.iso3166Codes = location.getIso3166Codes();
+         entry.parent = of(location.getParent());
+         return entry;
+      }
+
+      private Location toLocation() {
+         return new LocationBuilder()
+               .scope(scope)
+               .id(id)
+               .description(description)
+               .iso3166Codes(iso3166Codes)
+               .parent(parent == null ? null : parent.toLocation())
+               .build();
+      }
+   }
+}
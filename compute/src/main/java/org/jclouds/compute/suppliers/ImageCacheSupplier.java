@@ -20,6 +20,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.concat;
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -31,6 +32,7 @@ import org.jclouds.compute.domain.Image;
 import com.google.common.base.Supplier;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 
@@ -49,6 +51,9 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>> {
 
    private final Cache<String, Image> uncachedImages;
 
+   /** The images last returned, rebuilt when the image cache reloads or the registered images change. */
+   private volatile Snapshot snapshot;
+
    @Inject
    public ImageCacheSupplier(@Named("imageCache") Supplier<Set<? extends Image>> imageCache,
          @Named(PROPERTY_SESSION_INTERVAL) long sessionIntervalSeconds) {
@@ -61,7 +66,28 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>> {
 
    @Override
    public Set<? extends Image> get() {
-      return ImmutableSet.copyOf(concat(imageCache.get(), uncachedImages.asMap().values()));
+      Set<? extends Image> cached = imageCache.get();
+      Map<String, Image> uncached = ImmutableMap.copyOf(uncachedImages.asMap());
+      Snapshot current = snapshot;
+      if (current == null || current.cached != cached || !current.uncached.equals(uncached)) {
+         current = new Snapshot(cached, uncached);
+         snapshot = current;
+      }
+      return current.images;
+   }
+
+   /**
+    * Returns the index of an image set previously returned by {@link #get()}. The index is built on first use
+    * after each reload.
+    *
+    * @return the index of {@code images}, or null if they are no longer the current images
+    */
+   public ImageIndex getIndex(Set<? extends Image> images) {
+      Snapshot current = snapshot;
+      if (current == null || current.images != images) {
+         return null;
+      }
+      return current.index();
    }
 
    /**
@@ -81,4 +107,23 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>> {
       uncachedImages.put(image.getId(), image);
    }
 
+   private static final class Snapshot {
+      private final Set<? extends Image> cached;
+      private final Map<String, Image> uncached;
+      private final Set<? extends Image> images;
+      private ImageIndex index;
+
+      private Snapshot(Set<? extends Image> cached, Map<String, Image> uncached) {
+         this.cached = cached;
+         this.uncached = uncached;
+         this.images = ImmutableSet.copyOf(concat(cached, uncached.values()));
+      }
+
+      private synchronized ImageIndex index() {
+         if (index == null)
+            index = new ImageIndex(images);
+         return index;
+      }
+   }
+
 }
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.suppliers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.domain.Location;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Predicate;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Index over one image set, used to narrow template searches without scanning every image.
+ * <p>
+ * Images are grouped by location, operating system family, 64-bit support and operating system version, so
+ * that a search only tests each distinct version once. The index also remembers which images each
+ * {@link Hardware} profile {@link Hardware#supportsImage() supports}.
+ */
+public final class ImageIndex {
+
+   private final Set<? extends Image> images;
+   private final List<Image> ordered;
+   private final Map<Image, Integer> ordinals;
+   private final Map<Location, Map<Key, BitSet>> byLocation = Maps.newHashMap();
+   private final LoadingCache<Hardware, SupportedImages> supportedImages = CacheBuilder.newBuilder().weakKeys()
+         .build(new CacheLoader<Hardware, SupportedImages>() {
+            @Override
+            public SupportedImages load(Hardware hardware) {
+               return new SupportedImages(hardware.supportsImage());
+            }
+         });
+
+   public ImageIndex(Set<? extends Image> images) {
+      this.images = checkNotNull(images, "images");
+      this.ordered = ImmutableList.<Image> copyOf(images);
+      this.ordinals = Maps.newHashMapWithExpectedSize(ordered.size());
+      for (int i = 0; i < ordered.size(); i++) {
+         Image image = ordered.get(i);
+         ordinals.put(image, i);
+         Map<Key, BitSet> keys = byLocation.get(image.getLocation());
+         if (keys == null) {
+            keys = Maps.newHashMap();
+            byLocation.put(image.getLocation(), keys);
+         }
+         Key key = new Key(image.getOperatingSystem());
+         BitSet members = keys.get(key);
+         if (members == null) {
+            members = new BitSet();
+            keys.put(key, members);
+         }
+         members.set(i);
+      }
+   }
+
+   /**
+    * @return the images this index was built from
+    */
+   public Set<? extends Image> getImages() {
+      return images;
+   }
+
+   /**
+    * Images that could match a search, in the iteration order of {@link #getImages()}. Every image that
+    * satisfies the criteria is returned; callers still apply their full predicate to the result.
+    *
+    * @param location
+    *           images must have no location, or this location, its parent or its grandparent; null for any
+    * @param family
+    *           the operating system family; null for any
+    * @param is64Bit
+    *           whether the operating system is 64-bit; null for any
+    * @param osVersion
+    *           tested once per distinct operating system version, which may be null
+    */
+   public List<Image> candidates(@Nullable Location location, @Nullable OsFamily family, @Nullable Boolean is64Bit,
+         Predicate<String> osVersion) {
+      BitSet members = new BitSet(ordered.size());
+      if (location == null) {
+         for (Map<Key, BitSet> keys : byLocation.values()) {
+            addMatching(keys, family, is64Bit, osVersion, members);
+         }
+      } else {
+         addMatching(byLocation.get(null), family, is64Bit, osVersion, members);
+         addMatching(byLocation.get(location), family, is64Bit, osVersion, members);
+         Location parent = location.getParent();
+         if (parent != null) {
+            addMatching(byLocation.get(parent), family, is64Bit, osVersion, members);
+            if (parent.getParent() != null)
+               addMatching(byLocation.get(parent.getParent()), family, is64Bit, osVersion, members);
+         }
+      }
+      List<Image> candidates = Lists.newArrayListWithCapacity(members.cardinality());
+      for (int i = members.nextSetBit(0); i >= 0; i = members.nextSetBit(i + 1)) {
+         candidates.add(ordered.get(i));
+      }
+      return candidates;
+   }
+
+   private static void addMatching(@Nullable Map<Key, BitSet> keys, @Nullable OsFamily family,
+         @Nullable Boolean is64Bit, Predicate<String> osVersion, BitSet members) {
+      if (keys == null) {
+         return;
+      }
+      for (Map.Entry<Key, BitSet> entry : keys.entrySet()) {
+         Key key = entry.getKey();
+         if ((family == null || family == key.family) && (is64Bit == null || is64Bit == key.is64Bit)
+               && osVersion.apply(key.version)) {
+            members.or(entry.getValue());
+         }
+      }
+   }
+
+   /**
+    * Same as {@code hardware.supportsImage().apply(image)}, evaluated once per hardware profile and image.
+    */
+   public boolean supports(Hardware hardware, Image image) {
+      Integer ordinal = ordinals.get(image);
+      if (ordinal == null) {
+         return hardware.supportsImage().apply(image);
+      }
+      return supportedImages.getUnchecked(hardware).apply(image, ordinal);
+   }
+
+   private static final class SupportedImages {
+      private final Predicate<Image> supportsImage;
+      private final BitSet known = new BitSet();
+      private final BitSet supported = new BitSet();
+
+      private SupportedImages(Predicate<Image> supportsImage) {
+         this.supportsImage = supportsImage;
+      }
+
+      private synchronized boolean apply(Image image, int ordinal) {
+         if (!known.get(ordinal)) {
+            supported.set(ordinal, supportsImage.apply(image));
+            known.set(ordinal);
+         }
+         return supported.get(ordinal);
+      }
+   }
+
+   private static final class Key {
+      private final OsFamily family;
+      private final boolean is64Bit;
+      private final String version;
+
+      private Key(OperatingSystem os) {
+         this.family = os.getFamily();
+         this.is64Bit = os.is64Bit();
+         this.version = os.getVersion();
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o)
+            return true;
+         if (!(o instanceof Key))
+            return false;
+         Key that = (Key) o;
+         return family == that.family && is64Bit == that.is64Bit && Objects.equal(version, that.version);
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hashCode(family, is64Bit, version);
+      }
+   }
+}
@@ -28,8 +28,10 @@ import static org.jclouds.compute.config.ComputeServiceProperties.SOCKET_FINDER_
 import static org.jclouds.util.Predicates2.retry;
 
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Resource;
@@ -38,6 +40,7 @@ import javax.inject.Named;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.logging.Logger;
+import org.jclouds.predicates.InetSocketAddressConnect;
 import org.jclouds.predicates.SocketOpen;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -47,6 +50,7 @@ import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.net.HostAndPort;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -67,6 +71,10 @@ public class ConcurrentOpenSocketFinder implements OpenSocketFinder {
    @Named(SOCKET_FINDER_ALLOWED_INTERFACES)
    private AllowedInterfaces allowedInterfaces = AllowedInterfaces.ALL;
 
+   @Inject(optional = true)
+   @VisibleForTesting
+   SelectorSocketProbe socketProbe;
+
    @Inject
    @VisibleForTesting
    ConcurrentOpenSocketFinder(SocketOpen socketTester,
@@ -87,6 +95,11 @@ public class ConcurrentOpenSocketFinder implements OpenSocketFinder {
          }
       }).toSet();
 
+      if (socketProbe != null && socketTester instanceof InetSocketAddressConnect
+            && Iterables.all(sockets, socketProbeSupports)) {
+         return probeSockets(node, port, sockets, timeout, timeUnits);
+      }
+
       // Specify a retry period of 1s, expressed in the same time units.
       long period = timeUnits.convert(1, TimeUnit.SECONDS);
 
@@ -109,6 +122,49 @@ public class ConcurrentOpenSocketFinder implements OpenSocketFinder {
 
    }
 
+   /**
+    * Waits for {@link #socketProbe} to reach any of the sockets, checking every second that the node is still
+    * running. Unlike the {@link SocketOpen} loop, this doesn't hold a user thread per socket.
+    */
+   private HostAndPort probeSockets(NodeMetadata node, int port, Set<HostAndPort> sockets, long timeout,
+         TimeUnit timeUnits) {
+      logger.debug(">> probing sockets %s for %d %s", sockets, timeout, timeUnits);
+      ListenableFuture<HostAndPort> probe = socketProbe.probe(sockets, timeUnits.toMillis(timeout));
+      try {
+         while (true) {
+            try {
+               HostAndPort result = probe.get(1, TimeUnit.SECONDS);
+               if (result != null) {
+                  logger.debug("<< socket %s opened", result);
+                  return result;
+               }
+               break;
+            } catch (TimeoutException e) {
+               if (!nodeRunning.apply(newReference(node))) {
+                  logger.warn("<< %s is no longer running; aborting socket open loop", node.getId());
+                  break;
+               }
+            }
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw propagate(e);
+      } catch (ExecutionException e) {
+         throw propagate(e.getCause());
+      } finally {
+         probe.cancel(false);
+      }
+      logger.warn("<< sockets %s didn't open after %d %s", sockets, timeout, timeUnits);
+      throw new NoSuchElementException(format("could not connect to any ip address port %d on node %s", port, node));
+   }
+
+   private final Predicate<HostAndPort> socketProbeSupports = new Predicate<HostAndPort>() {
+      @Override
+      public boolean apply(HostAndPort input) {
+         return socketProbe.supports(input);
+      }
+   };
+
    @VisibleForTesting
    protected <T> Predicate<T> retryPredicate(Predicate<T> findOrBreak, long timeout, long period, TimeUnit timeUnits) {
       return retry(findOrBreak, timeout, period, timeUnits);
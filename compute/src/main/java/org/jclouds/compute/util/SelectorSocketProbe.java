@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.URI;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.net.HostAndPort;
+import com.google.common.net.InetAddresses;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.inject.Inject;
+
+/**
+ * Waits for sockets to accept connections, using non-blocking connects multiplexed on one selector thread.
+ * <p>
+ * Every socket of every pending {@link #probe} is connected with {@link SocketChannel#connect} and watched for
+ * {@link SelectionKey#OP_CONNECT}. A socket that refuses the connection, or doesn't accept it within
+ * {@code org.jclouds.socket_timeout}, is tried again after a delay that grows from {@link #INITIAL_BACKOFF} to
+ * {@link #MAX_BACKOFF}. The thread is started by the first probe and exits once no probe is pending.
+ * <p>
+ * Only sockets given by IP address are probed, so a slow name lookup can never stall the selector thread and with it
+ * every other probe; {@link #supports} is false for host names.
+ */
+@Singleton
+public class SelectorSocketProbe {
+
+   @VisibleForTesting
+   static final long INITIAL_BACKOFF = 250;
+   @VisibleForTesting
+   static final long MAX_BACKOFF = 2000;
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named("org.jclouds.socket_timeout")
+   @VisibleForTesting
+   int connectTimeout = 2000;
+
+   private final Function<URI, Proxy> proxyForURI;
+   private final Queue<Probe> submitted = new ConcurrentLinkedQueue<Probe>();
+   private Selector selector;
+   private volatile boolean closed;
+
+   @Inject
+   SelectorSocketProbe(Function<URI, Proxy> proxyForURI) {
+      this.proxyForURI = checkNotNull(proxyForURI, "proxyForURI");
+   }
+
+   /**
+    * @return true if {@code socket} is given by IP address and reached directly, rather than through a proxy this
+    *         probe cannot use
+    */
+   public boolean supports(HostAndPort socket) {
+      if (!InetAddresses.isInetAddress(socket.getHostText()))
+         return false;
+      Proxy proxy = proxyForURI.apply(URI.create("socket://" + socket.getHostText() + ":" + socket.getPort()));
+      return proxy == null || proxy.type() == Proxy.Type.DIRECT;
+   }
+
+   /**
+    * @param sockets
+    *           sockets given by IP address
+    * @return the first of {@code sockets} that accepted a connection, or null if none did within
+    *         {@code timeoutMillis}; cancel the future to stop probing
+    */
+   public ListenableFuture<HostAndPort> probe(Iterable<HostAndPort> sockets, long timeoutMillis) {
+      // one extra millisecond so that truncating now() cannot end the probe before timeoutMillis elapsed
+      Probe probe = new Probe(sockets, now() + timeoutMillis + 1);
+      submitted.add(probe);
+      synchronized (this) {
+         if (closed) {
+            probe.cancel(false);
+         } else if (selector != null) {
+            selector.wakeup();
+         } else {
+            try {
+               selector = Selector.open();
+            } catch (IOException e) {
+               probe.setException(e);
+               return probe;
+            }
+            Thread thread = new Thread(new SelectLoop(selector), "socket probe");
+            thread.setDaemon(true);
+            thread.start();
+         }
+      }
+      return probe;
+   }
+
+   /**
+    * @return a monotonic clock in milliseconds, unaffected by changes to the wall clock
+    */
+   private static long now() {
+      return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+   }
+
+   /**
+    * Stops probing; pending probes are cancelled.
+    */
+   @PreDestroy
+   public synchronized void close() {
+      closed = true;
+      if (selector != null)
+         selector.wakeup();
+   }
+
+   private final class SelectLoop implements Runnable {
+      private final Selector selector;
+      private final List<Probe> active = Lists.newArrayList();
+
+      private SelectLoop(Selector selector) {
+         this.selector = selector;
+      }
+
+      @Override
+      public void run() {
+         try {
+            while (true) {
+               for (Probe probe; (probe = submitted.poll()) != null;) {
+                  active.add(probe);
+               }
+               if (active.isEmpty() && stopIfIdle())
+                  return;
+               long wait = connectDue(now());
+               selector.select(Math.max(1, wait));
+               for (Iterator<SelectionKey> keys = selector.selectedKeys().iterator(); keys.hasNext();) {
+                  SelectionKey key = keys.next();
+                  keys.remove();
+                  finishConnect((Target) key.attachment(), now());
+               }
+            }
+         } catch (IOException e) {
+            logger.error(e, "socket probe failed");
+            abort(e);
+         } finally {
+            for (Probe probe : active) {
+               probe.closeChannels();
+            }
+         }
+      }
+
+      private boolean stopIfIdle() {
+         synchronized (SelectorSocketProbe.this) {
+            if (closed) {
+               for (Probe probe; (probe = submitted.poll()) != null;) {
+                  active.add(probe);
+               }
+               for (Probe probe : active) {
+                  probe.cancel(false);
+               }
+            } else if (!submitted.isEmpty()) {
+               return false;
+            }
+            SelectorSocketProbe.this.selector = null;
+            try {
+               selector.close();
+            } catch (IOException e) {
+               logger.debug("could not close selector: %s", e.getMessage());
+            }
+            return true;
+         }
+      }
+
+      private void abort(IOException cause) {
+         synchronized (SelectorSocketProbe.this) {
+            for (Probe probe; (probe = submitted.poll()) != null;) {
+               active.add(probe);
+            }
+            for (Probe probe : active) {
+               probe.setException(cause);
+            }
+            SelectorSocketProbe.this.selector = null;
+            try {
+               selector.close();
+            } catch (IOException e) {
+               logger.debug("could not close selector: %s", e.getMessage());
+            }
+         }
+      }
+
+      /**
+       * Starts connects that are due, gives up on those that took too long and completes expired probes.
+       *
+       * @return milliseconds until the next connect or probe is due
+       */
+      private long connectDue(long now) {
+         long next = Long.MAX_VALUE;
+         for (Iterator<Probe> probes = active.iterator(); probes.hasNext();) {
+            Probe probe = probes.next();
+            if (!probe.isDone() && closed)
+               probe.cancel(false);
+            if (!probe.isDone() && now >= probe.deadline)
+               probe.set(null);
+            if (probe.isDone()) {
+               probe.closeChannels();
+               probes.remove();
+               continue;
+            }
+            next = Math.min(next, probe.deadline);
+            for (Target target : probe.targets) {
+               if (target.channel != null && now >= target.connectDeadline) {
+                  target.retryLater(now);
+               }
+               if (target.channel == null && now >= target.nextAttempt) {
+                  connect(target, now);
+               }
+               if (probe.isDone())
+                  break;
+               next = Math.min(next, target.channel != null ? target.connectDeadline : target.nextAttempt);
+            }
+         }
+         return next == Long.MAX_VALUE ? 0 : next - now;
+      }
+
+      private void connect(Target target, long now) {
+         SocketChannel channel = null;
+         try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            target.channel = channel;
+            target.connectDeadline = now + connectTimeout;
+            if (channel.connect(target.address)) {
+               target.probe.found(target);
+            } else {
+               channel.register(selector, SelectionKey.OP_CONNECT, target);
+            }
+         } catch (IOException e) {
+            logger.trace("connect to %s failed: %s", target.socket, e.getMessage());
+            target.retryLater(now);
+         }
+      }
+
+      private void finishConnect(Target target, long now) {
+         if (target.probe.isDone() || target.channel == null)
+            return;
+         try {
+            if (target.channel.finishConnect())
+               target.probe.found(target);
+         } catch (IOException e) {
+            logger.trace("connect to %s failed: %s", target.socket, e.getMessage());
+            target.retryLater(now);
+         }
+      }
+   }
+
+   private static final class Probe extends AbstractFuture<HostAndPort> {
+      private final List<Target> targets;
+      private final long deadline;
+
+      private Probe(Iterable<HostAndPort> sockets, long deadline) {
+         ImmutableList.Builder<Target> targets = ImmutableList.builder();
+         for (HostAndPort socket : sockets) {
+            targets.add(new Target(this, socket));
+         }
+         this.targets = targets.build();
+         checkArgument(!this.targets.isEmpty(), "no sockets to probe");
+         this.deadline = deadline;
+      }
+
+      private void found(Target target) {
+         set(target.socket);
+         closeChannels();
+      }
+
+      @Override
+      protected boolean set(HostAndPort value) {
+         return super.set(value);
+      }
+
+      @Override
+      protected boolean setException(Throwable throwable) {
+         return super.setException(throwable);
+      }
+
+      private void closeChannels() {
+         for (Target target : targets) {
+            target.close();
+         }
+      }
+   }
+
+   private static final class Target {
+      private final Probe probe;
+      private final HostAndPort socket;
+      private final InetSocketAddress address;
+      private SocketChannel channel;
+      private long connectDeadline;
+      private long nextAttempt;
+      private long backoff = INITIAL_BACKOFF;
+
+      private Target(Probe probe, HostAndPort socket) {
+         this.probe = probe;
+         this.socket = checkNotNull(socket, "socket");
+         checkArgument(InetAddresses.isInetAddress(socket.getHostText()), "%s is not given by IP address", socket);
+         // parsing the literal never looks the name up
+         this.address = new InetSocketAddress(InetAddresses.forString(socket.getHostText()), socket.getPort());
+      }
+
+      private void retryLater(long now) {
+         close();
+         nextAttempt = now + backoff;
+         backoff = Math.min(MAX_BACKOFF, backoff * 3 / 2);
+      }
+
+      private void close() {
+         if (channel != null) {
+            try {
+               channel.close();
+            } catch (IOException e) {
+               // nothing to do
+            }
+            channel = null;
+         }
+      }
+   }
+}
@@ -17,22 +17,59 @@
 package org.jclouds.ssh.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.compute.config.ComputeServiceProperties.KEY_PAIR_POOL_SIZE;
 
 import java.security.SecureRandom;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.crypto.Crypto;
+import org.jclouds.logging.Logger;
 import org.jclouds.ssh.SshKeyPairGenerator;
 import org.jclouds.ssh.SshKeys;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.Queues;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 
+/**
+ * Generates 2048 bit RSA key pairs. When {@link org.jclouds.compute.config.ComputeServiceProperties#KEY_PAIR_POOL_SIZE}
+ * is set, up to that many pairs are generated ahead of time on a minimum priority daemon thread, and {@link #get}
+ * hands them out before falling back to generating on the caller's thread.
+ */
 @Singleton
 public class RsaSshKeyPairGenerator implements SshKeyPairGenerator {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named(KEY_PAIR_POOL_SIZE)
+   @VisibleForTesting
+   int poolSize = 0;
+
    private final Crypto crypto;
    private final SecureRandom secureRandom;
+   private final Queue<Map<String, String>> pool = Queues.newConcurrentLinkedQueue();
+   private final AtomicBoolean filling = new AtomicBoolean();
+   private final AtomicLong hits = new AtomicLong();
+   private final AtomicLong misses = new AtomicLong();
+   private ExecutorService filler;
+   private boolean closed;
 
    @Inject
    private RsaSshKeyPairGenerator(Crypto crypto, SecureRandom secureRandom) {
@@ -42,6 +79,96 @@ public class RsaSshKeyPairGenerator implements SshKeyPairGenerator {
 
    @Override
    public Map<String, String> get() {
+      if (poolSize <= 0)
+         return generate();
+      Map<String, String> keyPair = pool.poll();
+      if (keyPair != null)
+         hits.incrementAndGet();
+      else
+         misses.incrementAndGet();
+      refill();
+      return keyPair != null ? keyPair : generate();
+   }
+
+   /**
+    * @return how many pre-generated key pairs are ready to be handed out
+    */
+   public int getAvailableCount() {
+      return pool.size();
+   }
+
+   /**
+    * @return how many calls to {@link #get} were answered from the pool
+    */
+   public long getHitCount() {
+      return hits.get();
+   }
+
+   /**
+    * @return how many calls to {@link #get} found the pool empty and generated the key pair themselves
+    */
+   public long getMissCount() {
+      return misses.get();
+   }
+
+   private Map<String, String> generate() {
       return SshKeys.generate(crypto.rsaKeyPairGenerator(), secureRandom);
    }
+
+   /**
+    * Starts filling the pool as soon as the generator is created, so that the first burst finds keys ready.
+    */
+   @PostConstruct
+   @VisibleForTesting
+   void refill() {
+      if (poolSize <= 0 || pool.size() >= poolSize || !filling.compareAndSet(false, true))
+         return;
+      ExecutorService filler = filler();
+      if (filler == null) {
+         filling.set(false);
+         return;
+      }
+      filler.execute(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               while (pool.size() < poolSize)
+                  pool.offer(generate());
+               logger.debug("<< key pair pool filled: %s", RsaSshKeyPairGenerator.this);
+            } catch (RuntimeException e) {
+               logger.warn(e, "<< could not pre-generate key pairs; they will be generated on demand");
+               return;
+            } finally {
+               filling.set(false);
+            }
+            // catch up with the key pairs taken while the flag was still set
+            refill();
+         }
+      });
+   }
+
+   /**
+    * @return the thread filling the pool, or {@code null} once closed
+    */
+   private synchronized ExecutorService filler() {
+      if (filler == null && !closed) {
+         filler = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("key pair pool %d")
+               .setDaemon(true).setPriority(Thread.MIN_PRIORITY).build());
+      }
+      return filler;
+   }
+
+   @PreDestroy
+   public synchronized void close() {
+      closed = true;
+      if (filler != null)
+         filler.shutdownNow();
+      pool.clear();
+   }
+
+   @Override
+   public String toString() {
+      return MoreObjects.toStringHelper(this).add("poolSize", poolSize).add("available", getAvailableCount())
+            .add("hits", getHitCount()).add("misses", getMissCount()).toString();
+   }
 }
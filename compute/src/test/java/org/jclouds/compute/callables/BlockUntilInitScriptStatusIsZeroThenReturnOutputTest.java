@@ -31,6 +31,7 @@ import org.jclouds.compute.callables.BlockUntilInitScriptStatusIsZeroThenReturnO
 import org.jclouds.compute.domain.ExecResponse;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.reference.ComputeServiceConstants.InitStatusProperties;
 import org.jclouds.scriptbuilder.InitScript;
 import org.testng.annotations.Test;
 
@@ -272,6 +273,102 @@ public class BlockUntilInitScriptStatusIsZeroThenReturnOutputTest {
 
    }
 
+   public void testIncrementalPollAppendsOnlyNewOutputUntilStoppedWithExitStatus() throws InterruptedException,
+            ExecutionException {
+      ListeningExecutorService userExecutor = MoreExecutors.newDirectExecutorService();
+      SudoAwareInitManager commandRunner = createMockBuilder(SudoAwareInitManager.class).addMockedMethod("poll")
+               .addMockedMethod("getStatement").addMockedMethod("getNode").addMockedMethod("toString")
+               .createStrictMock();
+      InitScript initScript = createMockBuilder(InitScript.class).addMockedMethod("getInstanceName")
+               .addMockedMethod("isPollable").createStrictMock();
+
+      expect(commandRunner.getStatement()).andReturn(initScript);
+      expect(initScript.isPollable()).andReturn(true);
+      // hello\n and err\n
+      expect(commandRunner.poll(0, 0)).andReturn(new ExecResponse("1 -1 6 4\naGVsbG8K\n", "ZXJyCg==\n", 0));
+      // an exit status while the process is still listed is not final yet
+      expect(commandRunner.poll(6, 4)).andReturn(new ExecResponse("1 0 6 4\n", "", 0));
+      // world\n
+      expect(commandRunner.poll(6, 4)).andReturn(new ExecResponse("0 444 12 4\nd29ybGQK\n", "", 0));
+
+      toStringAndEventBusExpectations(commandRunner, initScript);
+
+      replay(commandRunner, initScript);
+
+      BlockUntilInitScriptStatusIsZeroThenReturnOutput future = new BlockUntilInitScriptStatusIsZeroThenReturnOutput(
+               userExecutor, eventBus, incrementalProperties(), commandRunner);
+
+      future.run();
+
+      assertEquals(future.get(), new ExecResponse("hello\nworld\n", "err\n", 444));
+
+      verify(commandRunner, initScript);
+   }
+
+   public void testIncrementalPollDecodesCharactersSplitAcrossPolls() throws InterruptedException,
+            ExecutionException {
+      ListeningExecutorService userExecutor = MoreExecutors.newDirectExecutorService();
+      SudoAwareInitManager commandRunner = createMockBuilder(SudoAwareInitManager.class).addMockedMethod("poll")
+               .addMockedMethod("getStatement").addMockedMethod("getNode").addMockedMethod("toString")
+               .createStrictMock();
+      InitScript initScript = createMockBuilder(InitScript.class).addMockedMethod("getInstanceName")
+               .addMockedMethod("isPollable").createStrictMock();
+
+      expect(commandRunner.getStatement()).andReturn(initScript);
+      expect(initScript.isPollable()).andReturn(true);
+      // h and the first byte of \u00e9
+      expect(commandRunner.poll(0, 0)).andReturn(new ExecResponse("1 -1 2 0\naMM=\n", "", 0));
+      // the second byte of \u00e9 and llo\n
+      expect(commandRunner.poll(2, 0)).andReturn(new ExecResponse("0 0 7 0\nqWxsbwo=\n", "", 0));
+
+      toStringAndEventBusExpectations(commandRunner, initScript);
+
+      replay(commandRunner, initScript);
+
+      BlockUntilInitScriptStatusIsZeroThenReturnOutput future = new BlockUntilInitScriptStatusIsZeroThenReturnOutput(
+               userExecutor, eventBus, incrementalProperties(), commandRunner);
+
+      future.run();
+
+      assertEquals(future.get(), new ExecResponse("h\u00e9llo\n", "", 0));
+
+      verify(commandRunner, initScript);
+   }
+
+   public void testIncrementalPollFailsOnMalformedResponse() throws InterruptedException {
+      ListeningExecutorService userExecutor = MoreExecutors.newDirectExecutorService();
+      SudoAwareInitManager commandRunner = createMockBuilder(SudoAwareInitManager.class).addMockedMethod("poll")
+               .addMockedMethod("getStatement").addMockedMethod("toString").createStrictMock();
+      InitScript initScript = createMockBuilder(InitScript.class).addMockedMethod("isPollable").createStrictMock();
+
+      expect(commandRunner.getStatement()).andReturn(initScript);
+      expect(initScript.isPollable()).andReturn(true);
+      expect(commandRunner.poll(0, 0)).andReturn(new ExecResponse("usage: init-script {init|status|...}", "", 0));
+
+      replay(commandRunner, initScript);
+
+      BlockUntilInitScriptStatusIsZeroThenReturnOutput future = new BlockUntilInitScriptStatusIsZeroThenReturnOutput(
+               userExecutor, eventBus, incrementalProperties(), commandRunner);
+
+      future.run();
+
+      try {
+         future.get();
+         fail();
+      } catch (ExecutionException e) {
+         assertEquals(e.getCause().getClass(), IllegalStateException.class);
+      }
+      verify(commandRunner, initScript);
+   }
+
+   private static InitStatusProperties incrementalProperties() {
+      InitStatusProperties properties = new InitStatusProperties();
+      properties.initStatusInitialPeriod = 1;
+      properties.initStatusMaxPeriod = 1;
+      properties.initStatusIncremental = true;
+      return properties;
+   }
+
    private void toStringAndEventBusExpectations(SudoAwareInitManager commandRunner, InitScript initScript) {
       toStringExpectations(commandRunner, initScript);
       expect(commandRunner.getStatement()).andReturn(initScript);
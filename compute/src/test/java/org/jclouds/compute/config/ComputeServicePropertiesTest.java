@@ -32,18 +32,21 @@ public class ComputeServicePropertiesTest {
             .getInstance(InitStatusProperties.class);
       assertEquals(props.initStatusInitialPeriod, 500);
       assertEquals(props.initStatusMaxPeriod, 5000);
+      assertEquals(props.initStatusIncremental, false);
    }
 
    public void testOverrideInitStatusProperties() {
       Properties overrides = new Properties();
       overrides.setProperty(ComputeServiceProperties.INIT_STATUS_INITIAL_PERIOD, "501");
       overrides.setProperty(ComputeServiceProperties.INIT_STATUS_MAX_PERIOD, "5001");
+      overrides.setProperty(ComputeServiceProperties.INIT_STATUS_INCREMENTAL, "true");
       
       InitStatusProperties props = ContextBuilder.newBuilder("stub").overrides(overrides).buildInjector()
             .getInstance(InitStatusProperties.class);
       
       assertEquals(props.initStatusInitialPeriod, 501);
       assertEquals(props.initStatusMaxPeriod, 5001);
+      assertEquals(props.initStatusIncremental, true);
    }
 
    public void testDefaultPollPeriod() {
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.internal;
+
+import static org.jclouds.compute.config.ComputeServiceProperties.POLL_BATCHED;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.compute.ComputeService;
+import org.jclouds.compute.ComputeServiceContext;
+import org.jclouds.compute.domain.ComputeMetadata;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.compute.strategy.GetNodeMetadataStrategy;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Test(groups = "unit", testName = "NodeStatusPollerTest", singleThreaded = true)
+public class NodeStatusPollerTest {
+
+   private static final Predicate<NodeMetadata> RUNNING = new Predicate<NodeMetadata>() {
+      @Override
+      public boolean apply(NodeMetadata input) {
+         if (input != null && input.getStatus() == Status.ERROR)
+            throw new IllegalStateException(input.getId() + " failed");
+         return input != null && input.getStatus() == Status.RUNNING;
+      }
+   };
+
+   private ListeningExecutorService userExecutor;
+   private FakeNodes nodes;
+   private NodeStatusPoller poller;
+
+   @BeforeMethod
+   public void setUp() {
+      userExecutor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+      nodes = new FakeNodes();
+      PollPeriod period = new PollPeriod();
+      period.pollInitialPeriod = 5;
+      period.pollMaxPeriod = 10;
+      poller = new NodeStatusPoller(nodes, nodes, userExecutor, period);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      poller.close();
+      userExecutor.shutdownNow();
+   }
+
+   public void testNodesArePolledTogether() throws Exception {
+      List<AtomicReference<NodeMetadata>> refs = Lists.newArrayList();
+      List<ListenableFuture<Boolean>> polls = Lists.newArrayList();
+      for (int i = 0; i < 20; i++) {
+         AtomicReference<NodeMetadata> ref = new AtomicReference<NodeMetadata>(nodes.pending("node" + i));
+         nodes.runningAfterPolls("node" + i, 3);
+         refs.add(ref);
+         polls.add(poller.poll(ref, RUNNING, 10000));
+      }
+
+      for (int i = 0; i < polls.size(); i++) {
+         assertTrue(polls.get(i).get(10, TimeUnit.SECONDS));
+         assertEquals(refs.get(i).get().getStatus(), Status.RUNNING);
+      }
+      assertEquals(nodes.getNodeCalls.get(), 0);
+      // one call per tick for all twenty nodes, rather than at least three calls per node
+      assertTrue(nodes.listNodesByIdsCalls.get() < 20, "listNodesByIds calls: " + nodes.listNodesByIdsCalls);
+   }
+
+   public void testFallsBackToGetNodeWhenListingByIdsIsUnsupported() throws Exception {
+      nodes.listNodesByIdsUnsupported = true;
+      AtomicReference<NodeMetadata> ref = new AtomicReference<NodeMetadata>(nodes.pending("node"));
+      nodes.runningAfterPolls("node", 2);
+
+      assertTrue(poller.poll(ref, RUNNING, 10000).get(10, TimeUnit.SECONDS));
+      assertEquals(ref.get().getStatus(), Status.RUNNING);
+      assertTrue(nodes.getNodeCalls.get() >= 2);
+   }
+
+   public void testRetryReturnsFalseOnTimeout() {
+      AtomicReference<NodeMetadata> ref = new AtomicReference<NodeMetadata>(nodes.pending("node"));
+      nodes.runningAfterPolls("node", Integer.MAX_VALUE);
+
+      assertFalse(poller.retry(RUNNING, 100).apply(ref));
+      assertEquals(ref.get().getStatus(), Status.PENDING);
+   }
+
+   public void testRetryReturnsFalseOnInvalidStatus() {
+      AtomicReference<NodeMetadata> ref = new AtomicReference<NodeMetadata>(nodes.pending("node"));
+      nodes.status.put("node", Status.ERROR);
+
+      assertFalse(poller.retry(RUNNING, 10000).apply(ref));
+      assertEquals(ref.get().getStatus(), Status.ERROR);
+   }
+
+   public void testRetryChecksCurrentNodeFirst() {
+      NodeMetadata running = new NodeMetadataBuilder().ids("node").status(Status.RUNNING).build();
+      AtomicReference<NodeMetadata> ref = new AtomicReference<NodeMetadata>(running);
+
+      assertTrue(poller.retry(RUNNING, 10000).apply(ref));
+      assertSame(ref.get(), running);
+      assertEquals(nodes.listNodesByIdsCalls.get(), 0);
+   }
+
+   public void testMissingNodeIsStoredAsNull() throws Exception {
+      AtomicReference<NodeMetadata> ref = new AtomicReference<NodeMetadata>(nodes.pending("node"));
+      nodes.status.remove("node");
+
+      assertTrue(poller.poll(ref, new Predicate<NodeMetadata>() {
+         @Override
+         public boolean apply(NodeMetadata input) {
+            return input == null;
+         }
+      }, 10000).get(10, TimeUnit.SECONDS));
+      assertNull(ref.get());
+   }
+
+   public void testBatchedPollingCreatesAndDestroysStubNodes() throws Exception {
+      Properties overrides = new Properties();
+      overrides.setProperty(POLL_BATCHED, "true");
+      ComputeServiceContext context = ContextBuilder.newBuilder("stub").overrides(overrides)
+            .buildView(ComputeServiceContext.class);
+      try {
+         ComputeService compute = context.getComputeService();
+         Set<? extends NodeMetadata> created = compute.createNodesInGroup("batched", 3);
+         assertEquals(created.size(), 3);
+         for (NodeMetadata node : created) {
+            assertEquals(node.getStatus(), Status.RUNNING);
+         }
+         assertEquals(compute.destroyNodesMatching(new Predicate<NodeMetadata>() {
+            @Override
+            public boolean apply(NodeMetadata input) {
+               return "batched".equals(input.getGroup());
+            }
+         }).size(), 3);
+      } finally {
+         context.close();
+      }
+   }
+
+   /** Nodes that reach RUNNING after a number of polls. */
+   private static final class FakeNodes implements ListNodesStrategy, GetNodeMetadataStrategy {
+      private final Map<String, Status> status = new ConcurrentHashMap<String, Status>();
+      private final Map<String, AtomicInteger> pollsUntilRunning = new ConcurrentHashMap<String, AtomicInteger>();
+      private final AtomicInteger listNodesByIdsCalls = new AtomicInteger();
+      private final AtomicInteger getNodeCalls = new AtomicInteger();
+      private volatile boolean listNodesByIdsUnsupported;
+
+      private NodeMetadata pending(String id) {
+         status.put(id, Status.PENDING);
+         return node(id);
+      }
+
+      private void runningAfterPolls(String id, int polls) {
+         pollsUntilRunning.put(id, new AtomicInteger(polls));
+      }
+
+      private NodeMetadata poll(String id) {
+         AtomicInteger remaining = pollsUntilRunning.get(id);
+         if (remaining != null && remaining.decrementAndGet() <= 0)
+            status.put(id, Status.RUNNING);
+         return node(id);
+      }
+
+      private NodeMetadata node(String id) {
+         Status current = status.get(id);
+         return current == null ? null : new NodeMetadataBuilder().ids(id).status(current).build();
+      }
+
+      @Override
+      public Iterable<? extends NodeMetadata> listNodesByIds(Iterable<String> ids) {
+         if (listNodesByIdsUnsupported)
+            throw new UnsupportedOperationException();
+         listNodesByIdsCalls.incrementAndGet();
+         ImmutableList.Builder<NodeMetadata> builder = ImmutableList.builder();
+         for (String id : ids) {
+            NodeMetadata node = poll(id);
+            if (node != null)
+               builder.add(node);
+         }
+         return builder.build();
+      }
+
+      @Override
+      public NodeMetadata getNode(String id) {
+         getNodeCalls.incrementAndGet();
+         return poll(id);
+      }
+
+      @Override
+      public Iterable<? extends ComputeMetadata> listNodes() {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Iterable<? extends NodeMetadata> listDetailsOnNodesMatching(Predicate<ComputeMetadata> filter) {
+         throw new UnsupportedOperationException();
+      }
+   }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.suppliers;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.providers.ProviderMetadata;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Guice;
+
+@Test(groups = "unit", testName = "ImageCacheSnapshotTest", singleThreaded = true)
+public class ImageCacheSnapshotTest {
+
+   private final Json json = Guice.createInjector(new GsonModule()).getInstance(Json.class);
+
+   private final Location region = new LocationBuilder().scope(LocationScope.REGION).id("region")
+         .description("region").iso3166Codes(ImmutableSet.of("US-CA"))
+         .parent(new LocationBuilder().scope(LocationScope.PROVIDER).id("provider").description("provider").build())
+         .build();
+
+   private final Image image = new ImageBuilder().id("region/imageId").providerId("imageId").name("imageName")
+         .description("imageDescription").version("imageVersion").location(region)
+         .operatingSystem(OperatingSystem.builder().family(OsFamily.UBUNTU).name("osName").version("14.04")
+               .description("osDescription").arch("x86_64").is64Bit(true).build())
+         .status(Image.Status.AVAILABLE).backendStatus("available").uri(URI.create("https://host/images/imageId"))
+         .userMetadata(ImmutableMap.of("key", "value")).tags(ImmutableSet.of("tag"))
+         .defaultCredentials(LoginCredentials.builder().user("ubuntu").authenticateSudo(true).build()).build();
+
+   private ListeningExecutorService executor;
+   private File snapshotDir;
+
+   @BeforeMethod
+   public void setUp() {
+      executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+      snapshotDir = Files.createTempDir();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      executor.shutdownNow();
+      for (File file : snapshotDir.listFiles()) {
+         file.delete();
+      }
+      snapshotDir.delete();
+   }
+
+   public void testDisabledByDefault() {
+      Supplier<Set<? extends Image>> cache = Suppliers.<Set<? extends Image>> ofInstance(ImmutableSet.of(image));
+      ImageCacheSnapshot snapshot = newSnapshot(null);
+
+      assertSame(snapshot.decorate(cache), cache);
+   }
+
+   public void testNewContextStartsFromSnapshotWhileCacheLoads() throws Exception {
+      Set<? extends Image> images = ImmutableSet.of(image);
+      assertEquals(newSnapshot(snapshotDir).decorate(Suppliers.<Set<? extends Image>> ofInstance(images)).get(),
+            images);
+      awaitSnapshotFile();
+
+      final CountDownLatch listed = new CountDownLatch(1);
+      final Set<? extends Image> relisted = ImmutableSet.of(ImageBuilder.fromImage(image).id("region/other").build());
+      Supplier<Set<? extends Image>> warm = newSnapshot(snapshotDir).decorate(new Supplier<Set<? extends Image>>() {
+         @Override
+         public Set<? extends Image> get() {
+            try {
+               listed.await();
+            } catch (InterruptedException e) {
+               throw new RuntimeException(e);
+            }
+            return relisted;
+         }
+      });
+
+      Set<? extends Image> restored = warm.get();
+      assertEquals(restored, images);
+      Image restoredImage = restored.iterator().next();
+      assertEquals(restoredImage.getName(), image.getName());
+      assertEquals(restoredImage.getOperatingSystem(), image.getOperatingSystem());
+      assertEquals(restoredImage.getLocation(), image.getLocation());
+      assertEquals(restoredImage.getLocation().getIso3166Codes(), image.getLocation().getIso3166Codes());
+      assertEquals(restoredImage.getUserMetadata(), image.getUserMetadata());
+      assertEquals(restoredImage.getTags(), image.getTags());
+      assertEquals(restoredImage.getDefaultCredentials(), image.getDefaultCredentials());
+      assertEquals(restoredImage.getUri(), image.getUri());
+      assertEquals(restoredImage.getStatus(), image.getStatus());
+      assertEquals(restoredImage.getBackendStatus(), image.getBackendStatus());
+
+      listed.countDown();
+      long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+      while (!warm.get().equals(relisted) && System.currentTimeMillis() < deadline) {
+         Thread.sleep(10);
+      }
+      assertEquals(warm.get(), relisted);
+   }
+
+   public void testStaleSnapshotIsIgnored() throws Exception {
+      newSnapshot(snapshotDir).decorate(Suppliers.<Set<? extends Image>> ofInstance(ImmutableSet.of(image))).get();
+      File file = awaitSnapshotFile();
+      assertTrue(file.setLastModified(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1)));
+
+      Set<? extends Image> relisted = ImmutableSet.of(ImageBuilder.fromImage(image).id("region/other").build());
+      assertEquals(newSnapshot(snapshotDir).decorate(Suppliers.<Set<? extends Image>> ofInstance(relisted)).get(),
+            relisted);
+   }
+
+   public void testImagesWithSecretsAreNotWritten() throws Exception {
+      Image withPassword = ImageBuilder.fromImage(image).id("region/withPassword")
+            .defaultCredentials(LoginCredentials.builder().user("root").password("secret").build()).build();
+      ImageCacheSnapshot snapshot = newSnapshot(snapshotDir);
+      snapshot.decorate(Suppliers.<Set<? extends Image>> ofInstance(ImmutableSet.of(image, withPassword))).get();
+
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+      assertEquals(snapshotDir.list().length, 0);
+   }
+
+   private ImageCacheSnapshot newSnapshot(File dir) {
+      ProviderMetadata providerMetadata = createMock(ProviderMetadata.class);
+      expect(providerMetadata.getId()).andReturn("stub").anyTimes();
+      replay(providerMetadata);
+      ImageCacheSnapshot snapshot = new ImageCacheSnapshot(json, executor, 60, providerMetadata,
+            Suppliers.ofInstance(URI.create("https://stub")),
+            Suppliers.ofInstance(new Credentials("identity", "credential")));
+      snapshot.snapshotDir = dir == null ? null : dir.getAbsolutePath();
+      return snapshot;
+   }
+
+   private File awaitSnapshotFile() throws InterruptedException {
+      long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+      while (System.currentTimeMillis() < deadline) {
+         for (File file : snapshotDir.listFiles()) {
+            if (file.getName().endsWith(".json")) {
+               return file;
+            }
+         }
+         Thread.sleep(10);
+      }
+      throw new AssertionError("no snapshot written to " + snapshotDir);
+   }
+}
@@ -17,6 +17,9 @@
 package org.jclouds.compute.suppliers;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 
 import java.util.Set;
 
@@ -74,4 +77,22 @@ public class ImageCacheSupplierTest {
 
       assertEquals(imageCache.get().size(), 2);
    }
+
+   @Test
+   public void testImagesAndIndexAreReusedUntilTheImagesChange() {
+      ImageCacheSupplier imageCache = new ImageCacheSupplier(Suppliers.<Set<? extends Image>> ofInstance(images), 60);
+      Set<? extends Image> current = imageCache.get();
+      ImageIndex index = imageCache.getIndex(current);
+
+      assertSame(imageCache.get(), current);
+      assertSame(imageCache.getIndex(current), index);
+      assertSame(index.getImages(), current);
+
+      imageCache.registerImage(ImageBuilder.fromImage(image).id("newimage").build());
+
+      Set<? extends Image> updated = imageCache.get();
+      assertNotSame(updated, current);
+      assertNull(imageCache.getIndex(current));
+      assertEquals(imageCache.getIndex(updated).getImages().size(), 2);
+   }
 }
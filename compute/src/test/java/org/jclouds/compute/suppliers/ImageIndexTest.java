@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.suppliers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.compute.domain.Hardware;
+import org.jclouds.compute.domain.HardwareBuilder;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.compute.domain.OsFamily;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+@Test(groups = "unit", testName = "ImageIndexTest")
+public class ImageIndexTest {
+
+   private final Location provider = new LocationBuilder().scope(LocationScope.PROVIDER).id("provider")
+         .description("provider").build();
+   private final Location region = new LocationBuilder().scope(LocationScope.REGION).id("region")
+         .description("region").parent(provider).build();
+   private final Location zone = new LocationBuilder().scope(LocationScope.ZONE).id("zone").description("zone")
+         .parent(region).build();
+   private final Location otherRegion = new LocationBuilder().scope(LocationScope.REGION).id("otherRegion")
+         .description("otherRegion").parent(provider).build();
+
+   private final Image ubuntu64 = image("ubuntu64", region, OsFamily.UBUNTU, true, "14.04");
+   private final Image ubuntu32 = image("ubuntu32", region, OsFamily.UBUNTU, false, "14.04");
+   private final Image oldUbuntu = image("oldUbuntu", region, OsFamily.UBUNTU, true, "12.04");
+   private final Image centos = image("centos", null, OsFamily.CENTOS, true, "6.5");
+   private final Image elsewhere = image("elsewhere", otherRegion, OsFamily.UBUNTU, true, "14.04");
+
+   private final ImageIndex index = new ImageIndex(ImmutableSet.of(elsewhere, ubuntu64, centos, oldUbuntu, ubuntu32));
+
+   public void testCandidatesWithoutCriteriaAreAllImagesInOrder() {
+      assertEquals(index.candidates(null, null, null, Predicates.<String> alwaysTrue()),
+            ImmutableList.copyOf(index.getImages()));
+   }
+
+   public void testCandidatesAreNarrowedByLocationAndOperatingSystem() {
+      assertEquals(index.candidates(zone, null, null, Predicates.<String> alwaysTrue()),
+            ImmutableList.of(ubuntu64, centos, oldUbuntu, ubuntu32));
+      assertEquals(index.candidates(zone, OsFamily.UBUNTU, true, Predicates.<String> alwaysTrue()),
+            ImmutableList.of(ubuntu64, oldUbuntu));
+      assertEquals(index.candidates(zone, OsFamily.UBUNTU, true, Predicates.equalTo("14.04")),
+            ImmutableList.of(ubuntu64));
+      assertEquals(index.candidates(otherRegion, OsFamily.UBUNTU, null, Predicates.equalTo("14.04")),
+            ImmutableList.of(elsewhere));
+   }
+
+   public void testVersionPredicateIsTestedOncePerDistinctVersion() {
+      final AtomicInteger calls = new AtomicInteger();
+      index.candidates(null, OsFamily.UBUNTU, null, new Predicate<String>() {
+         @Override
+         public boolean apply(String input) {
+            calls.incrementAndGet();
+            return true;
+         }
+      });
+      // (otherRegion, 64-bit, 14.04), (region, 64-bit, 14.04), (region, 64-bit, 12.04), (region, 32-bit, 14.04)
+      assertEquals(calls.get(), 4);
+   }
+
+   public void testSupportsImageIsEvaluatedOncePerHardwareAndImage() {
+      final AtomicInteger calls = new AtomicInteger();
+      Hardware hardware = new HardwareBuilder().id("hardware").ram(1024).supportsImage(new Predicate<Image>() {
+         @Override
+         public boolean apply(Image input) {
+            calls.incrementAndGet();
+            return input.getOperatingSystem().is64Bit();
+         }
+      }).build();
+
+      for (int i = 0; i < 3; i++) {
+         assertTrue(index.supports(hardware, ubuntu64));
+         assertFalse(index.supports(hardware, ubuntu32));
+      }
+      assertEquals(calls.get(), 2);
+
+      Image notIndexed = image("notIndexed", region, OsFamily.UBUNTU, true, "16.04");
+      assertTrue(index.supports(hardware, notIndexed));
+      assertTrue(index.supports(hardware, notIndexed));
+      assertEquals(calls.get(), 4);
+   }
+
+   private static Image image(String id, Location location, OsFamily family, boolean is64Bit, String version) {
+      return new ImageBuilder().id(id).providerId(id).name(id).location(location).status(Image.Status.AVAILABLE)
+            .operatingSystem(OperatingSystem.builder().family(family).description(id).version(version)
+                  .is64Bit(is64Bit).build()).build();
+   }
+}
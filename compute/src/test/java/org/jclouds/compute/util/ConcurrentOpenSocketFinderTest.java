@@ -29,6 +29,10 @@ import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.fail;
 
+import java.net.InetAddress;
+import java.net.Proxy;
+import java.net.ServerSocket;
+import java.net.URI;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.concurrent.Callable;
@@ -38,11 +42,13 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.NodeMetadataBuilder;
 import org.jclouds.compute.util.ConcurrentOpenSocketFinder.AllowedInterfaces;
+import org.jclouds.predicates.InetSocketAddressConnect;
 import org.jclouds.predicates.SocketOpen;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.FluentIterable;
@@ -50,6 +56,9 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.net.HostAndPort;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.TypeLiteral;
 
 @Test(singleThreaded = true)
 public class ConcurrentOpenSocketFinderTest {
@@ -83,6 +92,13 @@ public class ConcurrentOpenSocketFinderTest {
    private final Predicate<AtomicReference<NodeMetadata>> nodeRunning = alwaysTrue();
    private final Predicate<AtomicReference<NodeMetadata>> nodeNotRunning = alwaysFalse();
 
+   private static final Function<URI, Proxy> NO_PROXY = new Function<URI, Proxy>() {
+      @Override
+      public Proxy apply(URI input) {
+         return Proxy.NO_PROXY;
+      }
+   };
+
    private ListeningExecutorService userExecutor;
 
    @BeforeClass
@@ -176,6 +192,64 @@ public class ConcurrentOpenSocketFinderTest {
    }
 
 
+   @Test
+   public void testProbesDirectSocketsWithoutUserThreads() throws Exception {
+      ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+      ListeningExecutorService rejectingExecutor = listeningDecorator(newCachedThreadPool());
+      rejectingExecutor.shutdown();
+      SelectorSocketProbe probe = new SelectorSocketProbe(NO_PROXY);
+      try {
+         ConcurrentOpenSocketFinder finder = new ConcurrentOpenSocketFinder(directSocketOpen(), nodeRunning,
+               rejectingExecutor);
+         finder.socketProbe = probe;
+         NodeMetadata local = new NodeMetadataBuilder().id("local").status(RUNNING)
+               .publicAddresses(ImmutableSet.of("127.0.0.1")).build();
+
+         HostAndPort result = finder.findOpenSocketOnNode(local, server.getLocalPort(), 5000, MILLISECONDS);
+         assertEquals(result, HostAndPort.fromParts("127.0.0.1", server.getLocalPort()));
+      } finally {
+         probe.close();
+         server.close();
+      }
+   }
+
+   @Test
+   public void testProbeAbortsWhenNodeNotRunning() throws Exception {
+      SelectorSocketProbe probe = new SelectorSocketProbe(NO_PROXY);
+      try {
+         ConcurrentOpenSocketFinder finder = new ConcurrentOpenSocketFinder(directSocketOpen(), nodeNotRunning,
+               userExecutor);
+         finder.socketProbe = probe;
+
+         ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+         int closedPort = server.getLocalPort();
+         server.close();
+         NodeMetadata local = new NodeMetadataBuilder().id("local").status(RUNNING)
+               .publicAddresses(ImmutableSet.of("127.0.0.1")).build();
+
+         Stopwatch stopwatch = Stopwatch.createStarted();
+         try {
+            finder.findOpenSocketOnNode(local, closedPort, 60000, MILLISECONDS);
+            fail();
+         } catch (NoSuchElementException success) {
+            // expected
+         }
+         assertTrue(stopwatch.elapsed(MILLISECONDS) < 30000, "timetaken=" + stopwatch);
+      } finally {
+         probe.close();
+      }
+   }
+
+   private static SocketOpen directSocketOpen() {
+      return Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            bind(new TypeLiteral<Function<URI, Proxy>>() {
+            }).toInstance(NO_PROXY);
+         }
+      }).getInstance(InetSocketAddressConnect.class);
+   }
+
    @Test
    public void testSocketFinderAllowedInterfacesAll() throws Exception {
       FluentIterable<String> ips = ConcurrentOpenSocketFinder.checkNodeHasIps(node, AllowedInterfaces.ALL);
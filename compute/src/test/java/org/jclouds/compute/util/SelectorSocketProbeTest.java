@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.net.HostAndPort;
+import com.google.common.util.concurrent.ListenableFuture;
+
+@Test(groups = "unit", testName = "SelectorSocketProbeTest", singleThreaded = true)
+public class SelectorSocketProbeTest {
+
+   private static final Function<URI, Proxy> NO_PROXY = new Function<URI, Proxy>() {
+      @Override
+      public Proxy apply(URI input) {
+         return Proxy.NO_PROXY;
+      }
+   };
+
+   private SelectorSocketProbe probe;
+   private List<ServerSocket> servers;
+
+   @BeforeMethod
+   public void setUp() {
+      probe = new SelectorSocketProbe(NO_PROXY);
+      servers = Lists.newArrayList();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() throws IOException {
+      probe.close();
+      for (ServerSocket server : servers) {
+         server.close();
+      }
+   }
+
+   public void testFindsListeningSocket() throws Exception {
+      HostAndPort open = listen();
+      HostAndPort closed = closedPort();
+
+      assertEquals(probe.probe(ImmutableList.of(closed, open), 5000).get(10, TimeUnit.SECONDS), open);
+   }
+
+   public void testReturnsNullWhenNothingListensBeforeTimeout() throws Exception {
+      Stopwatch stopwatch = Stopwatch.createStarted();
+
+      assertNull(probe.probe(ImmutableList.of(closedPort()), 600).get(10, TimeUnit.SECONDS));
+      assertTrue(stopwatch.elapsed(TimeUnit.MILLISECONDS) >= 600, "returned after " + stopwatch);
+   }
+
+   public void testRetriesUntilSocketListens() throws Exception {
+      HostAndPort later = closedPort();
+      ListenableFuture<HostAndPort> found = probe.probe(ImmutableList.of(later), 10000);
+      Thread.sleep(SelectorSocketProbe.INITIAL_BACKOFF * 2);
+      ServerSocket server = new ServerSocket();
+      servers.add(server);
+      server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), later.getPort()));
+
+      assertEquals(found.get(10, TimeUnit.SECONDS), later);
+   }
+
+   public void testProbesManySocketsConcurrently() throws Exception {
+      List<ListenableFuture<HostAndPort>> probes = Lists.newArrayList();
+      List<HostAndPort> expected = Lists.newArrayList();
+      for (int i = 0; i < 50; i++) {
+         HostAndPort open = listen();
+         expected.add(open);
+         probes.add(probe.probe(ImmutableList.of(closedPort(), open), 5000));
+      }
+      for (int i = 0; i < probes.size(); i++) {
+         assertEquals(probes.get(i).get(10, TimeUnit.SECONDS), expected.get(i));
+      }
+   }
+
+   public void testCloseCancelsPendingProbes() throws Exception {
+      ListenableFuture<HostAndPort> found = probe.probe(ImmutableList.of(closedPort()), 10000);
+      probe.close();
+
+      Stopwatch stopwatch = Stopwatch.createStarted();
+      while (!found.isDone() && stopwatch.elapsed(TimeUnit.SECONDS) < 10) {
+         Thread.sleep(10);
+      }
+      assertTrue(found.isCancelled());
+   }
+
+   public void testDoesNotSupportProxiedSockets() {
+      Function<URI, Proxy> proxied = new Function<URI, Proxy>() {
+         @Override
+         public Proxy apply(URI input) {
+            return new Proxy(Proxy.Type.SOCKS, InetSocketAddress.createUnresolved("proxy", 1080));
+         }
+      };
+
+      assertTrue(probe.supports(HostAndPort.fromParts("127.0.0.1", 22)));
+      assertTrue(!new SelectorSocketProbe(proxied).supports(HostAndPort.fromParts("127.0.0.1", 22)));
+   }
+
+   public void testOnlySupportsSocketsGivenByIpAddress() {
+      assertTrue(probe.supports(HostAndPort.fromParts("::1", 22)));
+      assertTrue(!probe.supports(HostAndPort.fromParts("localhost", 22)));
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testRejectsSocketsGivenByHostName() {
+      probe.probe(ImmutableList.of(HostAndPort.fromParts("localhost", 22)), 1000);
+   }
+
+   private HostAndPort listen() throws IOException {
+      ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+      servers.add(server);
+      return HostAndPort.fromParts("127.0.0.1", server.getLocalPort());
+   }
+
+   private static HostAndPort closedPort() throws IOException {
+      ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+      int port = server.getLocalPort();
+      server.close();
+      return HostAndPort.fromParts("127.0.0.1", port);
+   }
+}
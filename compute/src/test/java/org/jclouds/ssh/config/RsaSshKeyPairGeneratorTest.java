@@ -18,6 +18,7 @@ package org.jclouds.ssh.config;
 
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.jclouds.crypto.PemsTest.PRIVATE_KEY;
@@ -34,7 +35,9 @@ import java.security.PublicKey;
 import java.security.SecureRandom;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.InvalidKeySpecException;
+import java.util.Map;
 
+import org.jclouds.compute.config.ComputeServiceProperties;
 import org.jclouds.crypto.Crypto;
 import org.jclouds.crypto.Pems;
 import org.jclouds.ssh.SshKeys;
@@ -47,6 +50,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.io.ByteSource;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
+import com.google.inject.name.Names;
 
 @Test(groups = "unit", testName = "RsaSshKeyPairGeneratorTest")
 public class RsaSshKeyPairGeneratorTest {
@@ -91,4 +95,47 @@ public class RsaSshKeyPairGeneratorTest {
       verify(crypto, rsaKeyPairGenerator, secureRandom);
    }
 
+   @Test
+   public void testPoolHandsOutPreGeneratedKeyPairs() throws InterruptedException {
+      final Crypto crypto = createMock(Crypto.class);
+      KeyPairGenerator rsaKeyPairGenerator = createMock(KeyPairGenerator.class);
+      final SecureRandom secureRandom = createMock(SecureRandom.class);
+
+      // one on demand, then one in the background for each pair handed out
+      expect(crypto.rsaKeyPairGenerator()).andReturn(rsaKeyPairGenerator).times(3);
+      rsaKeyPairGenerator.initialize(2048, secureRandom);
+      expectLastCall().times(3);
+      expect(rsaKeyPairGenerator.genKeyPair()).andReturn(keyPair).times(3);
+
+      replay(crypto, rsaKeyPairGenerator, secureRandom);
+
+      RsaSshKeyPairGenerator supplier = Guice.createInjector(new AbstractModule() {
+         protected void configure() {
+            bindConstant().annotatedWith(Names.named(ComputeServiceProperties.KEY_PAIR_POOL_SIZE)).to(1);
+            bind(Crypto.class).toInstance(crypto);
+            bind(SecureRandom.class).toInstance(secureRandom);
+         }
+      }).getInstance(RsaSshKeyPairGenerator.class);
+      Map<String, String> expected = ImmutableMap.of("public", openSshKey, "private",
+               PRIVATE_KEY.replaceAll("\n", lineSeparator));
+
+      assertEquals(supplier.get(), expected);
+      assertEquals(supplier.getMissCount(), 1);
+      awaitAvailable(supplier);
+
+      assertEquals(supplier.get(), expected);
+      assertEquals(supplier.getHitCount(), 1);
+      assertEquals(supplier.getMissCount(), 1);
+      awaitAvailable(supplier);
+      supplier.close();
+
+      verify(crypto, rsaKeyPairGenerator, secureRandom);
+   }
+
+   private static void awaitAvailable(RsaSshKeyPairGenerator supplier) throws InterruptedException {
+      for (int i = 0; i < 100 && supplier.getAvailableCount() < 1; i++)
+         Thread.sleep(100);
+      assertEquals(supplier.getAvailableCount(), 1);
+   }
+
 }
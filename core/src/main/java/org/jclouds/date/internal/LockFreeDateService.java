@@ -0,0 +1,620 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.date.internal;
+
+import static org.jclouds.date.internal.DateUtils.findTZ;
+import static org.jclouds.date.internal.DateUtils.trimTZ;
+import static org.jclouds.date.internal.DateUtils.trimToMillis;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+import javax.inject.Singleton;
+
+import org.jclouds.date.DateService;
+
+/**
+ * Formats and parses the date forms jclouds uses without taking any locks.
+ * <p/>
+ * Dates in the canonical forms written by this class, and by the services jclouds talks to, are
+ * handled by hand-written code working on the characters directly. Anything else, such as dates
+ * before 1600 or text the strict parsers don't recognize, falls back to per-thread
+ * {@link SimpleDateFormat} instances configured exactly as in {@link SimpleDateFormatDateService},
+ * so results are the same as that implementation for every input. The no-arg forms that only have
+ * second resolution reuse the string formatted for the current second.
+ */
+@Singleton
+public class LockFreeDateService implements DateService {
+
+   private static final String[] DAYS = { "Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat" };
+   private static final String[] MONTHS = { "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct",
+         "Nov", "Dec" };
+
+   // 1600-01-01T00:00:00Z and 9999-12-31T23:59:59.999Z, the range the hand-written code handles
+   private static final long MIN_MILLIS = -11676096000000L;
+   private static final long MAX_MILLIS = 253402300799999L;
+
+   private static final long NOT_PARSED = Long.MIN_VALUE;
+
+   // as in SimpleDateFormatDateService, rfc1123 is formatted in the zone of the jvm
+   private static final TimeZone RFC1123_ZONE = TimeZone.getDefault();
+
+   private static final ThreadLocal<SimpleDateFormat> iso8601Seconds = gmtFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+   private static final ThreadLocal<SimpleDateFormat> iso8601 = gmtFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+   private static final ThreadLocal<SimpleDateFormat> rfc822 = gmtFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'");
+   private static final ThreadLocal<SimpleDateFormat> cDate = gmtFormat("EEE MMM dd HH:mm:ss Z yyyy");
+   private static final ThreadLocal<SimpleDateFormat> rfc1123 = new ThreadLocal<SimpleDateFormat>() {
+      @Override
+      protected SimpleDateFormat initialValue() {
+         SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyyy HH:mm:ss Z", Locale.US);
+         format.setTimeZone(RFC1123_ZONE);
+         return format;
+      }
+   };
+
+   private static ThreadLocal<SimpleDateFormat> gmtFormat(final String pattern) {
+      return new ThreadLocal<SimpleDateFormat>() {
+         @Override
+         protected SimpleDateFormat initialValue() {
+            SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+            format.setTimeZone(new SimpleTimeZone(0, "GMT"));
+            return format;
+         }
+      };
+   }
+
+   private final CurrentSecond rfc822Now = new CurrentSecond() {
+      @Override
+      String format(Date date) {
+         return rfc822DateFormat(date);
+      }
+   };
+
+   private final CurrentSecond rfc1123Now = new CurrentSecond() {
+      @Override
+      String format(Date date) {
+         return rfc1123DateFormat(date);
+      }
+   };
+
+   private final CurrentSecond cDateNow = new CurrentSecond() {
+      @Override
+      String format(Date date) {
+         return cDateFormat(date);
+      }
+   };
+
+   private final CurrentSecond iso8601SecondsNow = new CurrentSecond() {
+      @Override
+      String format(Date date) {
+         return iso8601SecondsDateFormat(date);
+      }
+   };
+
+   @Override
+   public final String cDateFormat(Date date) {
+      long millis = date.getTime();
+      if (!inRange(millis))
+         return cDate.get().format(date);
+      // EEE MMM dd HH:mm:ss +0000 yyyy
+      Fields f = new Fields(millis);
+      char[] out = new char[30];
+      append(out, 0, DAYS[f.dayOfWeek]);
+      out[3] = ' ';
+      append(out, 4, MONTHS[f.month - 1]);
+      out[7] = ' ';
+      twoDigits(out, 8, f.day);
+      out[10] = ' ';
+      time(out, 11, f);
+      append(out, 19, " +0000 ");
+      fourDigits(out, 26, f.year);
+      return new String(out);
+   }
+
+   @Override
+   public final String cDateFormat() {
+      return cDateNow.get();
+   }
+
+   @Override
+   public final Date cDateParse(String toParse) {
+      long millis = parseCDate(toParse);
+      if (millis != NOT_PARSED)
+         return new Date(millis);
+      try {
+         return cDate.get().parse(toParse);
+      } catch (ParseException pe) {
+         throw new IllegalArgumentException("Error parsing data at " + pe.getErrorOffset(), pe);
+      }
+   }
+
+   @Override
+   public final String rfc822DateFormat(Date date) {
+      long millis = date.getTime();
+      if (!inRange(millis))
+         return rfc822.get().format(date);
+      // EEE, dd MMM yyyy HH:mm:ss GMT
+      char[] out = new char[29];
+      rfc822Prefix(out, new Fields(millis), false);
+      append(out, 25, " GMT");
+      return new String(out);
+   }
+
+   @Override
+   public final String rfc822DateFormat() {
+      return rfc822Now.get();
+   }
+
+   @Override
+   public final Date rfc822DateParse(String toParse) {
+      long millis = toParse.length() == 29 && toParse.endsWith(" GMT") ? parseRfc822Prefix(toParse, 4) : NOT_PARSED;
+      if (millis != NOT_PARSED)
+         return new Date(millis);
+      try {
+         return rfc822.get().parse(toParse);
+      } catch (ParseException pe) {
+         throw new IllegalArgumentException("Error parsing data at " + pe.getErrorOffset(), pe);
+      }
+   }
+
+   @Override
+   public final String iso8601SecondsDateFormat() {
+      return iso8601SecondsNow.get();
+   }
+
+   @Override
+   public final String iso8601SecondsDateFormat(Date date) {
+      long millis = date.getTime();
+      if (!inRange(millis))
+         return gmtAsZ(iso8601Seconds.get().format(date));
+      // yyyy-MM-ddTHH:mm:ssZ
+      char[] out = new char[20];
+      isoDateTime(out, new Fields(millis));
+      out[19] = 'Z';
+      return new String(out);
+   }
+
+   @Override
+   public final String iso8601DateFormat(Date date) {
+      long millis = date.getTime();
+      if (!inRange(millis))
+         return gmtAsZ(iso8601.get().format(date));
+      // yyyy-MM-ddTHH:mm:ss.SSSZ
+      Fields f = new Fields(millis);
+      char[] out = new char[24];
+      isoDateTime(out, f);
+      out[19] = '.';
+      int ms = f.millis;
+      out[20] = (char) ('0' + ms / 100);
+      out[21] = (char) ('0' + ms / 10 % 10);
+      out[22] = (char) ('0' + ms % 10);
+      out[23] = 'Z';
+      return new String(out);
+   }
+
+   @Override
+   public final String iso8601DateFormat() {
+      return iso8601DateFormat(new Date());
+   }
+
+   @Override
+   public final Date iso8601DateParse(String toParse) {
+      long millis = parseIso8601(toParse, true, false);
+      if (millis != NOT_PARSED)
+         return new Date(millis);
+      return parseIso8601Fallback(toParse, iso8601.get());
+   }
+
+   @Override
+   public final Date iso8601SecondsDateParse(String toParse) {
+      long millis = parseIso8601(toParse, false, true);
+      if (millis != NOT_PARSED)
+         return new Date(millis);
+      return parseIso8601Fallback(toParse, iso8601Seconds.get());
+   }
+
+   @Override
+   public final Date iso8601DateOrSecondsDateParse(String toParse) {
+      long millis = parseIso8601(toParse, true, true);
+      if (millis != NOT_PARSED)
+         return new Date(millis);
+      try {
+         return parseIso8601Fallback(toParse, iso8601.get());
+      } catch (IllegalArgumentException orig) {
+         try {
+            return parseIso8601Fallback(toParse, iso8601Seconds.get());
+         } catch (IllegalArgumentException ignored) {
+            throw orig;
+         }
+      }
+   }
+
+   @Override
+   public final String rfc1123DateFormat(Date date) {
+      long millis = date.getTime();
+      int offset = RFC1123_ZONE.getOffset(millis);
+      if (!inRange(millis + offset))
+         return rfc1123.get().format(date);
+      // EEE, dd MMM yyyyy HH:mm:ss +hhmm
+      char[] out = new char[32];
+      rfc822Prefix(out, new Fields(millis + offset), true);
+      out[26] = ' ';
+      int offsetMinutes = offset / 60000;
+      out[27] = offsetMinutes < 0 ? '-' : '+';
+      offsetMinutes = Math.abs(offsetMinutes);
+      fourDigits(out, 28, offsetMinutes / 60 * 100 + offsetMinutes % 60);
+      return new String(out);
+   }
+
+   @Override
+   public final String rfc1123DateFormat() {
+      return rfc1123Now.get();
+   }
+
+   @Override
+   public final Date rfc1123DateParse(String toParse) {
+      long millis = parseRfc1123(toParse);
+      if (millis != NOT_PARSED)
+         return new Date(millis);
+      try {
+         return rfc1123.get().parse(toParse);
+      } catch (ParseException pe) {
+         throw new IllegalArgumentException("Error parsing data at " + pe.getErrorOffset(), pe);
+      }
+   }
+
+   /**
+    * the pre-processing {@link SimpleDateFormatDateService} applies before handing iso8601 text to
+    * {@link SimpleDateFormat}.
+    */
+   private static Date parseIso8601Fallback(String toParse, SimpleDateFormat format) {
+      if (toParse.length() < 10)
+         throw new IllegalArgumentException("incorrect date format " + toParse);
+      String tz = findTZ(toParse);
+      toParse = trimToMillis(toParse);
+      toParse = trimTZ(toParse);
+      toParse += tz;
+      if (toParse.charAt(10) == ' ')
+         toParse = new StringBuilder(toParse).replace(10, 11, "T").toString();
+      try {
+         return format.parse(toParse);
+      } catch (ParseException pe) {
+         throw new IllegalArgumentException("Error parsing data at " + pe.getErrorOffset(), pe);
+      }
+   }
+
+   private static String gmtAsZ(String formatted) {
+      return formatted.endsWith("+0000") ? formatted.substring(0, formatted.length() - 5) + "Z" : formatted;
+   }
+
+   private static boolean inRange(long millis) {
+      return millis >= MIN_MILLIS && millis <= MAX_MILLIS;
+   }
+
+   /**
+    * Parses {@code yyyy-MM-dd'T'HH:mm:ss[.SSS...][zone]}, where the zone is {@code Z}, {@code +hhmm}
+    * or {@code +hh:mm}, and a space may stand in for the {@code T}.
+    * 
+    * @return millis since the epoch, or {@link #NOT_PARSED} if the text isn't in that form
+    */
+   private static long parseIso8601(String s, boolean allowFraction, boolean allowSeconds) {
+      int length = s.length();
+      if (length < 19 || s.charAt(4) != '-' || s.charAt(7) != '-' || (s.charAt(10) != 'T' && s.charAt(10) != ' ')
+            || s.charAt(13) != ':' || s.charAt(16) != ':')
+         return NOT_PARSED;
+      int year = digits(s, 0, 4);
+      int month = digits(s, 5, 2);
+      int day = digits(s, 8, 2);
+      int hour = digits(s, 11, 2);
+      int minute = digits(s, 14, 2);
+      int second = digits(s, 17, 2);
+      int millis = 0;
+      int i = 19;
+      if (i < length && s.charAt(i) == '.') {
+         if (!allowFraction)
+            return NOT_PARSED;
+         millis = digits(s, i + 1, 3);
+         if (millis < 0)
+            return NOT_PARSED;
+         // like SimpleDateFormatDateService, digits past millis are dropped
+         for (i += 4; i < length && isDigit(s.charAt(i)); i++)
+            ;
+      } else if (!allowSeconds) {
+         return NOT_PARSED;
+      }
+      int offsetMinutes = 0;
+      if (i < length) {
+         char sign = s.charAt(i);
+         if (sign == 'Z' && i + 1 == length) {
+            offsetMinutes = 0;
+         } else if (sign == '+' || sign == '-') {
+            int zoneHours = digits(s, i + 1, 2);
+            int zoneMinutes;
+            if (length == i + 5)
+               zoneMinutes = digits(s, i + 3, 2);
+            else if (length == i + 6 && s.charAt(i + 3) == ':')
+               zoneMinutes = digits(s, i + 4, 2);
+            else
+               return NOT_PARSED;
+            if (zoneHours < 0 || zoneHours > 23 || zoneMinutes < 0 || zoneMinutes > 59)
+               return NOT_PARSED;
+            offsetMinutes = zoneHours * 60 + zoneMinutes;
+            if (sign == '-')
+               offsetMinutes = -offsetMinutes;
+         } else {
+            return NOT_PARSED;
+         }
+      }
+      long local = toMillis(year, month, day, hour, minute, second);
+      if (local == NOT_PARSED)
+         return NOT_PARSED;
+      return local + millis - offsetMinutes * 60000L;
+   }
+
+   /**
+    * Parses {@code EEE MMM dd HH:mm:ss +hhmm yyyy}.
+    */
+   private static long parseCDate(String s) {
+      if (s.length() != 30 || s.charAt(3) != ' ' || s.charAt(7) != ' ' || s.charAt(10) != ' '
+            || s.charAt(19) != ' ' || s.charAt(25) != ' ' || indexOf(DAYS, s, 0) < 0)
+         return NOT_PARSED;
+      int month = indexOf(MONTHS, s, 4) + 1;
+      int day = digits(s, 8, 2);
+      int offsetMinutes = zone(s, 20);
+      if (offsetMinutes == Integer.MIN_VALUE)
+         return NOT_PARSED;
+      long local = toMillis(digits(s, 26, 4), month, day, s, 11);
+      return local == NOT_PARSED ? NOT_PARSED : local - offsetMinutes * 60000L;
+   }
+
+   /**
+    * Parses {@code EEE, dd MMM yyyy HH:mm:ss} followed by {@code suffixLength} characters the caller
+    * has already checked, returning the time as if in GMT.
+    */
+   private static long parseRfc822Prefix(String s, int suffixLength) {
+      if (s.length() != 25 + suffixLength || s.charAt(3) != ',' || s.charAt(4) != ' ' || s.charAt(7) != ' '
+            || s.charAt(11) != ' ' || s.charAt(16) != ' ' || indexOf(DAYS, s, 0) < 0)
+         return NOT_PARSED;
+      int month = indexOf(MONTHS, s, 8) + 1;
+      return toMillis(digits(s, 12, 4), month, digits(s, 5, 2), s, 17);
+   }
+
+   /**
+    * Parses {@code EEE, dd MMM yyyy HH:mm:ss} followed by {@code GMT} or {@code +hhmm}, also accepting
+    * the five digit years {@link #rfc1123DateFormat(Date)} writes.
+    */
+   private static long parseRfc1123(String s) {
+      if (s.length() > 17 && s.charAt(11) == ' ' && s.charAt(12) == '0' && s.charAt(17) == ' ')
+         s = s.substring(0, 12) + s.substring(13);
+      if (s.endsWith(" GMT"))
+         return parseRfc822Prefix(s, 4);
+      if (s.length() != 31 || s.charAt(25) != ' ')
+         return NOT_PARSED;
+      int offsetMinutes = zone(s, 26);
+      long local = parseRfc822Prefix(s, 6);
+      if (offsetMinutes == Integer.MIN_VALUE || local == NOT_PARSED)
+         return NOT_PARSED;
+      return local - offsetMinutes * 60000L;
+   }
+
+   /**
+    * @return minutes east of GMT for {@code +hhmm} at {@code index}, or {@link Integer#MIN_VALUE}
+    */
+   private static int zone(String s, int index) {
+      char sign = s.charAt(index);
+      int hours = digits(s, index + 1, 2);
+      int minutes = digits(s, index + 3, 2);
+      if ((sign != '+' && sign != '-') || hours < 0 || hours > 23 || minutes < 0 || minutes > 59)
+         return Integer.MIN_VALUE;
+      int offset = hours * 60 + minutes;
+      return sign == '-' ? -offset : offset;
+   }
+
+   private static long toMillis(int year, int month, int day, String s, int timeIndex) {
+      if (s.charAt(timeIndex + 2) != ':' || s.charAt(timeIndex + 5) != ':')
+         return NOT_PARSED;
+      return toMillis(year, month, day, digits(s, timeIndex, 2), digits(s, timeIndex + 3, 2),
+            digits(s, timeIndex + 6, 2));
+   }
+
+   /**
+    * @return millis since the epoch for the fields in GMT, or {@link #NOT_PARSED} when any is out of
+    *         the range strict parsing accepts; {@link SimpleDateFormat} is lenient about those.
+    */
+   private static long toMillis(int year, int month, int day, int hour, int minute, int second) {
+      if (year < 1600 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month) || hour < 0
+            || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59)
+         return NOT_PARSED;
+      return ((daysFromCivil(year, month, day) * 24 + hour) * 60 + minute) * 60000L + second * 1000L;
+   }
+
+   private static int daysInMonth(int year, int month) {
+      switch (month) {
+         case 2:
+            return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+         case 4:
+         case 6:
+         case 9:
+         case 11:
+            return 30;
+         default:
+            return 31;
+      }
+   }
+
+   /**
+    * days since 1970-01-01 in the proleptic gregorian calendar.
+    */
+   private static long daysFromCivil(int year, int month, int day) {
+      long y = month <= 2 ? year - 1 : year;
+      long era = (y >= 0 ? y : y - 399) / 400;
+      long yearOfEra = y - era * 400;
+      long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+      long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+      return era * 146097 + dayOfEra - 719468;
+   }
+
+   /**
+    * the calendar fields of an instant in GMT.
+    */
+   private static final class Fields {
+      final int year;
+      final int month;
+      final int day;
+      final int dayOfWeek;
+      final int hour;
+      final int minute;
+      final int second;
+      final int millis;
+
+      Fields(long epochMillis) {
+         long days = floorDiv(epochMillis, 86400000L);
+         int millisOfDay = (int) (epochMillis - days * 86400000L);
+         this.dayOfWeek = (int) ((days % 7 + 11) % 7); // 1970-01-01 was a thursday
+         this.hour = millisOfDay / 3600000;
+         this.minute = millisOfDay / 60000 % 60;
+         this.second = millisOfDay / 1000 % 60;
+         this.millis = millisOfDay % 1000;
+         long z = days + 719468;
+         long era = (z >= 0 ? z : z - 146096) / 146097;
+         long dayOfEra = z - era * 146097;
+         long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+         long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+         long mp = (5 * dayOfYear + 2) / 153;
+         this.day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+         this.month = (int) (mp < 10 ? mp + 3 : mp - 9);
+         this.year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+      }
+   }
+
+   private static long floorDiv(long x, long y) {
+      long q = x / y;
+      return (x % y != 0 && (x ^ y) < 0) ? q - 1 : q;
+   }
+
+   /**
+    * writes {@code EEE, dd MMM yyyy HH:mm:ss}, with a five digit year when {@code longYear}.
+    */
+   private static void rfc822Prefix(char[] out, Fields f, boolean longYear) {
+      append(out, 0, DAYS[f.dayOfWeek]);
+      out[3] = ',';
+      out[4] = ' ';
+      twoDigits(out, 5, f.day);
+      out[7] = ' ';
+      append(out, 8, MONTHS[f.month - 1]);
+      out[11] = ' ';
+      int i = 12;
+      if (longYear)
+         out[i++] = '0';
+      fourDigits(out, i, f.year);
+      out[i + 4] = ' ';
+      time(out, i + 5, f);
+   }
+
+   private static void isoDateTime(char[] out, Fields f) {
+      fourDigits(out, 0, f.year);
+      out[4] = '-';
+      twoDigits(out, 5, f.month);
+      out[7] = '-';
+      twoDigits(out, 8, f.day);
+      out[10] = 'T';
+      time(out, 11, f);
+   }
+
+   private static void time(char[] out, int index, Fields f) {
+      twoDigits(out, index, f.hour);
+      out[index + 2] = ':';
+      twoDigits(out, index + 3, f.minute);
+      out[index + 5] = ':';
+      twoDigits(out, index + 6, f.second);
+   }
+
+   private static void twoDigits(char[] out, int index, int value) {
+      out[index] = (char) ('0' + value / 10);
+      out[index + 1] = (char) ('0' + value % 10);
+   }
+
+   private static void fourDigits(char[] out, int index, int value) {
+      twoDigits(out, index, value / 100);
+      twoDigits(out, index + 2, value % 100);
+   }
+
+   private static void append(char[] out, int index, String value) {
+      value.getChars(0, value.length(), out, index);
+   }
+
+   /**
+    * @return the value of {@code count} ascii digits at {@code index}, or -1 if any isn't a digit
+    */
+   private static int digits(String s, int index, int count) {
+      if (index + count > s.length())
+         return -1;
+      int value = 0;
+      for (int i = index; i < index + count; i++) {
+         char c = s.charAt(i);
+         if (!isDigit(c))
+            return -1;
+         value = value * 10 + (c - '0');
+      }
+      return value;
+   }
+
+   private static boolean isDigit(char c) {
+      return c >= '0' && c <= '9';
+   }
+
+   private static int indexOf(String[] names, String s, int index) {
+      for (int i = 0; i < names.length; i++) {
+         if (s.startsWith(names[i], index))
+            return i;
+      }
+      return -1;
+   }
+
+   /**
+    * holds the text for the current second, as the no-arg formats are called for every request.
+    */
+   private abstract static class CurrentSecond {
+      private volatile Formatted current = new Formatted(Long.MIN_VALUE, null);
+
+      abstract String format(Date date);
+
+      String get() {
+         long second = floorDiv(System.currentTimeMillis(), 1000);
+         Formatted formatted = current;
+         if (formatted.second != second) {
+            formatted = new Formatted(second, format(new Date(second * 1000)));
+            current = formatted;
+         }
+         return formatted.text;
+      }
+   }
+
+   private static final class Formatted {
+      final long second;
+      final String text;
+
+      Formatted(long second, String text) {
+         this.second = second;
+         this.text = text;
+      }
+   }
+}
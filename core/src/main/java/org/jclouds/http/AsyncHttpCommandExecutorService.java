@@ -0,0 +1,32 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * An {@link HttpCommandExecutorService} whose driver does not need a thread per request in flight.
+ */
+public interface AsyncHttpCommandExecutorService extends HttpCommandExecutorService {
+
+   /**
+    * Sends the {@code command} and returns without waiting for the server. The future completes
+    * with the same response {@link #invoke(HttpCommand)} would have returned, after filters,
+    * retries and error handling, or fails with the exception it would have thrown.
+    */
+   ListenableFuture<HttpResponse> submit(HttpCommand command);
+}
@@ -16,6 +16,7 @@
  */
 package org.jclouds.http.functions;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.IOException;
@@ -66,7 +67,7 @@ public class ParseFirstJsonValueNamed<T> implements Function<HttpResponse, T> {
          return nothing();
       JsonReader reader = null;
       try {
-         reader = new JsonReader(new InputStreamReader(arg0.getPayload().getInput()));
+         reader = new JsonReader(new InputStreamReader(arg0.getPayload().getInput(), UTF_8));
          // in case keys are not in quotes
          reader.setLenient(true);
          AtomicReference<String> name = Atomics.newReference();
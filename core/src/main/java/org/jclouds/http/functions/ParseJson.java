@@ -16,10 +16,12 @@
  */
 package org.jclouds.http.functions;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static org.jclouds.http.HttpUtils.releasePayload;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.reflect.Type;
 
 import javax.annotation.Resource;
@@ -30,7 +32,6 @@ import org.jclouds.http.HttpResponse;
 import org.jclouds.http.HttpResponseException;
 import org.jclouds.json.Json;
 import org.jclouds.logging.Logger;
-import org.jclouds.util.Strings2;
 
 import com.google.common.base.Function;
 import com.google.inject.TypeLiteral;
@@ -76,10 +77,13 @@ public class ParseJson<T> implements Function<HttpResponse, T> {
       return (T) apply(stream, type.getType());
    }
 
+   /**
+    * parses the stream as it is read, so the body is never held in memory as a whole.
+    */
    @SuppressWarnings("unchecked")
    public <V> V apply(InputStream stream, Type type) throws IOException {
       try {
-         return (V) json.fromJson(Strings2.toStringAndClose(stream), type);
+         return (V) json.fromJson(new InputStreamReader(stream, UTF_8), type);
       } finally {
          if (stream != null)
             stream.close();
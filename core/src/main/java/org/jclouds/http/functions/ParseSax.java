@@ -202,6 +202,29 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
       }
    }
 
+   /**
+    * Receives each element of a listing as soon as its closing tag is parsed.
+    */
+   public interface ElementListener<E> {
+      void onElement(E element);
+   }
+
+   /**
+    * Implemented by handlers of large listings, such as bucket contents or images, that can hand each
+    * element to an {@link ElementListener} instead of accumulating it. While a listener is set, the
+    * collection in {@link HandlerWithResult#getResult()} stays empty, but any other fields of the
+    * result, such as markers, are still populated.
+    * 
+    * @see ParseSaxIterator
+    */
+   public interface StreamingHandler<E> {
+      /**
+       * @param listener
+       *           receives elements as they are parsed, or null to accumulate them in the result
+       */
+      StreamingHandler<E> streamTo(@Nullable ElementListener<? super E> listener);
+   }
+
    public abstract static class HandlerForGeneratedRequestWithResult<T> extends HandlerWithResult<T> {
 
       @Override
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseSax.ElementListener;
+import org.jclouds.http.functions.ParseSax.HandlerWithResult;
+import org.jclouds.http.functions.ParseSax.StreamingHandler;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+
+/**
+ * Iterates over the elements of an xml listing while the response is still being parsed.
+ * <p/>
+ * The response is parsed on the supplied executor, which blocks once {@code capacity} elements are
+ * waiting to be consumed, so memory stays bounded no matter how long the listing is. Errors raised
+ * by the parser are rethrown from {@link #hasNext()}. Callers that stop before the end must
+ * {@link #close()} the iterator to let the parse finish.
+ * <p/>
+ * Once the iterator is exhausted, {@link HandlerWithResult#getResult()} on the handler returns the
+ * rest of the document, for example the marker of the next page.
+ */
+public final class ParseSaxIterator<E> extends AbstractIterator<E> implements Closeable {
+
+   private static final Object END = new Object();
+   private static final long OFFER_MILLIS = 100;
+
+   public static <E, T, H extends HandlerWithResult<T> & StreamingHandler<E>> ParseSaxIterator<E> parse(
+         ParseSax.Factory factory, H handler, final HttpResponse response, Executor executor, int capacity) {
+      checkNotNull(response, "response");
+      checkArgument(capacity > 0, "capacity must be positive");
+      final ParseSaxIterator<E> iterator = new ParseSaxIterator<E>(capacity);
+      handler.streamTo(new ElementListener<E>() {
+         @Override
+         public void onElement(E element) {
+            if (!iterator.offer(element))
+               throw new CancellationException("iterator closed");
+         }
+      });
+      final ParseSax<T> parser = factory.create(handler);
+      executor.execute(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               parser.apply(response);
+            } catch (Throwable t) {
+               iterator.failure = t;
+            }
+            iterator.offer(END);
+         }
+      });
+      return iterator;
+   }
+
+   private final BlockingQueue<Object> queue;
+   private volatile Throwable failure;
+   private volatile boolean closed;
+
+   private ParseSaxIterator(int capacity) {
+      this.queue = new ArrayBlockingQueue<Object>(capacity);
+   }
+
+   /**
+    * waits for space in the queue, giving up once the consumer has closed the iterator.
+    */
+   private boolean offer(Object element) {
+      try {
+         while (!closed) {
+            if (queue.offer(element, OFFER_MILLIS, TimeUnit.MILLISECONDS))
+               return true;
+         }
+         return false;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   @Override
+   protected E computeNext() {
+      if (closed)
+         return endOfData();
+      Object next;
+      try {
+         next = queue.take();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      }
+      if (next != END)
+         return (E) next;
+      closed = true;
+      if (failure != null)
+         throw Throwables.propagate(failure);
+      return endOfData();
+   }
+
+   /**
+    * Stops the parse early, discarding any elements not yet consumed.
+    */
+   @Override
+   public void close() {
+      closed = true;
+      queue.clear();
+   }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static com.google.common.base.Throwables.propagateIfInstanceOf;
+import static com.google.common.util.concurrent.Futures.addCallback;
+import static org.jclouds.http.HttpUtils.checkRequestHasContentLengthOrChunkedEncoding;
+import static org.jclouds.http.HttpUtils.wirePayloadIfEnabled;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+import org.jclouds.http.AsyncHttpCommandExecutorService;
+import org.jclouds.http.HttpCommand;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.IOExceptionRetryHandler;
+import org.jclouds.http.handlers.DelegatingErrorHandler;
+import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.io.ContentMetadataCodec;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Base class for drivers that complete requests from an event loop instead of a blocked thread.
+ * <p>
+ * {@link #submit(HttpCommand)} runs the same filter, retry and error handling steps as
+ * {@link #invoke(HttpCommand)}, but each attempt only occupies a thread while it is being prepared.
+ * Responses are processed on the user executor, so that retry handlers and response parsers never
+ * run on the driver's io threads.
+ */
+public abstract class BaseAsyncHttpCommandExecutorService<Q> extends BaseHttpCommandExecutorService<Q> implements
+      AsyncHttpCommandExecutorService {
+
+   protected final ListeningExecutorService userExecutor;
+
+   protected BaseAsyncHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
+         DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
+         DelegatingErrorHandler errorHandler, HttpWire wire, ListeningExecutorService userExecutor) {
+      super(utils, contentMetadataCodec, retryHandler, ioRetryHandler, errorHandler, wire);
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+   }
+
+   @Override
+   public ListenableFuture<HttpResponse> submit(HttpCommand command) {
+      SettableFuture<HttpResponse> result = SettableFuture.create();
+      attempt(command, result);
+      return result;
+   }
+
+   private void attempt(final HttpCommand command, final SettableFuture<HttpResponse> result) {
+      HttpRequest request = command.getCurrentRequest();
+      Q nativeRequest = null;
+      ListenableFuture<HttpResponse> response;
+      try {
+         for (HttpRequestFilter filter : request.getFilters()) {
+            request = filter.filter(request);
+         }
+         checkRequestHasContentLengthOrChunkedEncoding(request,
+               "After filtering, the request has neither chunked encoding nor content length: " + request);
+         logger.debug("Sending request %s: %s", request.hashCode(), request.getRequestLine());
+         wirePayloadIfEnabled(wire, request);
+         utils.logRequest(headerLog, request, ">>");
+         nativeRequest = convert(request);
+         response = invokeAsync(nativeRequest);
+      } catch (Exception e) {
+         cleanup(nativeRequest);
+         retryOrFail(command, e, result);
+         return;
+      }
+      final HttpRequest sent = request;
+      final Q inFlight = nativeRequest;
+      addCallback(response, new FutureCallback<HttpResponse>() {
+         @Override
+         public void onSuccess(HttpResponse response) {
+            // like invoke(HttpCommand), every completion ends in cleanup, unless the response took
+            // ownership of the streams of the request
+            Q owned = inFlight;
+            try {
+               logger.debug("Receiving response %s: %s", sent.hashCode(), response.getStatusLine());
+               utils.logResponse(headerLog, response, "<<");
+               if (response.getPayload() != null && wire.enabled())
+                  wire.input(response);
+               owned = null;
+               if (response.getStatusCode() >= 300 && shouldContinue(command, response)) {
+                  attempt(command, result);
+                  return;
+               }
+            } catch (Throwable t) {
+               retryOrFail(command, t, result);
+               return;
+            } finally {
+               cleanup(owned);
+            }
+            if (command.getException() != null)
+               result.setException(command.getException());
+            else
+               result.set(response);
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            try {
+               retryOrFail(command, t, result);
+            } finally {
+               cleanup(inFlight);
+            }
+         }
+      }, userExecutor);
+   }
+
+   private void retryOrFail(HttpCommand command, Throwable t, SettableFuture<HttpResponse> result) {
+      if (!(t instanceof Exception)) {
+         result.setException(t);
+         return;
+      }
+      IOException ioe = getFirstThrowableOfType(t, IOException.class);
+      if (ioe != null && ioRetryHandler.shouldRetryRequest(command, ioe)) {
+         attempt(command, result);
+         return;
+      }
+      command.setException(new HttpResponseException(t.getMessage() + " connecting to "
+            + command.getCurrentRequest().getRequestLine(), command, null, t));
+      result.setException(command.getException());
+   }
+
+   /**
+    * Blocks on {@link #invokeAsync(Object)}, so that the synchronous {@link #invoke(HttpCommand)}
+    * shares the driver's connections.
+    */
+   @Override
+   protected HttpResponse invoke(Q nativeRequest) throws IOException, InterruptedException {
+      ListenableFuture<HttpResponse> response = invokeAsync(nativeRequest);
+      try {
+         return response.get();
+      } catch (InterruptedException e) {
+         response.cancel(true);
+         throw e;
+      } catch (ExecutionException e) {
+         propagateIfInstanceOf(e.getCause(), IOException.class);
+         throw propagate(e.getCause());
+      }
+   }
+
+   /**
+    * Sends the request, returning a future that completes once the status line and headers of
+    * the response have been read. The payload of the response may still be arriving.
+    */
+   protected abstract ListenableFuture<HttpResponse> invokeAsync(Q nativeRequest) throws IOException;
+
+}
@@ -35,6 +35,7 @@ import java.net.ProtocolException;
 import java.net.Proxy;
 import java.net.URI;
 import java.net.URL;
+import java.nio.channels.Channels;
 import java.util.List;
 import java.util.Map;
 
@@ -54,6 +55,7 @@ import org.jclouds.http.handlers.DelegatingRetryHandler;
 import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
+import org.jclouds.io.payloads.FileRegionPayload;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
@@ -295,6 +297,18 @@ public class JavaUrlHttpCommandExecutorService extends BaseHttpCommandExecutorSe
    void writePayloadToConnection(Payload payload, Object lengthDesc, HttpURLConnection connection) throws IOException {
       connection.setDoOutput(true);
       CountingOutputStream out = new CountingOutputStream(connection.getOutputStream());
+      FileRegionPayload region = FileRegionPayload.regionOf(payload);
+      if (region != null) {
+         // HttpURLConnection only exposes a stream, so the region is still copied here; drivers
+         // holding the socket channel hand it to the kernel instead
+         try {
+            region.transferTo(Channels.newChannel(out));
+         } catch (IOException e) {
+            logger.error(e, "error after writing %d/%s bytes to %s", out.getCount(), lengthDesc, connection.getURL());
+            throw e;
+         }
+         return;
+      }
       InputStream is = payload.openStream();
       try {
          ByteStreams.copy(is, out);
@@ -16,7 +16,16 @@
  */
 package org.jclouds.io;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
 import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.io.ByteSource;
 
@@ -30,4 +39,143 @@ public class ByteSources {
    public static ByteSource repeatingArrayByteSource(final byte[] input) {
       return ByteSource.concat(Iterables.cycle(ByteSource.wrap(input)));
    }
+
+   /**
+    * Create a ByteSource which reads the remaining bytes of a buffer. Streams and slices are views
+    * of the buffer, so no bytes are copied until they are read.
+    */
+   public static ByteSource wrap(ByteBuffer buffer) {
+      return new ByteBufferByteSource(checkNotNull(buffer, "buffer").slice());
+   }
+
+   /**
+    * Copy a stream into direct buffers outside the Java heap, allocated in chunks of at most
+    * {@code chunkSize} bytes. The stream is not closed.
+    */
+   public static ByteSource copyToDirectBuffers(InputStream input, int chunkSize) throws IOException {
+      checkNotNull(input, "input");
+      checkArgument(chunkSize > 0, "chunkSize must be positive");
+      ImmutableList.Builder<ByteSource> chunks = ImmutableList.builder();
+      byte[] transfer = new byte[Math.min(chunkSize, 64 * 1024)];
+      ByteBuffer chunk = null;
+      while (true) {
+         int read = input.read(transfer);
+         if (read == -1) {
+            break;
+         }
+         int offset = 0;
+         while (offset < read) {
+            if (chunk == null || !chunk.hasRemaining()) {
+               if (chunk != null) {
+                  chunks.add(finish(chunk));
+               }
+               chunk = ByteBuffer.allocateDirect(chunkSize);
+            }
+            int length = Math.min(read - offset, chunk.remaining());
+            chunk.put(transfer, offset, length);
+            offset += length;
+         }
+      }
+      if (chunk != null) {
+         chunks.add(finish(chunk));
+      }
+      List<ByteSource> sources = chunks.build();
+      return sources.size() == 1 ? sources.get(0) : ByteSource.concat(sources);
+   }
+
+   /** Flip a filled chunk, trimming it to an exactly sized buffer if it is mostly unused. */
+   private static ByteSource finish(ByteBuffer chunk) {
+      chunk.flip();
+      if (chunk.remaining() < chunk.capacity() / 2) {
+         ByteBuffer trimmed = ByteBuffer.allocateDirect(chunk.remaining());
+         trimmed.put(chunk);
+         trimmed.flip();
+         chunk = trimmed;
+      }
+      return wrap(chunk.asReadOnlyBuffer());
+   }
+
+   private static final class ByteBufferByteSource extends ByteSource {
+      private final ByteBuffer buffer;
+
+      ByteBufferByteSource(ByteBuffer buffer) {
+         this.buffer = buffer;
+      }
+
+      @Override
+      public InputStream openStream() {
+         return new ByteBufferInputStream(buffer.duplicate());
+      }
+
+      @Override
+      public long size() {
+         return buffer.remaining();
+      }
+
+      @Override
+      public boolean isEmpty() {
+         return !buffer.hasRemaining();
+      }
+
+      @Override
+      public ByteSource slice(long offset, long length) {
+         checkArgument(offset >= 0, "offset (%s) may not be negative", offset);
+         checkArgument(length >= 0, "length (%s) may not be negative", length);
+         ByteBuffer slice = buffer.duplicate();
+         int start = (int) Math.min(offset, slice.remaining());
+         slice.position(start);
+         slice.limit(start + (int) Math.min(length, slice.remaining()));
+         return new ByteBufferByteSource(slice.slice());
+      }
+
+      @Override
+      public byte[] read() {
+         byte[] bytes = new byte[buffer.remaining()];
+         buffer.duplicate().get(bytes);
+         return bytes;
+      }
+
+      @Override
+      public String toString() {
+         return "ByteSources.wrap(" + buffer + ")";
+      }
+   }
+
+   private static final class ByteBufferInputStream extends InputStream {
+      private final ByteBuffer buffer;
+
+      ByteBufferInputStream(ByteBuffer buffer) {
+         this.buffer = buffer;
+      }
+
+      @Override
+      public int read() {
+         return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) {
+         if (len == 0) {
+            return 0;
+         }
+         if (!buffer.hasRemaining()) {
+            return -1;
+         }
+         int count = Math.min(len, buffer.remaining());
+         buffer.get(b, off, count);
+         return count;
+      }
+
+      @Override
+      public long skip(long n) {
+         int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+         buffer.position(buffer.position() + count);
+         return count;
+      }
+
+      @Override
+      public int available() {
+         return buffer.remaining();
+      }
+   }
 }
@@ -49,4 +49,24 @@ public interface PayloadSlicer {
     * @return an {@link Iterable} of {@link Payload} instances
     */
    Iterable<Payload> slice(Payload input, long size);
+
+   /**
+    * Returns the slices of {@link #slice(Payload, long)}, reading them in one pass without holding
+    * more than {@code maxBuffers} of them in memory.
+    * <p/>
+    * Repeatable payloads are sliced by offset, as with {@link #slice(Payload, long, long)}. Other
+    * payloads are read into reusable buffers: each slice holds its buffer until it is
+    * {@link Payload#close() closed}, and asking for the next slice waits while all buffers are
+    * held. {@link Payload#release() Releasing} a slice does not give its buffer back, so it can be
+    * sent again after a request has released it.
+    *
+    * @param input
+    *           the {@link Payload} to be sliced
+    * @param size
+    *           the maximum size of each slice
+    * @param maxBuffers
+    *           how many slices of a payload that is not repeatable may be unclosed at once
+    */
+   Iterable<Payload> sliceSequentially(Payload input, long size, int maxBuffers);
+
 }
@@ -18,16 +18,19 @@ package org.jclouds.io.internal;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Singleton;
 
@@ -37,14 +40,16 @@ import org.jclouds.io.Payloads;
 import org.jclouds.io.PayloadSlicer;
 import org.jclouds.io.payloads.BaseMutableContentMetadata;
 import org.jclouds.io.payloads.ByteSourcePayload;
+import org.jclouds.io.payloads.FileRegionPayload;
 import org.jclouds.io.payloads.InputStreamPayload;
 
 import com.google.common.base.Charsets;
 import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
 import com.google.common.hash.HashCode;
 import com.google.common.io.ByteSource;
 import com.google.common.io.ByteStreams;
-import com.google.common.io.Files;
 
 @Singleton
 public class BasePayloadSlicer implements PayloadSlicer {
@@ -138,7 +143,9 @@ public class BasePayloadSlicer implements PayloadSlicer {
       checkArgument(offset >= 0, "offset is negative");
       checkArgument(length >= 0, "length is negative");
       Payload returnVal;
-      if (input.getRawContent() instanceof File) {
+      if (input instanceof FileRegionPayload) {
+         returnVal = doSlice((FileRegionPayload) input, offset, length);
+      } else if (input.getRawContent() instanceof File) {
          returnVal = doSlice((File) input.getRawContent(), offset, length);
       } else if (input.getRawContent() instanceof String) {
          returnVal = doSlice((String) input.getRawContent(), offset, length);
@@ -154,7 +161,16 @@ public class BasePayloadSlicer implements PayloadSlicer {
       return copyMetadataAndSetLength(input, returnVal, length);
    }
 
-   protected Payload doSlice(Payload content, long offset, long length) {
+   protected Payload doSlice(final Payload content, long offset, long length) {
+      if (content.isRepeatable()) {
+         // defer opening and skipping to each read of the slice
+         return doSlice(new ByteSource() {
+            @Override
+            public InputStream openStream() throws IOException {
+               return content.openStream();
+            }
+         }, offset, length);
+      }
       return doSlice(content.getInput(), offset, length);
    }
 
@@ -163,7 +179,12 @@ public class BasePayloadSlicer implements PayloadSlicer {
    }
 
    protected Payload doSlice(File content, long offset, long length) {
-      return doSlice(Files.asByteSource(content), offset, length);
+      return new FileRegionPayload(content, offset, length);
+   }
+
+   protected Payload doSlice(FileRegionPayload content, long offset, long length) {
+      checkArgument(offset + length <= content.getLength(), "slice ends after the region");
+      return doSlice(content.getRawContent(), content.getOffset() + offset, length);
    }
 
    protected Payload doSlice(InputStream content, long offset, long length) {
@@ -204,7 +225,9 @@ public class BasePayloadSlicer implements PayloadSlicer {
                                                        .contentMD5((HashCode) null)
                                                        .build();
       Object rawContent = input.getRawContent();
-      if (rawContent instanceof File) {
+      if (input instanceof FileRegionPayload) {
+         return doSlice((FileRegionPayload) input, meta);
+      } else if (rawContent instanceof File) {
          return doSlice((File) rawContent, meta);
       } else if (rawContent instanceof String) {
          return doSlice((String) rawContent, meta);
@@ -231,15 +254,165 @@ public class BasePayloadSlicer implements PayloadSlicer {
    }
 
    protected Iterable<Payload> doSlice(File rawContent, ContentMetadata meta) {
-      try {
-         return doSlice(new FileInputStream(rawContent), meta);
-      } catch (FileNotFoundException e) {
-         throw Throwables.propagate(e);
+      return doSlice(new FileRegionPayload(rawContent, 0, rawContent.length()), meta);
+   }
+
+   /**
+    * slices the region into regions of the same file, so that no part is read into memory
+    */
+   protected Iterable<Payload> doSlice(FileRegionPayload region, ContentMetadata meta) {
+      long size = checkNotNull(meta.getContentLength(), "content-length");
+      checkArgument(size > 0, "size must be positive but was: %s", size);
+      ImmutableList.Builder<Payload> parts = ImmutableList.builder();
+      for (long offset = 0; offset < region.getLength(); offset += size) {
+         long length = Math.min(size, region.getLength() - offset);
+         Payload part = doSlice(region.getRawContent(), region.getOffset() + offset, length);
+         part.setContentMetadata(BaseMutableContentMetadata.fromContentMetadata(meta.toBuilder()
+               .contentLength(length).build()));
+         parts.add(part);
       }
+      return parts.build();
    }
 
    protected Iterable<Payload> doSlice(InputStream rawContent, ContentMetadata meta) {
       return new PayloadIterator(rawContent, meta);
    }
 
+   @Override
+   public Iterable<Payload> sliceSequentially(final Payload input, final long size, int maxBuffers) {
+      checkNotNull(input, "input");
+      checkArgument(size > 0, "size must be positive but was: %s", size);
+      checkArgument(maxBuffers > 0, "maxBuffers must be positive but was: %s", maxBuffers);
+      final Long length = input.getContentMetadata().getContentLength();
+      if (input.isRepeatable() && length != null) {
+         return new Iterable<Payload>() {
+            @Override
+            public Iterator<Payload> iterator() {
+               return new AbstractIterator<Payload>() {
+                  private long offset;
+
+                  @Override
+                  protected Payload computeNext() {
+                     if (offset >= length)
+                        return endOfData();
+                     Payload slice = slice(input, offset, Math.min(size, length - offset));
+                     offset += size;
+                     return slice;
+                  }
+               };
+            }
+         };
+      }
+      checkArgument(size <= Integer.MAX_VALUE, "slices of %s bytes cannot be buffered", size);
+      ContentMetadata meta = BaseMutableContentMetadata.fromContentMetadata(input.getContentMetadata())
+                                                       .toBuilder()
+                                                       .contentLength(size)
+                                                       .contentMD5((HashCode) null)
+                                                       .build();
+      return new PooledPayloadIterator(input, meta, new BufferPool((int) size, maxBuffers));
+   }
+
+   /**
+    * Buffers of one size, of which at most {@code maxBuffers} are handed out at once.
+    */
+   private static final class BufferPool {
+      private final int bufferSize;
+      private final Semaphore available;
+      private final Queue<byte[]> free = new ConcurrentLinkedQueue<byte[]>();
+
+      BufferPool(int bufferSize, int maxBuffers) {
+         this.bufferSize = bufferSize;
+         this.available = new Semaphore(maxBuffers);
+      }
+
+      byte[] acquire() throws InterruptedException {
+         available.acquire();
+         byte[] buffer = free.poll();
+         return buffer != null ? buffer : new byte[bufferSize];
+      }
+
+      void release(byte[] buffer) {
+         free.add(buffer);
+         available.release();
+      }
+   }
+
+   /**
+    * Reads the payload once, filling a buffer of the pool for each slice.
+    */
+   private static final class PooledPayloadIterator extends AbstractIterator<Payload> implements Iterable<Payload> {
+      private final Payload input;
+      private final ContentMetadata meta;
+      private final BufferPool pool;
+      private InputStream stream;
+
+      PooledPayloadIterator(Payload input, ContentMetadata meta, BufferPool pool) {
+         this.input = input;
+         this.meta = meta;
+         this.pool = pool;
+      }
+
+      @Override
+      public Iterator<Payload> iterator() {
+         return this;
+      }
+
+      @Override
+      protected Payload computeNext() {
+         byte[] buffer = null;
+         try {
+            if (stream == null)
+               stream = input.openStream();
+            buffer = pool.acquire();
+            int count = ByteStreams.read(stream, buffer, 0, buffer.length);
+            if (count == 0) {
+               pool.release(buffer);
+               stream.close();
+               return endOfData();
+            }
+            Payload slice = new PooledPayload(buffer, count, pool);
+            slice.setContentMetadata(BaseMutableContentMetadata.fromContentMetadata(meta.toBuilder()
+                  .contentLength((long) count).build()));
+            return slice;
+         } catch (IOException e) {
+            if (buffer != null)
+               pool.release(buffer);
+            throw Throwables.propagate(e);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+         }
+      }
+   }
+
+   /**
+    * A slice whose buffer goes back to its pool once closed. Releasing it only closes its open
+    * streams: requests release their payload whenever it is replaced, as wire logging does, and the
+    * slice must stay readable for a retry.
+    */
+   private static final class PooledPayload extends ByteSourcePayload {
+      private final byte[] buffer;
+      private final BufferPool pool;
+      private final AtomicBoolean closed = new AtomicBoolean();
+
+      PooledPayload(byte[] buffer, int count, BufferPool pool) {
+         super(ByteSource.wrap(buffer).slice(0, count));
+         this.buffer = buffer;
+         this.pool = pool;
+      }
+
+      @Override
+      public InputStream openStream() throws IOException {
+         checkState(!closed.get(), "slice was closed");
+         return super.openStream();
+      }
+
+      @Override
+      public void close() {
+         release();
+         if (closed.compareAndSet(false, true))
+            pool.release(buffer);
+      }
+   }
+
 }
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.io.payloads;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.jclouds.io.Payload;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+
+/**
+ * A repeatable payload of {@code length} bytes of a file, starting at {@code offset}.
+ * <p/>
+ * Drivers that can write a file channel directly, such as with {@link FileChannel#transferTo},
+ * recognize this payload through {@link #regionOf} and send it without copying it through the heap.
+ */
+public class FileRegionPayload extends BasePayload<File> {
+   private final long offset;
+   private final long length;
+
+   public FileRegionPayload(File content, long offset, long length) {
+      super(checkNotNull(content, "content"));
+      checkArgument(offset >= 0, "offset is negative");
+      checkArgument(length >= 0, "length is negative");
+      this.offset = offset;
+      this.length = length;
+      getContentMetadata().setContentLength(length);
+   }
+
+   /**
+    * @return the file region {@code payload} is backed by, or null if it is not backed by a file
+    */
+   @Nullable
+   @SuppressWarnings("deprecation")
+   public static FileRegionPayload regionOf(Payload payload) {
+      if (payload instanceof DelegatingPayload)
+         return regionOf(DelegatingPayload.class.cast(payload).getDelegate());
+      if (payload instanceof FileRegionPayload)
+         return FileRegionPayload.class.cast(payload);
+      if (payload instanceof FilePayload) {
+         File file = FilePayload.class.cast(payload).getRawContent();
+         return new FileRegionPayload(file, 0, file.length());
+      }
+      return null;
+   }
+
+   public long getOffset() {
+      return offset;
+   }
+
+   public long getLength() {
+      return length;
+   }
+
+   /**
+    * @return a channel on the file, positioned at {@link #getOffset()}
+    */
+   public FileChannel openChannel() throws IOException {
+      FileInputStream in = new FileInputStream(content);
+      try {
+         return in.getChannel().position(offset);
+      } catch (IOException e) {
+         Closeables.close(in, true);
+         throw e;
+      }
+   }
+
+   @Override
+   public InputStream openStream() throws IOException {
+      FileInputStream in = new FileInputStream(content);
+      try {
+         in.getChannel().position(offset);
+      } catch (IOException e) {
+         Closeables.close(in, true);
+         throw e;
+      }
+      return ByteStreams.limit(in, length);
+   }
+
+   /**
+    * Writes the region to {@code target}, letting the operating system copy the bytes where
+    * {@code target} is a socket or file.
+    * 
+    * @return the number of bytes written
+    */
+   public long transferTo(WritableByteChannel target) throws IOException {
+      FileChannel channel = openChannel();
+      try {
+         long transferred = 0;
+         while (transferred < length) {
+            long count = channel.transferTo(offset + transferred, length - transferred, target);
+            if (count <= 0 && channel.size() <= offset + transferred)
+               throw new IOException(String.format("%s ended after %s of %s bytes", content, transferred, length));
+            transferred += count;
+         }
+         return transferred;
+      } finally {
+         Closeables.close(channel, true);
+      }
+   }
+}
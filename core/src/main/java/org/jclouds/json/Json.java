@@ -16,6 +16,7 @@
  */
 package org.jclouds.json;
 
+import java.io.Reader;
 import java.lang.reflect.Type;
 
 public interface Json {
@@ -43,4 +44,16 @@ public interface Json {
     */
    <T> T fromJson(String json, Class<T> classOfT);
 
+   /**
+    * Deserialize the generic object from a stream of json, without buffering the whole document. If
+    * the object is not a generic type, use {@link #fromJson(Reader, Class)}. The reader is not closed.
+    */
+   <T> T fromJson(Reader json, Type type);
+
+   /**
+    * Deserialize the object from a stream of json, without buffering the whole document. If the
+    * object is a generic type, use {@link #fromJson(Reader, Type)}. The reader is not closed.
+    */
+   <T> T fromJson(Reader json, Class<T> classOfT);
+
 }
@@ -229,11 +229,7 @@ public class GsonModule extends AbstractModule {
       }
 
       protected Date parseDate(String toParse) {
-         try {
-            return dateService.iso8601DateParse(toParse);
-         } catch (RuntimeException e) {
-            return dateService.iso8601SecondsDateParse(toParse);
-         }
+         return dateService.iso8601DateOrSecondsDateParse(toParse);
       }
 
    }
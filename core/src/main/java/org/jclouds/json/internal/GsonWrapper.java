@@ -16,6 +16,7 @@
  */
 package org.jclouds.json.internal;
 
+import java.io.Reader;
 import java.lang.reflect.Type;
 
 import javax.inject.Inject;
@@ -47,6 +48,17 @@ public class GsonWrapper extends ForwardingObject implements Json  {
       return gson.fromJson(json, classOfT);
    }
 
+   @SuppressWarnings("unchecked")
+   @Override
+   public <T> T fromJson(Reader json, Type type) {
+      return (T) gson.fromJson(json, type);
+   }
+
+   @Override
+   public <T> T fromJson(Reader json, Class<T> classOfT) {
+      return gson.fromJson(json, classOfT);
+   }
+
    @Override
    public String toJson(Object src) {
       return gson.toJson(src);
@@ -33,6 +33,7 @@ import javax.annotation.Resource;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.io.PayloadEnclosing;
+import org.jclouds.io.payloads.FileRegionPayload;
 import org.jclouds.logging.Logger;
 
 import com.google.common.io.ByteStreams;
@@ -127,10 +128,15 @@ public abstract class Wire {
    public void output(PayloadEnclosing request) {
       Payload oldContent = request.getPayload();
       Payload wiredPayload;
-      try {
-         wiredPayload = newPayload(output(oldContent.getRawContent()));
-      } catch (UnsupportedOperationException e) {
+      if (oldContent instanceof FileRegionPayload) {
+         // the raw content is the whole file, not the region
          wiredPayload = newPayload(output(oldContent.getInput()));
+      } else {
+         try {
+            wiredPayload = newPayload(output(oldContent.getRawContent()));
+         } catch (UnsupportedOperationException e) {
+            wiredPayload = newPayload(output(oldContent.getInput()));
+         }
       }
       copyPayloadMetadata(oldContent, wiredPayload);
       request.setPayload(wiredPayload);
@@ -19,13 +19,18 @@ package org.jclouds.rest.internal;
 import static com.google.common.base.Objects.equal;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Throwables.propagate;
+import static com.google.common.util.concurrent.Futures.addCallback;
+import static com.google.common.util.concurrent.Futures.transform;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 
 import java.util.concurrent.Callable;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
+import javax.inject.Named;
 
+import org.jclouds.http.AsyncHttpCommandExecutorService;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpRequest;
@@ -40,6 +45,10 @@ import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import com.google.common.base.Optional;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.common.util.concurrent.TimeLimiter;
 
 public class InvokeHttpMethod implements Function<Invocation, Object> {
@@ -52,21 +61,27 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
    private final TimeLimiter timeLimiter;
    private final Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest;
    private final InvocationConfig config;
+   private final ListeningExecutorService userExecutor;
 
    @Inject
    @VisibleForTesting
    InvokeHttpMethod(Function<Invocation, HttpRequest> annotationProcessor,
          HttpCommandExecutorService http, Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest,
-         TimeLimiter timeLimiter, InvocationConfig config) {
+         TimeLimiter timeLimiter, InvocationConfig config,
+         @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
       this.annotationProcessor = annotationProcessor;
       this.http = http;
       this.timeLimiter = timeLimiter;
       this.transformerForRequest = transformerForRequest;
       this.config = config;
+      this.userExecutor = userExecutor;
    }
 
    @Override
    public Object apply(Invocation in) {
+      if (in.getInvokable().getReturnType().getRawType().equals(ListenableFuture.class)) {
+         return submit(in);
+      }
       Optional<Long> timeoutNanos = config.getTimeoutNanos(in);
       if (timeoutNanos.isPresent()) {
          return invokeWithTimeout(in, timeoutNanos.get());
@@ -98,6 +113,52 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
       }
    }
 
+   /**
+    * submits the {@linkplain HttpCommand} associated with {@code invocation}
+    * without waiting for the response. When {@code http} is an
+    * {@link AsyncHttpCommandExecutorService}, no thread is held while the
+    * request is in flight; otherwise the command is invoked on the user
+    * executor. The response is parsed and the fallback applied on the user
+    * executor. Timeouts are not applied: callers choose how long to wait on
+    * the returned future.
+    */
+   public ListenableFuture<?> submit(Invocation invocation) {
+      String commandName = config.getCommandName(invocation);
+      final HttpCommand command = toCommand(commandName, invocation);
+      Function<HttpResponse, ?> transformer = getTransformer(commandName, command);
+      final org.jclouds.Fallback<?> fallback = getFallback(commandName, invocation, command);
+
+      logger.debug(">> submitting %s", commandName);
+      ListenableFuture<HttpResponse> response;
+      if (http instanceof AsyncHttpCommandExecutorService) {
+         response = AsyncHttpCommandExecutorService.class.cast(http).submit(command);
+      } else {
+         response = userExecutor.submit(new Callable<HttpResponse>() {
+            @Override
+            public HttpResponse call() {
+               return http.invoke(command);
+            }
+         });
+      }
+      final SettableFuture<Object> result = SettableFuture.create();
+      addCallback(transform(response, transformer, userExecutor), new FutureCallback<Object>() {
+         @Override
+         public void onSuccess(Object value) {
+            result.set(value);
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            try {
+               result.set(fallback.createOrPropagate(t));
+            } catch (Throwable e) {
+               result.setException(e);
+            }
+         }
+      }, userExecutor);
+      return result;
+   }
+
    /**
     * calls {@link #invoke(Invocation)}, timing out after the specified time
     * limit. If the target method call finished before the limit is reached, the
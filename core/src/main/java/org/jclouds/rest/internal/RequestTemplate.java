@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static java.util.Arrays.asList;
+import static org.jclouds.http.HttpUtils.tryFindHttpMethod;
+import static org.jclouds.reflect.Reflection2.getInvokableParameters;
+
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.FormParam;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+
+import org.jclouds.http.HttpRequestFilter;
+import org.jclouds.http.options.HttpRequestOptions;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.rest.Binder;
+import org.jclouds.rest.annotations.BinderParam;
+import org.jclouds.rest.annotations.Endpoint;
+import org.jclouds.rest.annotations.EndpointParam;
+import org.jclouds.rest.annotations.FormParams;
+import org.jclouds.rest.annotations.Headers;
+import org.jclouds.rest.annotations.MapBinder;
+import org.jclouds.rest.annotations.OverrideRequestFilters;
+import org.jclouds.rest.annotations.ParamParser;
+import org.jclouds.rest.annotations.PartParam;
+import org.jclouds.rest.annotations.PayloadParam;
+import org.jclouds.rest.annotations.PayloadParams;
+import org.jclouds.rest.annotations.QueryParams;
+import org.jclouds.rest.annotations.RequestFilters;
+import org.jclouds.rest.annotations.SkipEncoding;
+import org.jclouds.rest.annotations.VirtualHost;
+import org.jclouds.rest.annotations.WrapWith;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Chars;
+import com.google.common.reflect.Invokable;
+import com.google.common.reflect.Parameter;
+
+/**
+ * Everything {@link RestAnnotationProcessor} needs to know about the annotations of an
+ * {@link Invokable} and its declaring type, read once and cached. Building a request then only
+ * substitutes the invocation arguments into the template.
+ * <p/>
+ * Injected collaborators such as filters and binders are kept as classes, as the same invokable
+ * is used with many injectors.
+ */
+final class RequestTemplate {
+
+   private static final LoadingCache<Invokable<?, ?>, RequestTemplate> templates = CacheBuilder.newBuilder().build(
+         new CacheLoader<Invokable<?, ?>, RequestTemplate>() {
+            @Override
+            public RequestTemplate load(Invokable<?, ?> invokable) {
+               return new RequestTemplate(invokable);
+            }
+         });
+
+   static RequestTemplate of(Invokable<?, ?> invokable) {
+      return templates.getUnchecked(invokable);
+   }
+
+   /**
+    * A key and value pair declared by {@link Headers}, {@link QueryParams} or {@link FormParams}.
+    */
+   static final class Constant {
+      final String key;
+      final String value;
+      final boolean isNull;
+      final boolean hasTokens;
+
+      private Constant(String key, String value, boolean isNull) {
+         this.key = key;
+         this.value = value;
+         this.isNull = isNull;
+         this.hasTokens = value.indexOf('{') != -1;
+      }
+   }
+
+   /**
+    * A parameter of the invokable along with what its annotations ask for.
+    */
+   static final class Param {
+      final int index;
+      final String key;
+      final Class<?> rawType;
+      final boolean nullable;
+      @Nullable
+      final ParamParser parser;
+      @Nullable
+      final Class<? extends Binder> binder;
+      @Nullable
+      final Class<? extends Function<Object, URI>> endpointParser;
+      @Nullable
+      final PartParam partParam;
+
+      private Param(Parameter parameter, @Nullable String key) {
+         this.index = parameter.hashCode(); // guava issue 1243
+         this.key = key;
+         this.rawType = parameter.getType().getRawType();
+         this.nullable = parameter.isAnnotationPresent(Nullable.class);
+         this.parser = parameter.getAnnotation(ParamParser.class);
+         this.binder = parameter.isAnnotationPresent(BinderParam.class) ? parameter.getAnnotation(BinderParam.class)
+               .value() : null;
+         this.endpointParser = parameter.isAnnotationPresent(EndpointParam.class) ? parameter.getAnnotation(
+               EndpointParam.class).parser() : null;
+         this.partParam = parameter.getAnnotation(PartParam.class);
+      }
+   }
+
+   final Invokable<?, ?> invokable;
+   /** absent when there is no http method annotation, null when there are several */
+   @Nullable
+   final Optional<String> httpMethod;
+   final List<Class<? extends HttpRequestFilter>> filters;
+   @Nullable
+   final Class<? extends Annotation> endpoint;
+   final List<Param> endpointParams;
+   final List<String> paths;
+   @Nullable
+   final List<Character> skipEncoding;
+   final List<Constant> formParams;
+   final List<Constant> queryParams;
+   final List<Constant> headers;
+   @Nullable
+   final List<String> produces;
+   final boolean virtualHost;
+   final List<Param> pathParamArgs;
+   final List<Param> formParamArgs;
+   final List<Param> queryParamArgs;
+   final List<Param> headerParamArgs;
+   final List<Param> payloadParamArgs;
+   final List<Param> partParamArgs;
+   final List<Param> binderParamArgs;
+   final Set<Integer> indexesOfOptions;
+   @Nullable
+   final Class<? extends org.jclouds.rest.MapBinder> mapBinder;
+   final boolean payloadAnnotation;
+   @Nullable
+   final String wrapWith;
+   @Nullable
+   final PayloadParams payloadParams;
+   final int parameterCount;
+
+   private RequestTemplate(Invokable<?, ?> invokable) {
+      this.invokable = invokable;
+      Class<?> type = invokable.getOwnerType().getRawType();
+      List<Parameter> parameters = getInvokableParameters(invokable);
+      this.parameterCount = parameters.size();
+
+      Optional<String> httpMethod;
+      try {
+         httpMethod = tryFindHttpMethod(invokable);
+      } catch (IllegalStateException e) {
+         httpMethod = null;
+      }
+      this.httpMethod = httpMethod;
+
+      ImmutableList.Builder<Class<? extends HttpRequestFilter>> filters = ImmutableList.builder();
+      if (type.isAnnotationPresent(RequestFilters.class) && !(invokable.isAnnotationPresent(RequestFilters.class)
+            && invokable.isAnnotationPresent(OverrideRequestFilters.class)))
+         filters.addAll(asList(type.getAnnotation(RequestFilters.class).value()));
+      if (invokable.isAnnotationPresent(RequestFilters.class))
+         filters.addAll(asList(invokable.getAnnotation(RequestFilters.class).value()));
+      this.filters = filters.build();
+
+      if (invokable.isAnnotationPresent(Endpoint.class))
+         this.endpoint = invokable.getAnnotation(Endpoint.class).value();
+      else if (type.isAnnotationPresent(Endpoint.class))
+         this.endpoint = type.getAnnotation(Endpoint.class).value();
+      else
+         this.endpoint = null;
+
+      ImmutableList.Builder<String> paths = ImmutableList.builder();
+      if (type.isAnnotationPresent(Path.class))
+         paths.add(type.getAnnotation(Path.class).value());
+      if (invokable.isAnnotationPresent(Path.class))
+         paths.add(invokable.getAnnotation(Path.class).value());
+      this.paths = paths.build();
+
+      if (invokable.isAnnotationPresent(SkipEncoding.class))
+         this.skipEncoding = Chars.asList(invokable.getAnnotation(SkipEncoding.class).value());
+      else if (type.isAnnotationPresent(SkipEncoding.class))
+         this.skipEncoding = Chars.asList(type.getAnnotation(SkipEncoding.class).value());
+      else
+         this.skipEncoding = null;
+
+      ImmutableList.Builder<Constant> formParams = ImmutableList.builder();
+      if (type.isAnnotationPresent(FormParams.class))
+         addConstants(formParams, type.getAnnotation(FormParams.class).keys(),
+               type.getAnnotation(FormParams.class).values(), FormParams.NULL);
+      if (invokable.isAnnotationPresent(FormParams.class))
+         addConstants(formParams, invokable.getAnnotation(FormParams.class).keys(),
+               invokable.getAnnotation(FormParams.class).values(), FormParams.NULL);
+      this.formParams = formParams.build();
+
+      ImmutableList.Builder<Constant> queryParams = ImmutableList.builder();
+      if (type.isAnnotationPresent(QueryParams.class))
+         addConstants(queryParams, type.getAnnotation(QueryParams.class).keys(),
+               type.getAnnotation(QueryParams.class).values(), QueryParams.NULL);
+      if (invokable.isAnnotationPresent(QueryParams.class))
+         addConstants(queryParams, invokable.getAnnotation(QueryParams.class).keys(),
+               invokable.getAnnotation(QueryParams.class).values(), QueryParams.NULL);
+      this.queryParams = queryParams.build();
+
+      ImmutableList.Builder<Constant> headers = ImmutableList.builder();
+      if (type.isAnnotationPresent(Headers.class))
+         addConstants(headers, type.getAnnotation(Headers.class).keys(), type.getAnnotation(Headers.class).values(),
+               null);
+      if (invokable.isAnnotationPresent(Headers.class))
+         addConstants(headers, invokable.getAnnotation(Headers.class).keys(),
+               invokable.getAnnotation(Headers.class).values(), null);
+      this.headers = headers.build();
+
+      if (invokable.isAnnotationPresent(Produces.class))
+         this.produces = ImmutableList.copyOf(invokable.getAnnotation(Produces.class).value());
+      else if (type.isAnnotationPresent(Produces.class))
+         this.produces = ImmutableList.copyOf(type.getAnnotation(Produces.class).value());
+      else
+         this.produces = null;
+
+      this.virtualHost = type.isAnnotationPresent(VirtualHost.class) || invokable.isAnnotationPresent(VirtualHost.class);
+
+      ImmutableList.Builder<Param> endpointParams = ImmutableList.builder();
+      ImmutableList.Builder<Param> pathParamArgs = ImmutableList.builder();
+      ImmutableList.Builder<Param> formParamArgs = ImmutableList.builder();
+      ImmutableList.Builder<Param> queryParamArgs = ImmutableList.builder();
+      ImmutableList.Builder<Param> headerParamArgs = ImmutableList.builder();
+      ImmutableList.Builder<Param> payloadParamArgs = ImmutableList.builder();
+      ImmutableList.Builder<Param> partParamArgs = ImmutableList.builder();
+      ImmutableList.Builder<Param> binderParams = ImmutableList.builder();
+      ImmutableList.Builder<Param> wrapWithParams = ImmutableList.builder();
+      ImmutableSet.Builder<Integer> indexesOfOptions = ImmutableSet.builder();
+      for (Parameter param : parameters) {
+         if (param.isAnnotationPresent(EndpointParam.class))
+            endpointParams.add(new Param(param, null));
+         if (param.isAnnotationPresent(PathParam.class))
+            pathParamArgs.add(new Param(param, param.getAnnotation(PathParam.class).value()));
+         if (param.isAnnotationPresent(FormParam.class))
+            formParamArgs.add(new Param(param, param.getAnnotation(FormParam.class).value()));
+         if (param.isAnnotationPresent(QueryParam.class))
+            queryParamArgs.add(new Param(param, param.getAnnotation(QueryParam.class).value()));
+         if (param.isAnnotationPresent(HeaderParam.class))
+            headerParamArgs.add(new Param(param, param.getAnnotation(HeaderParam.class).value()));
+         if (param.isAnnotationPresent(PayloadParam.class))
+            payloadParamArgs.add(new Param(param, param.getAnnotation(PayloadParam.class).value()));
+         if (param.isAnnotationPresent(PartParam.class))
+            partParamArgs.add(new Param(param, param.getAnnotation(PartParam.class).name()));
+         if (param.isAnnotationPresent(BinderParam.class))
+            binderParams.add(new Param(param, null));
+         else if (param.isAnnotationPresent(WrapWith.class))
+            wrapWithParams.add(new Param(param, param.getAnnotation(WrapWith.class).value()));
+         Class<?> rawType = param.getType().getRawType();
+         if (HttpRequestOptions.class.isAssignableFrom(rawType) || HttpRequestOptions[].class.isAssignableFrom(rawType))
+            indexesOfOptions.add(param.hashCode());
+      }
+      this.endpointParams = endpointParams.build();
+      this.pathParamArgs = pathParamArgs.build();
+      this.formParamArgs = formParamArgs.build();
+      this.queryParamArgs = queryParamArgs.build();
+      this.headerParamArgs = headerParamArgs.build();
+      this.payloadParamArgs = payloadParamArgs.build();
+      this.partParamArgs = partParamArgs.build();
+      // binders run before json wrappers, as they always have
+      this.binderParamArgs = binderParams.addAll(wrapWithParams.build()).build();
+      this.indexesOfOptions = indexesOfOptions.build();
+
+      this.mapBinder = invokable.isAnnotationPresent(MapBinder.class) ? invokable.getAnnotation(MapBinder.class)
+            .value() : null;
+      this.payloadAnnotation = invokable.isAnnotationPresent(org.jclouds.rest.annotations.Payload.class);
+      this.wrapWith = invokable.isAnnotationPresent(WrapWith.class) ? invokable.getAnnotation(WrapWith.class).value()
+            : null;
+      this.payloadParams = invokable.getAnnotation(PayloadParams.class);
+   }
+
+   private static void addConstants(ImmutableList.Builder<Constant> constants, String[] keys, String[] values,
+         @Nullable String nullValue) {
+      for (int i = 0; i < keys.length; i++) {
+         constants.add(new Constant(keys[i], values[i], values[i].equals(nullValue)));
+      }
+   }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.suppliers;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Supplier;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Supplies the session cached for the current key, such as an authentication token for the current credentials,
+ * and renews it before it expires.
+ * <p/>
+ * Once a session is within {@code margin} of the expiry date it carries, {@link LoadingCache#refresh} is requested
+ * and the old session keeps being returned until the new one has loaded. If the cache was built with
+ * {@link CacheLoader#asyncReloading}, the renewal happens in the background and callers never wait on it; the cache
+ * also makes sure only one renewal is in flight at a time. Only a session that has actually expired is renewed
+ * synchronously, and callers that find it expired at the same time share that single load.
+ * <p/>
+ * While the same session keeps being returned after a renewal was requested, that renewal is either still loading
+ * or has failed, so further renewals of that session are only requested after a backoff that starts at one second
+ * and doubles up to a minute.
+ * <p/>
+ * A session whose lifetime is shorter than the margin is not renewed early, as that would only return another
+ * session that is due, but it is still renewed synchronously once it has expired. Sessions without an expiry date,
+ * and sessions that have already expired when first seen, such as due to clock skew, are left to the cache's own
+ * eviction policy.
+ */
+public class RefreshBeforeExpirySupplier<K, V> implements Supplier<V> {
+
+   private static final long INITIAL_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(1);
+   private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+   private final LoadingCache<K, V> cache;
+   private final Supplier<K> key;
+   private final Function<? super V, Date> expires;
+   private final long marginMillis;
+   private volatile Observed<V> observed;
+
+   private static final class Observed<V> {
+      private final V session;
+      /** whether the session had more than the margin left when first seen */
+      private final boolean refreshEarly;
+      /** whether the session had not expired yet when first seen */
+      private final boolean renewWhenExpired;
+      /** when the next renewal of this session may be requested, guarded by this */
+      private long nextRefreshMillis = Long.MIN_VALUE;
+      /** guarded by this */
+      private long backoffMillis = INITIAL_BACKOFF_MILLIS;
+
+      private Observed(V session, boolean refreshEarly, boolean renewWhenExpired) {
+         this.session = session;
+         this.refreshEarly = refreshEarly;
+         this.renewWhenExpired = renewWhenExpired;
+      }
+
+      /**
+       * @return true if no renewal of this session was requested within the current backoff, which then doubles
+       */
+      private synchronized boolean shouldRefresh(long now) {
+         if (now < nextRefreshMillis)
+            return false;
+         nextRefreshMillis = now + backoffMillis;
+         backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+         return true;
+      }
+   }
+
+   /**
+    * @param expires
+    *           returns when the session expires, or {@code null} if it does not carry an expiry date
+    */
+   public RefreshBeforeExpirySupplier(LoadingCache<K, V> cache, Supplier<K> key, Function<? super V, Date> expires,
+         long margin, TimeUnit unit) {
+      this.cache = checkNotNull(cache, "cache");
+      this.key = checkNotNull(key, "key");
+      this.expires = checkNotNull(expires, "expires");
+      checkArgument(margin >= 0, "margin must be positive or zero");
+      this.marginMillis = unit.toMillis(margin);
+   }
+
+   @Override
+   public V get() {
+      K currentKey = key.get();
+      V session = cache.getUnchecked(currentKey);
+      long now = currentTimeMillis();
+      long remaining = remainingMillis(session, now);
+      Observed<V> last = observe(session, remaining);
+      if (remaining > marginMillis)
+         return session;
+      if (remaining > 0) {
+         if (last.refreshEarly && last.shouldRefresh(now))
+            cache.refresh(currentKey);
+         return session;
+      }
+      if (!last.renewWhenExpired)
+         return session;
+      synchronized (this) {
+         // another caller may have renewed it while we waited
+         V current = cache.getUnchecked(currentKey);
+         if (current != session)
+            return current;
+         cache.invalidate(currentKey);
+         return cache.getUnchecked(currentKey);
+      }
+   }
+
+   /**
+    * Remembers how much time the most recently seen session had left when it was first seen, and when its renewal
+    * was last requested.
+    */
+   private Observed<V> observe(V session, long remaining) {
+      Observed<V> last = observed;
+      if (last == null || last.session != session) {
+         last = new Observed<V>(session, remaining > marginMillis, remaining > 0);
+         observed = last;
+      }
+      return last;
+   }
+
+   private long remainingMillis(V session, long now) {
+      Date expiry = expires.apply(session);
+      return expiry == null ? Long.MAX_VALUE : expiry.getTime() - now;
+   }
+
+   @VisibleForTesting
+   long currentTimeMillis() {
+      return System.currentTimeMillis();
+   }
+
+   @Override
+   public String toString() {
+      return MoreObjects.toStringHelper(this).add("key", key)
+            .add("marginMillis", marginMillis).toString();
+   }
+}
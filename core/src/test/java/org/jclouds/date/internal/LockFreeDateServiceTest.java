@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.date.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.jclouds.date.DateService;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Checks {@code LockFreeDateService} gives the same results as {@code SimpleDateFormatDateService}.
+ */
+@Test(groups = "unit", testName = "LockFreeDateServiceTest")
+public class LockFreeDateServiceTest {
+   private final DateService expected = new SimpleDateFormatDateService();
+   private final DateService dateService = new LockFreeDateService();
+
+   private static List<Date> dates() {
+      List<Date> dates = Lists.newArrayList(new Date(0), new Date(-1), new Date(1000), new Date(1236823207000l),
+            new Date(951782400000l), // 2000-02-29
+            new Date(4107456000000l), // 2100-02-28
+            new Date(-11676096000000l), // 1600-01-01
+            new Date(-11676096000001l), new Date(253402300799999l), new Date(253402300800000l),
+            new Date(-62135596800000l)); // 0001-01-01
+      Random random = new Random(1);
+      for (int i = 0; i < 2000; i++)
+         dates.add(new Date(-2208988800000l + (long) (random.nextDouble() * 6311433600000l)));
+      return dates;
+   }
+
+   public void testFormatsMatch() {
+      for (Date date : dates()) {
+         assertEquals(dateService.iso8601DateFormat(date), expected.iso8601DateFormat(date));
+         assertEquals(dateService.iso8601SecondsDateFormat(date), expected.iso8601SecondsDateFormat(date));
+         assertEquals(dateService.rfc822DateFormat(date), expected.rfc822DateFormat(date));
+         assertEquals(dateService.rfc1123DateFormat(date), expected.rfc1123DateFormat(date));
+         assertEquals(dateService.cDateFormat(date), expected.cDateFormat(date));
+      }
+   }
+
+   public void testParsesFormattedDates() {
+      for (Date date : dates()) {
+         Date seconds = new Date(date.getTime() / 1000 * 1000);
+         assertEquals(dateService.iso8601DateParse(expected.iso8601DateFormat(date)), date);
+         assertEquals(dateService.iso8601DateOrSecondsDateParse(expected.iso8601DateFormat(date)), date);
+         assertEquals(dateService.iso8601SecondsDateParse(expected.iso8601SecondsDateFormat(date)),
+               expected.iso8601SecondsDateParse(expected.iso8601SecondsDateFormat(date)));
+         assertEquals(dateService.rfc822DateParse(expected.rfc822DateFormat(seconds)),
+               expected.rfc822DateParse(expected.rfc822DateFormat(seconds)));
+         assertEquals(dateService.rfc1123DateParse(expected.rfc1123DateFormat(seconds)),
+               expected.rfc1123DateParse(expected.rfc1123DateFormat(seconds)));
+         assertEquals(dateService.cDateParse(expected.cDateFormat(seconds)),
+               expected.cDateParse(expected.cDateFormat(seconds)));
+      }
+   }
+
+   public void testIso8601ParsesMatch() {
+      for (String text : ImmutableList.of("2009-03-12T02:00:07.000Z", "2009-03-12T02:00:07Z",
+            "2009-03-12T06:00:07+0400", "2009-03-12T06:00:07+04:00", "2009-03-12T06:00:07+04",
+            "2011-05-26T02:14:13-04:00", "2011-05-25 16:12:21.656+0000", "2011-11-07T11:19:13.38225Z",
+            "2009-02-03T05:26:32.612278", "2009-03-12T02:00:07", "2009-03-12T02:00:07.5Z",
+            "2012-11-26T17:32:31UTC+0000", "2012-11-14T21:51:28UTC", "2009-02-30T02:00:07.000Z",
+            "2009-03-12T24:00:07.000Z", "2009-03-12", "1599-12-31T23:59:59.999Z", "-1", "foo")) {
+         assertSameResult(text, new Parse() {
+            public Date apply(DateService service, String text) {
+               return service.iso8601DateParse(text);
+            }
+         });
+         assertSameResult(text, new Parse() {
+            public Date apply(DateService service, String text) {
+               return service.iso8601SecondsDateParse(text);
+            }
+         });
+         assertSameResult(text, new Parse() {
+            public Date apply(DateService service, String text) {
+               return service.iso8601DateOrSecondsDateParse(text);
+            }
+         });
+      }
+   }
+
+   public void testHeaderParsesMatch() {
+      for (String text : ImmutableList.of("Thu, 01 Dec 1994 16:00:00 GMT", "Thu, 1 Dec 1994 16:00:00 GMT",
+            "Sun, 01 Dec 1994 16:00:00 GMT", "Thu, 01 Dec 1994 16:00:00 +0100", "Thu, 01 Dec 01994 16:00:00 -0130",
+            "Thu, 31 Feb 1994 16:00:00 GMT", "thu, 01 dec 1994 16:00:00 GMT", "Thu Mar 12 02:00:07 +0000 2009",
+            "Thu Mar 12 02:00:07 -0700 2009", "Thu Mar 12 02:00:07 GMT 2009", "wrong")) {
+         assertSameResult(text, new Parse() {
+            public Date apply(DateService service, String text) {
+               return service.rfc822DateParse(text);
+            }
+         });
+         assertSameResult(text, new Parse() {
+            public Date apply(DateService service, String text) {
+               return service.rfc1123DateParse(text);
+            }
+         });
+         assertSameResult(text, new Parse() {
+            public Date apply(DateService service, String text) {
+               return service.cDateParse(text);
+            }
+         });
+      }
+   }
+
+   public void testNowIsReusedWithinTheSecond() {
+      String first = dateService.rfc822DateFormat();
+      String second = dateService.rfc822DateFormat();
+      if (first.equals(second))
+         assertSame(second, first);
+   }
+
+   private interface Parse {
+      Date apply(DateService service, String text);
+   }
+
+   private void assertSameResult(String text, Parse parse) {
+      Object expectedResult;
+      try {
+         expectedResult = parse.apply(expected, text);
+      } catch (RuntimeException e) {
+         expectedResult = e.getClass();
+      }
+      Object result;
+      try {
+         result = parse.apply(dateService, text);
+      } catch (RuntimeException e) {
+         result = e.getClass();
+      }
+      assertEquals(result, expectedResult, text);
+   }
+}
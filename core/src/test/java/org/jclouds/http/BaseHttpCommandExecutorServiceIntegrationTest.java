@@ -36,6 +36,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.jclouds.io.ByteStreams2;
 import org.jclouds.io.Payload;
+import org.jclouds.io.payloads.FileRegionPayload;
 import org.jclouds.util.Strings2;
 import org.jclouds.utils.TestUtils;
 import org.testng.annotations.BeforeClass;
@@ -292,6 +293,35 @@ public abstract class BaseHttpCommandExecutorServiceIntegrationTest extends Base
       }
    }
 
+   @Test
+   public void testUploadFileRegion() throws Exception {
+      MockWebServer server = mockWebServer(new MD5CheckDispatcher());
+      IntegrationTestClient client = client(server.getUrl("/").toString());
+
+      File f = null;
+      try {
+         f = File.createTempFile("jclouds", "tmp");
+         TestUtils.randomByteSource().slice(0, 3 * 1024 * 1024).copyTo(Files.asByteSink(f));
+         long offset = 1024 * 1024 + 17;
+         long length = 1024 * 1024;
+
+         Payload payload = new FileRegionPayload(f, offset, length);
+         byte[] digest = asByteSource(f).slice(offset, length).hash(md5()).asBytes();
+         String strDigest = base64().encode(digest);
+         payload.getContentMetadata().setContentMD5(digest);
+         Multimap<String, String> headers = client.postPayloadAndReturnHeaders("", payload);
+         RecordedRequest request = server.takeRequest();
+         assertEquals(request.getHeader("Content-Length"), String.valueOf(length));
+         assertEquals(headers.get("x-Content-MD5"), ImmutableList.of(strDigest));
+      } finally {
+         if (f != null && f.exists()) {
+            f.delete();
+         }
+         close(client, true);
+         server.shutdown();
+      }
+   }
+
    @Test
    public void testPost() throws Exception {
       MockWebServer server = mockWebServer(new MockResponse().setBody("fooPOST"));
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.functions.ParseSax.ElementListener;
+import org.jclouds.javax.annotation.Nullable;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.xml.sax.Attributes;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests behavior of {@code ParseSaxIterator}
+ */
+// NOTE:without testName, this will not call @Before* and fail w/NPE during surefire
+@Test(groups = "unit", testName = "ParseSaxIteratorTest")
+public class ParseSaxIteratorTest extends BaseHandlerTest {
+
+   public static class ItemHandler extends ParseSax.HandlerWithResult<Integer> implements
+         ParseSax.StreamingHandler<String> {
+      private final StringBuilder currentText = new StringBuilder();
+      private ElementListener<? super String> listener;
+      private int count;
+
+      @Override
+      public ItemHandler streamTo(@Nullable ElementListener<? super String> listener) {
+         this.listener = listener;
+         return this;
+      }
+
+      @Override
+      public void startElement(String uri, String name, String qName, Attributes attrs) {
+         currentText.setLength(0);
+      }
+
+      @Override
+      public void endElement(String uri, String name, String qName) {
+         if (qName.equals("item")) {
+            count++;
+            listener.onElement(currentText.toString());
+         }
+      }
+
+      @Override
+      public void characters(char ch[], int start, int length) {
+         currentText.append(ch, start, length);
+      }
+
+      @Override
+      public Integer getResult() {
+         return count;
+      }
+   }
+
+   private ExecutorService executor;
+
+   @BeforeClass
+   void setUpExecutor() {
+      executor = Executors.newSingleThreadExecutor();
+   }
+
+   @AfterClass(alwaysRun = true)
+   void tearDownExecutor() throws InterruptedException {
+      executor.shutdownNow();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+   }
+
+   private static HttpResponse items(int count) {
+      StringBuilder xml = new StringBuilder("<items>");
+      for (int i = 0; i < count; i++)
+         xml.append("<item>").append(i).append("</item>");
+      return HttpResponse.builder().statusCode(200).payload(xml.append("</items>").toString()).build();
+   }
+
+   public void testIteratesAllElementsThroughSmallerQueue() {
+      ItemHandler handler = new ItemHandler();
+      ParseSaxIterator<String> iterator = ParseSaxIterator.parse(factory, handler, items(10), executor, 2);
+      assertEquals(ImmutableList.copyOf(iterator), ImmutableList.of("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"));
+      assertEquals(handler.getResult(), Integer.valueOf(10));
+   }
+
+   public void testCloseStopsParse() throws Exception {
+      ItemHandler handler = new ItemHandler();
+      ParseSaxIterator<String> iterator = ParseSaxIterator.parse(factory, handler, items(1000), executor, 1);
+      assertEquals(iterator.next(), "0");
+      iterator.close();
+      assertFalse(iterator.hasNext());
+      // the parse gives up, freeing the executor for the next task
+      executor.submit(new Runnable() {
+         public void run() {
+         }
+      }).get(10, TimeUnit.SECONDS);
+   }
+
+   public void testParseErrorIsRethrown() {
+      HttpResponse malformed = HttpResponse.builder().statusCode(200).payload("<items><item>0</item><item>").build();
+      ParseSaxIterator<String> iterator = ParseSaxIterator.parse(factory, new ItemHandler(), malformed, executor, 2);
+      assertEquals(iterator.next(), "0");
+      try {
+         iterator.hasNext();
+         fail("expected the parse error");
+      } catch (RuntimeException e) {
+         // expected
+      }
+   }
+}
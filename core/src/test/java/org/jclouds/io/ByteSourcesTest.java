@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+
+@Test(testName = "ByteSourcesTest")
+public class ByteSourcesTest {
+
+   private static byte[] randomBytes(int size) {
+      byte[] bytes = new byte[size];
+      new Random(size).nextBytes(bytes);
+      return bytes;
+   }
+
+   public void testWrapReadsRemainingBytesWithoutMovingTheBuffer() throws IOException {
+      ByteBuffer buffer = ByteBuffer.wrap(randomBytes(100));
+      buffer.position(10);
+      ByteSource source = ByteSources.wrap(buffer);
+
+      assertEquals(source.size(), 90);
+      assertEquals(source.read(), ByteSource.wrap(buffer.array()).slice(10, 90).read());
+      assertEquals(source.read(), source.read());
+      assertEquals(buffer.position(), 10);
+   }
+
+   public void testWrapSliceMatchesArraySlice() throws IOException {
+      byte[] bytes = randomBytes(1000);
+      ByteSource expected = ByteSource.wrap(bytes);
+      ByteSource actual = ByteSources.wrap(ByteBuffer.wrap(bytes));
+
+      assertEquals(actual.slice(0, 1000).read(), expected.slice(0, 1000).read());
+      assertEquals(actual.slice(123, 456).read(), expected.slice(123, 456).read());
+      assertEquals(actual.slice(900, 500).read(), expected.slice(900, 500).read());
+      assertEquals(actual.slice(2000, 10).size(), 0);
+      assertEquals(actual.slice(100, 800).slice(50, 20).read(), expected.slice(150, 20).read());
+   }
+
+   public void testWrapStreamSkipsWithoutReading() throws IOException {
+      byte[] bytes = randomBytes(100);
+      InputStream in = ByteSources.wrap(ByteBuffer.wrap(bytes)).openStream();
+
+      assertEquals(in.skip(40), 40);
+      assertEquals(in.available(), 60);
+      assertEquals(in.read(), bytes[40] & 0xFF);
+      assertEquals(in.skip(1000), 59);
+      assertEquals(in.read(), -1);
+   }
+
+   public void testCopyToDirectBuffersSpansChunks() throws IOException {
+      byte[] bytes = randomBytes(10 * 1024 + 7);
+      ByteSource source = ByteSources.copyToDirectBuffers(new ByteArrayInputStream(bytes), 1024);
+
+      assertEquals(source.size(), bytes.length);
+      assertEquals(source.read(), bytes);
+      assertEquals(ByteStreams.toByteArray(source.openStream()), bytes);
+      assertEquals(source.slice(1000, 2000).read(), ByteSource.wrap(bytes).slice(1000, 2000).read());
+   }
+
+   public void testCopyToDirectBuffersOfEmptyStream() throws IOException {
+      ByteSource source = ByteSources.copyToDirectBuffers(new ByteArrayInputStream(new byte[0]), 1024);
+
+      assertTrue(source.isEmpty());
+      assertEquals(source.read(), new byte[0]);
+   }
+}
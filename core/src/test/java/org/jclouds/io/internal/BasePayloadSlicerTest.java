@@ -21,13 +21,22 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.internal.HttpWire;
 import org.jclouds.io.ByteSources;
 import org.jclouds.io.Payload;
 import org.jclouds.io.PayloadSlicer;
 import org.jclouds.io.payloads.ByteSourcePayload;
+import org.jclouds.io.payloads.FileRegionPayload;
 import org.jclouds.io.payloads.InputStreamPayload;
 import org.jclouds.util.Strings2;
 import org.testng.annotations.Test;
@@ -35,6 +44,7 @@ import org.testng.annotations.Test;
 import com.google.common.base.Charsets;
 import com.google.common.collect.Iterables;
 import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
 
 @Test
 public class BasePayloadSlicerTest {
@@ -81,4 +91,105 @@ public class BasePayloadSlicerTest {
       assertEquals(Iterables.size(slicer.slice(payload, 100)), 11);
       assertEquals(Iterables.size(slicer.slice(payload, 53)), 20);
    }
+
+   @Test
+   public void testFileSlicesAreRegionsOfTheFile() throws IOException {
+      File file = File.createTempFile("slicer", ".txt");
+      try {
+         Files.write("aaaaaaaaaabbbbbbbbbbccccc", file, Charsets.US_ASCII);
+         PayloadSlicer slicer = new BasePayloadSlicer();
+         Payload payload = new FileRegionPayload(file, 5, 20);
+
+         Payload slice = slicer.slice(payload, 5, 10);
+         assertTrue(slice instanceof FileRegionPayload, slice.getClass().getName());
+         assertEquals(((FileRegionPayload) slice).getOffset(), 10);
+         assertEquals(Strings2.toStringAndClose(slice.openStream()), "bbbbbbbbbb");
+
+         Iterator<Payload> iter = slicer.slice(payload, 8).iterator();
+         assertEquals(Strings2.toStringAndClose(iter.next().openStream()), "aaaaabbb");
+         assertEquals(Strings2.toStringAndClose(iter.next().openStream()), "bbbbbbbc");
+         Payload last = iter.next();
+         assertEquals(last.getContentMetadata().getContentLength(), Long.valueOf(4));
+         assertEquals(Strings2.toStringAndClose(last.openStream()), "cccc");
+         assertFalse(iter.hasNext());
+      } finally {
+         file.delete();
+      }
+   }
+
+
+   @Test
+   public void testPooledSlicesOfStreamReuseClosedBuffers() throws IOException {
+      PayloadSlicer slicer = new BasePayloadSlicer();
+      Payload payload = new InputStreamPayload(new ByteArrayInputStream("aaaaaaaaaabbbbbbbbbbccccc".getBytes(Charsets.US_ASCII)));
+
+      Iterator<Payload> iter = slicer.sliceSequentially(payload, 10, 1).iterator();
+
+      Payload first = iter.next();
+      assertEquals(Strings2.toStringAndClose(first.openStream()), "aaaaaaaaaa");
+      first.close();
+      Payload second = iter.next();
+      assertEquals(Strings2.toStringAndClose(second.openStream()), "bbbbbbbbbb");
+      second.close();
+      Payload last = iter.next();
+      assertEquals(last.getContentMetadata().getContentLength(), Long.valueOf(5));
+      assertEquals(Strings2.toStringAndClose(last.openStream()), "ccccc");
+      last.close();
+      assertFalse(iter.hasNext());
+   }
+
+   @Test
+   public void testPooledSliceStaysReadableAfterWireLoggingReleasedIt() throws IOException {
+      PayloadSlicer slicer = new BasePayloadSlicer();
+      Payload payload = new InputStreamPayload(new ByteArrayInputStream("aaaaaaaaaabbbbbbbbbb".getBytes(Charsets.US_ASCII)));
+      Payload first = slicer.sliceSequentially(payload, 10, 1).iterator().next();
+
+      HttpRequest request = HttpRequest.builder().method("PUT").endpoint("http://localhost/part").payload(first)
+            .build();
+      new HttpWire().output(request);
+      assertEquals(Strings2.toStringAndClose(request.getPayload().openStream()), "aaaaaaaaaa");
+      request.setPayload("replaced");
+
+      assertEquals(Strings2.toStringAndClose(first.openStream()), "aaaaaaaaaa");
+      first.close();
+   }
+
+   @Test
+   public void testPooledSlicesWaitForABuffer() throws Exception {
+      PayloadSlicer slicer = new BasePayloadSlicer();
+      Payload payload = new InputStreamPayload(new ByteArrayInputStream("aaaaaaaaaabbbbbbbbbb".getBytes(Charsets.US_ASCII)));
+      final Iterator<Payload> iter = slicer.sliceSequentially(payload, 10, 1).iterator();
+      Payload first = iter.next();
+
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         Future<Payload> second = executor.submit(new Callable<Payload>() {
+            @Override
+            public Payload call() {
+               return iter.next();
+            }
+         });
+         Thread.sleep(100);
+         assertFalse(second.isDone(), "slice was read while the only buffer was held");
+         first.close();
+         assertEquals(Strings2.toStringAndClose(second.get(1, TimeUnit.SECONDS).openStream()), "bbbbbbbbbb");
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testPooledSlicesOfRepeatablePayloadAreSlicedByOffset() throws IOException {
+      PayloadSlicer slicer = new BasePayloadSlicer();
+      Payload payload = new ByteSourcePayload(ByteSource.wrap("aaaaaaaaaabbbbbbbbbbccccc".getBytes(Charsets.US_ASCII)));
+      payload.getContentMetadata().setContentLength(25L);
+
+      Iterable<Payload> slices = slicer.sliceSequentially(payload, 10, 1);
+
+      assertEquals(Iterables.size(slices), 3);
+      Payload last = Iterables.getLast(slices);
+      assertEquals(last.getContentMetadata().getContentLength(), Long.valueOf(5));
+      assertEquals(Strings2.toStringAndClose(last.openStream()), "ccccc");
+   }
+
 }
@@ -20,6 +20,7 @@ import static com.google.common.io.BaseEncoding.base16;
 import static com.google.common.primitives.Bytes.asList;
 import static org.testng.Assert.assertEquals;
 
+import java.io.StringReader;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -84,6 +85,20 @@ public class JsonTest {
       assertEquals(obj2, obj);
       assertEquals(json.toJson(obj2), json.toJson(obj));
    }
+
+   public void testObjectNoDefaultConstructorFromReader() {
+      ObjectNoDefaultConstructor obj = new ObjectNoDefaultConstructor("foo", 1);
+      ObjectNoDefaultConstructor obj2 = json.fromJson(new StringReader(json.toJson(obj)),
+            ObjectNoDefaultConstructor.class);
+      assertEquals(obj2, obj);
+   }
+
+   public void testMapFromReader() {
+      Map<String, List<String>> map = json.fromJson(new StringReader("{\"foo\":[\"bar\",\"baz\"]}"),
+            new TypeLiteral<Map<String, List<String>>>() {
+            }.getType());
+      assertEquals(map, ImmutableMap.of("foo", ImmutableList.of("bar", "baz")));
+   }
    
    static class ExcludeStringValue implements DefaultExclusionStrategy {
       public boolean shouldSkipClass(Class<?> clazz) {
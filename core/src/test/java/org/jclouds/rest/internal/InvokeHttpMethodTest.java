@@ -16,6 +16,9 @@
  */
 package org.jclouds.rest.internal;
 
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
@@ -27,6 +30,7 @@ import java.util.concurrent.TimeUnit;
 
 import javax.inject.Named;
 
+import org.jclouds.http.AsyncHttpCommandExecutorService;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpRequest;
@@ -53,9 +57,13 @@ public class InvokeHttpMethodTest {
    public interface ThingApi {
       @Named("ns:get")
       HttpResponse get();
+
+      @Named("ns:submit")
+      ListenableFuture<HttpResponse> submit();
    }
 
    private Invocation get;
+   private Invocation submit;
    private HttpRequest getRequest = HttpRequest.builder().method("GET").endpoint("http://get").build();
    private HttpCommand getCommand = new HttpCommand(getRequest);
    private Function<Invocation, HttpRequest> toRequest;
@@ -63,7 +71,8 @@ public class InvokeHttpMethodTest {
    @BeforeClass
    void setupInvocations() throws SecurityException, NoSuchMethodException {
       get = Invocation.create(method(ThingApi.class, "get"), ImmutableList.of());
-      toRequest = Functions.forMap(ImmutableMap.of(get, getRequest));
+      submit = Invocation.create(method(ThingApi.class, "submit"), ImmutableList.of());
+      toRequest = Functions.forMap(ImmutableMap.of(get, getRequest, submit, getRequest));
    }
 
    @SuppressWarnings("unchecked")
@@ -88,9 +97,13 @@ public class InvokeHttpMethodTest {
       fallback = createMock(org.jclouds.Fallback.class);
       config = createMock(InvocationConfig.class);
       future = createMock(ListenableFuture.class);
-      invokeHttpMethod = new InvokeHttpMethod(toRequest, http, transformerForRequest, timeLimiter, config);
-      expect(config.getCommandName(get)).andReturn("ns:get");
-      expect(config.getFallback(get)).andReturn(fallback);
+      invokeHttpMethod = new InvokeHttpMethod(toRequest, http, transformerForRequest, timeLimiter, config,
+            newDirectExecutorService());
+   }
+
+   private void expectCommandAndFallback(Invocation invocation, String commandName) {
+      expect(config.getCommandName(invocation)).andReturn(commandName);
+      expect(config.getFallback(invocation)).andReturn(fallback);
    }
 
    @AfterMethod
@@ -99,6 +112,7 @@ public class InvokeHttpMethodTest {
    }
 
    public void testMethodWithTimeoutRunsTimeLimiter() throws Exception {
+      expectCommandAndFallback(get, "ns:get");
       expect(config.getTimeoutNanos(get)).andReturn(Optional.of(250000000l));
       InvokeAndTransform invoke = invokeHttpMethod.new InvokeAndTransform("ns:get", getCommand);
       expect(timeLimiter.callWithTimeout(invoke, 250000000, TimeUnit.NANOSECONDS, true)).andReturn(response);
@@ -107,6 +121,7 @@ public class InvokeHttpMethodTest {
    }
 
    public void testMethodWithNoTimeoutCallGetDirectly() throws Exception {
+      expectCommandAndFallback(get, "ns:get");
       expect(config.getTimeoutNanos(get)).andReturn(Optional.<Long> absent());
       expect(http.invoke(new HttpCommand(getRequest))).andReturn(response);
       replay(http, timeLimiter, fallback, config, future);
@@ -116,6 +131,7 @@ public class InvokeHttpMethodTest {
    private HttpResponse fallbackResponse = HttpResponse.builder().statusCode(200).payload("bar").build();
 
    public void testDirectCallRunsFallbackCreateOrPropagate() throws Exception {
+      expectCommandAndFallback(get, "ns:get");
       IllegalStateException exception = new IllegalStateException();
       expect(config.getTimeoutNanos(get)).andReturn(Optional.<Long> absent());
       expect(http.invoke(new HttpCommand(getRequest))).andThrow(exception);
@@ -125,6 +141,7 @@ public class InvokeHttpMethodTest {
    }
 
    public void testTimeLimitedRunsFallbackCreateOrPropagate() throws Exception {
+      expectCommandAndFallback(get, "ns:get");
       IllegalStateException exception = new IllegalStateException();
       expect(config.getTimeoutNanos(get)).andReturn(Optional.of(250000000l));
       InvokeAndTransform invoke = invokeHttpMethod.new InvokeAndTransform("ns:get", getCommand);
@@ -133,4 +150,37 @@ public class InvokeHttpMethodTest {
       replay(http, timeLimiter, fallback, config, future);
       assertEquals(invokeHttpMethod.apply(get), fallbackResponse);
    }
+
+   public void testFutureMethodSubmitsToAsyncExecutor() throws Exception {
+      AsyncHttpCommandExecutorService asyncHttp = createMock(AsyncHttpCommandExecutorService.class);
+      invokeHttpMethod = new InvokeHttpMethod(toRequest, asyncHttp, transformerForRequest, timeLimiter, config,
+            newDirectExecutorService());
+      expectCommandAndFallback(submit, "ns:submit");
+      ListenableFuture<HttpResponse> submitted = immediateFuture(response);
+      expect(asyncHttp.submit(new HttpCommand(getRequest))).andReturn(submitted);
+      replay(asyncHttp, http, timeLimiter, fallback, config, future);
+      assertEquals(ListenableFuture.class.cast(invokeHttpMethod.apply(submit)).get(), response);
+      verify(asyncHttp);
+   }
+
+   public void testFutureMethodInvokesSyncExecutorOnUserThreads() throws Exception {
+      expectCommandAndFallback(submit, "ns:submit");
+      expect(http.invoke(new HttpCommand(getRequest))).andReturn(response);
+      replay(http, timeLimiter, fallback, config, future);
+      assertEquals(ListenableFuture.class.cast(invokeHttpMethod.apply(submit)).get(), response);
+   }
+
+   public void testFutureMethodRunsFallbackCreateOrPropagate() throws Exception {
+      IllegalStateException exception = new IllegalStateException();
+      AsyncHttpCommandExecutorService asyncHttp = createMock(AsyncHttpCommandExecutorService.class);
+      invokeHttpMethod = new InvokeHttpMethod(toRequest, asyncHttp, transformerForRequest, timeLimiter, config,
+            newDirectExecutorService());
+      expectCommandAndFallback(submit, "ns:submit");
+      ListenableFuture<HttpResponse> failed = immediateFailedFuture(exception);
+      expect(asyncHttp.submit(new HttpCommand(getRequest))).andReturn(failed);
+      expect(fallback.createOrPropagate(exception)).andReturn(fallbackResponse);
+      replay(asyncHttp, http, timeLimiter, fallback, config, future);
+      assertEquals(ListenableFuture.class.cast(invokeHttpMethod.apply(submit)).get(), fallbackResponse);
+      verify(asyncHttp);
+   }
 }
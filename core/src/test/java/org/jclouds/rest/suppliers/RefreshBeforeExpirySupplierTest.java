@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.suppliers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
+
+@Test(groups = "unit", testName = "RefreshBeforeExpirySupplierTest", singleThreaded = true)
+public class RefreshBeforeExpirySupplierTest {
+
+   private static final long TTL = TimeUnit.HOURS.toMillis(1);
+   private static final long MARGIN = TimeUnit.MINUTES.toMillis(5);
+
+   private final AtomicLong now = new AtomicLong(1000000);
+   private final AtomicInteger loads = new AtomicInteger();
+   private final AtomicBoolean failLoads = new AtomicBoolean();
+   private final List<Runnable> pendingReloads = Lists.newArrayList();
+
+   /** sessions are their own expiry date */
+   private final CacheLoader<String, Date> loader = new CacheLoader<String, Date>() {
+      @Override
+      public Date load(String key) {
+         loads.incrementAndGet();
+         if (failLoads.get())
+            throw new IllegalStateException("renewal failed");
+         return new Date(now.get() + TTL);
+      }
+   };
+
+   private final Executor queueReloads = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+         pendingReloads.add(command);
+      }
+   };
+
+   @BeforeMethod
+   void reset() {
+      now.set(1000000);
+      loads.set(0);
+      failLoads.set(false);
+      pendingReloads.clear();
+   }
+
+   public void testReturnsCachedSessionOutsideMargin() {
+      RefreshBeforeExpirySupplier<String, Date> supplier = supplier(Functions.<Date> identity());
+      Date session = supplier.get();
+      now.addAndGet(TTL - MARGIN - 1);
+      assertSame(supplier.get(), session);
+      assertEquals(loads.get(), 1);
+      assertEquals(pendingReloads.size(), 0);
+   }
+
+   public void testRenewsInBackgroundWithinMarginAndKeepsOldSessionMeanwhile() {
+      RefreshBeforeExpirySupplier<String, Date> supplier = supplier(Functions.<Date> identity());
+      Date session = supplier.get();
+      now.addAndGet(TTL - MARGIN + 1);
+      assertSame(supplier.get(), session);
+      assertSame(supplier.get(), session);
+      assertEquals(loads.get(), 1);
+      // the cache only keeps one reload in flight per key
+      assertEquals(pendingReloads.size(), 1);
+
+      pendingReloads.remove(0).run();
+      assertEquals(loads.get(), 2);
+      assertEquals(supplier.get(), new Date(now.get() + TTL));
+   }
+
+   public void testBacksOffAfterFailedRenewal() {
+      RefreshBeforeExpirySupplier<String, Date> supplier = supplier(Functions.<Date> identity());
+      Date session = supplier.get();
+      now.addAndGet(TTL - MARGIN + 1);
+      assertSame(supplier.get(), session);
+      failLoads.set(true);
+      pendingReloads.remove(0).run();
+      assertEquals(loads.get(), 2);
+
+      // the failed renewal left the old session in place; it is not retried on every call
+      assertSame(supplier.get(), session);
+      assertEquals(pendingReloads.size(), 0);
+      now.addAndGet(TimeUnit.SECONDS.toMillis(1));
+      assertSame(supplier.get(), session);
+      assertEquals(pendingReloads.size(), 1);
+      pendingReloads.remove(0).run();
+
+      // and waits twice as long after each further failure
+      now.addAndGet(TimeUnit.SECONDS.toMillis(1));
+      assertSame(supplier.get(), session);
+      assertEquals(pendingReloads.size(), 0);
+      now.addAndGet(TimeUnit.SECONDS.toMillis(1));
+      failLoads.set(false);
+      assertSame(supplier.get(), session);
+      pendingReloads.remove(0).run();
+      assertEquals(supplier.get(), new Date(now.get() + TTL));
+   }
+
+   public void testSessionAlreadyDueWhenIssuedIsNotRenewed() {
+      RefreshBeforeExpirySupplier<String, Date> supplier = supplier(new Function<Date, Date>() {
+         @Override
+         public Date apply(Date session) {
+            // the server's clock is ahead of ours
+            return new Date(session.getTime() - TTL - 1);
+         }
+      });
+      Date session = supplier.get();
+      assertSame(supplier.get(), session);
+      assertEquals(loads.get(), 1);
+      assertEquals(pendingReloads.size(), 0);
+   }
+
+   public void testSessionShorterThanMarginIsRenewedOnceExpired() {
+      RefreshBeforeExpirySupplier<String, Date> supplier = supplier(new Function<Date, Date>() {
+         @Override
+         public Date apply(Date session) {
+            // the session lives for half the margin
+            return new Date(session.getTime() - TTL + MARGIN / 2);
+         }
+      });
+      Date session = supplier.get();
+      now.addAndGet(MARGIN / 2 - 1);
+      assertSame(supplier.get(), session);
+      assertEquals(loads.get(), 1);
+      assertEquals(pendingReloads.size(), 0);
+
+      now.addAndGet(1);
+      Date renewed = supplier.get();
+      assertEquals(renewed, new Date(now.get() + TTL));
+      assertEquals(loads.get(), 2);
+      assertEquals(pendingReloads.size(), 0);
+   }
+
+   public void testRenewsExpiredSessionBeforeReturning() {
+      RefreshBeforeExpirySupplier<String, Date> supplier = supplier(Functions.<Date> identity());
+      Date session = supplier.get();
+      now.addAndGet(TTL);
+      Date renewed = supplier.get();
+      assertEquals(renewed, new Date(now.get() + TTL));
+      assertEquals(loads.get(), 2);
+      assertEquals(session.equals(renewed), false);
+   }
+
+   public void testSessionWithoutExpiryIsNotRenewed() {
+      RefreshBeforeExpirySupplier<String, Date> supplier = supplier(Functions.<Date> constant(null));
+      Date session = supplier.get();
+      now.addAndGet(TTL * 2);
+      assertSame(supplier.get(), session);
+      assertEquals(loads.get(), 1);
+      assertEquals(pendingReloads.size(), 0);
+   }
+
+   private RefreshBeforeExpirySupplier<String, Date> supplier(Function<? super Date, Date> expires) {
+      LoadingCache<String, Date> cache = CacheBuilder.newBuilder().build(
+            CacheLoader.asyncReloading(loader, queueReloads));
+      return new RefreshBeforeExpirySupplier<String, Date>(cache, Suppliers.ofInstance("creds"), expires, MARGIN,
+            TimeUnit.MILLISECONDS) {
+         @Override
+         long currentTimeMillis() {
+            return now.get();
+         }
+      };
+   }
+}
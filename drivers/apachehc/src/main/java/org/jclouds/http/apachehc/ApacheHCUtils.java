@@ -16,7 +16,6 @@
  */
 package org.jclouds.http.apachehc;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
@@ -36,7 +35,6 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
-import org.apache.http.entity.FileEntity;
 import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.params.CoreProtocolPNames;
@@ -48,7 +46,7 @@ import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.io.payloads.BasePayload;
 import org.jclouds.io.payloads.DelegatingPayload;
-import org.jclouds.io.payloads.FilePayload;
+import org.jclouds.io.payloads.FileRegionPayload;
 import org.jclouds.io.payloads.StringPayload;
 
 import com.google.common.base.Throwables;
@@ -134,9 +132,10 @@ public class ApacheHCUtils {
          }
          nStringEntity.setContentType(payload.getContentMetadata().getContentType());
          apacheRequest.setEntity(nStringEntity);
-      } else if (payload instanceof FilePayload) {
-         apacheRequest.setEntity(new FileEntity((File) payload.getRawContent(), payload.getContentMetadata()
-               .getContentType()));
+      } else if (FileRegionPayload.regionOf(payload) != null) {
+         FileRegionEntity entity = new FileRegionEntity(FileRegionPayload.regionOf(payload));
+         entity.setContentType(payload.getContentMetadata().getContentType());
+         apacheRequest.setEntity(entity);
       } else {
          InputStream inputStream = payload.getInput();
          if (payload.getContentMetadata().getContentLength() == null)
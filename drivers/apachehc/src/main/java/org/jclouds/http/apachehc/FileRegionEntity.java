@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.apachehc;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.jclouds.io.payloads.FileRegionPayload;
+
+/**
+ * Writes a region of a file, such as a slice of a file payload, with a channel transfer.
+ */
+final class FileRegionEntity extends AbstractHttpEntity {
+   private final FileRegionPayload region;
+
+   FileRegionEntity(FileRegionPayload region) {
+      this.region = checkNotNull(region, "region");
+   }
+
+   @Override
+   public boolean isRepeatable() {
+      return true;
+   }
+
+   @Override
+   public long getContentLength() {
+      return region.getLength();
+   }
+
+   @Override
+   public InputStream getContent() throws IOException {
+      return region.openStream();
+   }
+
+   @Override
+   public void writeTo(OutputStream out) throws IOException {
+      checkNotNull(out, "out");
+      region.transferTo(Channels.newChannel(out));
+      out.flush();
+   }
+
+   @Override
+   public boolean isStreaming() {
+      return false;
+   }
+}
@@ -0,0 +1,613 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.netty;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static com.google.common.net.HttpHeaders.CONTENT_LENGTH;
+import static com.google.common.net.HttpHeaders.HOST;
+import static com.google.common.net.HttpHeaders.TRANSFER_ENCODING;
+import static com.google.common.net.HttpHeaders.USER_AGENT;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jboss.netty.channel.Channels.pipeline;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.http.HttpUtils.filterOutContentHeaders;
+import static org.jclouds.http.internal.JavaUrlHttpCommandExecutorService.DEFAULT_USER_AGENT;
+import static org.jclouds.io.Payloads.newInputStreamPayload;
+import static org.jclouds.util.Closeables2.closeQuietly;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+
+import org.jboss.netty.buffer.ChannelBufferInputStream;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.DefaultFileRegion;
+import org.jboss.netty.channel.ExceptionEvent;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.channel.WriteCompletionEvent;
+import org.jboss.netty.channel.group.ChannelGroup;
+import org.jboss.netty.channel.group.DefaultChannelGroup;
+import org.jboss.netty.channel.socket.ClientSocketChannelFactory;
+import org.jboss.netty.channel.socket.nio.NioClientSocketChannelFactory;
+import org.jboss.netty.handler.codec.http.DefaultHttpRequest;
+import org.jboss.netty.handler.codec.http.HttpChunk;
+import org.jboss.netty.handler.codec.http.HttpClientCodec;
+import org.jboss.netty.handler.codec.http.HttpHeaders;
+import org.jboss.netty.handler.codec.http.HttpMessage;
+import org.jboss.netty.handler.codec.http.HttpMethod;
+import org.jboss.netty.handler.codec.http.HttpVersion;
+import org.jboss.netty.handler.ssl.SslHandler;
+import org.jboss.netty.handler.stream.ChunkedNioFile;
+import org.jboss.netty.handler.stream.ChunkedStream;
+import org.jboss.netty.handler.stream.ChunkedWriteHandler;
+import org.jboss.netty.util.HashedWheelTimer;
+import org.jboss.netty.util.Timeout;
+import org.jboss.netty.util.Timer;
+import org.jboss.netty.util.TimerTask;
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.IOExceptionRetryHandler;
+import org.jclouds.http.handlers.DelegatingErrorHandler;
+import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.http.internal.BaseAsyncHttpCommandExecutorService;
+import org.jclouds.http.internal.HttpWire;
+import org.jclouds.io.ContentMetadataCodec;
+import org.jclouds.io.MutableContentMetadata;
+import org.jclouds.io.Payload;
+import org.jclouds.io.payloads.FileRegionPayload;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Implementation of the {@code HttpCommandExecutorService} that sends requests over non-blocking
+ * Netty channels.
+ * <p>
+ * Connections are kept alive and reused per scheme, host and port. A request in flight does not
+ * hold a thread: the returned future completes from the io threads once the response headers have
+ * been read, and the response body streams in as the caller reads it.
+ */
+@Singleton
+public class NettyHttpCommandExecutorService extends BaseAsyncHttpCommandExecutorService<HttpRequest> {
+
+   /**
+    * Bytes of a response body buffered ahead of the reader before the channel stops reading.
+    */
+   static final int BODY_HIGH_WATER_MARK = 1024 * 1024;
+   static final int REQUEST_CHUNK_SIZE = 8192;
+
+   private final Supplier<SSLContext> untrustedSSLContextProvider;
+   @com.google.inject.Inject(optional = true)
+   private Supplier<SSLContext> sslContextSupplier;
+
+   private final ClientSocketChannelFactory channelFactory;
+   private final ChannelGroup allChannels = new DefaultChannelGroup("jclouds-netty-http");
+   private final ConcurrentMap<String, Queue<Channel>> idleChannels = Maps.newConcurrentMap();
+   private final Timer timer = new HashedWheelTimer(new ThreadFactoryBuilder()
+         .setNameFormat("jclouds-netty-http-timer-%d").setDaemon(true).build());
+
+   @Inject
+   NettyHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
+         DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
+         DelegatingErrorHandler errorHandler, HttpWire wire,
+         @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named("untrusted") Supplier<SSLContext> untrustedSSLContextProvider) {
+      super(utils, contentMetadataCodec, retryHandler, ioRetryHandler, errorHandler, wire, userExecutor);
+      this.untrustedSSLContextProvider = checkNotNull(untrustedSSLContextProvider, "untrustedSSLContextProvider");
+      this.channelFactory = new NioClientSocketChannelFactory(
+            newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("jclouds-netty-http-boss-%d")
+                  .setDaemon(true).build()),
+            newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("jclouds-netty-http-io-%d")
+                  .setDaemon(true).build()));
+   }
+
+   @Override
+   protected HttpRequest convert(HttpRequest request) throws IOException {
+      Payload payload = request.getPayload();
+      if (payload != null && !isChunked(request))
+         checkNotNull(payload.getContentMetadata().getContentLength(), "payload.getContentLength");
+      return request;
+   }
+
+   @Override
+   protected ListenableFuture<HttpResponse> invokeAsync(HttpRequest request) throws IOException {
+      final URI endpoint = request.getEndpoint();
+      final boolean ssl = "https".equalsIgnoreCase(endpoint.getScheme());
+      final int port = endpoint.getPort() != -1 ? endpoint.getPort() : ssl ? 443 : 80;
+      final String key = endpoint.getScheme() + "://" + endpoint.getHost() + ":" + port;
+      final DefaultHttpRequest nettyRequest = toNettyRequest(request);
+      final Closeable body = nettyRequest.isChunked() ? openBody(request.getPayload(), nettyRequest) : null;
+      final SettableFuture<HttpResponse> response = SettableFuture.create();
+
+      Channel idle = pollIdle(key);
+      if (idle != null) {
+         send(idle, key, nettyRequest, body, response);
+         return response;
+      }
+      ChannelPipeline pipeline = pipeline();
+      if (ssl)
+         pipeline.addLast("ssl", new SslHandler(newSSLEngine(endpoint.getHost(), port)));
+      pipeline.addLast("codec", new HttpClientCodec());
+      pipeline.addLast("chunker", new ChunkedWriteHandler());
+      pipeline.addLast("exchange", new ExchangeHandler(key));
+      final Channel channel = channelFactory.newChannel(pipeline);
+      channel.getConfig().setConnectTimeoutMillis(utils.getConnectionTimeout());
+      channel.getConfig().setOption("tcpNoDelay", true);
+      channel.getConfig().setOption("keepAlive", true);
+      allChannels.add(channel);
+      channel.connect(new InetSocketAddress(endpoint.getHost(), port)).addListener(new ChannelFutureListener() {
+         @Override
+         public void operationComplete(ChannelFuture future) {
+            if (!future.isSuccess()) {
+               failed(future, body, response);
+            } else if (ssl) {
+               channel.getPipeline().get(SslHandler.class).handshake().addListener(new ChannelFutureListener() {
+                  @Override
+                  public void operationComplete(ChannelFuture future) {
+                     if (future.isSuccess())
+                        send(channel, key, nettyRequest, body, response);
+                     else
+                        failed(future, body, response);
+                  }
+               });
+            } else {
+               send(channel, key, nettyRequest, body, response);
+            }
+         }
+      });
+      return response;
+   }
+
+   @Override
+   protected void cleanup(HttpRequest nativeRequest) {
+      // channels are closed or returned to the pool when their exchange ends
+   }
+
+   @PreDestroy
+   public void close() {
+      allChannels.close().awaitUninterruptibly();
+      channelFactory.releaseExternalResources();
+      timer.stop();
+   }
+
+   private static boolean isChunked(HttpRequest request) {
+      return "chunked".equals(request.getFirstHeaderOrNull(TRANSFER_ENCODING));
+   }
+
+   private static boolean isChunked(HttpMessage message) {
+      for (String value : message.getHeaders(TRANSFER_ENCODING)) {
+         if ("chunked".equalsIgnoreCase(value))
+            return true;
+      }
+      return false;
+   }
+
+   private DefaultHttpRequest toNettyRequest(HttpRequest request) {
+      URI endpoint = request.getEndpoint();
+      String uri = endpoint.getRawPath() == null || endpoint.getRawPath().isEmpty() ? "/" : endpoint.getRawPath();
+      if (endpoint.getRawQuery() != null)
+         uri += "?" + endpoint.getRawQuery();
+      DefaultHttpRequest nettyRequest = new DefaultHttpRequest(HttpVersion.HTTP_1_1,
+            HttpMethod.valueOf(request.getMethod()), uri);
+      for (Map.Entry<String, String> entry : request.getHeaders().entries()) {
+         nettyRequest.addHeader(entry.getKey(), entry.getValue());
+      }
+      String host = endpoint.getHost();
+      if (endpoint.getPort() != -1)
+         host += ":" + endpoint.getPort();
+      nettyRequest.setHeader(HOST, host);
+      if (!nettyRequest.containsHeader(USER_AGENT))
+         nettyRequest.setHeader(USER_AGENT, DEFAULT_USER_AGENT);
+
+      Payload payload = request.getPayload();
+      if (payload != null) {
+         MutableContentMetadata md = payload.getContentMetadata();
+         for (Map.Entry<String, String> entry : contentMetadataCodec.toHeaders(md).entries()) {
+            nettyRequest.setHeader(entry.getKey(), entry.getValue());
+         }
+         // a chunked message is one whose body is written after it; the encoder only frames
+         // the body as http chunks when there is no Content-Length
+         if (isChunked(request)) {
+            nettyRequest.removeHeader(CONTENT_LENGTH);
+            nettyRequest.setChunked(true);
+            return nettyRequest;
+         }
+         long length = checkNotNull(md.getContentLength(), "payload.getContentLength");
+         if (length > 0) {
+            HttpHeaders.setContentLength(nettyRequest, length);
+            nettyRequest.setChunked(true);
+            return nettyRequest;
+         }
+      }
+      if (!HttpRequest.NON_PAYLOAD_METHODS.contains(request.getMethod()))
+         HttpHeaders.setContentLength(nettyRequest, 0);
+      return nettyRequest;
+   }
+
+   private SSLEngine newSSLEngine(String host, int port) {
+      SSLContext context;
+      if (sslContextSupplier != null) {
+         // used for providers which e.g. use certs for authentication (like FGCP)
+         context = sslContextSupplier.get();
+      } else if (utils.trustAllCerts()) {
+         context = untrustedSSLContextProvider.get();
+      } else {
+         try {
+            context = SSLContext.getDefault();
+         } catch (NoSuchAlgorithmException e) {
+            throw propagate(e);
+         }
+      }
+      SSLEngine engine = context.createSSLEngine(host, port);
+      engine.setUseClientMode(true);
+      if (!utils.relaxHostname()) {
+         SSLParameters parameters = engine.getSSLParameters();
+         parameters.setEndpointIdentificationAlgorithm("HTTPS");
+         engine.setSSLParameters(parameters);
+      }
+      return engine;
+   }
+
+   private Channel pollIdle(String key) {
+      Queue<Channel> idle = idleChannels.get(key);
+      if (idle == null)
+         return null;
+      for (Channel channel = idle.poll(); channel != null; channel = idle.poll()) {
+         if (channel.isConnected())
+            return channel;
+      }
+      return null;
+   }
+
+   private void release(String key, Channel channel) {
+      Queue<Channel> idle = idleChannels.get(key);
+      if (idle == null) {
+         Queue<Channel> created = new ConcurrentLinkedQueue<Channel>();
+         idle = idleChannels.putIfAbsent(key, created);
+         if (idle == null)
+            idle = created;
+      }
+      if (!channel.isReadable())
+         channel.setReadable(true);
+      idle.add(channel);
+   }
+
+   /**
+    * @return a channel positioned at the start of the body where the payload is a file region of
+    *         known length, or a stream otherwise
+    */
+   private static Closeable openBody(Payload payload, HttpMessage nettyRequest) throws IOException {
+      FileRegionPayload region = FileRegionPayload.regionOf(payload);
+      if (region != null && !isChunked(nettyRequest))
+         return region.openChannel();
+      return payload.openStream();
+   }
+
+   private void send(Channel channel, String key, DefaultHttpRequest nettyRequest, Closeable body,
+         SettableFuture<HttpResponse> response) {
+      final Exchange exchange = new Exchange(key, channel, response);
+      channel.getPipeline().get(ExchangeHandler.class).begin(exchange);
+      ChannelFuture written = channel.write(nettyRequest);
+      if (body instanceof FileChannel) {
+         FileChannel file = (FileChannel) body;
+         long length = HttpHeaders.getContentLength(nettyRequest);
+         try {
+            // the kernel can only copy the file to the socket when the channel is not encrypted
+            written = channel.getPipeline().get(SslHandler.class) == null
+                  ? channel.write(new DefaultFileRegion(file, file.position(), length, true))
+                  : channel.write(new ChunkedNioFile(file, file.position(), length, REQUEST_CHUNK_SIZE));
+         } catch (IOException e) {
+            closeQuietly(file);
+            exchange.fail(e);
+            return;
+         }
+      } else if (body != null) {
+         ChunkedStream stream = new ChunkedStream(new ProgressInputStream((InputStream) body, exchange),
+               REQUEST_CHUNK_SIZE);
+         written = channel.write(isChunked(nettyRequest) ? new HttpChunkedInput(stream)
+               : stream);
+      }
+      written.addListener(new ChannelFutureListener() {
+         @Override
+         public void operationComplete(ChannelFuture future) {
+            if (future.isSuccess())
+               exchange.requestWritten();
+            else
+               exchange.fail(future.getCause());
+         }
+      });
+   }
+
+   private static void failed(ChannelFuture future, Closeable body, SettableFuture<HttpResponse> response) {
+      future.getChannel().close();
+      if (body != null) {
+         try {
+            body.close();
+         } catch (IOException ignored) {
+         }
+      }
+      response.setException(future.getCause());
+   }
+
+   /**
+    * One request and its response on a channel.
+    */
+   private final class Exchange implements TimerTask {
+      private final String key;
+      private final Channel channel;
+      private final SettableFuture<HttpResponse> response;
+      private final int readTimeoutMillis = utils.getSocketOpenTimeout();
+      // the read timeout measures how long the server has been silent, so writing the request also counts
+      private volatile long lastActivity = System.currentTimeMillis();
+      private Timeout readTimeout;
+      private ResponseBodyInputStream body;
+      private boolean keepAlive;
+      private boolean readsUntilClose;
+      private boolean written;
+      private boolean finished;
+
+      Exchange(String key, Channel channel, final SettableFuture<HttpResponse> response) {
+         this.key = key;
+         this.channel = channel;
+         this.response = response;
+         if (readTimeoutMillis > 0)
+            readTimeout = timer.newTimeout(this, readTimeoutMillis, MILLISECONDS);
+         // close the channel when the caller cancels the response before it arrives
+         response.addListener(new Runnable() {
+            @Override
+            public void run() {
+               if (response.isCancelled())
+                  fail(new CancellationException());
+            }
+         }, directExecutor());
+      }
+
+      @Override
+      public synchronized void run(Timeout timeout) {
+         if (finished)
+            return;
+         long idle = System.currentTimeMillis() - lastActivity;
+         if (!channel.isReadable()) {
+            // the reader is behind; it is not the server that is slow
+            readTimeout = timer.newTimeout(this, readTimeoutMillis, MILLISECONDS);
+         } else if (idle >= readTimeoutMillis) {
+            fail(new SocketTimeoutException("Read timed out"));
+         } else {
+            readTimeout = timer.newTimeout(this, readTimeoutMillis - idle, MILLISECONDS);
+         }
+      }
+
+      synchronized void requestWritten() {
+         written = true;
+         lastActivity = System.currentTimeMillis();
+      }
+
+      void onWriteProgress() {
+         lastActivity = System.currentTimeMillis();
+      }
+
+      void onResponse(org.jboss.netty.handler.codec.http.HttpResponse nettyResponse) {
+         lastActivity = System.currentTimeMillis();
+         ImmutableMultimap.Builder<String, String> headerBuilder = ImmutableMultimap.builder();
+         for (String name : nettyResponse.getHeaderNames()) {
+            headerBuilder.putAll(name, nettyResponse.getHeaders(name));
+         }
+         ImmutableMultimap<String, String> headers = headerBuilder.build();
+         int statusCode = nettyResponse.getStatus().getCode();
+         HttpResponse.Builder<?> builder = HttpResponse.builder().statusCode(statusCode)
+               .message(nettyResponse.getStatus().getReasonPhrase());
+         synchronized (this) {
+            keepAlive = HttpHeaders.isKeepAlive(nettyResponse);
+            InputStream in = null;
+            if (nettyResponse.isChunked()) {
+               body = new ResponseBodyInputStream(channel, new Runnable() {
+                  @Override
+                  public void run() {
+                     fail(new IOException("response body closed before it was read"));
+                  }
+               }, BODY_HIGH_WATER_MARK);
+               in = body;
+               readsUntilClose = !isChunked(nettyResponse)
+                     && !nettyResponse.containsHeader(CONTENT_LENGTH);
+            } else {
+               in = new ChannelBufferInputStream(nettyResponse.getContent());
+            }
+            if (statusCode != 204) {
+               Payload payload = newInputStreamPayload(in);
+               contentMetadataCodec.fromHeaders(payload.getContentMetadata(), headers);
+               builder.payload(payload);
+            }
+            builder.headers(filterOutContentHeaders(headers));
+            if (!nettyResponse.isChunked())
+               finish();
+         }
+         response.set(builder.build());
+      }
+
+      synchronized void onChunk(HttpChunk chunk) {
+         lastActivity = System.currentTimeMillis();
+         if (finished)
+            return;
+         if (body != null)
+            body.offer(chunk.getContent());
+         if (chunk.isLast()) {
+            if (body != null)
+               body.end();
+            finish();
+         }
+      }
+
+      synchronized void onClosed() {
+         if (readsUntilClose && body != null) {
+            body.end();
+            keepAlive = false;
+            finish();
+         } else {
+            fail(new ClosedChannelException());
+         }
+      }
+
+      synchronized void fail(Throwable cause) {
+         if (finished)
+            return;
+         finished = true;
+         cancelReadTimeout();
+         channel.close();
+         if (!response.isDone()) {
+            response.setException(cause);
+         } else if (body != null) {
+            body.fail(cause instanceof IOException ? (IOException) cause : new IOException(cause));
+         }
+      }
+
+      private void finish() {
+         finished = true;
+         cancelReadTimeout();
+         channel.getPipeline().get(ExchangeHandler.class).end(this);
+         if (keepAlive && written && channel.isConnected())
+            release(key, channel);
+         else
+            channel.close();
+      }
+
+      private void cancelReadTimeout() {
+         if (readTimeout != null)
+            readTimeout.cancel();
+      }
+   }
+
+   /**
+    * Routes the events of a channel to the exchange in progress on it.
+    */
+   /**
+    * Counts reading the request body as progress of the exchange; the chunks read are only written once the
+    * writer stops reading, which may take longer than the read timeout when the body is slow to produce.
+    */
+   private static final class ProgressInputStream extends FilterInputStream {
+      private final Exchange exchange;
+
+      ProgressInputStream(InputStream in, Exchange exchange) {
+         super(in);
+         this.exchange = exchange;
+      }
+
+      @Override
+      public int read() throws IOException {
+         int read = super.read();
+         exchange.onWriteProgress();
+         return read;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         int read = super.read(b, off, len);
+         exchange.onWriteProgress();
+         return read;
+      }
+   }
+
+   private final class ExchangeHandler extends SimpleChannelUpstreamHandler {
+      private final String key;
+      private volatile Exchange current;
+
+      ExchangeHandler(String key) {
+         this.key = key;
+      }
+
+      void begin(Exchange exchange) {
+         current = exchange;
+      }
+
+      void end(Exchange exchange) {
+         if (current == exchange)
+            current = null;
+      }
+
+      @Override
+      public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) {
+         Exchange exchange = current;
+         if (exchange == null)
+            return;
+         Object message = e.getMessage();
+         if (message instanceof org.jboss.netty.handler.codec.http.HttpResponse)
+            exchange.onResponse((org.jboss.netty.handler.codec.http.HttpResponse) message);
+         else if (message instanceof HttpChunk)
+            exchange.onChunk((HttpChunk) message);
+      }
+
+      @Override
+      public void writeComplete(ChannelHandlerContext ctx, WriteCompletionEvent e) {
+         Exchange exchange = current;
+         if (exchange != null)
+            exchange.onWriteProgress();
+      }
+
+      @Override
+      public void exceptionCaught(ChannelHandlerContext ctx, ExceptionEvent e) {
+         Exchange exchange = current;
+         if (exchange != null)
+            exchange.fail(e.getCause());
+         else
+            e.getChannel().close();
+      }
+
+      @Override
+      public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) {
+         Queue<Channel> idle = idleChannels.get(key);
+         if (idle != null)
+            idle.remove(e.getChannel());
+         Exchange exchange = current;
+         if (exchange != null)
+            exchange.onClosed();
+      }
+   }
+}
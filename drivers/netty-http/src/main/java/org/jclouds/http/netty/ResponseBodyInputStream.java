@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.netty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+
+/**
+ * The body of a response, fed by the io thread as chunks are decoded.
+ * <p>
+ * Stops reading from the channel while more than {@code highWaterMark} bytes are waiting to be
+ * consumed, so that a slow reader does not buffer the whole body in memory.
+ */
+final class ResponseBodyInputStream extends InputStream {
+
+   private static final ChannelBuffer END = ChannelBuffers.EMPTY_BUFFER;
+
+   private final Channel channel;
+   private final Runnable onAbort;
+   private final int highWaterMark;
+   private final int lowWaterMark;
+   private final BlockingQueue<ChannelBuffer> chunks = new LinkedBlockingQueue<ChannelBuffer>();
+   private final AtomicInteger buffered = new AtomicInteger();
+
+   private volatile IOException failure;
+   private volatile boolean ended;
+   private ChannelBuffer current;
+   private boolean closed;
+
+   ResponseBodyInputStream(Channel channel, Runnable onAbort, int highWaterMark) {
+      this.channel = channel;
+      this.onAbort = onAbort;
+      this.highWaterMark = highWaterMark;
+      this.lowWaterMark = highWaterMark / 4;
+   }
+
+   /**
+    * Called from the io thread with the content of each chunk.
+    */
+   void offer(ChannelBuffer content) {
+      if (!content.readable())
+         return;
+      chunks.add(content);
+      if (buffered.addAndGet(content.readableBytes()) > highWaterMark)
+         channel.setReadable(false);
+   }
+
+   /**
+    * Called once the last chunk has been offered.
+    */
+   void end() {
+      ended = true;
+      chunks.add(END);
+   }
+
+   /**
+    * Called when the body cannot be completed; readers see {@code cause} once the chunks already
+    * received are consumed.
+    */
+   void fail(IOException cause) {
+      if (ended)
+         return;
+      failure = cause;
+      end();
+   }
+
+   @Override
+   public int read() throws IOException {
+      ChannelBuffer buffer = nextBuffer();
+      if (buffer == null)
+         return -1;
+      int b = buffer.readByte() & 0xff;
+      consumed(1);
+      return b;
+   }
+
+   @Override
+   public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0)
+         return 0;
+      ChannelBuffer buffer = nextBuffer();
+      if (buffer == null)
+         return -1;
+      int n = Math.min(len, buffer.readableBytes());
+      buffer.readBytes(b, off, n);
+      consumed(n);
+      return n;
+   }
+
+   @Override
+   public int available() {
+      return current != null ? current.readableBytes() : 0;
+   }
+
+   @Override
+   public void close() {
+      if (closed)
+         return;
+      closed = true;
+      current = null;
+      chunks.clear();
+      if (!ended)
+         onAbort.run();
+   }
+
+   private ChannelBuffer nextBuffer() throws IOException {
+      if (closed)
+         throw new IOException("stream closed");
+      while (current == null || !current.readable()) {
+         if (current == END) {
+            if (failure != null)
+               throw failure;
+            return null;
+         }
+         try {
+            current = chunks.take();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+         }
+      }
+      return current;
+   }
+
+   private void consumed(int bytes) {
+      if (buffered.addAndGet(-bytes) < lowWaterMark && !ended && !channel.isReadable())
+         channel.setReadable(true);
+   }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.netty;
+
+import static com.google.common.io.Closeables.close;
+import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_CONTEXT;
+import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_HOST;
+import static org.jclouds.Constants.PROPERTY_RELAX_HOSTNAME;
+import static org.jclouds.Constants.PROPERTY_SO_TIMEOUT;
+import static org.jclouds.Constants.PROPERTY_TRUST_ALL_CERTS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Properties;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.Fallbacks.NullOnNotFoundOr404;
+import org.jclouds.http.BaseHttpCommandExecutorServiceIntegrationTest;
+import org.jclouds.http.netty.config.NettyHttpCommandExecutorServiceModule;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.providers.AnonymousProviderMetadata;
+import org.jclouds.rest.annotations.Fallback;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.inject.Module;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Tests the functionality of the {@link NettyHttpCommandExecutorService}
+ */
+@Test
+public class NettyHttpCommandExecutorServiceTest extends BaseHttpCommandExecutorServiceIntegrationTest {
+
+   @Override
+   protected Module createConnectionModule() {
+      return new NettyHttpCommandExecutorServiceModule();
+   }
+
+   @Override
+   protected void addOverrideProperties(final Properties props) {
+      props.setProperty(PROPERTY_MAX_CONNECTIONS_PER_CONTEXT, 50 + "");
+      props.setProperty(PROPERTY_MAX_CONNECTIONS_PER_HOST, 0 + "");
+      props.setProperty(PROPERTY_USER_THREADS, 5 + "");
+   }
+
+   private interface FutureApi extends Closeable {
+      @GET
+      @Path("/objects/{id}")
+      ListenableFuture<String> get(@PathParam("id") String id);
+
+      @GET
+      @Path("/objects/{id}")
+      @Fallback(NullOnNotFoundOr404.class)
+      ListenableFuture<String> getOrNull(@PathParam("id") String id);
+
+      @PUT
+      @Path("/objects/{id}")
+      ListenableFuture<String> put(@PathParam("id") String id, Payload payload);
+   }
+
+   @Test
+   public void testSubmitMoreRequestsThanUserThreads() throws Exception {
+      MockWebServer server = mockWebServer();
+      for (int i = 0; i < 20; i++) {
+         server.enqueue(new MockResponse().setBody("foo"));
+      }
+      FutureApi api = api(FutureApi.class, server.getUrl("/").toString());
+      try {
+         List<ListenableFuture<String>> futures = Lists.newArrayList();
+         for (int i = 0; i < 20; i++) {
+            futures.add(api.get(String.valueOf(i)));
+         }
+         for (String result : Futures.allAsList(futures).get()) {
+            assertEquals(result, "foo");
+         }
+         assertEquals(server.getRequestCount(), 20);
+      } finally {
+         close(api, true);
+         server.shutdown();
+      }
+   }
+
+   @Test
+   public void testSubmitAppliesFallback() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setResponseCode(404));
+      FutureApi api = api(FutureApi.class, server.getUrl("/").toString());
+      try {
+         assertNull(api.getOrNull("missing").get());
+         assertEquals(server.getRequestCount(), 1);
+      } finally {
+         close(api, true);
+         server.shutdown();
+      }
+   }
+
+   @Test
+   public void testSlowUploadIsNotAReadTimeout() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody("foo"));
+      Properties properties = new Properties();
+      properties.setProperty(PROPERTY_TRUST_ALL_CERTS, "true");
+      properties.setProperty(PROPERTY_RELAX_HOSTNAME, "true");
+      addOverrideProperties(properties);
+      properties.setProperty(PROPERTY_SO_TIMEOUT, "500");
+      FutureApi api = ContextBuilder.newBuilder(AnonymousProviderMetadata.forApiOnEndpoint(FutureApi.class,
+            server.getUrl("/").toString())).modules(ImmutableSet.<Module> of(createConnectionModule()))
+            .overrides(properties).buildApi(FutureApi.class);
+      try {
+         // the body takes longer than the read timeout to send, but the server is never waited on
+         Payload payload = Payloads.newInputStreamPayload(new SlowInputStream(8, 200));
+         payload.getContentMetadata().setContentLength(8L);
+         assertEquals(api.put("slow", payload).get(), "foo");
+         assertEquals(server.takeRequest().getBody().length, 8);
+      } finally {
+         close(api, true);
+         server.shutdown();
+      }
+   }
+
+   private static class SlowInputStream extends InputStream {
+      private int remaining;
+      private final long delayMillis;
+
+      SlowInputStream(int length, long delayMillis) {
+         this.remaining = length;
+         this.delayMillis = delayMillis;
+      }
+
+      @Override
+      public int read() throws IOException {
+         if (remaining == 0)
+            return -1;
+         try {
+            Thread.sleep(delayMillis);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+         }
+         remaining--;
+         return 'a';
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         // one byte per read, so each one is written on its own
+         if (len == 0)
+            return 0;
+         int read = read();
+         if (read == -1)
+            return -1;
+         b[off] = (byte) read;
+         return 1;
+      }
+
+      @Override
+      public int available() {
+         return remaining == 0 ? 0 : 1;
+      }
+   }
+}
@@ -61,6 +61,7 @@ public class SSHClientConnection implements Connection<SSHClient> {
       protected int connectTimeout;
       protected int sessionTimeout;
       protected Optional<Connector> agentConnector;
+      protected SSHClientPool pool;
 
       /**
        * @see SSHClientConnection#getHostAndPort()
@@ -102,8 +103,17 @@ public class SSHClientConnection implements Connection<SSHClient> {
          return this;
       }
 
+      /**
+       * @see SSHClientConnection#getPool()
+       */
+      public Builder pool(SSHClientPool pool) {
+         this.pool = pool;
+         return this;
+      }
+
       public SSHClientConnection build() {
-         return new SSHClientConnection(hostAndPort, loginCredentials, connectTimeout, sessionTimeout, agentConnector);
+         return new SSHClientConnection(hostAndPort, loginCredentials, connectTimeout, sessionTimeout, agentConnector,
+               pool);
       }
 
       protected Builder fromSSHClientConnection(SSHClientConnection in) {
@@ -113,12 +123,13 @@ public class SSHClientConnection implements Connection<SSHClient> {
    }
 
    private SSHClientConnection(HostAndPort hostAndPort, LoginCredentials loginCredentials, int connectTimeout,
-            int sessionTimeout, Optional<Connector> agentConnector) {
+            int sessionTimeout, Optional<Connector> agentConnector, SSHClientPool pool) {
       this.hostAndPort = checkNotNull(hostAndPort, "hostAndPort");
       this.loginCredentials = checkNotNull(loginCredentials, "loginCredentials for %", hostAndPort);
       this.connectTimeout = connectTimeout;
       this.sessionTimeout = sessionTimeout;
       this.agentConnector = checkNotNull(agentConnector, "agentConnector for %", hostAndPort);
+      this.pool = pool;
    }
    
    @Resource
@@ -129,13 +140,17 @@ public class SSHClientConnection implements Connection<SSHClient> {
    private final LoginCredentials loginCredentials;
    private final int connectTimeout;
    private final int sessionTimeout;
+   private final SSHClientPool pool;
 
    @VisibleForTesting
    transient SSHClient ssh;
 
    @Override
    public void clear() {
-      if (ssh != null && ssh.isConnected()) {
+      if (ssh != null && pool != null) {
+         pool.release(this, ssh);
+         ssh = null;
+      } else if (ssh != null && ssh.isConnected()) {
          try {
             ssh.disconnect();
          } catch (AssertionError e) {
@@ -149,7 +164,39 @@ public class SSHClientConnection implements Connection<SSHClient> {
 
    @Override
    public SSHClient create() throws Exception {
-      ssh = new net.schmizz.sshj.SSHClient();
+      if (pool != null) {
+         ssh = pool.lease(this);
+      } else {
+         ssh = new net.schmizz.sshj.SSHClient();
+         connectAndAuthenticate(ssh);
+      }
+      return ssh;
+   }
+
+   /**
+    * @return a new client, connected and authenticated, that is not tracked by this connection
+    */
+   SSHClient open() throws Exception {
+      SSHClient client = new net.schmizz.sshj.SSHClient();
+      try {
+         connectAndAuthenticate(client);
+         return client;
+      } catch (Exception e) {
+         if (client.isConnected())
+            client.disconnect();
+         throw e;
+      }
+   }
+
+   /**
+    * @return identifies the clients that can be shared with this connection: same socket, login and timeouts
+    */
+   Object poolKey() {
+      return ImmutableList.of(hostAndPort, loginCredentials.getUser(), loginCredentials.getOptionalPassword().or(""),
+            loginCredentials.getOptionalPrivateKey().or(""), connectTimeout, sessionTimeout);
+   }
+
+   private void connectAndAuthenticate(SSHClient ssh) throws Exception {
       ssh.addHostKeyVerifier(new PromiscuousVerifier());
       if (connectTimeout != 0) {
          ssh.setConnectTimeout(connectTimeout);
@@ -168,7 +215,6 @@ public class SSHClientConnection implements Connection<SSHClient> {
          AgentProxy proxy = new AgentProxy(agentConnector.get());
          ssh.auth(loginCredentials.getUser(), getAuthMethods(proxy));
       }
-      return ssh;
    }
 
    /**
@@ -210,6 +256,15 @@ public class SSHClientConnection implements Connection<SSHClient> {
       return agentConnector;
    }
 
+   /**
+    *
+    * @return the pool clients are leased from, or {@code null} if each connection opens its own client. Not
+    *         carried over by {@link Builder#fromSSHClientConnection}.
+    */
+   public SSHClientPool getPool() {
+      return pool;
+   }
+
    /**
     * 
     * @return the current ssh or {@code null} if not connected
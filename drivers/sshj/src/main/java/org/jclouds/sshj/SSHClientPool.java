@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.sshj;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import net.schmizz.sshj.SSHClient;
+
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+
+/**
+ * Shares authenticated {@link SSHClient}s between the {@link SshjSshClient}s of the same node and login.
+ * <p>
+ * Exec and sftp already run as channels of the client's transport, so any number of {@link SshjSshClient}s can
+ * lease the same client at once. Leasing a healthy pooled client skips the tcp connect, key exchange and
+ * authentication; a client that is no longer connected is discarded and replaced. Clients nobody has leased for
+ * {@code jclouds.ssh.pool.idle-timeout} milliseconds are disconnected by a background thread.
+ */
+@Singleton
+public class SSHClientPool {
+
+   @Resource
+   @Named("jclouds.ssh")
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named("jclouds.ssh.pool.idle-timeout")
+   @VisibleForTesting
+   long idleTimeout = 30000;
+
+   private final Map<Object, Pooled> clients = Maps.newHashMap();
+   private ScheduledExecutorService evictor;
+
+   private static final class Pooled {
+      private final SSHClient client;
+      private int leases;
+      private long idleSince;
+
+      private Pooled(SSHClient client) {
+         this.client = client;
+      }
+   }
+
+   /**
+    * @return a connected and authenticated client for the connection's node and login, which must be handed
+    *         back through {@link #release}
+    */
+   public SSHClient lease(SSHClientConnection connection) throws Exception {
+      Object key = connection.poolKey();
+      synchronized (clients) {
+         Pooled pooled = clients.get(key);
+         if (pooled != null) {
+            if (isHealthy(pooled.client)) {
+               pooled.leases++;
+               return pooled.client;
+            }
+            clients.remove(key);
+            if (pooled.leases == 0)
+               disconnectQuietly(pooled.client);
+         }
+      }
+      // handshake outside the lock so that other nodes are not held up
+      SSHClient client = connection.open();
+      synchronized (clients) {
+         Pooled pooled = clients.get(key);
+         if (pooled != null && isHealthy(pooled.client)) {
+            // lost a race with another lease of the same node
+            disconnectQuietly(client);
+         } else {
+            pooled = new Pooled(client);
+            clients.put(key, pooled);
+            startEvicting();
+         }
+         pooled.leases++;
+         return pooled.client;
+      }
+   }
+
+   /**
+    * Hands back a client obtained from {@link #lease}. Clients that are no longer connected are dropped from the
+    * pool rather than reused.
+    */
+   public void release(SSHClientConnection connection, SSHClient client) {
+      Object key = connection.poolKey();
+      synchronized (clients) {
+         Pooled pooled = clients.get(key);
+         if (pooled == null || pooled.client != client) {
+            // replaced while leased
+            disconnectQuietly(client);
+            return;
+         }
+         pooled.leases--;
+         if (pooled.leases == 0) {
+            pooled.idleSince = System.currentTimeMillis();
+            if (!isHealthy(client)) {
+               clients.remove(key);
+               disconnectQuietly(client);
+            }
+         }
+      }
+   }
+
+   /**
+    * Disconnects the clients that have not been leased for {@link #idleTimeout} milliseconds.
+    */
+   @VisibleForTesting
+   void evictIdle() {
+      long now = System.currentTimeMillis();
+      synchronized (clients) {
+         for (Iterator<Pooled> it = clients.values().iterator(); it.hasNext();) {
+            Pooled pooled = it.next();
+            if (pooled.leases == 0 && (now - pooled.idleSince >= idleTimeout || !isHealthy(pooled.client))) {
+               it.remove();
+               disconnectQuietly(pooled.client);
+            }
+         }
+      }
+   }
+
+   @VisibleForTesting
+   int size() {
+      synchronized (clients) {
+         return clients.size();
+      }
+   }
+
+   private synchronized void startEvicting() {
+      if (evictor != null)
+         return;
+      evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("ssh client pool evictor %d").setDaemon(true).build());
+      long period = Math.max(idleTimeout / 2, 1000);
+      evictor.scheduleWithFixedDelay(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               evictIdle();
+            } catch (RuntimeException e) {
+               logger.error(e, "error evicting idle ssh clients");
+            }
+         }
+      }, period, period, TimeUnit.MILLISECONDS);
+   }
+
+   /**
+    * Stops the evictor and disconnects every pooled client, leased or not.
+    */
+   @PreDestroy
+   public void close() {
+      synchronized (this) {
+         if (evictor != null)
+            evictor.shutdownNow();
+         evictor = null;
+      }
+      synchronized (clients) {
+         for (Pooled pooled : clients.values())
+            disconnectQuietly(pooled.client);
+         clients.clear();
+      }
+   }
+
+   private static boolean isHealthy(SSHClient client) {
+      return client.isConnected() && client.isAuthenticated();
+   }
+
+   private void disconnectQuietly(SSHClient client) {
+      try {
+         if (client.isConnected())
+            client.disconnect();
+      } catch (AssertionError e) {
+         // already disconnected
+      } catch (IOException e) {
+         logger.debug("<< exception disconnecting pooled ssh client: %s", e.getMessage());
+      }
+   }
+}
@@ -57,6 +57,7 @@ import net.schmizz.sshj.xfer.InMemorySourceFile;
 import org.jclouds.compute.domain.ExecChannel;
 import org.jclouds.compute.domain.ExecResponse;
 import org.jclouds.domain.LoginCredentials;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
 import org.jclouds.io.Payload;
 import org.jclouds.io.Payloads;
@@ -142,6 +143,17 @@ public class SshjSshClient implements SshClient {
 
    public SshjSshClient(BackoffLimitedRetryHandler backoffLimitedRetryHandler, HostAndPort socket,
             LoginCredentials loginCredentials, int timeout, Optional<Connector> agentConnector) {
+      this(backoffLimitedRetryHandler, socket, loginCredentials, timeout, agentConnector, null);
+   }
+
+   /**
+    * @param pool
+    *           when not {@code null}, {@link #connect} leases an authenticated client shared with the other clients
+    *           of the same socket and login, and {@link #disconnect} hands it back instead of closing it
+    */
+   public SshjSshClient(BackoffLimitedRetryHandler backoffLimitedRetryHandler, HostAndPort socket,
+            LoginCredentials loginCredentials, int timeout, Optional<Connector> agentConnector,
+            @Nullable SSHClientPool pool) {
       this.user = checkNotNull(loginCredentials, "loginCredentials").getUser();
       this.host = checkNotNull(socket, "socket").getHostText();
       checkArgument(socket.getPort() > 0, "ssh port must be greater then zero" + socket.getPort());
@@ -162,7 +174,8 @@ public class SshjSshClient implements SshClient {
                   host, socket.getPort());
       }
       sshClientConnection = SSHClientConnection.builder().hostAndPort(HostAndPort.fromParts(host, socket.getPort()))
-               .loginCredentials(loginCredentials).connectTimeout(timeout).sessionTimeout(timeout).agentConnector(agentConnector).build();
+               .loginCredentials(loginCredentials).connectTimeout(timeout).sessionTimeout(timeout)
+               .agentConnector(agentConnector).pool(pool).build();
    }
 
    @Override
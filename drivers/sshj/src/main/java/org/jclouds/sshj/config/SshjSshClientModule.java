@@ -23,6 +23,7 @@ import org.jclouds.domain.LoginCredentials;
 import org.jclouds.http.handlers.BackoffLimitedRetryHandler;
 import org.jclouds.ssh.SshClient;
 import org.jclouds.ssh.config.ConfiguresSshClient;
+import org.jclouds.sshj.SSHClientPool;
 import org.jclouds.sshj.SshjSshClient;
 
 import com.google.common.base.Optional;
@@ -48,6 +49,10 @@ public class SshjSshClientModule extends AbstractModule {
       @Inject(optional = true)
       int timeout = 60000;
 
+      @Named("jclouds.ssh.pool")
+      @Inject(optional = true)
+      boolean pooled = false;
+
       Optional<Connector> agentConnector = getAgentConnector();
 
       Optional<Connector> getAgentConnector() {
@@ -59,17 +64,20 @@ public class SshjSshClientModule extends AbstractModule {
       }
 
       private final BackoffLimitedRetryHandler backoffLimitedRetryHandler;
+      private final SSHClientPool pool;
       private final Injector injector;
 
       @Inject
-      public Factory(BackoffLimitedRetryHandler backoffLimitedRetryHandler, Injector injector) {
+      public Factory(BackoffLimitedRetryHandler backoffLimitedRetryHandler, SSHClientPool pool, Injector injector) {
          this.backoffLimitedRetryHandler = backoffLimitedRetryHandler;
+         this.pool = pool;
          this.injector = injector;
       }
 
       @Override
       public SshClient create(HostAndPort socket, LoginCredentials credentials) {
-         SshClient client = new SshjSshClient(backoffLimitedRetryHandler, socket, credentials, timeout, getAgentConnector());
+         SshClient client = new SshjSshClient(backoffLimitedRetryHandler, socket, credentials, timeout,
+               getAgentConnector(), pooled ? pool : null);
          injector.injectMembers(client);  // add logger
          return client;
       }
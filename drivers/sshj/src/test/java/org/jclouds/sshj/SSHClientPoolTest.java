@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.sshj;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import net.schmizz.sshj.SSHClient;
+
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "SSHClientPoolTest")
+public class SSHClientPoolTest {
+
+   public void testLeaseSharesHealthyClient() throws Exception {
+      SSHClient client = healthyClient();
+      replay(client);
+      SSHClientConnection connection = connection("node1", client);
+
+      SSHClientPool pool = new SSHClientPool();
+      assertSame(pool.lease(connection), client);
+      assertSame(pool.lease(connection), client);
+      pool.release(connection, client);
+      assertSame(pool.lease(connection), client);
+
+      assertEquals(pool.size(), 1);
+      verify(connection, client);
+   }
+
+   public void testLeaseReplacesDisconnectedClient() throws Exception {
+      SSHClient dead = createMock(SSHClient.class);
+      expect(dead.isConnected()).andReturn(true).once().andReturn(false).anyTimes();
+      expect(dead.isAuthenticated()).andReturn(true).anyTimes();
+      SSHClient fresh = createNiceMock(SSHClient.class);
+      replay(dead, fresh);
+      SSHClientConnection connection = createMock(SSHClientConnection.class);
+      expect(connection.poolKey()).andReturn("node1").anyTimes();
+      expect(connection.open()).andReturn(dead);
+      expect(connection.open()).andReturn(fresh);
+      replay(connection);
+
+      SSHClientPool pool = new SSHClientPool();
+      pool.release(connection, pool.lease(connection));
+      assertSame(pool.lease(connection), fresh);
+
+      verify(connection, dead);
+   }
+
+   public void testEvictIdleOnlyDisconnectsClientsNotLeased() throws Exception {
+      SSHClient client = healthyClient();
+      client.disconnect();
+      expectLastCall();
+      replay(client);
+      SSHClientConnection connection = connection("node1", client);
+
+      SSHClientPool pool = new SSHClientPool();
+      pool.idleTimeout = 0;
+      pool.lease(connection);
+      pool.evictIdle();
+      assertEquals(pool.size(), 1);
+
+      pool.release(connection, client);
+      pool.evictIdle();
+      assertEquals(pool.size(), 0);
+
+      verify(connection, client);
+   }
+
+   public void testClientsAreKeyedBySocketAndLogin() throws Exception {
+      SSHClient client1 = healthyClient();
+      SSHClient client2 = healthyClient();
+      replay(client1, client2);
+      SSHClientConnection connection1 = connection("node1", client1);
+      SSHClientConnection connection2 = connection("node2", client2);
+
+      SSHClientPool pool = new SSHClientPool();
+      assertSame(pool.lease(connection1), client1);
+      assertSame(pool.lease(connection2), client2);
+
+      assertEquals(pool.size(), 2);
+      verify(connection1, connection2);
+   }
+
+   private static SSHClient healthyClient() {
+      SSHClient client = createMock(SSHClient.class);
+      expect(client.isConnected()).andReturn(true).anyTimes();
+      expect(client.isAuthenticated()).andReturn(true).anyTimes();
+      return client;
+   }
+
+   private static SSHClientConnection connection(String key, SSHClient client) throws Exception {
+      SSHClientConnection connection = createMock(SSHClientConnection.class);
+      expect(connection.poolKey()).andReturn(key).anyTimes();
+      expect(connection.open()).andReturn(client);
+      replay(connection);
+      return connection;
+   }
+}
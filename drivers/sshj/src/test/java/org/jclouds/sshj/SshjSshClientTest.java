@@ -119,6 +119,13 @@ public class SshjSshClientTest {
       assert ssh1.shouldRetry(new UserAuthException("problem", null));
    }
 
+   public void testOnlyPoolWhenSetViaProperties() {
+      assert createClient().sshClientConnection.getPool() == null;
+      Properties props = new Properties();
+      props.setProperty("jclouds.ssh.pool", "true");
+      assert createClient(props).sshClientConnection.getPool() != null;
+   }
+
    public void testExceptionMessagesRetry() {
       assert !ssh.shouldRetry(new SSHException(""));
       assert !ssh.shouldRetry(new NullPointerException((String) null));
@@ -23,6 +23,7 @@ import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.toArray;
 import static com.google.common.collect.Iterables.transform;
 
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Named;
@@ -61,21 +62,23 @@ public class AWSEC2ListNodesStrategy extends EC2ListNodesStrategy {
    }
 
    @Override
-   protected Iterable<? extends RunningInstance> pollRunningInstances() {
-      Iterable<? extends AWSRunningInstance> spots = filter(transform(concat(transform(regions.get(),
-                                                                                       allSpotInstancesInRegion())),
+   protected Iterable<? extends RunningInstance> pollRunningInstances(Map<String, Throwable> failedRegions) {
+      Iterable<? extends AWSRunningInstance> spots = filter(transform(concatAcrossRegions(regions.get(),
+                                                                  allSpotInstancesInRegion(), failedRegions),
                                                                       spotConverter), notNull());
 
-      return concat(super.pollRunningInstances(), spots);
+      return concat(super.pollRunningInstances(failedRegions), spots);
    }
 
    @Override
-   protected Iterable<? extends RunningInstance> pollRunningInstancesByRegionsAndIds(final Multimap<String, String> idsByRegions) {
-      Iterable<? extends AWSRunningInstance> spots = filter(transform(concat(transform(idsByRegions.keySet(),
-                                                                                       spotInstancesByIdInRegion(idsByRegions))),
-
+   protected Iterable<? extends RunningInstance> pollRunningInstancesByRegionsAndIds(
+         final Multimap<String, String> idsByRegions, Map<String, Throwable> failedRegions) {
+      Iterable<? extends AWSRunningInstance> spots = filter(transform(concatAcrossRegions(idsByRegions.keySet(),
+                                                                  spotInstancesByIdInRegion(idsByRegions),
+                                                                  failedRegions),
                                                                       spotConverter), notNull());
-      Iterable<? extends RunningInstance> superInsts = super.pollRunningInstancesByRegionsAndIds(idsByRegions);
+      Iterable<? extends RunningInstance> superInsts = super.pollRunningInstancesByRegionsAndIds(idsByRegions,
+            failedRegions);
       return concat(superInsts, spots);
    }
 
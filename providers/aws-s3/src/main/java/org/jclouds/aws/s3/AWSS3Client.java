@@ -19,25 +19,26 @@ package org.jclouds.aws.s3;
 import static org.jclouds.Fallbacks.VoidOnNotFoundOr404;
 import static org.jclouds.blobstore.attr.BlobScopes.CONTAINER;
 
+import java.util.List;
 import java.util.Map;
 
 import javax.inject.Named;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
 
-import org.jclouds.aws.s3.binders.BindIterableAsPayloadToDeleteRequest;
 import org.jclouds.aws.s3.binders.BindObjectMetadataToRequest;
 import org.jclouds.aws.s3.binders.BindPartIdsAndETagsToRequest;
-import org.jclouds.aws.s3.domain.DeleteResult;
 import org.jclouds.aws.s3.functions.ETagFromHttpResponseViaRegex;
 import org.jclouds.aws.s3.functions.ObjectMetadataKey;
 import org.jclouds.aws.s3.functions.UploadIdFromHttpResponseViaRegex;
-import org.jclouds.aws.s3.xml.DeleteResultHandler;
+import org.jclouds.aws.s3.xml.ListPartsHandler;
 import org.jclouds.blobstore.attr.BlobScope;
+import org.jclouds.blobstore.domain.MultipartPart;
 import org.jclouds.http.functions.ParseETagHeader;
 import org.jclouds.io.Payload;
 import org.jclouds.rest.annotations.BinderParam;
@@ -198,30 +199,27 @@ public interface AWSS3Client extends S3Client {
          @BinderParam(BindPartIdsAndETagsToRequest.class) Map<Integer, String> parts);
 
    /**
-    * The Multi-Object Delete operation enables you to delete multiple objects from a bucket using a 
-    * single HTTP request. If you know the object keys that you want to delete, then this operation 
-    * provides a suitable alternative to sending individual delete requests (see DELETE Object), 
-    * reducing per-request overhead.
-    * 
-    * The Multi-Object Delete request contains a set of up to 1000 keys that you want to delete.
-    * 
-    * If a key does not exist is considered to be deleted. 
-    * 
-    * The Multi-Object Delete operation supports two modes for the response; verbose and quiet.
-    * By default, the operation uses verbose mode in which the response includes the result of
-    * deletion of each key in your request.
-    * 
+    * This operation lists the parts that have been uploaded for a specific multipart upload.
+    * <p/>
+    * At most 1000 parts are returned per call; pass the highest part number of the previous page
+    * as {@code partNumberMarker} to fetch the next one, starting with 0.
+    *
     * @param bucketName
-    *           namespace of the objects you are deleting
-    * @param keys
-    *           set of unique keys identifying objects
+    *           namespace of the object being uploaded
+    * @param key
+    *           unique key in the s3Bucket identifying the object
+    * @param uploadId
+    *           id of the multipart upload in progress.
+    * @param partNumberMarker
+    *           only parts with a higher part number are listed
+    * @return parts in ascending part number order, each with the ETag returned by {@link #uploadPart}
     */
-   @Named("DeleteObject")
-   @POST
-   @Path("/")
-   @QueryParams(keys = "delete")
-   @XMLResponseParser(DeleteResultHandler.class)
-   DeleteResult deleteObjects(@Bucket @EndpointParam(parser = AssignCorrectHostnameForBucket.class) @BinderParam(
-         BindAsHostPrefixIfConfigured.class) @ParamValidators(BucketNameValidator.class) String bucketName,
-         @BinderParam(BindIterableAsPayloadToDeleteRequest.class) Iterable<String> keys);
+   @Named("ListParts")
+   @GET
+   @Path("/{key}")
+   @XMLResponseParser(ListPartsHandler.class)
+   List<MultipartPart> listMultipartParts(@Bucket @EndpointParam(parser = AssignCorrectHostnameForBucket.class)
+         @BinderParam(BindAsHostPrefixIfConfigured.class) @ParamValidators(BucketNameValidator.class) String bucketName,
+         @PathParam("key") String key, @QueryParam("uploadId") String uploadId,
+         @QueryParam("part-number-marker") int partNumberMarker);
 }
@@ -16,44 +16,10 @@
  */
 package org.jclouds.aws.s3.binders;
 
-import static com.google.common.base.Charsets.UTF_8;
-import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.hash.Hashing.md5;
-
-import javax.ws.rs.core.MediaType;
-
-import org.jclouds.http.HttpRequest;
-import org.jclouds.io.Payload;
-import org.jclouds.io.Payloads;
-import org.jclouds.rest.Binder;
-
-public class BindIterableAsPayloadToDeleteRequest implements Binder {
-
-   @SuppressWarnings("unchecked")
-   @Override
-   public <R extends HttpRequest> R bindToRequest(R request, Object input) {
-      checkArgument(checkNotNull(input, "input is null") instanceof Iterable,
-         "this binder is only valid for an Iterable");
-      checkNotNull(request, "request is null");
-
-      Iterable<String> keys = (Iterable<String>) input;
-      StringBuilder builder = new StringBuilder();
-      for (String key : keys) {
-         builder.append(String.format("<Object><Key>%s</Key></Object>", key));
-      }
-
-      final String objects = builder.toString();
-      checkArgument(!objects.isEmpty(), "The list of keys should not be empty.");
-
-      final String content = String.format("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
-         "<Delete>%s</Delete>", objects);
-
-      Payload payload = Payloads.newStringPayload(content);
-      payload.getContentMetadata().setContentType(MediaType.TEXT_XML);
-      byte[] md5 = md5().hashString(content, UTF_8).asBytes();
-      payload.getContentMetadata().setContentMD5(md5);
-      request.setPayload(payload);
-      return request;
-   }
+/**
+ * @deprecated moved to the generic s3 api; use
+ *             {@link org.jclouds.s3.binders.BindIterableAsPayloadToDeleteRequest}. Will be removed in 2.1.
+ */
+@Deprecated
+public class BindIterableAsPayloadToDeleteRequest extends org.jclouds.s3.binders.BindIterableAsPayloadToDeleteRequest {
 }
@@ -17,28 +17,38 @@
 package org.jclouds.aws.s3.blobstore;
 
 import static org.jclouds.s3.domain.ObjectMetadata.StorageClass.REDUCED_REDUNDANCY;
+import static org.jclouds.s3.reference.S3Constants.PROPERTY_S3_MULTI_OBJECT_DELETE;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Provider;
 
 import org.jclouds.aws.domain.Region;
 import org.jclouds.aws.s3.AWSS3Client;
 import org.jclouds.aws.s3.blobstore.options.AWSS3PutObjectOptions;
 import org.jclouds.aws.s3.blobstore.options.AWSS3PutOptions;
-import org.jclouds.aws.s3.blobstore.strategy.MultipartUploadStrategy;
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.functions.BlobToHttpGetOptions;
 import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.strategy.DownloadBlobStrategy;
+import org.jclouds.blobstore.strategy.PutMultipartBlobStrategy;
 import org.jclouds.blobstore.strategy.internal.FetchBlobMetadata;
 import org.jclouds.blobstore.util.BlobUtils;
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
+import org.jclouds.io.ContentMetadata;
+import org.jclouds.io.Payload;
 import org.jclouds.s3.blobstore.S3BlobStore;
 import org.jclouds.s3.blobstore.functions.BlobToObject;
 import org.jclouds.s3.blobstore.functions.BucketToResourceList;
@@ -49,18 +59,20 @@ import org.jclouds.s3.domain.AccessControlList;
 import org.jclouds.s3.domain.BucketMetadata;
 import org.jclouds.s3.domain.CannedAccessPolicy;
 import org.jclouds.s3.domain.ObjectMetadata;
+import org.jclouds.s3.domain.ObjectMetadataBuilder;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
 
 /**
  * Provide AWS S3 specific extensions.
  */
 public class AWSS3BlobStore extends S3BlobStore {
 
-   private final Provider<MultipartUploadStrategy> multipartUploadStrategy;
    private final LoadingCache<String, AccessControlList> bucketAcls;
    private final BlobToObject blob2Object;
 
@@ -71,12 +83,13 @@ public class AWSS3BlobStore extends S3BlobStore {
             ContainerToBucketListOptions container2BucketListOptions, BucketToResourceList bucket2ResourceList,
             ObjectToBlob object2Blob, BlobToHttpGetOptions blob2ObjectGetOptions, BlobToObject blob2Object,
             ObjectToBlobMetadata object2BlobMd, Provider<FetchBlobMetadata> fetchBlobMetadataProvider,
-            LoadingCache<String, AccessControlList> bucketAcls,
-            Provider<MultipartUploadStrategy> multipartUploadStrategy) {
+            LoadingCache<String, AccessControlList> bucketAcls, PutMultipartBlobStrategy putMultipartBlobStrategy,
+            DownloadBlobStrategy downloadBlobStrategy,
+            @Named(PROPERTY_S3_MULTI_OBJECT_DELETE) boolean multiObjectDelete) {
       super(context, blobUtils, defaultLocation, locations, sync, convertBucketsToStorageMetadata,
                container2BucketListOptions, bucket2ResourceList, object2Blob, blob2ObjectGetOptions, blob2Object,
-               object2BlobMd, fetchBlobMetadataProvider, bucketAcls);
-      this.multipartUploadStrategy = multipartUploadStrategy;
+               object2BlobMd, fetchBlobMetadataProvider, bucketAcls, putMultipartBlobStrategy, downloadBlobStrategy,
+               multiObjectDelete);
       this.bucketAcls = bucketAcls;
       this.blob2Object = blob2Object;
    }
@@ -84,8 +97,7 @@ public class AWSS3BlobStore extends S3BlobStore {
    @Override
    public String putBlob(String container, Blob blob, PutOptions options) {
       if (options.isMultipart()) {
-         // need to use a provider if the strategy object is stateful
-         return multipartUploadStrategy.get().execute(container, blob);
+         return putMultipartBlob(container, blob);
 
       } else if ((options instanceof AWSS3PutOptions) &&
          (((AWSS3PutOptions) options).getStorageClass() == REDUCED_REDUNDANCY)) {
@@ -96,6 +108,78 @@ public class AWSS3BlobStore extends S3BlobStore {
       }
    }
 
+   @Override
+   public boolean supportsMultipartUpload() {
+      return true;
+   }
+
+   @Override
+   public MultipartUpload initiateMultipartUpload(String container, BlobMetadata blobMetadata) {
+      ContentMetadata metadata = blobMetadata.getContentMetadata();
+      ObjectMetadataBuilder builder = ObjectMetadataBuilder.create().key(blobMetadata.getName())
+            .contentType(metadata.getContentType())
+            .contentDisposition(metadata.getContentDisposition())
+            .contentEncoding(metadata.getContentEncoding())
+            .contentLanguage(metadata.getContentLanguage())
+            .userMetadata(blobMetadata.getUserMetadata());
+      String id = sync().initiateMultipartUpload(container, builder.build());
+      return MultipartUpload.create(container, blobMetadata.getName(), id, blobMetadata);
+   }
+
+   @Override
+   public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
+      String eTag = sync().uploadPart(mpu.getContainerName(), mpu.getBlobName(), partNumber, mpu.getId(), payload);
+      return MultipartPart.create(partNumber, payload.getContentMetadata().getContentLength(), eTag);
+   }
+
+   @Override
+   public List<MultipartPart> listMultipartUpload(MultipartUpload mpu) {
+      ImmutableList.Builder<MultipartPart> parts = ImmutableList.builder();
+      int marker = 0;
+      while (true) {
+         List<MultipartPart> page = sync().listMultipartParts(mpu.getContainerName(), mpu.getBlobName(), mpu.getId(),
+               marker);
+         if (page.isEmpty()) {
+            return parts.build();
+         }
+         parts.addAll(page);
+         marker = page.get(page.size() - 1).getPartNumber();
+      }
+   }
+
+   @Override
+   public String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts) {
+      Map<Integer, String> eTags = Maps.newTreeMap();
+      for (MultipartPart part : parts) {
+         eTags.put(part.getPartNumber(), part.getPartETag());
+      }
+      return sync().completeMultipartUpload(mpu.getContainerName(), mpu.getBlobName(), mpu.getId(), eTags);
+   }
+
+   @Override
+   public void abortMultipartUpload(MultipartUpload mpu) {
+      sync().abortMultipartUpload(mpu.getContainerName(), mpu.getBlobName(), mpu.getId());
+   }
+
+   @Override
+   public long getMinimumMultipartPartSize() {
+      return 5L * 1024 * 1024;
+   }
+
+   @Override
+   public long getMaximumMultipartPartSize() {
+      return 5L * 1024 * 1024 * 1024;
+   }
+
+   @Override
+   public int getMaximumNumberOfParts() {
+      return 10 * 1000;
+   }
+
+   private AWSS3Client sync() {
+      return getContext().unwrapApi(AWSS3Client.class);
+   }
+
    private String putBlobWithReducedRedundancy(String container, Blob blob) {
       AWSS3PutObjectOptions options = new AWSS3PutObjectOptions();
       try {
@@ -48,7 +48,12 @@ import com.google.inject.Inject;
  * (for example 100 partCount), then it grows the partition size instead of number
  * of partitions. When we reached the maximum part size, then again it starts to
  * grow the number of partitions.
+ *
+ * @deprecated use {@link org.jclouds.blobstore.BlobStore#putBlob} with
+ *             {@link org.jclouds.blobstore.options.PutOptions#multipart()}, which goes through
+ *             {@link org.jclouds.blobstore.strategy.PutMultipartBlobStrategy}. Will be removed in 2.1.
  */
+@Deprecated
 public class SequentialMultipartUploadStrategy implements MultipartUploadStrategy {
    @Resource
    @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
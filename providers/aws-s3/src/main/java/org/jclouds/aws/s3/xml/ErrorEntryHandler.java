@@ -16,43 +16,9 @@
  */
 package org.jclouds.aws.s3.xml;
 
-import static org.jclouds.util.SaxUtils.equalsOrSuffix;
-
-import java.util.Map;
-
-import org.jclouds.aws.s3.domain.DeleteResult;
-import org.jclouds.http.functions.ParseSax;
-import org.xml.sax.SAXException;
-
-import com.google.common.collect.Maps;
-
-public class ErrorEntryHandler extends ParseSax.HandlerForGeneratedRequestWithResult<Map.Entry<String, DeleteResult.Error>> {
-
-   private StringBuilder accumulator = new StringBuilder();
-
-   private String key;
-   private String code;
-   private String message;
-
-   @Override
-   public void characters(char[] chars, int start, int length) throws SAXException {
-      accumulator.append(chars, start, length);
-   }
-
-   @Override
-   public void endElement(String uri, String name, String qName) throws SAXException {
-      if (equalsOrSuffix(qName, "Key")) {
-         key = accumulator.toString().trim();
-      } else if (equalsOrSuffix(qName, "Code")) {
-         code = accumulator.toString().trim();
-      } else if (equalsOrSuffix(qName, "Message")) {
-         message = accumulator.toString().trim();
-      }
-      accumulator.setLength(0);
-   }
-
-   @Override
-   public Map.Entry<String, DeleteResult.Error> getResult() {
-      return Maps.immutableEntry(key, new DeleteResult.Error(code, message));
-   }
+/**
+ * @deprecated moved to the generic s3 api; use {@link org.jclouds.s3.xml.ErrorEntryHandler}. Will be removed in 2.1.
+ */
+@Deprecated
+public class ErrorEntryHandler extends org.jclouds.s3.xml.ErrorEntryHandler {
 }
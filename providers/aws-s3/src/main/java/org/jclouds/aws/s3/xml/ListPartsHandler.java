@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.aws.s3.xml;
+
+import static org.jclouds.util.SaxUtils.currentOrNull;
+import static org.jclouds.util.SaxUtils.equalsOrSuffix;
+
+import java.util.List;
+
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.http.functions.ParseSax;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Parses the parts of a ListPartsResult document, keeping each ETag exactly as
+ * {@link org.jclouds.aws.s3.AWSS3Client#uploadPart} returned it.
+ */
+public class ListPartsHandler extends ParseSax.HandlerForGeneratedRequestWithResult<List<MultipartPart>> {
+
+   private final ImmutableList.Builder<MultipartPart> parts = ImmutableList.builder();
+   private final StringBuilder currentText = new StringBuilder();
+
+   private int partNumber;
+   private long size;
+   private String eTag;
+
+   @Override
+   public void endElement(String uri, String name, String qName) {
+      if (equalsOrSuffix(qName, "PartNumber")) {
+         partNumber = Integer.parseInt(currentOrNull(currentText));
+      } else if (equalsOrSuffix(qName, "Size")) {
+         size = Long.parseLong(currentOrNull(currentText));
+      } else if (equalsOrSuffix(qName, "ETag")) {
+         eTag = currentOrNull(currentText);
+      } else if (equalsOrSuffix(qName, "Part")) {
+         parts.add(MultipartPart.create(partNumber, size, eTag));
+      }
+      currentText.setLength(0);
+   }
+
+   @Override
+   public void characters(char[] ch, int start, int length) {
+      currentText.append(ch, start, length);
+   }
+
+   @Override
+   public List<MultipartPart> getResult() {
+      return parts.build();
+   }
+}
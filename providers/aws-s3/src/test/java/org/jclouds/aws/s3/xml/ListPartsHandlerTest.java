@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.aws.s3.xml;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.InputStream;
+import java.util.List;
+
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.http.functions.BaseHandlerTest;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+// NOTE:without testName, this will not call @Before* and fail w/NPE during surefire
+@Test(groups = "unit", testName = "ListPartsHandlerTest")
+public class ListPartsHandlerTest extends BaseHandlerTest {
+
+   public void testParts() {
+      InputStream is = getClass().getResourceAsStream("/list-parts.xml");
+      List<MultipartPart> parts = factory.create(injector.getInstance(ListPartsHandler.class)).parse(is);
+      assertEquals(parts, ImmutableList.of(
+            MultipartPart.create(2, 10485760, "\"7778aef83f66abc1fa1e8477f296d394\""),
+            MultipartPart.create(3, 10485760, "\"aaaa18db4cc2f85cedef654fccc4a4x8\"")));
+   }
+}
@@ -366,6 +366,18 @@ public interface AzureBlobClient extends Closeable {
          @PathParam("container") @ParamValidators(ContainerNameValidator.class) String container,
          @PathParam("name") String name);
 
+   /**
+    * Lists the blocks uploaded with {@link #putBlock} that are not yet part of the blob.
+    */
+   @Named("GetBlockList")
+   @GET
+   @Path("{container}/{name}")
+   @XMLResponseParser(BlobBlocksResultsHandler.class)
+   @QueryParams(keys = { "comp", "blocklisttype" }, values = { "blocklist", "uncommitted" })
+   ListBlobBlocksResponse getUncommittedBlockList(
+         @PathParam("container") @ParamValidators(ContainerNameValidator.class) String container,
+         @PathParam("name") String name);
+
 
    /**
     * The Get Blob Properties operation returns all user-defined metadata, standard HTTP properties,
@@ -17,13 +17,16 @@
 package org.jclouds.azureblob.blobstore;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.io.BaseEncoding.base64;
 import static org.jclouds.azure.storage.options.ListOptions.Builder.includeMetadata;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 import javax.inject.Inject;
-import javax.inject.Provider;
 import javax.inject.Singleton;
 
 import org.jclouds.azure.storage.domain.BoundedSet;
@@ -34,7 +37,7 @@ import org.jclouds.azureblob.blobstore.functions.BlobToAzureBlob;
 import org.jclouds.azureblob.blobstore.functions.ContainerToResourceMetadata;
 import org.jclouds.azureblob.blobstore.functions.ListBlobsResponseToResourceList;
 import org.jclouds.azureblob.blobstore.functions.ListOptionsToListBlobsOptions;
-import org.jclouds.azureblob.blobstore.strategy.MultipartUploadStrategy;
+import org.jclouds.azureblob.domain.BlobBlockProperties;
 import org.jclouds.azureblob.domain.ContainerProperties;
 import org.jclouds.azureblob.domain.ListBlobBlocksResponse;
 import org.jclouds.azureblob.domain.PublicAccess;
@@ -42,6 +45,8 @@ import org.jclouds.azureblob.options.ListBlobsOptions;
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.domain.internal.PageSetImpl;
@@ -50,15 +55,19 @@ import org.jclouds.blobstore.internal.BaseBlobStore;
 import org.jclouds.blobstore.options.CreateContainerOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.blobstore.strategy.DownloadBlobStrategy;
+import org.jclouds.blobstore.strategy.PutMultipartBlobStrategy;
 import org.jclouds.blobstore.util.BlobUtils;
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
 import org.jclouds.http.options.GetOptions;
+import org.jclouds.io.Payload;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
-import org.jclouds.io.Payload;
+import com.google.common.collect.Maps;
 
 @Singleton
 public class AzureBlobStore extends BaseBlobStore {
@@ -70,7 +79,6 @@ public class AzureBlobStore extends BaseBlobStore {
    private final BlobToAzureBlob blob2AzureBlob;
    private final BlobPropertiesToBlobMetadata blob2BlobMd;
    private final BlobToHttpGetOptions blob2ObjectGetOptions;
-   private final Provider<MultipartUploadStrategy> multipartUploadStrategy;
 
 
    @Inject
@@ -80,8 +88,9 @@ public class AzureBlobStore extends BaseBlobStore {
             ListOptionsToListBlobsOptions blobStore2AzureContainerListOptions,
             ListBlobsResponseToResourceList azure2BlobStoreResourceList, AzureBlobToBlob azureBlob2Blob,
             BlobToAzureBlob blob2AzureBlob, BlobPropertiesToBlobMetadata blob2BlobMd,
-            BlobToHttpGetOptions blob2ObjectGetOptions, Provider<MultipartUploadStrategy> multipartUploadStrategy) {
-      super(context, blobUtils, defaultLocation, locations);
+            BlobToHttpGetOptions blob2ObjectGetOptions, PutMultipartBlobStrategy putMultipartBlobStrategy,
+            DownloadBlobStrategy downloadBlobStrategy) {
+      super(context, blobUtils, defaultLocation, locations, putMultipartBlobStrategy, downloadBlobStrategy);
       this.sync = checkNotNull(sync, "sync");
       this.container2ResourceMd = checkNotNull(container2ResourceMd, "container2ResourceMd");
       this.blobStore2AzureContainerListOptions = checkNotNull(blobStore2AzureContainerListOptions,
@@ -91,7 +100,6 @@ public class AzureBlobStore extends BaseBlobStore {
       this.blob2AzureBlob = checkNotNull(blob2AzureBlob, "blob2AzureBlob");
       this.blob2BlobMd = checkNotNull(blob2BlobMd, "blob2BlobMd");
       this.blob2ObjectGetOptions = checkNotNull(blob2ObjectGetOptions, "blob2ObjectGetOptions");
-      this.multipartUploadStrategy = checkNotNull(multipartUploadStrategy, "multipartUploadStrategy");
    }
 
    /**
@@ -208,7 +216,7 @@ public class AzureBlobStore extends BaseBlobStore {
    @Override
    public String putBlob(String container, Blob blob, PutOptions options) {
       if (options.isMultipart()) {
-         return multipartUploadStrategy.get().execute(container, blob);
+         return putMultipartBlob(container, blob);
       }
       return putBlob(container, blob);
    }
@@ -282,4 +290,76 @@ public class AzureBlobStore extends BaseBlobStore {
          createContainerOptions.withPublicAccess(PublicAccess.CONTAINER);
       return sync.createContainer(container, createContainerOptions);
    }
+
+   @Override
+   public boolean supportsMultipartUpload() {
+      return true;
+   }
+
+   /**
+    * Parts are uploaded as uncommitted blocks of the blob and committed with a block list on
+    * completion. Block ids embed the upload id so that concurrent uploads to the same blob do not
+    * see each other's parts.
+    */
+   @Override
+   public MultipartUpload initiateMultipartUpload(String container, BlobMetadata blobMetadata) {
+      return MultipartUpload.create(container, blobMetadata.getName(), UUID.randomUUID().toString(), blobMetadata);
+   }
+
+   @Override
+   public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
+      sync.putBlock(mpu.getContainerName(), mpu.getBlobName(), blockId(mpu, partNumber), payload);
+      return MultipartPart.create(partNumber, payload.getContentMetadata().getContentLength(), null);
+   }
+
+   @Override
+   public List<MultipartPart> listMultipartUpload(MultipartUpload mpu) {
+      String prefix = mpu.getId() + "-";
+      Map<Integer, MultipartPart> parts = Maps.newTreeMap();
+      for (BlobBlockProperties block : sync.getUncommittedBlockList(mpu.getContainerName(), mpu.getBlobName())
+            .getBlocks()) {
+         String name = new String(base64().decode(block.getBlockName()), UTF_8);
+         if (name.startsWith(prefix)) {
+            int partNumber = Integer.parseInt(name.substring(prefix.length()));
+            parts.put(partNumber, MultipartPart.create(partNumber, block.getContentLength(), null));
+         }
+      }
+      return ImmutableList.copyOf(parts.values());
+   }
+
+   @Override
+   public String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts) {
+      ImmutableList.Builder<String> blockIds = ImmutableList.builder();
+      for (MultipartPart part : parts) {
+         blockIds.add(blockId(mpu, part.getPartNumber()));
+      }
+      return sync.putBlockList(mpu.getContainerName(), mpu.getBlobName(), blockIds.build());
+   }
+
+   /**
+    * Azure has no call to discard uncommitted blocks; they are garbage collected after a week.
+    */
+   @Override
+   public void abortMultipartUpload(MultipartUpload mpu) {
+   }
+
+   @Override
+   public long getMinimumMultipartPartSize() {
+      return 1;
+   }
+
+   @Override
+   public long getMaximumMultipartPartSize() {
+      return 4L * 1024 * 1024;
+   }
+
+   @Override
+   public int getMaximumNumberOfParts() {
+      return 50 * 1000;
+   }
+
+   /** All block ids of a blob must have the same length, hence the fixed width part number. */
+   private static String blockId(MultipartUpload mpu, int partNumber) {
+      return base64().encode(String.format("%s-%05d", mpu.getId(), partNumber).getBytes(UTF_8));
+   }
 }
@@ -39,7 +39,12 @@ import static com.google.common.base.Preconditions.checkState;
 
 /**
  * Decomposes a blob into blocks for upload and assembly through PutBlock and PutBlockList
+ *
+ * @deprecated use {@link org.jclouds.blobstore.BlobStore#putBlob} with
+ *             {@link org.jclouds.blobstore.options.PutOptions#multipart()}, which goes through
+ *             {@link org.jclouds.blobstore.strategy.PutMultipartBlobStrategy}. Will be removed in 2.1.
  */
+@Deprecated
 public class AzureBlobBlockUploadStrategy implements MultipartUploadStrategy {
    @Resource
    @Named(BlobStoreConstants.BLOBSTORE_LOGGER)
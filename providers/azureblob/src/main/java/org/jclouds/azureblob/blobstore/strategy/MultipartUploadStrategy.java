@@ -21,7 +21,12 @@ import org.jclouds.blobstore.domain.Blob;
 
 /**
  * @see <a href="http://msdn.microsoft.com/en-us/library/windowsazure/dd135726.aspx">Azure Put Block Documentation</a>
+ *
+ * @deprecated use {@link org.jclouds.blobstore.BlobStore#putBlob} with
+ *             {@link org.jclouds.blobstore.options.PutOptions#multipart()}, which goes through
+ *             {@link org.jclouds.blobstore.strategy.PutMultipartBlobStrategy}. Will be removed in 2.1.
  */
+@Deprecated
 @ImplementedBy(AzureBlobBlockUploadStrategy.class)
 public interface MultipartUploadStrategy {
    /* Maximum number of blocks per upload */
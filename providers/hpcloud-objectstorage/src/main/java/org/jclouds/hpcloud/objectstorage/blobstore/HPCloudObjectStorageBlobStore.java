@@ -28,6 +28,8 @@ import javax.inject.Singleton;
 import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.functions.BlobToHttpGetOptions;
 import org.jclouds.blobstore.options.CreateContainerOptions;
+import org.jclouds.blobstore.strategy.DownloadBlobStrategy;
+import org.jclouds.blobstore.strategy.PutMultipartBlobStrategy;
 import org.jclouds.blobstore.strategy.internal.FetchBlobMetadata;
 import org.jclouds.blobstore.util.BlobUtils;
 import org.jclouds.collect.Memoized;
@@ -41,7 +43,6 @@ import org.jclouds.openstack.swift.blobstore.functions.ContainerToResourceList;
 import org.jclouds.openstack.swift.blobstore.functions.ContainerToResourceMetadata;
 import org.jclouds.openstack.swift.blobstore.functions.ObjectToBlob;
 import org.jclouds.openstack.swift.blobstore.functions.ObjectToBlobMetadata;
-import org.jclouds.openstack.swift.blobstore.strategy.internal.MultipartUploadStrategy;
 
 import com.google.common.base.Supplier;
 import com.google.common.util.concurrent.ListeningExecutorService;
@@ -60,10 +61,11 @@ public class HPCloudObjectStorageBlobStore extends SwiftBlobStore {
          ContainerToResourceList container2ResourceList, ObjectToBlob object2Blob, BlobToObject blob2Object,
          ObjectToBlobMetadata object2BlobMd, BlobToHttpGetOptions blob2ObjectGetOptions,
          Provider<FetchBlobMetadata> fetchBlobMetadataProvider, EnableCDNAndCache enableCDNAndCache,
-         Provider<MultipartUploadStrategy> multipartUploadStrategy) {
+         PutMultipartBlobStrategy putMultipartBlobStrategy, DownloadBlobStrategy downloadBlobStrategy) {
       super(userExecutor, context, blobUtils, defaultLocation, locations, sync, container2ResourceMd,
             container2ContainerListOptions, container2ResourceList, object2Blob, blob2Object, object2BlobMd,
-            blob2ObjectGetOptions, fetchBlobMetadataProvider, multipartUploadStrategy);
+            blob2ObjectGetOptions, fetchBlobMetadataProvider, putMultipartBlobStrategy,
+            downloadBlobStrategy);
       this.enableCDNAndCache = enableCDNAndCache;
 
    }
@@ -61,6 +61,7 @@ public class InitScript extends ForwardingObject implements Statement, AcceptsSt
       protected Map<String, String> exports = ImmutableMap.of();
       protected StatementList init = new StatementList();
       protected StatementList run = new StatementList();
+      protected boolean pollable;
 
       /**
        * @see InitScript#getInstanceName()
@@ -159,8 +160,16 @@ public class InitScript extends ForwardingObject implements Statement, AcceptsSt
          return this;
       }
 
+      /**
+       * @see InitScript#isPollable()
+       */
+      public Builder pollable(boolean pollable) {
+         this.pollable = pollable;
+         return this;
+      }
+
       public InitScript build() {
-         return new InitScript(instanceName, instanceHome, logDir, exports, init, run);
+         return new InitScript(instanceName, instanceHome, logDir, exports, init, run, pollable);
       }
 
    }
@@ -171,6 +180,7 @@ public class InitScript extends ForwardingObject implements Statement, AcceptsSt
    protected final Map<String, String> exports;
    protected final StatementList init;
    protected final StatementList run;
+   protected final boolean pollable;
    protected final ScriptBuilder delegate;
 
    /**
@@ -178,6 +188,15 @@ public class InitScript extends ForwardingObject implements Statement, AcceptsSt
     */
    protected InitScript(String instanceName, String instanceHome, String logDir, Map<String, String> exports,
          StatementList init, StatementList run) {
+      this(instanceName, instanceHome, logDir, exports, init, run, false);
+   }
+
+   /**
+    * @param exports keys are the variables to export in UPPER_UNDERSCORE case format
+    * @param pollable whether to add the {@code poll} action
+    */
+   protected InitScript(String instanceName, String instanceHome, String logDir, Map<String, String> exports,
+         StatementList init, StatementList run, boolean pollable) {
       this.instanceName = checkNotNull(instanceName, "INSTANCE_NAME");
       this.instanceHome = checkNotNull(instanceHome, "INSTANCE_HOME");
       this.logDir = checkNotNull(logDir, "LOG_DIR");
@@ -185,7 +204,8 @@ public class InitScript extends ForwardingObject implements Statement, AcceptsSt
       this.init = checkNotNull(init, "init");
       this.run = checkNotNull(run, "run");
       checkArgument(!run.delegate().isEmpty(), "you must specify at least one statement to run");
-      this.delegate = makeInitScriptStatement(instanceName, instanceHome, logDir, exports, init, run);
+      this.pollable = pollable;
+      this.delegate = makeInitScriptStatement(instanceName, instanceHome, logDir, exports, init, run, pollable);
    }
 
    /**
@@ -194,6 +214,16 @@ public class InitScript extends ForwardingObject implements Statement, AcceptsSt
     */
    public static ScriptBuilder makeInitScriptStatement(String instanceName, String instanceHome, String logDir,
          Map<String, String> exports, StatementList init, StatementList run) {
+      return makeInitScriptStatement(instanceName, instanceHome, logDir, exports, init, run, false);
+   }
+
+   /**
+    *
+    * @param exports keys are the variables to export in UPPER_UNDERSCORE case format
+    * @param pollable whether to add the {@code poll} action
+    */
+   public static ScriptBuilder makeInitScriptStatement(String instanceName, String instanceHome, String logDir,
+         Map<String, String> exports, StatementList init, StatementList run, boolean pollable) {
       Map<String, String> defaultExports = ImmutableMap.of("INSTANCE_NAME", instanceName, "INSTANCE_HOME", instanceHome,
             "LOG_DIR", logDir);
       String exitStatusFile = format("%s/rc", logDir);
@@ -240,6 +270,10 @@ public class InitScript extends ForwardingObject implements Statement, AcceptsSt
                               .put("run",
                                     newStatementList(call("default"),
                                           interpret("{varl}INSTANCE_HOME{varr}{fs}{varl}INSTANCE_NAME{varr}.{sh}{lf}")))
+                              // poll STDOUT_OFFSET STDERR_OFFSET: status, exit code and new output in one call
+                              .putAll(pollable ? ImmutableMap.<String, Statement> of("poll",
+                                    newStatementList(call("default"), call("pollInitScript", "$2", "$3")))
+                                    : ImmutableMap.<String, Statement> of())
                               .build()));
    }
 
@@ -293,6 +327,16 @@ public class InitScript extends ForwardingObject implements Statement, AcceptsSt
       return init;
    }
 
+   /**
+    *
+    * @return true if the script has the {@code poll STDOUT_OFFSET STDERR_OFFSET} action, which prints whether the
+    *         instance is running, its exit status and the sizes of its logs, followed by the base64 encoded stdout
+    *         written past the offset. The stderr written past its offset is printed base64 encoded to stderr.
+    */
+   public boolean isPollable() {
+      return pollable;
+   }
+
    @Override
    public int hashCode() {
       return Objects.hashCode(instanceName);
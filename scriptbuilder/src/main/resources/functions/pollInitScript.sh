@@ -0,0 +1,40 @@
+#
+# Licensed to the Apache Software Foundation (ASF) under one or more
+# contributor license agreements.  See the NOTICE file distributed with
+# this work for additional information regarding copyright ownership.
+# The ASF licenses this file to You under the Apache License, Version 2.0
+# (the "License"); you may not use this file except in compliance with
+# the License.  You may obtain a copy of the License at
+#
+#     http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+function pollInitScript {
+   [ $# -eq 2 ] || {
+      abort "pollInitScript requires parameters STDOUT_OFFSET STDERR_OFFSET"
+      return 1
+   }
+   local STDOUT_OFFSET="$1"; shift
+   local STDERR_OFFSET="$1"; shift
+   local RUNNING=0
+   findPid $INSTANCE_NAME && RUNNING=1
+   # the exit status is written after the last output, so sizes read after it are final
+   local RC=-1
+   [ -f $LOG_DIR/rc ] && RC=`cat $LOG_DIR/rc`
+   local STDOUT_SIZE=0
+   [ -f $LOG_DIR/stdout.log ] && STDOUT_SIZE=`wc -c < $LOG_DIR/stdout.log`
+   local STDERR_SIZE=0
+   [ -f $LOG_DIR/stderr.log ] && STDERR_SIZE=`wc -c < $LOG_DIR/stderr.log`
+   echo $RUNNING ${RC:--1} $STDOUT_SIZE $STDERR_SIZE
+   # new output is base64 encoded, as an offset can split a multi-byte character
+   [ $STDOUT_SIZE -gt $STDOUT_OFFSET ] && \
+      tail -c +$((STDOUT_OFFSET + 1)) $LOG_DIR/stdout.log | head -c $((STDOUT_SIZE - STDOUT_OFFSET)) | base64
+   [ $STDERR_SIZE -gt $STDERR_OFFSET ] && \
+      tail -c +$((STDERR_OFFSET + 1)) $LOG_DIR/stderr.log | head -c $((STDERR_SIZE - STDERR_OFFSET)) | base64 1>&2
+   return 0
+}
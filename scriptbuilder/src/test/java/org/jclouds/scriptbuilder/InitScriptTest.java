@@ -21,6 +21,8 @@ import static org.jclouds.scriptbuilder.domain.Statements.call;
 import static org.jclouds.scriptbuilder.domain.Statements.exec;
 import static org.jclouds.scriptbuilder.domain.Statements.interpret;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
@@ -93,4 +95,16 @@ public class InitScriptTest {
             Resources.toString(Resources.getResource("test_init_script." + ShellToken.SH.to(OsFamily.UNIX)), Charsets.UTF_8));
    }
 
+   @Test
+   public void testPollActionIsOptIn() {
+      assertFalse(testCallInRun.isPollable());
+      assertFalse(testCallInRun.render(OsFamily.UNIX).contains("pollInitScript"));
+
+      InitScript pollable = InitScript.builder().name("testcall").run(exec("find /")).pollable(true).build();
+      assertTrue(pollable.isPollable());
+      String script = pollable.render(OsFamily.UNIX);
+      assertTrue(script.contains("function pollInitScript {"), script);
+      assertTrue(script.contains("poll)\n   default || exit 1\n   pollInitScript $2 $3 || exit 1\n"), script);
+   }
+
 }